@@ -3,11 +3,17 @@ package org.opencourse.configs;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.Duration;
+
 /**
  * Application configuration class for OpenCourse.
  * 
@@ -23,6 +29,18 @@ public class ApplicationConfig {
     @NotNull
     private Activity activity = new Activity();
 
+    @Valid
+    @NotNull
+    private History history = new History();
+
+    @Valid
+    @NotNull
+    private LikeCounter likeCounter = new LikeCounter();
+
+    @Valid
+    @NotNull
+    private Storage storage = new Storage();
+
     // Getter and Setter.
 
     public Activity getActivity() {
@@ -33,53 +51,1246 @@ public class ApplicationConfig {
         this.activity = activity;
     }
 
+    public History getHistory() {
+        return history;
+    }
+
+    public void setHistory(History history) {
+        this.history = history;
+    }
+
+    public LikeCounter getLikeCounter() {
+        return likeCounter;
+    }
+
+    public void setLikeCounter(LikeCounter likeCounter) {
+        this.likeCounter = likeCounter;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(Storage storage) {
+        this.storage = storage;
+    }
+
     @Override
     public String toString() {
         return "ApplicationConfigs{" +
                 "activity=" + activity +
+                ", history=" + history +
+                ", likeCounter=" + likeCounter +
+                ", storage=" + storage +
                 '}';
     }
+
     /**
-     * User activity configurations.
-     * 
+     * File storage configurations.
+     *
      * @author !EEExp3rt
      */
-    public static class Activity {
+    public static class Storage {
+
+        /**
+         * Where resource files are stored.
+         */
+        public enum Backend {
+            // MinIO object storage.
+            MINIO,
+            // Local filesystem.
+            LOCAL
+        }
+
+        @NotNull
+        private Backend backend = Backend.MINIO;
 
         @Valid
         @NotNull
-        private Resource resource = new Resource();
+        private Local local = new Local();
 
         @Valid
         @NotNull
-        private Interaction interaction = new Interaction();
+        private Multipart multipart = new Multipart();
+
+        @Valid
+        @NotNull
+        private Cache cache = new Cache();
+
+        @Valid
+        @NotNull
+        private Download download = new Download();
+
+        @Valid
+        @NotNull
+        private Dedup dedup = new Dedup();
+
+        @Valid
+        @NotNull
+        private Upload upload = new Upload();
+
+        @Valid
+        @NotNull
+        private Reconcile reconcile = new Reconcile();
+
+        @Valid
+        @NotNull
+        private Outbox outbox = new Outbox();
+
+        @Valid
+        @NotNull
+        private Bundle bundle = new Bundle();
 
         // Getter and Setter.
 
-        public Resource getResource() {
-            return resource;
+        public Backend getBackend() {
+            return backend;
         }
 
-        public void setResource(Resource resource) {
-            this.resource = resource;
+        public void setBackend(Backend backend) {
+            this.backend = backend;
         }
 
-        public Interaction getInteraction() {
-            return interaction;
+        public Local getLocal() {
+            return local;
         }
 
-        public void setInteraction(Interaction interaction) {
-            this.interaction = interaction;
+        public void setLocal(Local local) {
+            this.local = local;
+        }
+
+        public Multipart getMultipart() {
+            return multipart;
+        }
+
+        public void setMultipart(Multipart multipart) {
+            this.multipart = multipart;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        public Download getDownload() {
+            return download;
+        }
+
+        public void setDownload(Download download) {
+            this.download = download;
+        }
+
+        public Dedup getDedup() {
+            return dedup;
+        }
+
+        public void setDedup(Dedup dedup) {
+            this.dedup = dedup;
+        }
+
+        public Upload getUpload() {
+            return upload;
+        }
+
+        public void setUpload(Upload upload) {
+            this.upload = upload;
+        }
+
+        public Reconcile getReconcile() {
+            return reconcile;
+        }
+
+        public void setReconcile(Reconcile reconcile) {
+            this.reconcile = reconcile;
+        }
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+
+        public void setOutbox(Outbox outbox) {
+            this.outbox = outbox;
+        }
+
+        public Bundle getBundle() {
+            return bundle;
+        }
+
+        public void setBundle(Bundle bundle) {
+            this.bundle = bundle;
         }
 
         @Override
         public String toString() {
-            return "Activity{" +
-                    "resource=" + resource +
-                    ", interaction=" + interaction +
+            return "Storage{" +
+                    "backend=" + backend +
+                    ", local=" + local +
+                    ", multipart=" + multipart +
+                    ", cache=" + cache +
+                    ", download=" + download +
+                    ", dedup=" + dedup +
+                    ", upload=" + upload +
+                    ", reconcile=" + reconcile +
+                    ", outbox=" + outbox +
+                    ", bundle=" + bundle +
                     '}';
         }
 
+        /**
+         * Local filesystem storage configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Local {
+
+            @NotBlank
+            private String directory = System.getProperty("java.io.tmpdir") + "/opencourse/storage";
+
+            // Getter and Setter.
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            @Override
+            public String toString() {
+                return "Local{" +
+                        "directory='" + directory + '\'' +
+                        '}';
+            }
+        }
+
+        /**
+         * Multipart upload configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Multipart {
+
+            private boolean enabled = false;
+
+            @NotNull
+            private DataSize partSize = DataSize.ofMegabytes(8);
+
+            @Min(1)
+            private int concurrency = 4;
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public DataSize getPartSize() {
+                return partSize;
+            }
+
+            public void setPartSize(DataSize partSize) {
+                this.partSize = partSize;
+            }
+
+            public int getConcurrency() {
+                return concurrency;
+            }
+
+            public void setConcurrency(int concurrency) {
+                this.concurrency = concurrency;
+            }
+
+            @Override
+            public String toString() {
+                return "Multipart{" +
+                        "enabled=" + enabled +
+                        ", partSize=" + partSize +
+                        ", concurrency=" + concurrency +
+                        '}';
+            }
+        }
+
+        /**
+         * Local disk cache configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Cache {
+
+            private boolean enabled = false;
+
+            @NotBlank
+            private String directory = System.getProperty("java.io.tmpdir") + "/opencourse/cache";
+
+            @NotNull
+            private DataSize maxSize = DataSize.ofGigabytes(1);
+
+            @NotNull
+            private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+            @NotNull
+            private Duration fillWait = Duration.ofSeconds(2);
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public DataSize getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(DataSize maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public DataSize getMaxFileSize() {
+                return maxFileSize;
+            }
+
+            public void setMaxFileSize(DataSize maxFileSize) {
+                this.maxFileSize = maxFileSize;
+            }
+
+            public Duration getFillWait() {
+                return fillWait;
+            }
+
+            public void setFillWait(Duration fillWait) {
+                this.fillWait = fillWait;
+            }
+
+            @Override
+            public String toString() {
+                return "Cache{" +
+                        "enabled=" + enabled +
+                        ", directory='" + directory + '\'' +
+                        ", maxSize=" + maxSize +
+                        ", maxFileSize=" + maxFileSize +
+                        ", fillWait=" + fillWait +
+                        '}';
+            }
+        }
+
+        /**
+         * Resource download configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Download {
+
+            /**
+             * How resource files are delivered to clients.
+             */
+            public enum Mode {
+                // Stream the file through the application.
+                STREAM,
+                // Redirect to a presigned URL of the object store.
+                REDIRECT
+            }
+
+            @NotNull
+            private Mode mode = Mode.STREAM;
+
+            @NotNull
+            private Duration presignExpiry = Duration.ofMinutes(5);
+
+            @Valid
+            @NotNull
+            private Bandwidth bandwidth = new Bandwidth();
+
+            // Getter and Setter.
+
+            public Mode getMode() {
+                return mode;
+            }
+
+            public void setMode(Mode mode) {
+                this.mode = mode;
+            }
+
+            public Duration getPresignExpiry() {
+                return presignExpiry;
+            }
+
+            public void setPresignExpiry(Duration presignExpiry) {
+                this.presignExpiry = presignExpiry;
+            }
+
+            public Bandwidth getBandwidth() {
+                return bandwidth;
+            }
+
+            public void setBandwidth(Bandwidth bandwidth) {
+                this.bandwidth = bandwidth;
+            }
+
+            @Override
+            public String toString() {
+                return "Download{" +
+                        "mode=" + mode +
+                        ", presignExpiry=" + presignExpiry +
+                        ", bandwidth=" + bandwidth +
+                        '}';
+            }
+
+            /**
+             * Download bandwidth shaping configurations, rates are per second.
+             *
+             * @author !EEExp3rt
+             */
+            public static class Bandwidth {
+
+                private boolean enabled = false;
+
+                @NotNull
+                private DataSize userRate = DataSize.ofMegabytes(2);
+
+                @NotNull
+                private DataSize globalRate = DataSize.ofMegabytes(50);
+
+                @NotNull
+                private DataSize burst = DataSize.ofMegabytes(4);
+
+                @NotNull
+                private Duration idleExpiry = Duration.ofMinutes(5);
+
+                // Getter and Setter.
+
+                public boolean isEnabled() {
+                    return enabled;
+                }
+
+                public void setEnabled(boolean enabled) {
+                    this.enabled = enabled;
+                }
+
+                public DataSize getUserRate() {
+                    return userRate;
+                }
+
+                public void setUserRate(DataSize userRate) {
+                    this.userRate = userRate;
+                }
+
+                public DataSize getGlobalRate() {
+                    return globalRate;
+                }
+
+                public void setGlobalRate(DataSize globalRate) {
+                    this.globalRate = globalRate;
+                }
+
+                public DataSize getBurst() {
+                    return burst;
+                }
+
+                public void setBurst(DataSize burst) {
+                    this.burst = burst;
+                }
+
+                public Duration getIdleExpiry() {
+                    return idleExpiry;
+                }
+
+                public void setIdleExpiry(Duration idleExpiry) {
+                    this.idleExpiry = idleExpiry;
+                }
+
+                @Override
+                public String toString() {
+                    return "Bandwidth{" +
+                            "enabled=" + enabled +
+                            ", userRate=" + userRate +
+                            ", globalRate=" + globalRate +
+                            ", burst=" + burst +
+                            ", idleExpiry=" + idleExpiry +
+                            '}';
+                }
+            }
+        }
+
+        /**
+         * Content-addressed deduplication configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Dedup {
+
+            private boolean enabled = false;
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            @Override
+            public String toString() {
+                return "Dedup{" +
+                        "enabled=" + enabled +
+                        '}';
+            }
+        }
+
+        /**
+         * Asynchronous upload configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Upload {
+
+            private boolean enabled = false;
+
+            @NotBlank
+            private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/opencourse/spool";
+
+            @Min(1)
+            private int workers = 4;
+
+            @Min(1)
+            private int queueCapacity = 64;
+
+            @NotNull
+            private Duration ticketRetention = Duration.ofHours(1);
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getSpoolDirectory() {
+                return spoolDirectory;
+            }
+
+            public void setSpoolDirectory(String spoolDirectory) {
+                this.spoolDirectory = spoolDirectory;
+            }
+
+            public int getWorkers() {
+                return workers;
+            }
+
+            public void setWorkers(int workers) {
+                this.workers = workers;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public Duration getTicketRetention() {
+                return ticketRetention;
+            }
+
+            public void setTicketRetention(Duration ticketRetention) {
+                this.ticketRetention = ticketRetention;
+            }
+
+            @Override
+            public String toString() {
+                return "Upload{" +
+                        "enabled=" + enabled +
+                        ", spoolDirectory='" + spoolDirectory + '\'' +
+                        ", workers=" + workers +
+                        ", queueCapacity=" + queueCapacity +
+                        ", ticketRetention=" + ticketRetention +
+                        '}';
+            }
+        }
+
+        /**
+         * Storage reconciliation configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Reconcile {
+
+            private boolean enabled = false;
+
+            @NotNull
+            private String cron = "0 0 4 * * *";
+
+            @Min(1)
+            @Max(1000)
+            private int pageSize = 1000;
+
+            @Min(1)
+            private int maxPages = 1000;
+
+            @NotNull
+            private Duration gracePeriod = Duration.ofDays(1);
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getCron() {
+                return cron;
+            }
+
+            public void setCron(String cron) {
+                this.cron = cron;
+            }
+
+            public int getPageSize() {
+                return pageSize;
+            }
+
+            public void setPageSize(int pageSize) {
+                this.pageSize = pageSize;
+            }
+
+            public int getMaxPages() {
+                return maxPages;
+            }
+
+            public void setMaxPages(int maxPages) {
+                this.maxPages = maxPages;
+            }
+
+            public Duration getGracePeriod() {
+                return gracePeriod;
+            }
+
+            public void setGracePeriod(Duration gracePeriod) {
+                this.gracePeriod = gracePeriod;
+            }
+
+            @Override
+            public String toString() {
+                return "Reconcile{" +
+                        "enabled=" + enabled +
+                        ", cron='" + cron + '\'' +
+                        ", pageSize=" + pageSize +
+                        ", maxPages=" + maxPages +
+                        ", gracePeriod=" + gracePeriod +
+                        '}';
+            }
+        }
+
+        /**
+         * Transactional outbox configurations for storage side effects.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Outbox {
+
+            private boolean enabled = false;
+
+            @NotNull
+            private Duration pollInterval = Duration.ofSeconds(1);
+
+            @Min(1)
+            private int batchSize = 100;
+
+            @Min(1)
+            private int maxAttempts = 10;
+
+            @NotNull
+            private Duration initialBackoff = Duration.ofSeconds(30);
+
+            @NotNull
+            private Duration maxBackoff = Duration.ofHours(1);
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getPollInterval() {
+                return pollInterval;
+            }
+
+            public void setPollInterval(Duration pollInterval) {
+                this.pollInterval = pollInterval;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public Duration getInitialBackoff() {
+                return initialBackoff;
+            }
+
+            public void setInitialBackoff(Duration initialBackoff) {
+                this.initialBackoff = initialBackoff;
+            }
+
+            public Duration getMaxBackoff() {
+                return maxBackoff;
+            }
+
+            public void setMaxBackoff(Duration maxBackoff) {
+                this.maxBackoff = maxBackoff;
+            }
+
+            @Override
+            public String toString() {
+                return "Outbox{" +
+                        "enabled=" + enabled +
+                        ", pollInterval=" + pollInterval +
+                        ", batchSize=" + batchSize +
+                        ", maxAttempts=" + maxAttempts +
+                        ", initialBackoff=" + initialBackoff +
+                        ", maxBackoff=" + maxBackoff +
+                        '}';
+            }
+        }
+
+        /**
+         * Course resource bundle download configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Bundle {
+
+            @Min(1)
+            private int maxFiles = 200;
+
+            @Min(0)
+            private int prefetch = 1;
+
+            @Min(1)
+            private int prefetchThreads = 8;
+
+            @Min(0)
+            @Max(9)
+            private int compressionLevel = 1;
+
+            // Getter and Setter.
+
+            public int getMaxFiles() {
+                return maxFiles;
+            }
+
+            public void setMaxFiles(int maxFiles) {
+                this.maxFiles = maxFiles;
+            }
+
+            public int getPrefetch() {
+                return prefetch;
+            }
+
+            public void setPrefetch(int prefetch) {
+                this.prefetch = prefetch;
+            }
+
+            public int getPrefetchThreads() {
+                return prefetchThreads;
+            }
+
+            public void setPrefetchThreads(int prefetchThreads) {
+                this.prefetchThreads = prefetchThreads;
+            }
+
+            public int getCompressionLevel() {
+                return compressionLevel;
+            }
+
+            public void setCompressionLevel(int compressionLevel) {
+                this.compressionLevel = compressionLevel;
+            }
+
+            @Override
+            public String toString() {
+                return "Bundle{" +
+                        "maxFiles=" + maxFiles +
+                        ", prefetch=" + prefetch +
+                        ", prefetchThreads=" + prefetchThreads +
+                        ", compressionLevel=" + compressionLevel +
+                        '}';
+            }
+        }
+    }
+
+    /**
+     * Like counter accumulation configurations.
+     *
+     * @author !EEExp3rt
+     */
+    public static class LikeCounter {
+
+        private boolean enabled = false;
+
+        @NotNull
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        // Getter and Setter.
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        @Override
+        public String toString() {
+            return "LikeCounter{" +
+                    "enabled=" + enabled +
+                    ", flushInterval=" + flushInterval +
+                    '}';
+        }
+    }
+
+    /**
+     * History recording configurations.
+     *
+     * @author !EEExp3rt
+     */
+    public static class History {
+
+        @Valid
+        @NotNull
+        private WriteBehind writeBehind = new WriteBehind();
+
+        @Valid
+        @NotNull
+        private LikeState likeState = new LikeState();
+
+        @Valid
+        @NotNull
+        private Archive archive = new Archive();
+
+        @Valid
+        @NotNull
+        private ViewCoalescing viewCoalescing = new ViewCoalescing();
+
+        // Getter and Setter.
+
+        public WriteBehind getWriteBehind() {
+            return writeBehind;
+        }
+
+        public void setWriteBehind(WriteBehind writeBehind) {
+            this.writeBehind = writeBehind;
+        }
+
+        public LikeState getLikeState() {
+            return likeState;
+        }
+
+        public void setLikeState(LikeState likeState) {
+            this.likeState = likeState;
+        }
+
+        public Archive getArchive() {
+            return archive;
+        }
+
+        public void setArchive(Archive archive) {
+            this.archive = archive;
+        }
+
+        public ViewCoalescing getViewCoalescing() {
+            return viewCoalescing;
+        }
+
+        public void setViewCoalescing(ViewCoalescing viewCoalescing) {
+            this.viewCoalescing = viewCoalescing;
+        }
+
+        @Override
+        public String toString() {
+            return "History{" +
+                    "writeBehind=" + writeBehind +
+                    ", likeState=" + likeState +
+                    ", archive=" + archive +
+                    ", viewCoalescing=" + viewCoalescing +
+                    '}';
+        }
+
+        /**
+         * Resource view coalescing configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class ViewCoalescing {
+
+            @NotNull
+            private Duration window = Duration.ofSeconds(30);
+
+            @Min(1)
+            private int maxEntries = 100000;
+
+            // Getter and Setter.
+
+            public Duration getWindow() {
+                return window;
+            }
+
+            public void setWindow(Duration window) {
+                this.window = window;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            @Override
+            public String toString() {
+                return "ViewCoalescing{" +
+                        "window=" + window +
+                        ", maxEntries=" + maxEntries +
+                        '}';
+            }
+        }
+
+        /**
+         * History archival configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Archive {
+
+            private boolean enabled = false;
+
+            @NotNull
+            private Duration horizon = Duration.ofDays(90);
+
+            @Min(1)
+            private int batchSize = 5000;
+
+            @Min(1)
+            private int maxSegmentRows = 100000;
+
+            @Min(1)
+            private int indexCacheSize = 256;
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getHorizon() {
+                return horizon;
+            }
+
+            public void setHorizon(Duration horizon) {
+                this.horizon = horizon;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxSegmentRows() {
+                return maxSegmentRows;
+            }
+
+            public void setMaxSegmentRows(int maxSegmentRows) {
+                this.maxSegmentRows = maxSegmentRows;
+            }
+
+            public int getIndexCacheSize() {
+                return indexCacheSize;
+            }
+
+            public void setIndexCacheSize(int indexCacheSize) {
+                this.indexCacheSize = indexCacheSize;
+            }
+
+            @Override
+            public String toString() {
+                return "Archive{" +
+                        "enabled=" + enabled +
+                        ", horizon=" + horizon +
+                        ", batchSize=" + batchSize +
+                        ", maxSegmentRows=" + maxSegmentRows +
+                        ", indexCacheSize=" + indexCacheSize +
+                        '}';
+            }
+        }
+
+        /**
+         * Like state table configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class LikeState {
+
+            private boolean backfill = false;
+
+            @Min(1)
+            private int backfillBatchSize = 1000;
+
+            // Getter and Setter.
+
+            public boolean isBackfill() {
+                return backfill;
+            }
+
+            public void setBackfill(boolean backfill) {
+                this.backfill = backfill;
+            }
+
+            public int getBackfillBatchSize() {
+                return backfillBatchSize;
+            }
+
+            public void setBackfillBatchSize(int backfillBatchSize) {
+                this.backfillBatchSize = backfillBatchSize;
+            }
+
+            @Override
+            public String toString() {
+                return "LikeState{" +
+                        "backfill=" + backfill +
+                        ", backfillBatchSize=" + backfillBatchSize +
+                        '}';
+            }
+        }
+
+        /**
+         * Write-behind configurations for history records.
+         *
+         * @author !EEExp3rt
+         */
+        public static class WriteBehind {
+
+            private boolean enabled = false;
+
+            @Min(1)
+            private int queueCapacity = 10000;
+
+            @Min(1)
+            private int batchSize = 500;
+
+            @NotNull
+            private Duration flushInterval = Duration.ofMillis(500);
+
+            @NotNull
+            private Duration offerTimeout = Duration.ofMillis(50);
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public Duration getFlushInterval() {
+                return flushInterval;
+            }
+
+            public void setFlushInterval(Duration flushInterval) {
+                this.flushInterval = flushInterval;
+            }
+
+            public Duration getOfferTimeout() {
+                return offerTimeout;
+            }
+
+            public void setOfferTimeout(Duration offerTimeout) {
+                this.offerTimeout = offerTimeout;
+            }
+
+            @Override
+            public String toString() {
+                return "WriteBehind{" +
+                        "enabled=" + enabled +
+                        ", queueCapacity=" + queueCapacity +
+                        ", batchSize=" + batchSize +
+                        ", flushInterval=" + flushInterval +
+                        ", offerTimeout=" + offerTimeout +
+                        '}';
+            }
+        }
+    }
+
+    /**
+     * User activity configurations.
+     * 
+     * @author !EEExp3rt
+     */
+    public static class Activity {
+
+        @Valid
+        @NotNull
+        private Resource resource = new Resource();
+
+        @Valid
+        @NotNull
+        private Interaction interaction = new Interaction();
+
+        @Valid
+        @NotNull
+        private Aggregation aggregation = new Aggregation();
+
+        // Getter and Setter.
+
+        public Resource getResource() {
+            return resource;
+        }
+
+        public void setResource(Resource resource) {
+            this.resource = resource;
+        }
+
+        public Interaction getInteraction() {
+            return interaction;
+        }
+
+        public void setInteraction(Interaction interaction) {
+            this.interaction = interaction;
+        }
+
+        public Aggregation getAggregation() {
+            return aggregation;
+        }
+
+        public void setAggregation(Aggregation aggregation) {
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        public String toString() {
+            return "Activity{" +
+                    "resource=" + resource +
+                    ", interaction=" + interaction +
+                    ", aggregation=" + aggregation +
+                    '}';
+        }
+
+        /**
+         * User activity aggregation configurations.
+         *
+         * @author !EEExp3rt
+         */
+        public static class Aggregation {
+
+            private boolean enabled = false;
+
+            @NotNull
+            private Duration flushInterval = Duration.ofSeconds(1);
+
+            // Getter and Setter.
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getFlushInterval() {
+                return flushInterval;
+            }
+
+            public void setFlushInterval(Duration flushInterval) {
+                this.flushInterval = flushInterval;
+            }
+
+            @Override
+            public String toString() {
+                return "Aggregation{" +
+                        "enabled=" + enabled +
+                        ", flushInterval=" + flushInterval +
+                        '}';
+            }
+        }
+
         /**
          * User activity configurations in resource operations.
          * 
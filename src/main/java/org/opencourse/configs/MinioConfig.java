@@ -1,12 +1,22 @@
 package org.opencourse.configs;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
 
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import org.opencourse.services.storage.MinioRequestInterceptor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
  * MinIO configurations.
  * 
@@ -27,6 +37,44 @@ public class MinioConfig {
         this.minioConfigProperties = minioConfigProperties;
     }
 
+    /**
+     * MinIO request interceptor bean for per-operation timeouts and latency.
+     * 
+     * @return MinIO request interceptor
+     */
+    @Bean
+    public MinioRequestInterceptor minioRequestInterceptor() {
+        return new MinioRequestInterceptor(minioConfigProperties);
+    }
+
+    /**
+     * HTTP client bean shared by the MinIO clients.
+     * 
+     * Both clients send their requests through the dispatcher, so its limits bound the
+     * concurrent requests to MinIO, and reuse the connections kept alive in one pool.
+     * 
+     * @return HTTP client
+     */
+    @Bean
+    public OkHttpClient minioHttpClient() {
+        MinioConfigProperties.Http http = minioConfigProperties.getHttp();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(http.getMaxRequests());
+        // All requests go to the one endpoint.
+        dispatcher.setMaxRequestsPerHost(http.getMaxRequests());
+        long connectTimeout = http.getConnectTimeout().toMillis();
+        long otherTimeout = minioConfigProperties.getTimeouts().getOther().toMillis();
+        return HttpUtils.newDefaultHttpClient(connectTimeout, otherTimeout, otherTimeout)
+            .newBuilder()
+            .connectionPool(new ConnectionPool(
+                http.getMaxIdleConnections(),
+                http.getKeepAlive().toMillis(),
+                TimeUnit.MILLISECONDS))
+            .dispatcher(dispatcher)
+            .addInterceptor(minioRequestInterceptor())
+            .build();
+    }
+
     /**
      * MinIO client bean.
      * 
@@ -39,6 +87,23 @@ public class MinioConfig {
             .credentials(
                 minioConfigProperties.getAccessKey(),
                 minioConfigProperties.getSecretKey())
+            .httpClient(minioHttpClient())
+            .build();
+    }
+
+    /**
+     * MinIO asynchronous client bean for multipart uploads.
+     * 
+     * @return MinIO asynchronous client
+     */
+    @Bean
+    public MinioAsyncClient minioAsyncClient() {
+        return MinioAsyncClient.builder()
+            .endpoint(minioConfigProperties.getEndpoint())
+            .credentials(
+                minioConfigProperties.getAccessKey(),
+                minioConfigProperties.getSecretKey())
+            .httpClient(minioHttpClient())
             .build();
     }
 
@@ -63,6 +128,8 @@ public class MinioConfig {
         private String accessKey;
         private String secretKey;
         private String bucketName;
+        private Http http = new Http();
+        private Timeouts timeouts = new Timeouts();
 
         public String getEndpoint() {
             return endpoint;
@@ -96,6 +163,22 @@ public class MinioConfig {
             this.bucketName = bucketName;
         }
 
+        public Http getHttp() {
+            return http;
+        }
+
+        public void setHttp(Http http) {
+            this.http = http;
+        }
+
+        public Timeouts getTimeouts() {
+            return timeouts;
+        }
+
+        public void setTimeouts(Timeouts timeouts) {
+            this.timeouts = timeouts;
+        }
+
         @Override
         public String toString() {
             return "MinioConfigProperties{" +
@@ -103,7 +186,162 @@ public class MinioConfig {
                     ", accessKey='" + accessKey + '\'' +
                     ", secretKey='" + secretKey + '\'' +
                     ", bucketName='" + bucketName + '\'' +
+                    ", http=" + http +
+                    ", timeouts=" + timeouts +
                     '}';
         }
+
+        /**
+         * HTTP transport properties.
+         * 
+         * @author !EEExp3rt
+         */
+        public static class Http {
+
+            private int maxIdleConnections = 32;
+            private Duration keepAlive = Duration.ofMinutes(5);
+            private int maxRequests = 64;
+            private Duration connectTimeout = Duration.ofSeconds(5);
+
+            public int getMaxIdleConnections() {
+                return maxIdleConnections;
+            }
+
+            public void setMaxIdleConnections(int maxIdleConnections) {
+                this.maxIdleConnections = maxIdleConnections;
+            }
+
+            public Duration getKeepAlive() {
+                return keepAlive;
+            }
+
+            public void setKeepAlive(Duration keepAlive) {
+                this.keepAlive = keepAlive;
+            }
+
+            public int getMaxRequests() {
+                return maxRequests;
+            }
+
+            public void setMaxRequests(int maxRequests) {
+                this.maxRequests = maxRequests;
+            }
+
+            public Duration getConnectTimeout() {
+                return connectTimeout;
+            }
+
+            public void setConnectTimeout(Duration connectTimeout) {
+                this.connectTimeout = connectTimeout;
+            }
+
+            @Override
+            public String toString() {
+                return "Http{" +
+                        "maxIdleConnections=" + maxIdleConnections +
+                        ", keepAlive=" + keepAlive +
+                        ", maxRequests=" + maxRequests +
+                        ", connectTimeout=" + connectTimeout +
+                        '}';
+            }
+        }
+
+        /**
+         * Read and write timeouts by operation, zero for none.
+         * 
+         * A timeout bounds each wait for the socket, not the whole request, so streaming
+         * a large file never times out while bytes keep flowing.
+         * 
+         * @author !EEExp3rt
+         */
+        public static class Timeouts {
+
+            private Duration stat = Duration.ofSeconds(10);
+            private Duration get = Duration.ofSeconds(30);
+            private Duration put = Duration.ofMinutes(1);
+            private Duration uploadPart = Duration.ofMinutes(1);
+            private Duration multipart = Duration.ofMinutes(2);
+            private Duration delete = Duration.ofSeconds(30);
+            private Duration list = Duration.ofSeconds(30);
+            private Duration other = Duration.ofSeconds(30);
+
+            public Duration getStat() {
+                return stat;
+            }
+
+            public void setStat(Duration stat) {
+                this.stat = stat;
+            }
+
+            public Duration getGet() {
+                return get;
+            }
+
+            public void setGet(Duration get) {
+                this.get = get;
+            }
+
+            public Duration getPut() {
+                return put;
+            }
+
+            public void setPut(Duration put) {
+                this.put = put;
+            }
+
+            public Duration getUploadPart() {
+                return uploadPart;
+            }
+
+            public void setUploadPart(Duration uploadPart) {
+                this.uploadPart = uploadPart;
+            }
+
+            public Duration getMultipart() {
+                return multipart;
+            }
+
+            public void setMultipart(Duration multipart) {
+                this.multipart = multipart;
+            }
+
+            public Duration getDelete() {
+                return delete;
+            }
+
+            public void setDelete(Duration delete) {
+                this.delete = delete;
+            }
+
+            public Duration getList() {
+                return list;
+            }
+
+            public void setList(Duration list) {
+                this.list = list;
+            }
+
+            public Duration getOther() {
+                return other;
+            }
+
+            public void setOther(Duration other) {
+                this.other = other;
+            }
+
+            @Override
+            public String toString() {
+                return "Timeouts{" +
+                        "stat=" + stat +
+                        ", get=" + get +
+                        ", put=" + put +
+                        ", uploadPart=" + uploadPart +
+                        ", multipart=" + multipart +
+                        ", delete=" + delete +
+                        ", list=" + list +
+                        ", other=" + other +
+                        '}';
+            }
+        }
     }
 }
\ No newline at end of file
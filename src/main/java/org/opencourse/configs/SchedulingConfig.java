@@ -0,0 +1,14 @@
+package org.opencourse.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration for background jobs.
+ *
+ * @author !EEExp3rt
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -53,7 +53,7 @@ public class AuthController {
         userData.put("name", user.getName());
         userData.put("email", user.getEmail());
         userData.put("role", user.getRole().name());
-        userData.put("activity", user.getActivity());
+        userData.put("activity", userManager.getActivity(user));
         userData.put("createdAt", user.getCreatedAt());
         userData.put("updatedAt", user.getUpdatedAt());
 
@@ -134,7 +134,7 @@ public class AuthController {
         result.put("name", user.getName());
         result.put("email", user.getEmail());
         result.put("role", user.getRole().name());
-        result.put("activity", user.getActivity());
+        result.put("activity", userManager.getActivity(user));
         result.put("createdAt", user.getCreatedAt());
         result.put("updatedAt", user.getUpdatedAt());
 
@@ -0,0 +1,118 @@
+package org.opencourse.controllers;
+
+import org.opencourse.dto.response.ApiResponse;
+import org.opencourse.models.Course;
+import org.opencourse.models.Department;
+import org.opencourse.models.Interaction;
+import org.opencourse.models.Model;
+import org.opencourse.models.Resource;
+import org.opencourse.models.User;
+import org.opencourse.services.HistoryManager;
+import org.opencourse.services.history.HistoryCursor;
+import org.opencourse.services.history.HistoryPage;
+import org.opencourse.utils.security.SecurityUtils;
+import org.opencourse.utils.typeinfo.ActionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 操作历史控制器
+ * 以游标分页的方式查询当前用户的操作历史时间线
+ *
+ * @author !EEExp3rt
+ */
+@RestController
+@RequestMapping("/history")
+public class HistoryController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final HistoryManager historyManager;
+
+    @Autowired
+    public HistoryController(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    /**
+     * 获取当前用户的操作历史时间线
+     *
+     * @param cursor       上一页返回的游标，为空时获取第一页
+     * @param size         每页记录数，最大为 100
+     * @param actionTypeId 操作类型ID，为空时返回所有类型
+     * @return 按时间倒序排列的操作历史及下一页游标
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getTimeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) Byte actionTypeId) {
+        try {
+            if (size <= 0 || size > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("每页记录数应在 1 到 " + MAX_PAGE_SIZE + " 之间"));
+            }
+
+            ActionType actionType = null;
+            if (actionTypeId != null) {
+                actionType = ActionType.getById(actionTypeId);
+                if (actionType == null) {
+                    return ResponseEntity.badRequest().body(ApiResponse.error("操作类型不存在"));
+                }
+            }
+
+            User user = SecurityUtils.getCurrentUser();
+            HistoryPage page = historyManager.getTimeline(
+                    user.getId(),
+                    actionType,
+                    cursor == null || cursor.isEmpty() ? null : HistoryCursor.decode(cursor),
+                    size);
+
+            // 按对象类型批量查询操作对象
+            Map<Long, Model<? extends Number>> objects = historyManager.getHistoryObjects(page.histories());
+
+            List<Map<String, Object>> histories = page.histories().stream().map(history -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("id", history.getId());
+                data.put("actionTypeId", history.getActionType().getId());
+                data.put("actionType", history.getActionType().getDescription());
+                data.put("objectId", history.getObjectId());
+                data.put("objectName", getObjectName(objects.get(history.getId())));
+                data.put("timestamp", history.getTimestamp());
+                return data;
+            }).toList();
+
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("histories", histories);
+            responseData.put("nextCursor", page.hasNext() ? page.nextCursor().encode() : null);
+            responseData.put("hasNext", page.hasNext());
+
+            return ResponseEntity.ok(ApiResponse.success("获取操作历史成功", responseData));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("参数错误: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("服务器内部错误: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取操作对象的显示名称
+     *
+     * @param object 操作对象
+     * @return 对象名称，对象不存在时为空
+     */
+    private static String getObjectName(Model<? extends Number> object) {
+        return switch (object) {
+            case Course course -> course.getName();
+            case Department department -> department.getName();
+            case Interaction interaction -> interaction.getContent();
+            case Resource resource -> resource.getName();
+            case User user -> user.getName();
+            case null, default -> null;
+        };
+    }
+}
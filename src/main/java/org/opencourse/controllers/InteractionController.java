@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -66,7 +67,7 @@ public class InteractionController {
             data.put("courseId", interaction.getCourse().getId());
             data.put("userId", interaction.getUser().getId());
             // data.put("userName", interaction.getUser().getName());
-            data.put("likes", interaction.getLikes());
+            data.put("likes", interactionManager.getLikes(interaction));
             data.put("createdAt", interaction.getCreatedAt());
             
             return ResponseEntity.ok(ApiResponse.success("评论添加成功", data));
@@ -106,7 +107,7 @@ public class InteractionController {
             data.put("courseId", interaction.getCourse().getId());
             data.put("userId", interaction.getUser().getId());
             // data.put("userName", interaction.getUser().getName());
-            data.put("likes", interaction.getLikes());
+            data.put("likes", interactionManager.getLikes(interaction));
             data.put("createdAt", interaction.getCreatedAt());
             
             return ResponseEntity.ok(ApiResponse.success("评论更新成功", data));
@@ -136,7 +137,7 @@ public class InteractionController {
         data.put("courseId", interaction.getCourse().getId());
         data.put("userId", interaction.getUser().getId());
         // data.put("userName", interaction.getUser().getName());
-        data.put("likes", interaction.getLikes());
+        data.put("likes", interactionManager.getLikes(interaction));
         data.put("createdAt", interaction.getCreatedAt());
         
         return ResponseEntity.ok(ApiResponse.success("获取指定id评论成功", data));
@@ -158,13 +159,17 @@ public class InteractionController {
         // 获取当前登录用户
         User user = SecurityUtils.getCurrentUser();
         Integer userId = user.getId();
+
+        // 批量查询当前用户的点赞状态
+        Set<Integer> likedIds = interactionManager.getLikedInteractionIds(
+                user, interactions.stream().map(Interaction::getId).toList());
         
         List<Map<String, Object>> data = interactions.stream().map(interaction -> {
             Map<String, Object> interactionData = new HashMap<>();
             interactionData.put("id", interaction.getId());
             interactionData.put("content", interaction.getContent());
             interactionData.put("rating", interaction.getRating());
-            interactionData.put("likes", interaction.getLikes());
+            interactionData.put("likes", interactionManager.getLikes(interaction));
             // interactionData.put("dislikes", interaction.getDislikes());
             interactionData.put("courseId", interaction.getCourse().getId());
             interactionData.put("userId", interaction.getUser().getId());
@@ -173,12 +178,7 @@ public class InteractionController {
             interactionData.put("createdAt", interaction.getCreatedAt());
             
             // 添加当前用户是否已点赞/点踩的信息
-            try {
-                boolean status = interactionManager.getUserInteractionStatus(interaction.getId(), user);
-                interactionData.put("isLiked", status);
-            } catch (Exception e) {
-                interactionData.put("isLiked", false);
-            }
+            interactionData.put("isLiked", likedIds.contains(interaction.getId()));
             
             // 添加当前用户是否是评论的所有者
             interactionData.put("isOwner", interaction.getUser().getId().equals(userId));
@@ -6,19 +6,31 @@ import org.opencourse.dto.response.ApiResponse;
 import org.opencourse.models.Resource;
 import org.opencourse.models.User;
 import org.opencourse.services.ResourceManager;
+import org.opencourse.services.concurrency.AsyncUploadService;
 import org.opencourse.services.storage.FileInfo;
+import org.opencourse.services.storage.ResourceBundleService;
 import org.opencourse.utils.security.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 资源管理控制器
@@ -31,14 +43,22 @@ import java.util.Map;
 public class ResourceController {
 
     private final ResourceManager resourceManager;
+    private final AsyncUploadService asyncUploadService;
+    private final ResourceBundleService resourceBundleService;
 
     @Autowired
-    public ResourceController(ResourceManager resourceManager) {
+    public ResourceController(
+            ResourceManager resourceManager,
+            AsyncUploadService asyncUploadService,
+            ResourceBundleService resourceBundleService) {
         this.resourceManager = resourceManager;
+        this.asyncUploadService = asyncUploadService;
+        this.resourceBundleService = resourceBundleService;
     }
 
     /**
      * 新增资源
+     * 启用异步上传时，文件暂存到本地磁盘后立即返回 202 和上传凭据，由后台完成存储和资源创建
      * 
      * @param dto  资源上传信息
      * @param file 上传的文件
@@ -50,6 +70,17 @@ public class ResourceController {
             @RequestParam("file") MultipartFile file) {
         try {
             User user = SecurityUtils.getCurrentUser();
+            if (asyncUploadService.isEnabled()) {
+                AsyncUploadService.Ticket ticket = asyncUploadService.submit(dto, file, user);
+                if (ticket == null) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .body(ApiResponse.error("上传队列已满，请稍后重试"));
+                }
+                return ResponseEntity.accepted()
+                    .location(URI.create("/resource/uploads/" + ticket.getId()))
+                    .body(ApiResponse.success("资源已接收，正在处理", uploadData(ticket)));
+            }
             Resource resource = resourceManager.addResource(dto, file, user);
 
             if (resource == null) {
@@ -70,6 +101,39 @@ public class ResourceController {
         }
     }
 
+    /**
+     * 查询异步上传状态
+     * 
+     * @param ticketId 上传凭据ID
+     * @return 上传状态，成功时包含资源ID
+     */
+    @GetMapping("/uploads/{ticketId}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getUploadStatus(@PathVariable String ticketId) {
+        User user = SecurityUtils.getCurrentUser();
+        AsyncUploadService.Ticket ticket = asyncUploadService.getTicket(ticketId, user);
+        if (ticket == null) {
+            return ResponseEntity.status(404).body(ApiResponse.error("上传凭据不存在或已过期"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("获取上传状态成功", uploadData(ticket)));
+    }
+
+    /**
+     * 构造上传状态数据
+     * 
+     * @param ticket 上传凭据
+     * @return 上传状态数据
+     */
+    private static Map<String, Object> uploadData(AsyncUploadService.Ticket ticket) {
+        Map<String, Object> responseData = new HashMap<>();
+        responseData.put("ticketId", ticket.getId());
+        responseData.put("status", ticket.getStatus());
+        responseData.put("resourceId", ticket.getResourceId());
+        responseData.put("error", ticket.getError());
+        responseData.put("createdAt", ticket.getCreatedAt());
+        responseData.put("updatedAt", ticket.getUpdatedAt());
+        return responseData;
+    }
+
     /**
      * 删除资源
      * 
@@ -120,7 +184,7 @@ public class ResourceController {
                     "id", resource.getUser().getId(),
                     "name", resource.getUser().getName()));
             responseData.put("views", resource.getViews());
-            responseData.put("likes", resource.getLikes());
+            responseData.put("likes", resourceManager.getLikes(resource));
             responseData.put("dislikes", resource.getDislikes());
             responseData.put("createdAt", resource.getCreatedAt());
 
@@ -141,6 +205,8 @@ public class ResourceController {
         try {
             List<Resource> resources = resourceManager.getResourcesByCourse(courseId);
             User user = SecurityUtils.getCurrentUser();
+            Set<Integer> likedIds = resourceManager.getLikedResourceIds(
+                    user, resources.stream().map(Resource::getId).toList());
 
             List<Map<String, Object>> responseData = resources.stream().map(resource -> {
                 Map<String, Object> data = new HashMap<>();
@@ -152,9 +218,9 @@ public class ResourceController {
                         "id", resource.getUser().getId(),
                         "name", resource.getUser().getName()));
                 data.put("views", resource.getViews());
-                data.put("likes", resource.getLikes());
+                data.put("likes", resourceManager.getLikes(resource));
                 data.put("createdAt", resource.getCreatedAt());
-                data.put("likeStatus", resourceManager.getLikeStatus(user, resource));
+                data.put("likeStatus", likedIds.contains(resource.getId()));
                 return data;
             }).toList();
 
@@ -164,6 +230,47 @@ public class ResourceController {
         }
     }
 
+    /**
+     * 打包下载课程的全部资源
+     * 边读取存储边写出 ZIP，不在内存中缓存文件，写入当前文件时并行打开后续文件
+     * 所有写出的文件一次性计入浏览量和浏览历史
+     * 
+     * @param courseId 课程ID
+     * @param response 当前响应
+     * @return 出错时的响应，成功时直接写出 ZIP 并返回 null
+     */
+    @GetMapping("/course/{courseId}/bundle")
+    public ResponseEntity<?> downloadCourseBundle(@PathVariable Short courseId, HttpServletResponse response) {
+        try {
+            User user = SecurityUtils.getCurrentUser();
+            List<Resource> resources = resourceManager.getResourcesByCourse(courseId);
+
+            if (resources.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (resources.size() > resourceBundleService.getMaxFiles()) {
+                return ResponseEntity.badRequest().body(
+                        ApiResponse.error("资源数量超过打包上限 " + resourceBundleService.getMaxFiles()));
+            }
+
+            // 文件大小在写出前未知，使用分块传输
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("course-" + courseId + ".zip").build().toString());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            resourceBundleService.writeBundle(resources, user, response.getOutputStream());
+            return null;
+        } catch (IOException e) {
+            // 客户端中断下载，响应已无法写出
+            return null;
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                return null;
+            }
+            return ResponseEntity.internalServerError().body(ApiResponse.error("服务器内部错误: " + e.getMessage()));
+        }
+    }
+
     /**
      * 点赞资源
      * 
@@ -215,11 +322,23 @@ public class ResourceController {
     /**
      * 查看/下载资源
      * 
+     * 支持单个 Range 请求，返回 206 部分内容；多段或无效的 Range 返回 416。
+     * 只有从第一个字节开始的请求才计入浏览量。
+     * 支持 If-None-Match 和 If-Modified-Since 条件请求，文件未变化时直接返回 304，不访问存储。
+     * 下载模式为 REDIRECT 时记录浏览后重定向到对象存储的临时下载链接。
+     * 
      * @param resourceId 资源ID
+     * @param range Range 请求头
+     * @param ifRange If-Range 请求头
+     * @param request 当前请求
      * @return 资源文件流
      */
     @GetMapping("/{resourceId}/view")
-    public ResponseEntity<?> viewResource(@PathVariable Integer resourceId) {
+    public ResponseEntity<?> viewResource(
+            @PathVariable Integer resourceId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest request) {
         try {
             User user = SecurityUtils.getCurrentUser();
             Resource resource = resourceManager.getResource(resourceId);
@@ -228,7 +347,55 @@ public class ResourceController {
                 return ResponseEntity.notFound().build();
             }
 
-            FileInfo fileInfo = resourceManager.viewResource(resourceId, user);
+            // 文件写入后不会改变，客户端缓存仍有效时返回 304，只计浏览量
+            String eTag = resourceManager.getETag(resource);
+            long lastModified = resourceManager.getLastModified(resource);
+            if (request.checkNotModified(eTag, lastModified)) {
+                resourceManager.countView(resource, user);
+                return null;
+            }
+
+            // If-Range 与当前 ETag 不一致时忽略 Range，返回完整文件
+            if (range != null && ifRange != null && !ifRange.equals(eTag)) {
+                range = null;
+            }
+
+            // 重定向模式下由对象存储直接提供文件，应用只处理元数据
+            String url = resourceManager.viewResourceUrl(
+                    resourceId, user, range == null || range.trim().startsWith("bytes=0-"));
+            if (url != null) {
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location(URI.create(url))
+                        .cacheControl(CacheControl.noStore())
+                        .build();
+            }
+
+            long fileLength = resourceManager.getFileLength(resource);
+            if (fileLength < 0) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("无法获取资源文件"));
+            }
+
+            // 解析 Range 请求头，只支持单个范围
+            long start = 0;
+            long end = fileLength - 1;
+            boolean partial = false;
+            if (range != null) {
+                try {
+                    List<HttpRange> ranges = HttpRange.parseRanges(range);
+                    if (ranges.size() != 1) {
+                        return rangeNotSatisfiable(fileLength);
+                    }
+                    start = ranges.get(0).getRangeStart(fileLength);
+                    end = ranges.get(0).getRangeEnd(fileLength);
+                    partial = true;
+                } catch (IllegalArgumentException e) {
+                    return rangeNotSatisfiable(fileLength);
+                }
+            }
+
+            FileInfo fileInfo = partial
+                    ? resourceManager.viewResource(resourceId, user, start, end - start + 1)
+                    : resourceManager.viewResource(resourceId, user);
 
             if (fileInfo == null || fileInfo.getFile() == null) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("无法获取资源文件"));
@@ -237,6 +404,14 @@ public class ResourceController {
             // 设置响应头
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileInfo.getFileName() + "\"");
+            headers.add(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.setContentLength(end - start + 1);
+            if (eTag != null) {
+                headers.setETag(eTag);
+            }
+            if (lastModified >= 0) {
+                headers.setLastModified(lastModified);
+            }
 
             // 根据文件类型设置Content-Type
             MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
@@ -254,6 +429,13 @@ public class ResourceController {
                 }
             }
 
+            if (partial) {
+                headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength);
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .headers(headers)
+                        .contentType(mediaType)
+                        .body(new InputStreamResource(fileInfo.getFile()));
+            }
             return ResponseEntity.ok()
                     .headers(headers)
                     .contentType(mediaType)
@@ -266,6 +448,18 @@ public class ResourceController {
         }
     }
 
+    /**
+     * 构造 416 响应
+     * 
+     * @param fileLength 文件大小
+     * @return 416 响应
+     */
+    private ResponseEntity<?> rangeNotSatisfiable(long fileLength) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength)
+                .build();
+    }
+
     /**
      * 根据用户ID获取资源列表
      * 
@@ -288,7 +482,7 @@ public class ResourceController {
                         "name", resource.getCourse().getName(),
                         "code", resource.getCourse().getCode()));
                 data.put("views", resource.getViews());
-                data.put("likes", resource.getLikes());
+                data.put("likes", resourceManager.getLikes(resource));
                 data.put("createdAt", resource.getCreatedAt());
                 return data;
             }).toList();
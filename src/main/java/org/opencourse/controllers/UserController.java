@@ -45,7 +45,7 @@ public class UserController {
         userData.put("name", user.getName());
         userData.put("email", user.getEmail());
         userData.put("role", user.getRole().name());
-        userData.put("activity", user.getActivity());
+        userData.put("activity", userManager.getActivity(user));
         userData.put("createdAt", user.getCreatedAt());
         userData.put("updatedAt", user.getUpdatedAt());
         userData.put("token", jwtUtils.generateToken(user));
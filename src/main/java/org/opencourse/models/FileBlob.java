@@ -0,0 +1,127 @@
+package org.opencourse.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.PrePersist;
+import java.time.LocalDateTime;
+
+/**
+ * File blob entity class to reference-count content-addressed files in OpenCourse.
+ *
+ * A blob is an object in the file storage named after the SHA-256 digest of its content,
+ * shared by every resource uploaded with the same bytes. The object is deleted when the
+ * last resource referencing it is deleted.
+ *
+ * @author !EEExp3rt
+ */
+@Entity
+@Table(
+    name = "`FileBlob`",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_file_blob_digest", columnNames = "digest"),
+        @UniqueConstraint(name = "uk_file_blob_path", columnNames = "object_path")
+    }
+)
+public class FileBlob extends Model<Long> {
+
+    // The ID of the blob.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // The hex SHA-256 digest of the content.
+    @Column(name = "digest", nullable = false, length = 64)
+    private String digest;
+
+    // The path of the blob object.
+    @Column(name = "object_path", nullable = false, length = 255)
+    private String objectPath;
+
+    // The size of the content in bytes.
+    @Column(name = "file_size", nullable = false)
+    private Long size;
+
+    // The number of resource files referencing the blob.
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    // The timestamp of when the blob was created.
+    @Column(name = "created_at", updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor.
+     */
+    protected FileBlob() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param digest     The hex SHA-256 digest of the content.
+     * @param objectPath The path of the blob object.
+     * @param size       The size of the content in bytes.
+     */
+    public FileBlob(String digest, String objectPath, Long size) {
+        this.digest = digest;
+        this.objectPath = objectPath;
+        this.size = size;
+        this.refCount = 1;
+        this.createdAt = null;
+    }
+
+    /**
+     * Set creation timestamp.
+     *
+     * @apiNote This method is called by JPA automatically.
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public String getObjectPath() {
+        return objectPath;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FileBlob{" +
+                "id=" + id +
+                ", digest='" + digest + '\'' +
+                ", objectPath='" + objectPath + '\'' +
+                ", size=" + size +
+                ", refCount=" + refCount +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -1,9 +1,9 @@
 package org.opencourse.models;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.Enumerated;
-import jakarta.persistence.EnumType;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Table;
+import jakarta.persistence.Index;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -15,6 +15,7 @@ import jakarta.persistence.JoinColumn;
 import java.time.LocalDateTime;
 
 import org.opencourse.utils.typeinfo.ActionType;
+import org.opencourse.utils.typeinfo.ActionTypeConverter;
 
 /**
  * History entity class to record user actions in OpenCourse.
@@ -22,7 +23,14 @@ import org.opencourse.utils.typeinfo.ActionType;
  * @author !EEExp3rt
  */
 @Entity
-@Table(name = "`History`")
+@Table(
+    name = "`History`",
+    indexes = {
+        @Index(name = "idx_history_user_timeline", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_history_user_action_timeline", columnList = "user_id, action_type, timestamp, id"),
+        @Index(name = "idx_history_timestamp", columnList = "timestamp")
+    }
+)
 public class History extends Model<Long> {
 
     // The ID of the history record.
@@ -36,9 +44,9 @@ public class History extends Model<Long> {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    // The action type performed by the user.
-    @Enumerated(value = EnumType.STRING)
-    @Column(name = "action_type", nullable = false)
+    // The action type performed by the user, stored as its byte ID.
+    @Convert(converter = ActionTypeConverter.class)
+    @Column(name = "action_type", nullable = false, columnDefinition = "TINYINT")
     private ActionType actionType;
 
     // The object related to the action.
@@ -82,6 +90,24 @@ public class History extends Model<Long> {
         this.timestamp = null;
     }
 
+    /**
+     * Constructor to restore an archived history record.
+     *
+     * @param id           The ID of the history record.
+     * @param user         The user who performed the action.
+     * @param actionType   The action type performed by the user.
+     * @param objectId     The ID of the object related to the action.
+     * @param timestamp    The timestamp of when the action was performed.
+     * @apiNote The restored record is detached and must not be persisted again.
+     */
+    public History(Long id, User user, ActionType actionType, Integer objectId, LocalDateTime timestamp) {
+        this.id = id;
+        this.user = user;
+        this.actionType = actionType;
+        this.objectId = objectId;
+        this.timestamp = timestamp;
+    }
+
     /**
      * Set action timestamp on creation.
      * 
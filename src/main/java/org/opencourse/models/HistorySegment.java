@@ -0,0 +1,180 @@
+package org.opencourse.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Index;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * History segment entity class to catalog archived history records in OpenCourse.
+ *
+ * A segment is an immutable object in the file storage holding history records of one day,
+ * with a per-user index object next to it. The users with records in the segment are cataloged
+ * as well, so reads only visit the segments of the requested user.
+ *
+ * @author !EEExp3rt
+ */
+@Entity
+@Table(
+    name = "`HistorySegment`",
+    uniqueConstraints = @UniqueConstraint(name = "uk_history_segment_path", columnNames = "object_path"),
+    indexes = @Index(name = "idx_history_segment_time", columnList = "max_timestamp, min_timestamp")
+)
+public class HistorySegment extends Model<Long> {
+
+    // The ID of the segment.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // The day partition of the segment.
+    @Column(name = "partition_day", nullable = false)
+    private LocalDate partitionDay;
+
+    // The path of the segment object.
+    @Column(name = "object_path", nullable = false, length = 255)
+    private String objectPath;
+
+    // The path of the per-user index object.
+    @Column(name = "index_path", nullable = false, length = 255)
+    private String indexPath;
+
+    // The number of history records in the segment.
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    // The timestamp of the oldest history record in the segment.
+    @Column(name = "min_timestamp", nullable = false)
+    private LocalDateTime minTimestamp;
+
+    // The timestamp of the newest history record in the segment.
+    @Column(name = "max_timestamp", nullable = false)
+    private LocalDateTime maxTimestamp;
+
+    // The IDs of the users with records in the segment.
+    @ElementCollection
+    @CollectionTable(
+        name = "`HistorySegmentUser`",
+        joinColumns = @JoinColumn(name = "segment_id"),
+        indexes = @Index(name = "idx_history_segment_user", columnList = "user_id, segment_id")
+    )
+    @Column(name = "user_id", nullable = false)
+    private Set<Integer> userIds = new HashSet<>();
+
+    // The timestamp of when the segment was created.
+    @Column(name = "created_at", updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor.
+     */
+    protected HistorySegment() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param partitionDay The day partition of the segment.
+     * @param objectPath   The path of the segment object.
+     * @param indexPath    The path of the per-user index object.
+     * @param rowCount     The number of history records in the segment.
+     * @param minTimestamp The timestamp of the oldest history record.
+     * @param maxTimestamp The timestamp of the newest history record.
+     * @param userIds      The IDs of the users with records in the segment.
+     */
+    public HistorySegment(
+        LocalDate partitionDay,
+        String objectPath,
+        String indexPath,
+        Integer rowCount,
+        LocalDateTime minTimestamp,
+        LocalDateTime maxTimestamp,
+        Collection<Integer> userIds
+    ) {
+        this.partitionDay = partitionDay;
+        this.objectPath = objectPath;
+        this.indexPath = indexPath;
+        this.rowCount = rowCount;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.userIds = new HashSet<>(userIds);
+        this.createdAt = null;
+    }
+
+    /**
+     * Set creation timestamp.
+     *
+     * @apiNote This method is called by JPA automatically.
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getPartitionDay() {
+        return partitionDay;
+    }
+
+    public String getObjectPath() {
+        return objectPath;
+    }
+
+    public String getIndexPath() {
+        return indexPath;
+    }
+
+    public Integer getRowCount() {
+        return rowCount;
+    }
+
+    public LocalDateTime getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public LocalDateTime getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public Set<Integer> getUserIds() {
+        return userIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "HistorySegment{" +
+                "id=" + id +
+                ", partitionDay=" + partitionDay +
+                ", objectPath='" + objectPath + '\'' +
+                ", indexPath='" + indexPath + '\'' +
+                ", rowCount=" + rowCount +
+                ", minTimestamp=" + minTimestamp +
+                ", maxTimestamp=" + maxTimestamp +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
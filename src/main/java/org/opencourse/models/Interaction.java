@@ -12,12 +12,15 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 /**
  * Interaction entity class to represent a comment in interaction system in OpenCourse.
  * 
  * @author !EEExp3rt
  */
 @Entity
+@DynamicUpdate
 @Table(name = "`Interaction`")
 public class Interaction extends Model<Integer> {
 
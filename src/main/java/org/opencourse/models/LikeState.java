@@ -0,0 +1,138 @@
+package org.opencourse.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Table;
+import jakarta.persistence.Index;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import java.time.LocalDateTime;
+
+/**
+ * Like state entity class to record the objects currently liked by users in OpenCourse.
+ *
+ * A row exists if and only if the user currently likes the object.
+ *
+ * @author !EEExp3rt
+ */
+@Entity
+@Table(
+    name = "`LikeState`",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_like_state_user_object",
+        columnNames = {"user_id", "object_type", "object_id"}
+    ),
+    indexes = @Index(name = "idx_like_state_object", columnList = "object_type, object_id")
+)
+public class LikeState extends Model<Long> {
+
+    /**
+     * Type of the liked object.
+     */
+    public enum ObjectType {
+        RESOURCE,
+        INTERACTION
+    }
+
+    // The ID of the like state record.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // The user who likes the object.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // The type of the liked object.
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "object_type", nullable = false)
+    private ObjectType objectType;
+
+    // The ID of the liked object.
+    @Column(name = "object_id", nullable = false)
+    private Integer objectId;
+
+    // The timestamp of when the object was liked.
+    @Column(name = "created_at", updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor.
+     */
+    protected LikeState() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param user       The user who likes the object.
+     * @param objectType The type of the liked object.
+     * @param objectId   The ID of the liked object.
+     */
+    public LikeState(User user, ObjectType objectType, Integer objectId) {
+        this.user = user;
+        this.objectType = objectType;
+        this.objectId = objectId;
+        this.createdAt = null;
+    }
+
+    /**
+     * Set like timestamp on creation.
+     *
+     * @apiNote This method is called by JPA automatically.
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
+    // Getters and Setters
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public ObjectType getObjectType() {
+        return objectType;
+    }
+
+    public Integer getObjectId() {
+        return objectId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "LikeState{" +
+                "id=" + id +
+                ", user=" + user +
+                ", objectType=" + objectType +
+                ", objectId=" + objectId +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,146 @@
+package org.opencourse.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Index;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.PrePersist;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox event entity class to carry out side effects after a transaction commits.
+ *
+ * An event is written in the same transaction as the change that causes it, so it exists
+ * if and only if the change is committed, and is deleted once its side effect is done.
+ *
+ * @author !EEExp3rt
+ */
+@Entity
+@Table(
+    name = "`Outbox`",
+    indexes = @Index(name = "idx_outbox_next_attempt", columnList = "next_attempt_at, id")
+)
+public class OutboxEvent extends Model<Long> {
+
+    /**
+     * Side effects carried out by outbox events.
+     */
+    public enum Type {
+        // Delete a file from the file storage, the payload is the file path.
+        DELETE_FILE
+    }
+
+    // The ID of the event.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // The side effect to carry out.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 31)
+    private Type type;
+
+    // The argument of the side effect.
+    @Column(name = "payload", nullable = false, length = 255)
+    private String payload;
+
+    // The number of dispatch attempts.
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    // The earliest time of the next dispatch attempt.
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // The error of the last failed attempt.
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    // The timestamp of when the event was created.
+    @Column(name = "created_at", updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor.
+     */
+    protected OutboxEvent() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param type    The side effect to carry out.
+     * @param payload The argument of the side effect.
+     */
+    public OutboxEvent(Type type, String payload) {
+        this.type = type;
+        this.payload = payload;
+        this.attempts = 0;
+        this.nextAttemptAt = null;
+        this.lastError = null;
+        this.createdAt = null;
+    }
+
+    /**
+     * Set creation timestamp and make the event due.
+     *
+     * @apiNote This method is called by JPA automatically.
+     */
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+    }
+
+    // Getters and Setters
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", type=" + type +
+                ", payload='" + payload + '\'' +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                ", lastError='" + lastError + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
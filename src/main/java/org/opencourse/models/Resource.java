@@ -2,6 +2,7 @@ package org.opencourse.models;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import jakarta.persistence.Index;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -16,6 +17,7 @@ import jakarta.persistence.Embedded;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.opencourse.utils.typeinfo.ResourceType;
 
 /**
@@ -24,7 +26,11 @@ import org.opencourse.utils.typeinfo.ResourceType;
  * @author !EEExp3rt
  */
 @Entity
-@Table(name = "`Resource`")
+@DynamicUpdate
+@Table(
+    name = "`Resource`",
+    indexes = @Index(name = "idx_resource_file_path", columnList = "file_path")
+)
 public class Resource extends Model<Integer> {
 
     @Id
@@ -0,0 +1,72 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.FileBlob;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for {@link FileBlob} entities.
+ *
+ * @author !EEExp3rt
+ */
+@Repository
+public interface FileBlobRepo extends JpaRepository<FileBlob, Long>, FileBlobRepoCustom {
+
+    /**
+     * Find a blob by the digest of its content.
+     *
+     * @param digest The hex SHA-256 digest.
+     * @return The blob if found.
+     */
+    Optional<FileBlob> findByDigest(String digest);
+
+    /**
+     * Find a blob by its object path.
+     *
+     * @param objectPath The path of the blob object.
+     * @return The blob if found.
+     */
+    Optional<FileBlob> findByObjectPath(String objectPath);
+
+    /**
+     * Atomically add a reference to a blob.
+     *
+     * @param digest The hex SHA-256 digest of the content.
+     * @return The number of updated rows, 0 if no blob has the digest.
+     */
+    @Modifying
+    @Query("update FileBlob b set b.refCount = b.refCount + 1 where b.digest = :digest")
+    int incrementRefCount(@Param("digest") String digest);
+
+    /**
+     * Atomically remove a reference from a blob.
+     *
+     * @param objectPath The path of the blob object.
+     * @return The number of updated rows, 0 if no referenced blob has the path.
+     */
+    @Modifying
+    @Query("update FileBlob b set b.refCount = b.refCount - 1 where b.objectPath = :objectPath and b.refCount > 0")
+    int decrementRefCount(@Param("objectPath") String objectPath);
+
+    /**
+     * Find and lock a blob that is no longer referenced.
+     *
+     * The row lock keeps concurrent uploads of the same content from taking a new reference
+     * until the blob object and row are deleted.
+     *
+     * @param objectPath The path of the blob object.
+     * @return The blob if it has no references.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from FileBlob b where b.objectPath = :objectPath and b.refCount <= 0")
+    Optional<FileBlob> findUnreferencedForUpdate(@Param("objectPath") String objectPath);
+}
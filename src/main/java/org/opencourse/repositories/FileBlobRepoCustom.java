@@ -0,0 +1,24 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.FileBlob;
+
+/**
+ * Custom repository fragment for {@link FileBlob} entities.
+ *
+ * @author !EEExp3rt
+ */
+public interface FileBlobRepoCustom {
+
+    /**
+     * Insert a blob with one reference unless a blob with the same digest already exists.
+     *
+     * The unique constraint on the digest decides between concurrent inserts of the same
+     * content, so exactly one of them inserts the row.
+     *
+     * @param digest     The hex SHA-256 digest of the content.
+     * @param objectPath The path of the blob object.
+     * @param size       The size of the content in bytes.
+     * @return The number of inserted rows, 1 if inserted or 0 if the blob already exists.
+     */
+    int insertIfAbsent(String digest, String objectPath, long size);
+}
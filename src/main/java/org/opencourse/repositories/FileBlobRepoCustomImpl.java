@@ -0,0 +1,60 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.FileBlob;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Implementation of {@link FileBlobRepoCustom}.
+ *
+ * The insert is issued through JDBC on the connection of the current transaction, so a
+ * duplicate key only fails the statement and does not mark the surrounding JPA transaction
+ * for rollback.
+ *
+ * @author !EEExp3rt
+ */
+class FileBlobRepoCustomImpl implements FileBlobRepoCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate         The JDBC template.
+     * @param entityManagerFactory The entity manager factory to resolve the table name from.
+     */
+    @Autowired
+    FileBlobRepoCustomImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .getEntityDescriptor(FileBlob.class)
+            .getIdentifierTableDetails()
+            .getTableName();
+        this.insertSql = "insert into " + table + " (digest, object_path, file_size, ref_count, created_at) values (?, ?, ?, 1, ?)";
+    }
+
+    @Override
+    public int insertIfAbsent(String digest, String objectPath, long size) {
+        try {
+            return jdbcTemplate.update(
+                insertSql,
+                digest,
+                objectPath,
+                size,
+                Timestamp.valueOf(LocalDateTime.now())
+            );
+        } catch (DuplicateKeyException e) {
+            return 0;
+        }
+    }
+}
@@ -4,9 +4,13 @@ import org.opencourse.models.History;
 import org.opencourse.models.User;
 import org.opencourse.utils.typeinfo.ActionType;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +30,84 @@ public interface HistoryRepo extends JpaRepository<History, Long> {
      */
     public List<History> findAllByUserIdOrderByTimestampDesc(Integer userId);
 
+    /**
+     * Find the first page of the history timeline of the user.
+     * 
+     * @param userId The ID of the user.
+     * @param pageable The page size limit.
+     * @return The histories in descending order of (timestamp, id).
+     */
+    @Query(
+        "select h from History h where h.user.id = :userId " +
+        "order by h.timestamp desc, h.id desc"
+    )
+    List<History> findTimeline(
+        @Param("userId") Integer userId,
+        Pageable pageable
+    );
+
+    /**
+     * Find the first page of the history timeline of the user filtered by action type.
+     * 
+     * @param userId The ID of the user.
+     * @param actionType The action type to filter by.
+     * @param pageable The page size limit.
+     * @return The histories in descending order of (timestamp, id).
+     */
+    @Query(
+        "select h from History h where h.user.id = :userId and h.actionType = :actionType " +
+        "order by h.timestamp desc, h.id desc"
+    )
+    List<History> findTimelineByActionType(
+        @Param("userId") Integer userId,
+        @Param("actionType") ActionType actionType,
+        Pageable pageable
+    );
+
+    /**
+     * Find a page of the history timeline of the user after a keyset cursor.
+     * 
+     * @param userId The ID of the user.
+     * @param timestamp The timestamp of the last history record of the previous page.
+     * @param id The ID of the last history record of the previous page.
+     * @param pageable The page size limit.
+     * @return The histories in descending order of (timestamp, id).
+     */
+    @Query(
+        "select h from History h where h.user.id = :userId " +
+        "and (h.timestamp < :timestamp or (h.timestamp = :timestamp and h.id < :id)) " +
+        "order by h.timestamp desc, h.id desc"
+    )
+    List<History> findTimelineBefore(
+        @Param("userId") Integer userId,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    /**
+     * Find a page of the history timeline of the user filtered by action type after a keyset cursor.
+     * 
+     * @param userId The ID of the user.
+     * @param actionType The action type to filter by.
+     * @param timestamp The timestamp of the last history record of the previous page.
+     * @param id The ID of the last history record of the previous page.
+     * @param pageable The page size limit.
+     * @return The histories in descending order of (timestamp, id).
+     */
+    @Query(
+        "select h from History h where h.user.id = :userId and h.actionType = :actionType " +
+        "and (h.timestamp < :timestamp or (h.timestamp = :timestamp and h.id < :id)) " +
+        "order by h.timestamp desc, h.id desc"
+    )
+    List<History> findTimelineBeforeByActionType(
+        @Param("userId") Integer userId,
+        @Param("actionType") ActionType actionType,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
     /**
      * Find the latest history record for a user on a specific object in certain interaction actions range.
      * 
@@ -36,4 +118,55 @@ public interface HistoryRepo extends JpaRepository<History, Long> {
      */
     Optional<History> findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
         User user, Integer objectId, List<ActionType> actionTypes);
+
+    /**
+     * Find like records which are still in effect, i.e. not followed by another like or unlike
+     * record of the same user on the same object.
+     * 
+     * @param afterId The ID after which to search, used as a keyset cursor.
+     * @param likeType The like action type.
+     * @param unlikeType The unlike action type paired with the like action type.
+     * @param pageable The page size limit.
+     * @return The effective like records in ascending order of ID.
+     */
+    @Query(
+        "select h from History h where h.id > :afterId and h.actionType = :likeType " +
+        "and not exists (select 1 from History h2 where h2.user = h.user and h2.objectId = h.objectId " +
+        "and h2.actionType in (:likeType, :unlikeType) and h2.id > h.id) " +
+        "order by h.id asc"
+    )
+    List<History> findEffectiveLikes(
+        @Param("afterId") Long afterId,
+        @Param("likeType") ActionType likeType,
+        @Param("unlikeType") ActionType unlikeType,
+        Pageable pageable
+    );
+
+    /**
+     * Find the timestamp of the oldest history record.
+     * 
+     * @return The oldest timestamp, or null if there is no history record.
+     */
+    @Query("select min(h.timestamp) from History h")
+    LocalDateTime findMinTimestamp();
+
+    /**
+     * Find history records in a time range.
+     * 
+     * @param from The inclusive lower bound of the timestamp.
+     * @param to The exclusive upper bound of the timestamp.
+     * @param afterId The ID after which to search, used as a keyset cursor.
+     * @param pageable The page size limit.
+     * @return The histories in ascending order of ID.
+     */
+    @Query(
+        "select h from History h where h.timestamp >= :from and h.timestamp < :to and h.id > :afterId " +
+        "order by h.id asc"
+    )
+    List<History> findByTimestampRange(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
 }
@@ -0,0 +1,58 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.HistorySegment;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for {@link HistorySegment} entities.
+ *
+ * @author !EEExp3rt
+ */
+@Repository
+public interface HistorySegmentRepo extends JpaRepository<HistorySegment, Long> {
+
+    /**
+     * Find the segments holding records of a user, newest first.
+     *
+     * @param userId The user ID.
+     * @return The segments in descending order of their newest record.
+     */
+    @Query(
+        "select s from HistorySegment s join s.userIds u where u = :userId " +
+        "order by s.maxTimestamp desc, s.id desc"
+    )
+    List<HistorySegment> findByUserId(@Param("userId") Integer userId);
+
+    /**
+     * Find the segments holding records of a user not newer than a timestamp, newest first.
+     *
+     * @param userId    The user ID.
+     * @param timestamp The upper bound of the oldest record in the segment.
+     * @return The segments in descending order of their newest record.
+     */
+    @Query(
+        "select s from HistorySegment s join s.userIds u where u = :userId " +
+        "and s.minTimestamp <= :timestamp " +
+        "order by s.maxTimestamp desc, s.id desc"
+    )
+    List<HistorySegment> findByUserIdBefore(
+        @Param("userId") Integer userId,
+        @Param("timestamp") LocalDateTime timestamp
+    );
+
+    /**
+     * Count the segments of a day partition.
+     *
+     * @param partitionDay The day partition.
+     * @return The number of segments of the day.
+     */
+    long countByPartitionDay(LocalDate partitionDay);
+}
@@ -4,6 +4,9 @@ import org.opencourse.models.Interaction;
 import org.opencourse.models.Course;
 import org.opencourse.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -58,4 +61,26 @@ public interface InteractionRepo extends JpaRepository<Interaction, Integer> {
      * @return True if the comment exists, false otherwise.
      */
     boolean existsByCourseAndUser(Course course, User user);
+
+    /**
+     * Atomically add to the like count of a comment.
+     * 
+     * @param id    The interaction ID.
+     * @param delta The number of likes to add, negative to remove likes.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update Interaction i set i.likes = coalesce(i.likes, 0) + cast(:delta as Integer) where i.id = :id")
+    int incrementLikes(@Param("id") Integer id, @Param("delta") int delta);
+
+    /**
+     * Atomically add to the dislike count of a comment.
+     * 
+     * @param id    The interaction ID.
+     * @param delta The number of dislikes to add, negative to remove dislikes.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update Interaction i set i.dislikes = coalesce(i.dislikes, 0) + cast(:delta as Integer) where i.id = :id")
+    int incrementDislikes(@Param("id") Integer id, @Param("delta") int delta);
 }
@@ -0,0 +1,78 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.LikeState;
+import org.opencourse.models.User;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Repository interface for {@link LikeState} entities.
+ *
+ * @author !EEExp3rt
+ */
+@Repository
+public interface LikeStateRepo extends JpaRepository<LikeState, Long>, LikeStateRepoCustom {
+
+    /**
+     * Check if a user currently likes an object.
+     *
+     * @param user       The user.
+     * @param objectType The type of the object.
+     * @param objectId   The ID of the object.
+     * @return True if the like state exists, false otherwise.
+     */
+    boolean existsByUserAndObjectTypeAndObjectId(
+        User user, LikeState.ObjectType objectType, Integer objectId);
+
+    /**
+     * Find the objects currently liked by a user among a collection of objects.
+     *
+     * @param user       The user.
+     * @param objectType The type of the objects.
+     * @param objectIds  The IDs of the objects.
+     * @return The IDs of the liked objects.
+     */
+    @Query("select l.objectId from LikeState l where l.user = :user and l.objectType = :objectType and l.objectId in :objectIds")
+    Set<Integer> findLikedObjectIds(
+        @Param("user") User user,
+        @Param("objectType") LikeState.ObjectType objectType,
+        @Param("objectIds") Collection<Integer> objectIds
+    );
+
+    /**
+     * Delete the like state of a user on an object.
+     *
+     * @param user       The user.
+     * @param objectType The type of the object.
+     * @param objectId   The ID of the object.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from LikeState l where l.user = :user and l.objectType = :objectType and l.objectId = :objectId")
+    int deleteByUserAndObjectTypeAndObjectId(
+        @Param("user") User user,
+        @Param("objectType") LikeState.ObjectType objectType,
+        @Param("objectId") Integer objectId
+    );
+
+    /**
+     * Delete the like states of all users on an object.
+     *
+     * @param objectType The type of the object.
+     * @param objectId   The ID of the object.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from LikeState l where l.objectType = :objectType and l.objectId = :objectId")
+    int deleteByObjectTypeAndObjectId(
+        @Param("objectType") LikeState.ObjectType objectType,
+        @Param("objectId") Integer objectId
+    );
+}
@@ -0,0 +1,25 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.LikeState;
+import org.opencourse.models.User;
+
+/**
+ * Custom repository fragment for {@link LikeState} entities.
+ *
+ * @author !EEExp3rt
+ */
+public interface LikeStateRepoCustom {
+
+    /**
+     * Insert the like state of a user on an object unless it already exists.
+     *
+     * The unique constraint on (user, object type, object ID) decides between concurrent
+     * inserts of the same pair, so exactly one of them inserts the row.
+     *
+     * @param user       The user.
+     * @param objectType The type of the object.
+     * @param objectId   The ID of the object.
+     * @return The number of inserted rows, 1 if inserted or 0 if the state already exists.
+     */
+    int insertIfAbsent(User user, LikeState.ObjectType objectType, Integer objectId);
+}
@@ -0,0 +1,61 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.LikeState;
+import org.opencourse.models.User;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Implementation of {@link LikeStateRepoCustom}.
+ *
+ * The insert is issued through JDBC on the connection of the current transaction, so a
+ * duplicate key only fails the statement and does not mark the surrounding JPA transaction
+ * for rollback.
+ *
+ * @author !EEExp3rt
+ */
+class LikeStateRepoCustomImpl implements LikeStateRepoCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate         The JDBC template.
+     * @param entityManagerFactory The entity manager factory to resolve the table name from.
+     */
+    @Autowired
+    LikeStateRepoCustomImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .getEntityDescriptor(LikeState.class)
+            .getIdentifierTableDetails()
+            .getTableName();
+        this.insertSql = "insert into " + table + " (user_id, object_type, object_id, created_at) values (?, ?, ?, ?)";
+    }
+
+    @Override
+    public int insertIfAbsent(User user, LikeState.ObjectType objectType, Integer objectId) {
+        try {
+            return jdbcTemplate.update(
+                insertSql,
+                user.getId(),
+                objectType.name(),
+                objectId,
+                Timestamp.valueOf(LocalDateTime.now())
+            );
+        } catch (DuplicateKeyException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.opencourse.repositories;
+
+import org.opencourse.models.OutboxEvent;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for {@link OutboxEvent} entities.
+ *
+ * @author !EEExp3rt
+ */
+@Repository
+public interface OutboxEventRepo extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find events due for dispatch, the oldest first.
+     *
+     * @param now      The current time.
+     * @param pageable The maximum number of events.
+     * @return The due events.
+     */
+    @Query("select e from OutboxEvent e where e.nextAttemptAt <= :now order by e.nextAttemptAt, e.id")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Atomically claim an event for one dispatch attempt.
+     *
+     * The attempt count acts as a version, so only one dispatcher claims each attempt. The
+     * event is not due again until the retry time, which is also when it is retried if the
+     * dispatcher dies before finishing it.
+     *
+     * @param id       The event ID.
+     * @param attempts The attempt count the event was found with.
+     * @param retryAt  The time to retry the event if this attempt fails.
+     * @return The number of updated rows, 0 if another dispatcher claimed the event.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.nextAttemptAt = :retryAt " +
+           "where e.id = :id and e.attempts = :attempts")
+    int claim(@Param("id") Long id, @Param("attempts") int attempts, @Param("retryAt") LocalDateTime retryAt);
+
+    /**
+     * Record the error of a failed attempt.
+     *
+     * @param id    The event ID.
+     * @param error The error message.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.lastError = :error where e.id = :id")
+    int recordError(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Delete a completed event.
+     *
+     * @param id The event ID.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id = :id")
+    int deleteEvent(@Param("id") Long id);
+}
@@ -2,9 +2,14 @@ package org.opencourse.repositories;
 
 import org.opencourse.models.Resource;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Repository interface for {@link Resource} entity.
@@ -29,4 +34,57 @@ public interface ResourceRepo extends JpaRepository<Resource, Integer> {
      * @return A list of resources associated with the user.
      */
     public List<Resource> findByUserId(Integer userId);
+
+    /**
+     * Atomically add to the view count of a resource.
+     * 
+     * @param id    The resource ID.
+     * @param delta The number of views to add.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update Resource r set r.views = coalesce(r.views, 0) + cast(:delta as Integer) where r.id = :id")
+    public int incrementViews(@Param("id") Integer id, @Param("delta") int delta);
+
+    /**
+     * Atomically add to the view counts of several resources in one statement.
+     * 
+     * @param ids   The resource IDs.
+     * @param delta The number of views to add to each resource.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update Resource r set r.views = coalesce(r.views, 0) + cast(:delta as Integer) where r.id in :ids")
+    public int incrementViews(@Param("ids") Collection<Integer> ids, @Param("delta") int delta);
+
+    /**
+     * Atomically add to the like count of a resource.
+     * 
+     * @param id    The resource ID.
+     * @param delta The number of likes to add, negative to remove likes.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update Resource r set r.likes = coalesce(r.likes, 0) + cast(:delta as Integer) where r.id = :id")
+    public int incrementLikes(@Param("id") Integer id, @Param("delta") int delta);
+
+    /**
+     * Atomically add to the dislike count of a resource.
+     * 
+     * @param id    The resource ID.
+     * @param delta The number of dislikes to add, negative to remove dislikes.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update Resource r set r.dislikes = coalesce(r.dislikes, 0) + cast(:delta as Integer) where r.id = :id")
+    public int incrementDislikes(@Param("id") Integer id, @Param("delta") int delta);
+
+    /**
+     * Find which of the given file paths are referenced by resources.
+     * 
+     * @param filePaths The file paths to look up.
+     * @return The referenced file paths.
+     */
+    @Query("select r.resourceFile.filePath from Resource r where r.resourceFile.filePath in :filePaths")
+    public Set<String> findReferencedFilePaths(@Param("filePaths") Collection<String> filePaths);
 }
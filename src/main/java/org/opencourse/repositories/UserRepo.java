@@ -2,6 +2,9 @@ package org.opencourse.repositories;
 
 import org.opencourse.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -37,4 +40,14 @@ public interface UserRepo extends JpaRepository<User, Integer> {
      * @return True if the user exists, false otherwise.
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Atomically add to the activity of a user.
+     * @param id The user ID.
+     * @param delta The activity to add, negative to reduce activity.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update User u set u.activity = coalesce(u.activity, 0) + cast(:delta as Integer) where u.id = :id")
+    int incrementActivity(@Param("id") Integer id, @Param("delta") int delta);
 }
@@ -2,16 +2,27 @@ package org.opencourse.services;
 
 import org.opencourse.models.*;
 import org.opencourse.repositories.HistoryRepo;
+import org.opencourse.repositories.LikeStateRepo;
+import org.opencourse.services.history.HistoryArchiveService;
+import org.opencourse.services.history.HistoryCursor;
 import org.opencourse.services.history.HistoryObjectService;
+import org.opencourse.services.history.HistoryPage;
+import org.opencourse.services.history.HistoryWriteBehindService;
 import org.opencourse.utils.typeinfo.ActionType;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import jakarta.transaction.Transactional;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * History service manager.
@@ -22,26 +33,40 @@ import java.util.List;
 public class HistoryManager {
 
     private final HistoryRepo historyRepo; // Data access object.
+    private final LikeStateRepo likeStateRepo;
     private final HistoryObjectService historyObjectService;
+    private final HistoryWriteBehindService historyWriteBehindService;
+    private final HistoryArchiveService historyArchiveService;
 
     /**
      * Constructor.
      * 
      * @param historyRepo The history repository.
+     * @param likeStateRepo The like state repository.
      * @param historyObjectService The history object service.
+     * @param historyWriteBehindService The history write-behind service.
+     * @param historyArchiveService The history archive service.
      */
     @Autowired
     public HistoryManager(
         HistoryRepo historyRepo,
-        HistoryObjectService historyObjectService
+        LikeStateRepo likeStateRepo,
+        HistoryObjectService historyObjectService,
+        HistoryWriteBehindService historyWriteBehindService,
+        HistoryArchiveService historyArchiveService
     ) {
         this.historyRepo = historyRepo;
+        this.likeStateRepo = likeStateRepo;
         this.historyObjectService = historyObjectService;
+        this.historyWriteBehindService = historyWriteBehindService;
+        this.historyArchiveService = historyArchiveService;
     }
 
     /**
      * Get all histories of the user.
      * 
+     * Archived histories are only reachable through the paged {@link #getTimeline}.
+     * 
      * @param userId The user ID.
      * @return The list of histories in descending order of create timestamp.
      */
@@ -49,6 +74,77 @@ public class HistoryManager {
         return historyRepo.findAllByUserIdOrderByTimestampDesc(userId);
     }
 
+    /**
+     * Get a page of the history timeline of the user.
+     * 
+     * @param userId The user ID.
+     * @param actionType The action type to filter by, or null for all action types.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The maximum number of histories in the page.
+     * @return The page of histories in descending order of (timestamp, id).
+     * @throws IllegalArgumentException If the page size is not positive.
+     */
+    public HistoryPage getTimeline(
+        Integer userId,
+        ActionType actionType,
+        HistoryCursor cursor,
+        int size
+    ) throws IllegalArgumentException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        // Fetch one extra record to tell whether there is a next page.
+        PageRequest limit = PageRequest.of(0, size + 1);
+        // Separate queries so each can use its own index.
+        List<History> histories;
+        if (cursor == null) {
+            histories = actionType == null
+                ? historyRepo.findTimeline(userId, limit)
+                : historyRepo.findTimelineByActionType(userId, actionType, limit);
+        } else {
+            histories = actionType == null
+                ? historyRepo.findTimelineBefore(userId, cursor.timestamp(), cursor.id(), limit)
+                : historyRepo.findTimelineBeforeByActionType(userId, actionType, cursor.timestamp(), cursor.id(), limit);
+        }
+        // The hot table ran out before the page is full, continue with the archived segments.
+        if (histories.size() <= size) {
+            histories = merge(histories, historyArchiveService.getTimeline(userId, actionType, cursor, size + 1), size + 1);
+        }
+        if (histories.size() <= size) {
+            return new HistoryPage(histories, null);
+        }
+        histories = histories.subList(0, size);
+        return new HistoryPage(histories, HistoryCursor.of(histories.get(size - 1)));
+    }
+
+    /**
+     * Merge hot and archived histories in descending order of (timestamp, id).
+     * 
+     * @param hot The histories from the hot table.
+     * @param archived The histories from the archived segments.
+     * @param limit The maximum number of histories to keep.
+     * @return The merged histories.
+     */
+    private List<History> merge(List<History> hot, List<History> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> ids = new HashSet<>();
+        List<History> merged = new ArrayList<>(hot.size() + archived.size());
+        for (History history : hot) {
+            ids.add(history.getId());
+            merged.add(history);
+        }
+        for (History history : archived) {
+            // A record may be visible in both places while its segment is being cataloged.
+            if (ids.add(history.getId())) {
+                merged.add(history);
+            }
+        }
+        merged.sort(Comparator.comparing(History::getTimestamp).thenComparing(History::getId).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
     /**
      * Get the history action object.
      * 
@@ -59,6 +155,16 @@ public class HistoryManager {
         return historyObjectService.getHistoryObject(history);
     }
 
+    /**
+     * Get the action objects of a batch of history records with a constant number of queries.
+     * 
+     * @param histories The history records.
+     * @return The model objects keyed by the ID of the history record, missing objects are left out.
+     */
+    public Map<Long, Model<? extends Number>> getHistoryObjects(List<History> histories) {
+        return historyObjectService.getHistoryObjects(histories);
+    }
+
     /**
      * Get the like status of a user for a specific interaction.
      * 
@@ -67,15 +173,11 @@ public class HistoryManager {
      * @return True if the user liked the interaction, false otherwise.
      */
     public boolean getLikeStatus(User user, Interaction interaction) {
-        History history = historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
+        return likeStateRepo.existsByUserAndObjectTypeAndObjectId(
             user,
-            interaction.getId(),
-            Arrays.asList(
-                ActionType.LIKE_INTERACTION,
-                ActionType.UNLIKE_INTERACTION
-            )
-        ).orElse(null);
-        return history != null && history.getActionType() == ActionType.LIKE_INTERACTION;
+            LikeState.ObjectType.INTERACTION,
+            interaction.getId()
+        );
     }
 
     /**
@@ -85,15 +187,68 @@ public class HistoryManager {
      * @return True if the user liked the resource, false otherwise.
      */
     public boolean getLikeStatus(User user, Resource resource) {
-        History history = historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
+        return likeStateRepo.existsByUserAndObjectTypeAndObjectId(
             user,
-            resource.getId(),
-            Arrays.asList(
-                ActionType.LIKE_RESOURCE,
-                ActionType.UNLIKE_RESOURCE
-            )
-        ).orElse(null);
-        return history != null && history.getActionType() == ActionType.LIKE_RESOURCE;
+            LikeState.ObjectType.RESOURCE,
+            resource.getId()
+        );
+    }
+
+    /**
+     * Get the interactions liked by a user among a collection of interactions.
+     *
+     * @param user The user.
+     * @param interactionIds The IDs of the interactions.
+     * @return The IDs of the interactions liked by the user.
+     */
+    public Set<Integer> getLikedInteractionIds(User user, Collection<Integer> interactionIds) {
+        return getLikedObjectIds(user, LikeState.ObjectType.INTERACTION, interactionIds);
+    }
+
+    /**
+     * Get the resources liked by a user among a collection of resources.
+     *
+     * @param user The user.
+     * @param resourceIds The IDs of the resources.
+     * @return The IDs of the resources liked by the user.
+     */
+    public Set<Integer> getLikedResourceIds(User user, Collection<Integer> resourceIds) {
+        return getLikedObjectIds(user, LikeState.ObjectType.RESOURCE, resourceIds);
+    }
+
+    /**
+     * Delete the like states of all users on a deleted interaction.
+     * 
+     * @param interaction The deleted interaction.
+     */
+    @Transactional
+    public void clearLikeStates(Interaction interaction) {
+        likeStateRepo.deleteByObjectTypeAndObjectId(LikeState.ObjectType.INTERACTION, interaction.getId());
+    }
+
+    /**
+     * Delete the like states of all users on a deleted resource.
+     * 
+     * @param resource The deleted resource.
+     */
+    @Transactional
+    public void clearLikeStates(Resource resource) {
+        likeStateRepo.deleteByObjectTypeAndObjectId(LikeState.ObjectType.RESOURCE, resource.getId());
+    }
+
+    /**
+     * Resolve the like status of a collection of objects in a single query.
+     *
+     * @param user The user.
+     * @param objectType The type of the objects.
+     * @param objectIds The IDs of the objects.
+     * @return The IDs of the objects liked by the user.
+     */
+    private Set<Integer> getLikedObjectIds(User user, LikeState.ObjectType objectType, Collection<Integer> objectIds) {
+        if (objectIds.isEmpty()) {
+            return Set.of();
+        }
+        return likeStateRepo.findLikedObjectIds(user, objectType, objectIds);
     }
 
     // Logging methods for different actions.
@@ -101,7 +256,7 @@ public class HistoryManager {
     @Transactional
     public void logCreateCourse(User user, Course course) throws RuntimeException {
         try {
-            historyRepo.save(
+            record(
                 new History(user, ActionType.CREATE_COURSE, course.getId().intValue())
             );
         } catch (Exception e) {
@@ -113,7 +268,7 @@ public class HistoryManager {
     @Transactional
     public void logUpdateCourse(User user, Course course) throws RuntimeException {
         try {
-            historyRepo.save(
+            record(
                 new History(user, ActionType.UPDATE_COURSE, course.getId().intValue())
             );
         } catch (Exception e) {
@@ -125,7 +280,7 @@ public class HistoryManager {
     @Transactional
     public void logDeleteCourse(User user, Course course) throws RuntimeException {
         try {
-            historyRepo.save(
+            record(
                 new History(user, ActionType.DELETE_COURSE, course.getId().intValue())
             );
         } catch (Exception e) {
@@ -137,7 +292,7 @@ public class HistoryManager {
     @Transactional
     public void logCreateDepartment(User user, Department department) throws RuntimeException {
         try {
-            historyRepo.save(
+            record(
                 new History(user, ActionType.CREATE_DEPARTMENT, department.getId().intValue())
             );
         } catch (Exception e) {
@@ -149,7 +304,7 @@ public class HistoryManager {
     @Transactional
     public void logUpdateDepartment(User user, Department department) throws RuntimeException {
         try {
-            historyRepo.save(
+            record(
                 new History(user, ActionType.UPDATE_DEPARTMENT, department.getId().intValue())
             );
         } catch (Exception e) {
@@ -161,7 +316,7 @@ public class HistoryManager {
     @Transactional
     public void logDeleteDepartment(User user, Department department) throws RuntimeException {
         try {
-            historyRepo.save(
+            record(
                 new History(user, ActionType.DELETE_DEPARTMENT, department.getId().intValue())
             );
         } catch (Exception e) {
@@ -173,7 +328,7 @@ public class HistoryManager {
     @Transactional
     public void logCreateResource(User user, Resource resource) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.CREATE_RESOURCE, resource.getId()));
+            record(new History(user, ActionType.CREATE_RESOURCE, resource.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Create-Resource", e);
         }
@@ -183,7 +338,7 @@ public class HistoryManager {
     @Transactional
     public void logUpdateResource(User user, Resource resource) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.UPDATE_RESOURCE, resource.getId()));
+            record(new History(user, ActionType.UPDATE_RESOURCE, resource.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Update-Resource", e);
         }
@@ -193,47 +348,95 @@ public class HistoryManager {
     @Transactional
     public void logDeleteResource(User user, Resource resource) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.DELETE_RESOURCE, resource.getId()));
+            record(new History(user, ActionType.DELETE_RESOURCE, resource.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Delete-Resource", e);
         }
         return ;
     }
 
+    /**
+     * Record a like of a resource if the user does not like it yet.
+     * 
+     * The like state is inserted conditionally, so of concurrent likes of the same user
+     * only one succeeds and is logged.
+     * 
+     * @param user The user.
+     * @param resource The liked resource.
+     * @return True if the like state was inserted, false if the user already likes the resource.
+     * @throws RuntimeException If the like fails to be recorded.
+     */
     @Transactional
-    public void logLikeResource(User user, Resource resource) throws RuntimeException {
+    public boolean logLikeResource(User user, Resource resource) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.LIKE_RESOURCE, resource.getId()));
+            if (likeStateRepo.insertIfAbsent(user, LikeState.ObjectType.RESOURCE, resource.getId()) == 0) {
+                return false;
+            }
+            record(new History(user, ActionType.LIKE_RESOURCE, resource.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Like-Resource", e);
         }
-        return ;
+        return true;
     }
 
+    /**
+     * Record an unlike of a resource if the user likes it.
+     * 
+     * The like state is deleted conditionally, so of concurrent unlikes of the same user
+     * only one succeeds and is logged.
+     * 
+     * @param user The user.
+     * @param resource The unliked resource.
+     * @return True if the like state was deleted, false if the user does not like the resource.
+     * @throws RuntimeException If the unlike fails to be recorded.
+     */
     @Transactional
-    public void logUnlikeResource(User user, Resource resource) throws RuntimeException {
+    public boolean logUnlikeResource(User user, Resource resource) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.UNLIKE_RESOURCE, resource.getId()));
+            if (likeStateRepo.deleteByUserAndObjectTypeAndObjectId(user, LikeState.ObjectType.RESOURCE, resource.getId()) == 0) {
+                return false;
+            }
+            record(new History(user, ActionType.UNLIKE_RESOURCE, resource.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Unlike-Resource", e);
         }
-        return ;
+        return true;
     }
 
     @Transactional
     public void logViewResource(User user, Resource resource) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.VIEW_RESOURCE, resource.getId()));
+            record(new History(user, ActionType.VIEW_RESOURCE, resource.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log View-Resource", e);
         }
         return ;
     }
 
+    /**
+     * Record views of several resources in one batch.
+     * 
+     * @param user The user.
+     * @param resources The viewed resources.
+     * @throws RuntimeException If failed to log the views.
+     */
+    @Transactional
+    public void logViewResources(User user, List<Resource> resources) throws RuntimeException {
+        try {
+            List<History> histories = new ArrayList<>(resources.size());
+            for (Resource resource : resources) {
+                histories.add(new History(user, ActionType.VIEW_RESOURCE, resource.getId()));
+            }
+            recordAll(histories);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to log View-Resources", e);
+        }
+    }
+
     @Transactional
     public void logCreateInteraction(User user, Interaction interaction) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.CREATE_INTERACTION, interaction.getId()));
+            record(new History(user, ActionType.CREATE_INTERACTION, interaction.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Create-Interaction", e);
         }
@@ -243,7 +446,7 @@ public class HistoryManager {
     @Transactional
     public void logUpdateInteraction(User user, Interaction interaction) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.UPDATE_INTERACTION, interaction.getId()));
+            record(new History(user, ActionType.UPDATE_INTERACTION, interaction.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Update-Interaction", e);
         }
@@ -253,37 +456,65 @@ public class HistoryManager {
     @Transactional
     public void logDeleteInteraction(User user, Interaction interaction) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.DELETE_INTERACTION, interaction.getId()));
+            record(new History(user, ActionType.DELETE_INTERACTION, interaction.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Delete-Interaction", e);
         }
         return ;
     }
 
+    /**
+     * Record a like of a interaction if the user does not like it yet.
+     * 
+     * The like state is inserted conditionally, so of concurrent likes of the same user
+     * only one succeeds and is logged.
+     * 
+     * @param user The user.
+     * @param interaction The liked interaction.
+     * @return True if the like state was inserted, false if the user already likes the interaction.
+     * @throws RuntimeException If the like fails to be recorded.
+     */
     @Transactional
-    public void logLikeInteraction(User user, Interaction interaction) throws RuntimeException {
+    public boolean logLikeInteraction(User user, Interaction interaction) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.LIKE_INTERACTION, interaction.getId()));
+            if (likeStateRepo.insertIfAbsent(user, LikeState.ObjectType.INTERACTION, interaction.getId()) == 0) {
+                return false;
+            }
+            record(new History(user, ActionType.LIKE_INTERACTION, interaction.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Like-Interaction", e);
         }
-        return ;
+        return true;
     }
 
+    /**
+     * Record an unlike of a interaction if the user likes it.
+     * 
+     * The like state is deleted conditionally, so of concurrent unlikes of the same user
+     * only one succeeds and is logged.
+     * 
+     * @param user The user.
+     * @param interaction The unliked interaction.
+     * @return True if the like state was deleted, false if the user does not like the interaction.
+     * @throws RuntimeException If the unlike fails to be recorded.
+     */
     @Transactional
-    public void logUnlikeInteraction(User user, Interaction interaction) throws RuntimeException {
+    public boolean logUnlikeInteraction(User user, Interaction interaction) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.UNLIKE_INTERACTION, interaction.getId()));
+            if (likeStateRepo.deleteByUserAndObjectTypeAndObjectId(user, LikeState.ObjectType.INTERACTION, interaction.getId()) == 0) {
+                return false;
+            }
+            record(new History(user, ActionType.UNLIKE_INTERACTION, interaction.getId()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Unlike-Interaction", e);
         }
-        return ;
+        return true;
     }
 
     @Transactional
     public void logRateCourse(User user, Course course) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.RATE_COURSE, course.getId().intValue()));
+            record(new History(user, ActionType.RATE_COURSE, course.getId().intValue()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Rate-Course", e);
         }
@@ -293,7 +524,7 @@ public class HistoryManager {
     @Transactional
     public void logCreateUser(User user) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.CREATE_USER));
+            record(new History(user, ActionType.CREATE_USER));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Create-User", e);
         }
@@ -303,7 +534,7 @@ public class HistoryManager {
     @Transactional
     public void logUpdateUser(User user) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.UPDATE_USER));
+            record(new History(user, ActionType.UPDATE_USER));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Update-User", e);
         }
@@ -313,10 +544,38 @@ public class HistoryManager {
     @Transactional
     public void logDeleteUser(User user) throws RuntimeException {
         try {
-            historyRepo.save(new History(user, ActionType.DELETE_USER));
+            record(new History(user, ActionType.DELETE_USER));
         } catch (Exception e) {
             throw new RuntimeException("Failed to log Delete-User", e);
         }
         return ;
     }
+
+    /**
+     * Record a history.
+     * 
+     * @param history The history record.
+     * @apiNote The record is written in background if write-behind mode is enabled, or saved directly otherwise.
+     */
+    private void record(History history) {
+        if (historyWriteBehindService.isEnabled()) {
+            historyWriteBehindService.submit(history);
+        } else {
+            historyRepo.save(history);
+        }
+    }
+
+    /**
+     * Record histories together.
+     * 
+     * @param histories The history records.
+     * @apiNote The records are written in the same background batch if write-behind mode is enabled, or in one JDBC batch otherwise.
+     */
+    private void recordAll(List<History> histories) {
+        if (historyWriteBehindService.isEnabled()) {
+            historyWriteBehindService.submitAll(histories);
+        } else {
+            historyWriteBehindService.writeBatch(histories);
+        }
+    }
 }
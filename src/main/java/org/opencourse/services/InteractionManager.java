@@ -8,14 +8,17 @@ import org.opencourse.models.Course;
 import org.opencourse.models.User;
 import org.opencourse.repositories.InteractionRepo;
 import org.opencourse.repositories.CourseRepo;
-import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.concurrency.ActivityAggregator;
+import org.opencourse.services.concurrency.AsyncLikeService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Interaction service manager.
@@ -28,32 +31,36 @@ public class InteractionManager {
 
     private final InteractionRepo interactionRepo;
     private final CourseRepo courseRepo;
-    private final UserRepo userRepo;
     private final ApplicationConfig applicationConfig;
     private final HistoryManager historyManager;
+    private final AsyncLikeService asyncLikeService;
+    private final ActivityAggregator activityAggregator;
 
     /**
      * Constructor.
      * 
      * @param interactionRepo The interaction repository.
      * @param courseRepo The course repository.
-     * @param userRepo The user repository.
      * @param applicationConfig The application configuration.
      * @param historyManager The history manager.
+     * @param asyncLikeService The like counter service.
+     * @param activityAggregator The user activity aggregator.
      */
     @Autowired
     public InteractionManager(
         InteractionRepo interactionRepo,
         CourseRepo courseRepo,
-        UserRepo userRepo,
         ApplicationConfig applicationConfig,
-        HistoryManager historyManager
+        HistoryManager historyManager,
+        AsyncLikeService asyncLikeService,
+        ActivityAggregator activityAggregator
     ) {
         this.interactionRepo = interactionRepo;
         this.courseRepo = courseRepo;
-        this.userRepo = userRepo;
         this.applicationConfig = applicationConfig;
         this.historyManager = historyManager;
+        this.asyncLikeService = asyncLikeService;
+        this.activityAggregator = activityAggregator;
     }
 
     /**
@@ -100,8 +107,7 @@ public class InteractionManager {
         Interaction interaction = interactionRepo.save(new Interaction(course, user, content, rating));
 
         // 添加创作者活跃度
-        user.addActivity(applicationConfig.getActivity().getInteraction().getAdd());
-        userRepo.save(user);
+        activityAggregator.add(user, applicationConfig.getActivity().getInteraction().getAdd());
 
         // 添加创建评论的历史记录
         historyManager.logCreateInteraction(user, interaction);
@@ -174,9 +180,10 @@ public class InteractionManager {
         }
 
         interactionRepo.delete(interaction);
+        // 清除评论的点赞状态
+        historyManager.clearLikeStates(interaction);
         // 减少评论者的活跃度
-        user.addActivity(applicationConfig.getActivity().getInteraction().getDelete());
-        userRepo.save(user);
+        activityAggregator.add(user, applicationConfig.getActivity().getInteraction().getDelete());
         // 添加删除评论的历史记录
         historyManager.logDeleteInteraction(user, interaction);
         return true;
@@ -220,21 +227,16 @@ public class InteractionManager {
         Interaction interaction = interactionOpt.get();
         User creator = interaction.getUser();
 
-        // 检查用户是否已经点赞过
-        if (historyManager.getLikeStatus(user, interaction)) {
-            return false; // 已经点赞过，不需要重复操作
+        // 添加点赞记录，已经点赞过则不插入，不需要重复操作
+        if (!historyManager.logLikeInteraction(user, interaction)) {
+            return false;
         }
 
-        // 添加点赞记录
-        historyManager.logLikeInteraction(user, interaction);
-
         // 增加创作者活跃度
-        creator.addActivity(applicationConfig.getActivity().getInteraction().getLike());
-        userRepo.save(creator);
+        activityAggregator.add(creator, applicationConfig.getActivity().getInteraction().getLike());
 
         // 增加点赞数
-        interaction.likes();
-        interactionRepo.save(interaction);
+        asyncLikeService.add(AsyncLikeService.Counter.INTERACTION_LIKES, interaction.getId(), 1);
 
         return true;
     }
@@ -257,25 +259,31 @@ public class InteractionManager {
         Interaction interaction = interactionOpt.get();
         User creator = interaction.getUser();
 
-        // 检查用户是否点赞过
-        if (!historyManager.getLikeStatus(user, interaction)) {
-            return false; // 没有点赞过，无需取消
+        // 移除点赞记录，没有点赞过则不删除，无需取消
+        if (!historyManager.logUnlikeInteraction(user, interaction)) {
+            return false;
         }
 
-        // 移除点赞记录
-        historyManager.logUnlikeInteraction(user, interaction);
-
         // 减少创作者活跃度
-        creator.addActivity(applicationConfig.getActivity().getInteraction().getUnlike());
-        userRepo.save(creator);
+        activityAggregator.add(creator, applicationConfig.getActivity().getInteraction().getUnlike());
 
         // 减少点赞数
-        interaction.unlikes();
-        interactionRepo.save(interaction);
+        asyncLikeService.add(AsyncLikeService.Counter.INTERACTION_LIKES, interaction.getId(), -1);
 
         return true;
     }
 
+    /**
+     * 获取评论的点赞数，包括尚未写入数据库的点赞
+     * 
+     * @param interaction 评论
+     * @return 点赞数
+     */
+    public int getLikes(Interaction interaction) {
+        return asyncLikeService.getLikes(
+            AsyncLikeService.Counter.INTERACTION_LIKES, interaction.getId(), interaction.getLikes());
+    }
+
     /**
      * 检查用户是否对评论点赞
      * 
@@ -295,6 +303,17 @@ public class InteractionManager {
         return historyManager.getLikeStatus(user, interaction);
     }
 
+    /**
+     * 批量检查用户对评论的点赞状态
+     * 
+     * @param user 用户
+     * @param interactionIds 评论ID集合
+     * @return 用户已点赞的评论ID集合
+     */
+    public Set<Integer> getLikedInteractionIds(User user, Collection<Integer> interactionIds) {
+        return historyManager.getLikedInteractionIds(user, interactionIds);
+    }
+
     public Interaction getInteractionById(Integer id) {
         return interactionRepo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("评论不存在"));
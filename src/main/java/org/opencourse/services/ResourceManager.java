@@ -9,16 +9,27 @@ import org.opencourse.models.Resource.ResourceFile;
 import org.opencourse.models.User;
 import org.opencourse.repositories.CourseRepo;
 import org.opencourse.repositories.ResourceRepo;
-import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.concurrency.ActivityAggregator;
+import org.opencourse.services.concurrency.AsyncLikeService;
+import org.opencourse.services.concurrency.BandwidthLimiter;
+import org.opencourse.services.history.ViewCoalescingService;
+import org.opencourse.services.outbox.OutboxService;
 import org.opencourse.services.storage.FileInfo;
 import org.opencourse.services.storage.FileStorageService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.transaction.Transactional;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Resource service manager.
@@ -30,36 +41,52 @@ public class ResourceManager {
 
     private final CourseRepo courseRepo;
     private final ResourceRepo resourceRepo;
-    private final UserRepo userRepo;
     private final ApplicationConfig applicationConfig;
     private final FileStorageService fileStorageService;
     private final HistoryManager historyManager;
+    private final ViewCoalescingService viewCoalescingService;
+    private final AsyncLikeService asyncLikeService;
+    private final ActivityAggregator activityAggregator;
+    private final OutboxService outboxService;
+    private final BandwidthLimiter bandwidthLimiter;
 
     /**
      * Constructor.
      * 
-     * @param courseRepo         The course repository.
-     * @param resourceRepo       The resource repository.
-     * @param userRepo           The user repository.
-     * @param applicationConfig  The application configuration.
-     * @param fileStorageService The file storage service.
-     * @param historyManager     The history manager.
+     * @param courseRepo            The course repository.
+     * @param resourceRepo          The resource repository.
+     * @param applicationConfig     The application configuration.
+     * @param fileStorageService    The file storage service.
+     * @param historyManager        The history manager.
+     * @param viewCoalescingService The resource view coalescing service.
+     * @param asyncLikeService      The like counter service.
+     * @param activityAggregator    The user activity aggregator.
+     * @param outboxService         The outbox for storage side effects.
+     * @param bandwidthLimiter      The download bandwidth limiter.
      */
     @Autowired
     public ResourceManager(
         CourseRepo courseRepo,
         ResourceRepo resourceRepo,
-        UserRepo userRepo,
         ApplicationConfig applicationConfig,
         FileStorageService fileStorageService,
-        HistoryManager historyManager
+        HistoryManager historyManager,
+        ViewCoalescingService viewCoalescingService,
+        AsyncLikeService asyncLikeService,
+        ActivityAggregator activityAggregator,
+        OutboxService outboxService,
+        BandwidthLimiter bandwidthLimiter
     ) {
         this.courseRepo = courseRepo;
         this.resourceRepo = resourceRepo;
-        this.userRepo = userRepo;
         this.applicationConfig = applicationConfig;
         this.fileStorageService = fileStorageService;
         this.historyManager = historyManager;
+        this.viewCoalescingService = viewCoalescingService;
+        this.asyncLikeService = asyncLikeService;
+        this.activityAggregator = activityAggregator;
+        this.outboxService = outboxService;
+        this.bandwidthLimiter = bandwidthLimiter;
     }
 
     /**
@@ -78,44 +105,77 @@ public class ResourceManager {
         Course course = courseRepo.findById(dto.getCourseId())
             .orElseThrow(() -> new IllegalArgumentException("Course not found"));
         // Store the file.
+        ResourceFile resourceFile = storeResourceFile(dto, file);
+        try {
+            return saveResource(dto, resourceFile, course, user);
+        } catch (Exception e) {
+            // Rollback the file storage.
+            rollbackResourceFile(resourceFile, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Store the file of a new resource outside of any transaction.
+     * 
+     * Together with {@link #createResource} and {@link #rollbackResourceFile}, this adds a
+     * resource without holding a database connection while the file is sent to the storage.
+     * 
+     * @param dto  The resource metadata.
+     * @param file The file to store.
+     * @return The stored file.
+     * @throws RuntimeException If the file storage fails.
+     */
+    public ResourceFile storeResourceFile(ResourceUploadDto dto, MultipartFile file) throws RuntimeException {
         ResourceFile resourceFile = fileStorageService.storeFile(
             file,
             dto.getFileType(),
-            course.getId()
+            dto.getCourseId()
         );
         if (resourceFile == null) {
             throw new RuntimeException("Failed to store file " + file.getOriginalFilename());
         }
-        try {
-            // Create the resource.
-            Resource resource = new Resource(
-                dto.getName(),
-                dto.getDescription(),
-                dto.getResourceType(),
-                resourceFile,
-                course,
-                user
-            );
-            // Save the resource.
-            resource = resourceRepo.save(resource);
-            // Add user activity.
-            user.addActivity(applicationConfig.getActivity().getResource().getAdd());
-            user = userRepo.save(user);
-            // Add resource creation history record.
-            historyManager.logCreateResource(user, resource);
-            return resource;
-        } catch (Exception e) {
-            // Rollback the file storage.
-            if (!fileStorageService.deleteFile(resourceFile.getFilePath())) {
-                throw new RuntimeException("Failed to delete file while rollbacking ", e);
-            }
-            throw e;
+        return resourceFile;
+    }
+
+    /**
+     * Create a resource for a file stored by {@link #storeResourceFile}.
+     * 
+     * The file is not deleted on failure, the caller rolls it back with
+     * {@link #rollbackResourceFile} once the transaction has failed to commit.
+     * 
+     * @param dto          The resource metadata.
+     * @param resourceFile The stored file.
+     * @param user         The uploader.
+     * @return The created resource.
+     * @throws IllegalArgumentException If the course is not found.
+     */
+    @Transactional
+    public Resource createResource(ResourceUploadDto dto, ResourceFile resourceFile, User user) throws IllegalArgumentException {
+        Course course = courseRepo.findById(dto.getCourseId())
+            .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+        return saveResource(dto, resourceFile, course, user);
+    }
+
+    /**
+     * Delete the stored file of a resource that could not be created.
+     * 
+     * @param resourceFile The stored file.
+     * @param cause        The error the resource could not be created with.
+     * @throws RuntimeException If the file cannot be deleted.
+     */
+    public void rollbackResourceFile(ResourceFile resourceFile, Exception cause) throws RuntimeException {
+        if (!fileStorageService.deleteFile(resourceFile.getFilePath())) {
+            throw new RuntimeException("Failed to delete file while rollbacking ", cause);
         }
     }
 
     /**
      * Delete a resource.
      * 
+     * With the outbox enabled, the resource file is deleted in background after the
+     * transaction commits, and retried until it succeeds.
+     * 
      * @param id The resource id.
      * @param user The deleter.
      * @return True if the resource is deleted successfully, false otherwise.
@@ -133,17 +193,26 @@ public class ResourceManager {
         if (!user.getId().equals(creator.getId()) && !user.getRole().equals(User.UserRole.ADMIN)) {
             return false;
         }
+        String filePath = resource.getResourceFile().getFilePath();
+        boolean deferred = outboxService.isEnabled();
         // Delete the resource.
         try {
-            creator.addActivity(applicationConfig.getActivity().getResource().getDelete());
-            creator = userRepo.save(creator);
+            activityAggregator.add(creator, applicationConfig.getActivity().getResource().getDelete());
             historyManager.logDeleteResource(user, resource);
+            historyManager.clearLikeStates(resource);
             resourceRepo.delete(resource);
+            if (deferred) {
+                // Delete the resource file after commit.
+                outboxService.enqueueDeleteFile(filePath);
+            }
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete resource", e);
         }
+        if (deferred) {
+            return true;
+        }
         // Delete the resource file.
-        if (!fileStorageService.deleteFile(resource.getResourceFile().getFilePath())) {
+        if (!fileStorageService.deleteFile(filePath)) {
             throw new RuntimeException("Failed to delete resource file");
         }
         return true;
@@ -217,18 +286,14 @@ public class ResourceManager {
         // Get the resource.
         Resource resource = resourceRepo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Resource not found"));
-        // Check if the user has already liked the resource.
-        if (historyManager.getLikeStatus(user, resource)) {
+        // Insert the like state, nothing changes if the user has already liked the resource.
+        if (!historyManager.logLikeResource(user, resource)) {
             return false;
         }
-        resource.likes();
-        resource = resourceRepo.save(resource);
+        asyncLikeService.add(AsyncLikeService.Counter.RESOURCE_LIKES, resource.getId(), 1);
         // Add creator activity.
         User creator = resource.getUser();
-        creator.addActivity(applicationConfig.getActivity().getResource().getLike());
-        userRepo.save(creator);
-        // Add a like history record.
-        historyManager.logLikeResource(user, resource);
+        activityAggregator.add(creator, applicationConfig.getActivity().getResource().getLike());
         return true;
     }
 
@@ -237,6 +302,7 @@ public class ResourceManager {
      * 
      * @param id The resource id.
      * @param user The user.
+     * @return True if the resource is unliked, false if the user has not liked it.
      * @throws IllegalArgumentException If the resource is not found.
      */
     @Transactional
@@ -244,24 +310,23 @@ public class ResourceManager {
         // Get the resource.
         Resource resource = resourceRepo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Resource not found"));
-        // Check if the user has liked the resource.
-        if (!historyManager.getLikeStatus(user, resource)) {
+        // Delete the like state, nothing changes if the user has not liked the resource.
+        if (!historyManager.logUnlikeResource(user, resource)) {
             return false;
         }
-        resource.unlikes();
-        resource = resourceRepo.save(resource);
+        asyncLikeService.add(AsyncLikeService.Counter.RESOURCE_LIKES, resource.getId(), -1);
         // Add creator activity.
         User creator = resource.getUser();
-        creator.addActivity(applicationConfig.getActivity().getResource().getUnlike());
-        userRepo.save(creator);
-        // Add a unlike history record.
-        historyManager.logUnlikeResource(user, resource);
+        activityAggregator.add(creator, applicationConfig.getActivity().getResource().getUnlike());
         return true;
     }
 
     /**
      * View a resource file.
      * 
+     * Repeated views of the same resource by the same user inside the coalescing window
+     * only return the file and are not counted again.
+     * 
      * @param id The resource id.
      * @param user The user.
      * @return The file content and information of the resource.
@@ -269,21 +334,168 @@ public class ResourceManager {
      */
     @Transactional
     public FileInfo viewResource(Integer id, User user) throws IllegalArgumentException {
+        return viewResource(id, user, 0, -1);
+    }
+
+    /**
+     * View a byte range of a resource file.
+     * 
+     * Only a range starting at the first byte counts as a view, so seeking and resumed
+     * downloads of the same file are not counted again.
+     * 
+     * @param id The resource id.
+     * @param user The user.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes, or a negative value for the whole file.
+     * @return The file content of the range and information of the resource.
+     * @throws IllegalArgumentException If the resource is not found.
+     */
+    @Transactional
+    public FileInfo viewResource(Integer id, User user, long offset, long length) throws IllegalArgumentException {
         // Get the resource.
         Resource resource = resourceRepo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Resource not found"));
-        // Add creator activity.
-        User creator = resource.getUser();
-        creator.addActivity(applicationConfig.getActivity().getResource().getView());
-        userRepo.save(creator);
-        // Add a view history record.
-        resource.addView();
-        resource = resourceRepo.save(resource);
-        historyManager.logViewResource(user, resource);
-        return new FileInfo(
-            fileStorageService.getFile(resource.getResourceFile()),
-            resource
+        if (offset == 0) {
+            countView(resource, user);
+        }
+        InputStream file = length < 0
+            ? fileStorageService.getFile(resource.getResourceFile())
+            : fileStorageService.getFile(resource.getResourceFile(), offset, length);
+        if (file != null && bandwidthLimiter.isEnabled()) {
+            file = bandwidthLimiter.limit(file, user.getId());
+        }
+        return new FileInfo(file, resource);
+    }
+
+    /**
+     * View a resource through a short-lived download URL of the storage.
+     * 
+     * The view is counted as in {@link #viewResource(Integer, User)}, but the file is
+     * downloaded by the client from the storage directly instead of through the application.
+     * 
+     * @param id The resource id.
+     * @param user The user.
+     * @param countView Whether to count the view, false for ranges not starting at the first byte.
+     * @return The download URL, or null if redirect downloads are disabled or the URL cannot be created.
+     * @throws IllegalArgumentException If the resource is not found.
+     */
+    @Transactional
+    public String viewResourceUrl(Integer id, User user, boolean countView) throws IllegalArgumentException {
+        ApplicationConfig.Storage.Download download = applicationConfig.getStorage().getDownload();
+        if (download.getMode() != ApplicationConfig.Storage.Download.Mode.REDIRECT) {
+            return null;
+        }
+        // Get the resource.
+        Resource resource = resourceRepo.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Resource not found"));
+        String path = resource.getResourceFile().getFilePath();
+        String url = fileStorageService.presign(
+            resource.getResourceFile(),
+            download.getPresignExpiry(),
+            path.substring(path.lastIndexOf('/') + 1)
         );
+        if (url != null && countView) {
+            countView(resource, user);
+        }
+        return url;
+    }
+
+    /**
+     * Count a view of a resource without fetching its file.
+     * 
+     * Used when the client already has the file cached, so the view still counts
+     * while the file is not sent again.
+     * 
+     * @param resource The resource.
+     * @param user The user.
+     */
+    @Transactional
+    public void countView(Resource resource, User user) {
+        if (viewCoalescingService.tryCount(user.getId(), resource.getId())) {
+            // Add creator activity.
+            User creator = resource.getUser();
+            activityAggregator.add(creator, applicationConfig.getActivity().getResource().getView());
+            // Add a view history record.
+            resourceRepo.incrementViews(resource.getId(), 1);
+            historyManager.logViewResource(user, resource);
+        }
+    }
+
+    /**
+     * Count views of several resources at once.
+     * 
+     * Views are coalesced as in {@link #countView(Resource, User)}, and the counted ones are
+     * added in one update and logged in one history batch.
+     * 
+     * @param resources The viewed resources.
+     * @param user The user.
+     */
+    @Transactional
+    public void countViews(List<Resource> resources, User user) {
+        List<Resource> counted = new ArrayList<>(resources.size());
+        for (Resource resource : resources) {
+            if (viewCoalescingService.tryCount(user.getId(), resource.getId())) {
+                // Add creator activity.
+                activityAggregator.add(resource.getUser(), applicationConfig.getActivity().getResource().getView());
+                counted.add(resource);
+            }
+        }
+        if (counted.isEmpty()) {
+            return;
+        }
+        // Add view history records.
+        resourceRepo.incrementViews(counted.stream().map(Resource::getId).toList(), 1);
+        historyManager.logViewResources(user, counted);
+    }
+
+    /**
+     * Get the strong entity tag of a resource file.
+     * 
+     * Files are stored once under a unique path and never overwritten, so the tag is
+     * derived from the object path and changes only when the resource gets a new file.
+     * 
+     * @param resource The resource.
+     * @return The quoted entity tag, or null if the resource has no file.
+     */
+    public String getETag(Resource resource) {
+        ResourceFile resourceFile = resource.getResourceFile();
+        if (resourceFile == null || resourceFile.getFilePath() == null) {
+            return null;
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(resourceFile.getFilePath().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Get the last modified time of a resource file.
+     * 
+     * @param resource The resource.
+     * @return The creation time of the resource in epoch milliseconds, or -1 if unknown.
+     */
+    public long getLastModified(Resource resource) {
+        if (resource.getCreatedAt() == null) {
+            return -1;
+        }
+        return resource.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Get the exact size of a resource file.
+     * 
+     * @param resource The resource.
+     * @return The file size in bytes, or -1 if error.
+     */
+    public long getFileLength(Resource resource) {
+        return fileStorageService.getFileLength(resource.getResourceFile());
+    }
+
+    /**
+     * Get the number of likes of a resource, including likes not yet flushed.
+     * 
+     * @param resource The resource.
+     * @return The number of likes.
+     */
+    public int getLikes(Resource resource) {
+        return asyncLikeService.getLikes(AsyncLikeService.Counter.RESOURCE_LIKES, resource.getId(), resource.getLikes());
     }
 
     /**
@@ -296,4 +508,43 @@ public class ResourceManager {
     public boolean getLikeStatus(User user, Resource resource) {
         return historyManager.getLikeStatus(user, resource);
     }
+
+    /**
+     * Get the resources liked by a user among a collection of resources.
+     * 
+     * @param user The user.
+     * @param resourceIds The IDs of the resources.
+     * @return The IDs of the resources liked by the user.
+     */
+    public Set<Integer> getLikedResourceIds(User user, Collection<Integer> resourceIds) {
+        return historyManager.getLikedResourceIds(user, resourceIds);
+    }
+
+    /**
+     * Save a new resource for a stored file.
+     * 
+     * @param dto          The resource metadata.
+     * @param resourceFile The stored file.
+     * @param course       The course.
+     * @param user         The uploader.
+     * @return The saved resource.
+     */
+    private Resource saveResource(ResourceUploadDto dto, ResourceFile resourceFile, Course course, User user) {
+        // Create the resource.
+        Resource resource = new Resource(
+            dto.getName(),
+            dto.getDescription(),
+            dto.getResourceType(),
+            resourceFile,
+            course,
+            user
+        );
+        // Save the resource.
+        resource = resourceRepo.save(resource);
+        // Add user activity.
+        activityAggregator.add(user, applicationConfig.getActivity().getResource().getAdd());
+        // Add resource creation history record.
+        historyManager.logCreateResource(user, resource);
+        return resource;
+    }
 }
@@ -7,6 +7,7 @@ import org.opencourse.dto.request.UserLoginDto;
 import org.opencourse.dto.request.UserRegistrationDto;
 import org.opencourse.models.User;
 import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.concurrency.ActivityAggregator;
 import org.opencourse.services.email.EmailService;
 import org.opencourse.services.email.VerificationService;
 import org.opencourse.utils.JwtUtils;
@@ -35,6 +36,7 @@ public class UserManager {
     private final VerificationService verificationService;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final ActivityAggregator activityAggregator;
 
     /**
      * Constructor.
@@ -45,6 +47,7 @@ public class UserManager {
      * @param verificationService   Verification service.
      * @param authenticationManager Authentication manager.
      * @param jwtUtils              JWT utils.
+     * @param activityAggregator    User activity aggregator.
      */
     @Autowired
     public UserManager(
@@ -53,7 +56,8 @@ public class UserManager {
         EmailService emailService,
         VerificationService verificationService,
         AuthenticationManager authenticationManager,
-        JwtUtils jwtUtils
+        JwtUtils jwtUtils,
+        ActivityAggregator activityAggregator
     ) {
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
@@ -61,6 +65,7 @@ public class UserManager {
         this.verificationService = verificationService;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
+        this.activityAggregator = activityAggregator;
     }
 
     /**
@@ -296,7 +301,16 @@ public class UserManager {
         if (userOptional.isEmpty()) {
             return 0;
         }
-        return userOptional.get().getActivity();
+        return getActivity(userOptional.get());
+    }
+
+    /*
+     * 获取用户活跃度，包括尚未写入数据库的活跃度
+     * @param user 用户
+     * @return 用户活跃度
+     */
+    public Integer getActivity(User user) {
+        return activityAggregator.getActivity(user.getId(), user.getActivity());
     }
 
     /*
@@ -0,0 +1,230 @@
+package org.opencourse.services.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.User;
+import org.opencourse.repositories.UserRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregator for user activity deltas.
+ *
+ * Activity earned by an uploader or commenter is buffered per user instead of saving the
+ * {@link User} row on every view and like, so requests of many viewers do not serialize on
+ * the row of a popular uploader. Buffered deltas are flushed periodically with one
+ * {@code activity = coalesce(activity, 0) + ?} update per user, and readers add the pending
+ * delta to the persisted activity.
+ *
+ * When disabled, each delta is applied immediately with the atomic increment of the repository.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class ActivityAggregator implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityAggregator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String updateSql;
+    private final UserRepo userRepo;
+    private final ApplicationConfig.Activity.Aggregation config;
+
+    // Pending deltas by user ID.
+    private final DeltaAccumulator<Integer> pending = new DeltaAccumulator<>();
+
+    // Statistics.
+    private final LongAdder added = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private volatile Timer flushTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate         The JDBC template used for batched activity updates.
+     * @param entityManagerFactory The entity manager factory to resolve the table name from.
+     * @param transactionManager   The transaction manager.
+     * @param userRepo             The user repository.
+     * @param applicationConfig    The application configuration.
+     */
+    @Autowired
+    public ActivityAggregator(
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        UserRepo userRepo,
+        ApplicationConfig applicationConfig
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        String table = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .getEntityDescriptor(User.class)
+            .getIdentifierTableDetails()
+            .getTableName();
+        this.updateSql = "update " + table + " set activity = coalesce(activity, 0) + ? where id = ?";
+        this.userRepo = userRepo;
+        this.config = applicationConfig.getActivity().getAggregation();
+    }
+
+    /**
+     * Add activity to a user.
+     *
+     * If a transaction is active, the delta is buffered only after it commits,
+     * so rolled back actions never count.
+     *
+     * @param user  The user.
+     * @param delta The activity weight of the action from {@link ApplicationConfig.Activity}.
+     */
+    public void add(User user, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        added.increment();
+        Integer userId = user.getId();
+        if (!config.isEnabled()) {
+            userRepo.incrementActivity(userId, delta);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(userId, delta);
+                }
+            });
+        } else {
+            pending.add(userId, delta);
+        }
+    }
+
+    /**
+     * Get the activity delta of a user not yet flushed to the database.
+     *
+     * @param userId The user ID.
+     * @return The pending delta.
+     */
+    public long getPending(Integer userId) {
+        return pending.get(userId);
+    }
+
+    /**
+     * Get the current activity of a user.
+     *
+     * @param userId    The user ID.
+     * @param persisted The activity loaded from the database.
+     * @return The persisted activity with the pending delta merged in.
+     */
+    public int getActivity(Integer userId, Integer persisted) {
+        return (int) ((persisted == null ? 0 : persisted) + getPending(userId));
+    }
+
+    /**
+     * Get the number of users with a pending delta.
+     *
+     * @return The number of pending users.
+     */
+    public int getPendingRows() {
+        return pending.size();
+    }
+
+    /**
+     * Flush pending deltas on schedule.
+     */
+    @Scheduled(fixedDelayString = "${app.activity.aggregation.flush-interval:1s}")
+    public void scheduledFlush() {
+        if (config.isEnabled()) {
+            flush();
+        }
+    }
+
+    /**
+     * Flush all pending deltas before shutdown.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Write all pending deltas to the database in one batch.
+     *
+     * The batch runs in one transaction, so a failed batch leaves no user updated and all its
+     * deltas are put back to be retried on the next flush.
+     *
+     * @return The number of users updated.
+     */
+    public int flush() {
+        Map<Integer, Long> drained = pending.drain();
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>(drained.size());
+        drained.forEach((userId, delta) -> batch.add(new Object[] {delta, userId}));
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(updateSql, batch));
+            flushedRows.add(batch.size());
+            return batch.size();
+        } catch (DataAccessException e) {
+            failedRows.add(batch.size());
+            logger.error("Failed to flush activity of {} users, retrying on next flush", batch.size(), e);
+            drained.forEach(pending::add);
+            return 0;
+        } finally {
+            Timer timer = flushTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opencourse.activity.pending.rows", pending, DeltaAccumulator::size)
+            .description("Users with activity deltas waiting to be flushed")
+            .register(registry);
+        FunctionCounter.builder("opencourse.activity.added", added, LongAdder::sum)
+            .description("User activity deltas added")
+            .register(registry);
+        FunctionCounter.builder("opencourse.activity.flushed.rows", flushedRows, LongAdder::sum)
+            .description("Row updates written by activity flushes")
+            .register(registry);
+        FunctionCounter.builder("opencourse.activity.failed.rows", failedRows, LongAdder::sum)
+            .description("Row updates of failed activity flushes")
+            .register(registry);
+        flushTimer = Timer.builder("opencourse.activity.flush")
+            .description("Latency of activity batch updates")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+}
@@ -1,4 +1,269 @@
 package org.opencourse.services.concurrency;
 
-class AsyncLikeService {
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Interaction;
+import org.opencourse.models.Resource;
+import org.opencourse.repositories.InteractionRepo;
+import org.opencourse.repositories.ResourceRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulator for like counter deltas.
+ *
+ * Likes and unlikes are added to a per-row {@link LongAdder} instead of loading and saving
+ * the entity, so concurrent clicks on a popular row neither lose updates nor queue on its
+ * row lock. Accumulated deltas are flushed periodically with one set-based
+ * {@code likes = coalesce(likes, 0) + ?} update per row, and readers add the pending delta
+ * to the persisted count.
+ *
+ * When disabled, each delta is applied immediately with the atomic increment of the repository.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class AsyncLikeService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLikeService.class);
+
+    /**
+     * Like counters backed by this service.
+     */
+    public enum Counter {
+        RESOURCE_LIKES(Resource.class),
+        INTERACTION_LIKES(Interaction.class);
+
+        private final Class<?> entityClass;
+
+        Counter(Class<?> entityClass) {
+            this.entityClass = entityClass;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Counter, String> updateSql = new EnumMap<>(Counter.class);
+    private final ResourceRepo resourceRepo;
+    private final InteractionRepo interactionRepo;
+    private final ApplicationConfig.LikeCounter config;
+
+    // Pending deltas by counter row.
+    private final DeltaAccumulator<Key> pending = new DeltaAccumulator<>();
+
+    // Statistics.
+    private final LongAdder added = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private volatile Timer flushTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate         The JDBC template used for batched counter updates.
+     * @param entityManagerFactory The entity manager factory to resolve the table names from.
+     * @param transactionManager   The transaction manager.
+     * @param resourceRepo         The resource repository.
+     * @param interactionRepo      The interaction repository.
+     * @param applicationConfig    The application configuration.
+     */
+    @Autowired
+    public AsyncLikeService(
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        ResourceRepo resourceRepo,
+        InteractionRepo interactionRepo,
+        ApplicationConfig applicationConfig
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        for (Counter counter : Counter.values()) {
+            String table = sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(counter.entityClass)
+                .getIdentifierTableDetails()
+                .getTableName();
+            updateSql.put(counter, "update " + table + " set likes = coalesce(likes, 0) + ? where id = ?");
+        }
+        this.resourceRepo = resourceRepo;
+        this.interactionRepo = interactionRepo;
+        this.config = applicationConfig.getLikeCounter();
+    }
+
+    /**
+     * Add a delta to a like counter.
+     *
+     * If a transaction is active, the delta is accumulated only after it commits,
+     * so rolled back likes are never counted.
+     *
+     * @param counter The counter.
+     * @param id      The ID of the row.
+     * @param delta   The delta to add.
+     */
+    public void add(Counter counter, Integer id, int delta) {
+        added.increment();
+        if (!config.isEnabled()) {
+            switch (counter) {
+                case RESOURCE_LIKES -> resourceRepo.incrementLikes(id, delta);
+                case INTERACTION_LIKES -> interactionRepo.incrementLikes(id, delta);
+            }
+            return;
+        }
+        Key key = new Key(counter, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(key, delta);
+                }
+            });
+        } else {
+            pending.add(key, delta);
+        }
+    }
+
+    /**
+     * Get the delta of a like counter not yet flushed to the database.
+     *
+     * @param counter The counter.
+     * @param id      The ID of the row.
+     * @return The pending delta.
+     */
+    public long getPending(Counter counter, Integer id) {
+        return pending.get(new Key(counter, id));
+    }
+
+    /**
+     * Get the current value of a like counter.
+     *
+     * @param counter   The counter.
+     * @param id        The ID of the row.
+     * @param persisted The value loaded from the database.
+     * @return The persisted value with the pending delta merged in.
+     */
+    public int getLikes(Counter counter, Integer id, Integer persisted) {
+        return (int) ((persisted == null ? 0 : persisted) + getPending(counter, id));
+    }
+
+    /**
+     * Get the number of rows with a pending delta.
+     *
+     * @return The number of pending rows.
+     */
+    public int getPendingRows() {
+        return pending.size();
+    }
+
+    /**
+     * Flush pending deltas on schedule.
+     */
+    @Scheduled(fixedDelayString = "${app.like-counter.flush-interval:1s}")
+    public void scheduledFlush() {
+        if (config.isEnabled()) {
+            flush();
+        }
+    }
+
+    /**
+     * Flush all pending deltas before shutdown.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Write all pending deltas to the database.
+     *
+     * Rows that had nothing to flush are retired from the map. Each batch runs in its own
+     * transaction, so a failed batch leaves no row updated and all its deltas are put back
+     * to be retried on the next flush.
+     *
+     * @return The number of rows updated.
+     */
+    public int flush() {
+        Map<Counter, List<Object[]>> batches = new EnumMap<>(Counter.class);
+        pending.drain().forEach((key, delta) ->
+            batches.computeIfAbsent(key.counter(), k -> new ArrayList<>()).add(new Object[] {delta, key.id()})
+        );
+
+        int rows = 0;
+        for (Map.Entry<Counter, List<Object[]>> batch : batches.entrySet()) {
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(updateSql.get(batch.getKey()), batch.getValue())
+                );
+                flushedRows.add(batch.getValue().size());
+                rows += batch.getValue().size();
+            } catch (DataAccessException e) {
+                failedRows.add(batch.getValue().size());
+                logger.error("Failed to flush {} {} deltas, retrying on next flush",
+                    batch.getValue().size(), batch.getKey(), e);
+                for (Object[] args : batch.getValue()) {
+                    pending.add(new Key(batch.getKey(), (Integer) args[1]), (Long) args[0]);
+                }
+            } finally {
+                Timer timer = flushTimer;
+                if (timer != null) {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opencourse.likes.pending.rows", pending, DeltaAccumulator::size)
+            .description("Rows with like deltas waiting to be flushed")
+            .register(registry);
+        FunctionCounter.builder("opencourse.likes.added", added, LongAdder::sum)
+            .description("Like counter deltas added")
+            .register(registry);
+        FunctionCounter.builder("opencourse.likes.flushed.rows", flushedRows, LongAdder::sum)
+            .description("Row updates written by like counter flushes")
+            .register(registry);
+        FunctionCounter.builder("opencourse.likes.failed.rows", failedRows, LongAdder::sum)
+            .description("Row updates of failed like counter flushes")
+            .register(registry);
+        flushTimer = Timer.builder("opencourse.likes.flush")
+            .description("Latency of like counter batch updates")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * Counter row.
+     */
+    private record Key(Counter counter, Integer id) {
+    }
 }
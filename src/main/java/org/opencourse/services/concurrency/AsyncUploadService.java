@@ -0,0 +1,463 @@
+package org.opencourse.services.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.dto.request.ResourceUploadDto;
+import org.opencourse.models.Resource;
+import org.opencourse.models.Resource.ResourceFile;
+import org.opencourse.models.User;
+import org.opencourse.repositories.CourseRepo;
+import org.opencourse.services.ResourceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous resource upload pipeline.
+ *
+ * The uploaded file is spooled to local disk and a ticket is returned right away, while a
+ * bounded pool of workers stores the file outside of any transaction and then creates the
+ * resource in a short transaction of its own, deleting the stored file if that fails. Request
+ * threads and database connections are therefore not held while the file is sent to the
+ * storage backend. Clients poll the ticket for the result.
+ *
+ * Tickets are kept in memory and expire a while after they finish. Uploads not processed
+ * before shutdown are lost, and their spool files are removed on the next start.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class AsyncUploadService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncUploadService.class);
+
+    private static final String SPOOL_SUFFIX = ".spool";
+
+    /**
+     * Upload ticket status.
+     */
+    public enum Status {
+        // Spooled and waiting for a worker.
+        PENDING,
+        // Being stored by a worker.
+        PROCESSING,
+        // The resource is created.
+        SUCCEEDED,
+        // The upload failed, nothing is left in storage.
+        FAILED
+    }
+
+    private final ResourceManager resourceManager;
+    private final CourseRepo courseRepo;
+    private final ApplicationConfig.Storage.Upload config;
+
+    // Tickets by ID.
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private volatile ThreadPoolExecutor workers;
+
+    // Statistics.
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param resourceManager   The resource manager.
+     * @param courseRepo        The course repository.
+     * @param applicationConfig The application configuration.
+     */
+    @Autowired
+    public AsyncUploadService(
+        ResourceManager resourceManager,
+        CourseRepo courseRepo,
+        ApplicationConfig applicationConfig
+    ) {
+        this.resourceManager = resourceManager;
+        this.courseRepo = courseRepo;
+        this.config = applicationConfig.getStorage().getUpload();
+    }
+
+    /**
+     * Check if uploads should be submitted here.
+     *
+     * @return True if asynchronous upload is enabled.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Spool an uploaded file and queue it to be stored as a resource.
+     *
+     * @param dto  The resource upload information.
+     * @param file The uploaded file.
+     * @param user The uploader.
+     * @return The ticket, or null if the upload queue is full.
+     * @throws IllegalArgumentException If the course is not found.
+     * @throws RuntimeException         If the file cannot be spooled or asynchronous upload is disabled.
+     */
+    public Ticket submit(ResourceUploadDto dto, MultipartFile file, User user) throws IllegalArgumentException, RuntimeException {
+        ThreadPoolExecutor executor = workers;
+        if (executor == null) {
+            throw new IllegalStateException("Asynchronous upload is disabled");
+        }
+        if (!courseRepo.existsById(dto.getCourseId())) {
+            throw new IllegalArgumentException("Course not found");
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), user.getId());
+        Path spool = getSpoolDirectory().resolve(ticket.getId() + SPOOL_SUFFIX);
+        try {
+            // Moves the request part file where possible instead of copying it.
+            file.transferTo(spool.toFile());
+        } catch (IOException e) {
+            deleteQuietly(spool);
+            throw new RuntimeException("Failed to spool file " + file.getOriginalFilename(), e);
+        }
+        SpooledFile spooledFile = new SpooledFile(
+            file.getName(),
+            file.getOriginalFilename(),
+            file.getContentType(),
+            spool
+        );
+        tickets.put(ticket.getId(), ticket);
+        try {
+            executor.execute(() -> process(ticket, dto, spooledFile, user));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.getId());
+            deleteQuietly(spool);
+            rejected.increment();
+            return null;
+        }
+        submitted.increment();
+        return ticket;
+    }
+
+    /**
+     * Get a ticket of a user.
+     *
+     * @param id   The ticket ID.
+     * @param user The user.
+     * @return The ticket, or null if not found or submitted by another user.
+     */
+    public Ticket getTicket(String id, User user) {
+        Ticket ticket = tickets.get(id);
+        if (ticket == null || !ticket.getUserId().equals(user.getId())) {
+            return null;
+        }
+        return ticket;
+    }
+
+    /**
+     * Get the number of uploads waiting for a worker.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        ThreadPoolExecutor executor = workers;
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * Remove finished tickets older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.upload.ticket-retention:1h}")
+    public void expireTickets() {
+        LocalDateTime expiry = LocalDateTime.now().minus(config.getTicketRetention());
+        tickets.values().removeIf(ticket -> ticket.isFinished() && ticket.getUpdatedAt().isBefore(expiry));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opencourse.upload.queue.depth", this, AsyncUploadService::getQueueDepth)
+            .description("Uploads waiting for a worker")
+            .register(registry);
+        FunctionCounter.builder("opencourse.upload.submitted", submitted, LongAdder::sum)
+            .description("Uploads spooled and queued")
+            .register(registry);
+        FunctionCounter.builder("opencourse.upload.succeeded", succeeded, LongAdder::sum)
+            .description("Uploads stored as resources")
+            .register(registry);
+        FunctionCounter.builder("opencourse.upload.failed", failed, LongAdder::sum)
+            .description("Uploads that failed in a worker")
+            .register(registry);
+        FunctionCounter.builder("opencourse.upload.rejected", rejected, LongAdder::sum)
+            .description("Uploads rejected because the queue was full")
+            .register(registry);
+    }
+
+    /**
+     * Prepare the spool directory and start the workers.
+     *
+     * Tickets are kept in memory only, so spool files left by a previous run are removed.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled() || workers != null) {
+            return;
+        }
+        try {
+            Path directory = Files.createDirectories(getSpoolDirectory());
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SPOOL_SUFFIX))
+                    .forEach(AsyncUploadService::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to prepare spool directory " + config.getSpoolDirectory(), e);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        workers = new ThreadPoolExecutor(
+            config.getWorkers(),
+            config.getWorkers(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "upload-worker-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+    /**
+     * Stop taking uploads and wait for queued ones to finish.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PreDestroy
+    public void stop() {
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("{} uploads not processed before shutdown", workers.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Store a spooled file as a resource.
+     *
+     * The stored file is rolled back if the resource transaction fails, including on commit.
+     *
+     * @param ticket The ticket of the upload.
+     * @param dto    The resource upload information.
+     * @param file   The spooled file, deleted afterwards.
+     * @param user   The uploader.
+     */
+    private void process(Ticket ticket, ResourceUploadDto dto, SpooledFile file, User user) {
+        ticket.update(Status.PROCESSING, null, null);
+        try {
+            ResourceFile resourceFile = resourceManager.storeResourceFile(dto, file);
+            Resource resource;
+            try {
+                resource = resourceManager.createResource(dto, resourceFile, user);
+            } catch (RuntimeException e) {
+                resourceManager.rollbackResourceFile(resourceFile, e);
+                throw e;
+            }
+            ticket.update(Status.SUCCEEDED, resource.getId(), null);
+            succeeded.increment();
+        } catch (Exception e) {
+            logger.warn("Failed to store upload {}", ticket.getId(), e);
+            ticket.update(Status.FAILED, null, e.getMessage());
+            failed.increment();
+        } finally {
+            deleteQuietly(file.path);
+        }
+    }
+
+    private Path getSpoolDirectory() {
+        return Paths.get(config.getSpoolDirectory()).toAbsolutePath();
+    }
+
+    /**
+     * Delete a file, logging failures.
+     *
+     * @param path The file.
+     */
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete spool file {}", path, e);
+        }
+    }
+
+    /**
+     * Upload ticket.
+     *
+     * @author !EEExp3rt
+     */
+    public static final class Ticket {
+
+        private final String id;
+        private final Integer userId;
+        private final LocalDateTime createdAt;
+        private volatile Status status;
+        private volatile Integer resourceId;
+        private volatile String error;
+        private volatile LocalDateTime updatedAt;
+
+        Ticket(String id, Integer userId) {
+            this.id = id;
+            this.userId = userId;
+            this.createdAt = LocalDateTime.now();
+            this.status = Status.PENDING;
+            this.updatedAt = createdAt;
+        }
+
+        private void update(Status status, Integer resourceId, String error) {
+            this.resourceId = resourceId;
+            this.error = error;
+            this.updatedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        public boolean isFinished() {
+            return status == Status.SUCCEEDED || status == Status.FAILED;
+        }
+
+        // Getters.
+
+        public String getId() {
+            return id;
+        }
+
+        public Integer getUserId() {
+            return userId;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Integer getResourceId() {
+            return resourceId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Ticket{" +
+                    "id='" + id + '\'' +
+                    ", userId=" + userId +
+                    ", status=" + status +
+                    ", resourceId=" + resourceId +
+                    ", error='" + error + '\'' +
+                    ", createdAt=" + createdAt +
+                    ", updatedAt=" + updatedAt +
+                    '}';
+        }
+    }
+
+    /**
+     * Uploaded file spooled to local disk.
+     */
+    private static final class SpooledFile implements MultipartFile {
+
+        private final String name;
+        private final String originalFilename;
+        private final String contentType;
+        private final Path path;
+
+        SpooledFile(String name, String originalFilename, String contentType, Path path) {
+            this.name = name;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+            this.path = path;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
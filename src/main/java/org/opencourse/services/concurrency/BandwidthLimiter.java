@@ -0,0 +1,230 @@
+package org.opencourse.services.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Download bandwidth shaping.
+ *
+ * Streamed resource files are read through a {@link TokenBucket} of the downloading user
+ * and a global one shared by everybody. Each read takes its bytes from both buckets and
+ * sleeps while either is overdrawn, so a user gets at most the user rate, all users
+ * together at most the global rate, and both may send a burst at full speed after being
+ * idle. The buckets are lock-free, so reads cost two CAS operations when nobody is throttled.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class BandwidthLimiter implements MeterBinder {
+
+    private final ApplicationConfig.Storage.Download.Bandwidth config;
+    private final LongSupplier clock;
+
+    // The global bucket, or null if the global rate is not limited.
+    private final TokenBucket global;
+
+    // Buckets by user ID.
+    private final ConcurrentHashMap<Integer, TokenBucket> users = new ConcurrentHashMap<>();
+
+    // Statistics.
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder delays = new LongAdder();
+    private final LongAdder delayNanos = new LongAdder();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param applicationConfig The application configuration.
+     */
+    @Autowired
+    public BandwidthLimiter(ApplicationConfig applicationConfig) {
+        this(applicationConfig, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param applicationConfig The application configuration.
+     * @param clock             The nanosecond clock.
+     */
+    BandwidthLimiter(ApplicationConfig applicationConfig, LongSupplier clock) {
+        this.config = applicationConfig.getStorage().getDownload().getBandwidth();
+        this.clock = clock;
+        long globalRate = config.getGlobalRate().toBytes();
+        this.global = globalRate > 0 ? new TokenBucket(globalRate, config.getBurst().toBytes(), clock) : null;
+    }
+
+    /**
+     * Check if downloads are shaped.
+     *
+     * @return True if bandwidth shaping is enabled.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Shape a download stream.
+     *
+     * @param inputStream The file stream.
+     * @param userId      The ID of the downloading user, or null to apply only the global rate.
+     * @return The shaped stream, or the same stream if nothing limits it.
+     */
+    public InputStream limit(InputStream inputStream, Integer userId) {
+        if (inputStream == null || !config.isEnabled()) {
+            return inputStream;
+        }
+        long userRate = config.getUserRate().toBytes();
+        TokenBucket user = null;
+        if (userRate > 0 && userId != null) {
+            user = users.get(userId);
+            if (user == null) {
+                user = users.computeIfAbsent(userId, id -> new TokenBucket(userRate, config.getBurst().toBytes(), clock));
+            }
+        }
+        if (user == null && global == null) {
+            return inputStream;
+        }
+        return new LimitedInputStream(inputStream, user);
+    }
+
+    /**
+     * Remove the buckets of users idle for the idle expiry.
+     *
+     * A removed bucket is full, so a user starting over with a new one gets nothing extra.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.download.bandwidth.idle-expiry:5m}")
+    public void expireIdleBuckets() {
+        long idleNanos = config.getIdleExpiry().toNanos();
+        users.values().removeIf(bucket -> bucket.isIdle(idleNanos));
+    }
+
+    /**
+     * Get the number of users with a bucket.
+     *
+     * @return The number of user buckets.
+     */
+    public int getUserCount() {
+        return users.size();
+    }
+
+    /**
+     * Get the number of streams waiting for bandwidth.
+     *
+     * @return The number of throttled streams.
+     */
+    public int getThrottledCount() {
+        return waiting.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opencourse.bandwidth.users", this, BandwidthLimiter::getUserCount)
+            .description("Users with a download bandwidth bucket")
+            .register(registry);
+        Gauge.builder("opencourse.bandwidth.throttled", this, BandwidthLimiter::getThrottledCount)
+            .description("Download streams waiting for bandwidth")
+            .register(registry);
+        if (global != null) {
+            Gauge.builder("opencourse.bandwidth.global.available", global, TokenBucket::available)
+                .description("Bytes that can be sent right away under the global rate")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+        FunctionCounter.builder("opencourse.bandwidth.bytes", bytes, LongAdder::sum)
+            .description("Bytes sent through shaped download streams")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("opencourse.bandwidth.delays", delays, LongAdder::sum)
+            .description("Reads of shaped download streams that had to wait")
+            .register(registry);
+        FunctionCounter.builder("opencourse.bandwidth.delay.time", delayNanos, adder -> adder.sum() / 1e9)
+            .description("Time shaped download streams spent waiting")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    /**
+     * Take bandwidth for bytes read, waiting while the user or global bucket is overdrawn.
+     *
+     * @param user  The user bucket, or null.
+     * @param count The number of bytes read.
+     * @throws InterruptedIOException If interrupted while waiting.
+     */
+    private void acquire(TokenBucket user, long count) throws InterruptedIOException {
+        bytes.add(count);
+        long delay = user != null ? user.acquire(count) : 0;
+        if (global != null) {
+            delay = Math.max(delay, global.acquire(count));
+        }
+        if (delay <= 0) {
+            return;
+        }
+        delays.increment();
+        delayNanos.add(delay);
+        waiting.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stream taking bandwidth for every read.
+     */
+    private final class LimitedInputStream extends FilterInputStream {
+
+        private final TokenBucket user;
+
+        /**
+         * Constructor.
+         *
+         * @param inputStream The file stream.
+         * @param user        The user bucket, or null.
+         */
+        LimitedInputStream(InputStream inputStream, TokenBucket user) {
+            super(inputStream);
+            this.user = user;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                acquire(user, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                acquire(user, count);
+            }
+            return count;
+        }
+    }
+}
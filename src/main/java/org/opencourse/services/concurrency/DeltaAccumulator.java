@@ -0,0 +1,84 @@
+package org.opencourse.services.concurrency;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent per-key delta accumulator.
+ *
+ * Writers add to a per-key {@link LongAdder}, so concurrent deltas of a hot key do not
+ * contend on a single lock. Draining takes every accumulated delta exactly once, and keys
+ * with nothing to drain are retired from the map.
+ *
+ * @param <K> The key type.
+ * @author !EEExp3rt
+ */
+final class DeltaAccumulator<K> {
+
+    // Pending deltas by key.
+    private final ConcurrentHashMap<K, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Add a delta to a key.
+     *
+     * @param key   The key.
+     * @param delta The delta to add.
+     */
+    void add(K key, long delta) {
+        while (delta != 0) {
+            LongAdder adder = pending.computeIfAbsent(key, k -> new LongAdder());
+            adder.add(delta);
+            if (pending.get(key) == adder) {
+                return;
+            }
+            // The adder was retired by a concurrent drain, move whatever it did not take to a live one.
+            delta = adder.sumThenReset();
+        }
+    }
+
+    /**
+     * Get the pending delta of a key.
+     *
+     * @param key The key.
+     * @return The pending delta.
+     */
+    long get(K key) {
+        LongAdder adder = pending.get(key);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * Get the number of tracked keys.
+     *
+     * @return The number of keys.
+     */
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Take all pending deltas.
+     *
+     * Keys that had nothing to take are retired from the map.
+     *
+     * @return The non-zero deltas by key.
+     */
+    Map<K, Long> drain() {
+        Map<K, Long> drained = new HashMap<>();
+        for (Map.Entry<K, LongAdder> entry : pending.entrySet()) {
+            K key = entry.getKey();
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0 && pending.remove(key, adder)) {
+                // Take deltas added before the adder was retired, later ones are moved by their writers.
+                delta = adder.sumThenReset();
+            }
+            if (delta != 0) {
+                drained.put(key, delta);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,79 @@
+package org.opencourse.services.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Instead of a token count refilled over time, the bucket keeps the time at which all tokens
+ * taken so far are paid back, which is updated with a single compare-and-set. Taking tokens
+ * always succeeds and moves that time forward, and the caller waits for however long the
+ * bucket is overdrawn beyond its burst. An uncongested bucket costs one CAS per call.
+ *
+ * @author !EEExp3rt
+ */
+final class TokenBucket {
+
+    private final double nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    // When the bucket is full again, in clock nanoseconds.
+    private final AtomicLong fullAt;
+
+    /**
+     * Constructor.
+     *
+     * @param rate  The tokens refilled per second, positive.
+     * @param burst The tokens the bucket holds when full.
+     * @param clock The nanosecond clock.
+     */
+    TokenBucket(long rate, long burst, LongSupplier clock) {
+        this.nanosPerToken = 1_000_000_000d / rate;
+        this.burstNanos = (long) (Math.max(burst, 0) * nanosPerToken);
+        this.clock = clock;
+        this.fullAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Take tokens from the bucket.
+     *
+     * @param tokens The number of tokens.
+     * @return The nanoseconds to wait before the tokens may be used, 0 if right away.
+     */
+    long acquire(long tokens) {
+        long cost = (long) (tokens * nanosPerToken);
+        long now = clock.getAsLong();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            if (fullAt.compareAndSet(current, next)) {
+                return Math.max(0, next - now - burstNanos);
+            }
+        }
+    }
+
+    /**
+     * Get the tokens available right away.
+     *
+     * @return The number of tokens, 0 if the bucket is overdrawn.
+     */
+    long available() {
+        long owed = fullAt.get() - clock.getAsLong();
+        if (owed <= 0) {
+            return (long) (burstNanos / nanosPerToken);
+        }
+        return Math.max(0, (long) ((burstNanos - owed) / nanosPerToken));
+    }
+
+    /**
+     * Check if the bucket has been full for a while.
+     *
+     * @param nanos The idle time in nanoseconds.
+     * @return True if the bucket has been full for at least the idle time.
+     */
+    boolean isIdle(long nanos) {
+        return clock.getAsLong() - fullAt.get() >= nanos;
+    }
+}
@@ -0,0 +1,310 @@
+package org.opencourse.services.history;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.History;
+import org.opencourse.models.HistorySegment;
+import org.opencourse.models.User;
+import org.opencourse.repositories.HistoryRepo;
+import org.opencourse.repositories.HistorySegmentRepo;
+import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.storage.FileStorageService;
+import org.opencourse.utils.typeinfo.ActionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archival of old history records into immutable segments in the file storage.
+ *
+ * Records older than the configured horizon are rolled up one day at a time: the records of
+ * a day are written as segment objects of bounded size with one compressed block per user
+ * plus a per-user index object, cataloged in the {@link HistorySegment} table together with
+ * their users, and then deleted from the hot table in the same transaction as the catalog insert.
+ *
+ * Reads only visit the segments cataloged for the requested user, newest first, and only fetch
+ * the block of that user.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class HistoryArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryArchiveService.class);
+
+    private static final String SEGMENT_PREFIX = "history/segments/";
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private final HistoryRepo historyRepo;
+    private final HistorySegmentRepo historySegmentRepo;
+    private final UserRepo userRepo;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationConfig.History.Archive config;
+
+    // Parsed segment indexes by segment ID, least recently used first.
+    private final Map<Long, HistorySegmentIndex> indexCache;
+
+    /**
+     * Constructor.
+     *
+     * @param historyRepo        The history repository.
+     * @param historySegmentRepo The history segment repository.
+     * @param userRepo           The user repository.
+     * @param fileStorageService The file storage service holding the segments.
+     * @param transactionManager The transaction manager.
+     * @param applicationConfig  The application configuration.
+     */
+    @Autowired
+    public HistoryArchiveService(
+        HistoryRepo historyRepo,
+        HistorySegmentRepo historySegmentRepo,
+        UserRepo userRepo,
+        FileStorageService fileStorageService,
+        PlatformTransactionManager transactionManager,
+        ApplicationConfig applicationConfig
+    ) {
+        this.historyRepo = historyRepo;
+        this.historySegmentRepo = historySegmentRepo;
+        this.userRepo = userRepo;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = applicationConfig.getHistory().getArchive();
+        int cacheSize = config.getIndexCacheSize();
+        this.indexCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, HistorySegmentIndex> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Run the archival job on schedule if enabled.
+     */
+    @Scheduled(cron = "${app.history.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (config.isEnabled()) {
+            archive(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Archive all whole days older than the horizon.
+     *
+     * @param now The current time.
+     * @return The number of records archived.
+     * @throws RuntimeException If a segment cannot be written.
+     */
+    public long archive(LocalDateTime now) throws RuntimeException {
+        LocalDate horizonDay = now.minus(config.getHorizon()).toLocalDate();
+        long archived = 0;
+        while (true) {
+            LocalDateTime oldest = historyRepo.findMinTimestamp();
+            if (oldest == null || !oldest.toLocalDate().isBefore(horizonDay)) {
+                return archived;
+            }
+            int count = archiveDay(oldest.toLocalDate());
+            if (count == 0) {
+                return archived;
+            }
+            archived += count;
+        }
+    }
+
+    /**
+     * Archive the oldest history records of one day into a new segment.
+     *
+     * At most the configured maximum number of records go into one segment, the rest of the
+     * day is left for the next segment.
+     *
+     * @param day The day to archive.
+     * @return The number of records archived.
+     * @throws RuntimeException If the segment cannot be written.
+     */
+    int archiveDay(LocalDate day) throws RuntimeException {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+
+        // Collect the records of the day by user, up to the size of a segment.
+        Map<Integer, List<HistorySegmentCodec.Row>> rowsByUser = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        long cursor = 0L;
+        while (ids.size() < config.getMaxSegmentRows()) {
+            final long afterId = cursor;
+            int pageSize = Math.min(config.getBatchSize(), config.getMaxSegmentRows() - ids.size());
+            List<History> page = transactionTemplate.execute(status ->
+                historyRepo.findByTimestampRange(from, to, afterId, PageRequest.of(0, pageSize))
+            );
+            for (History history : page) {
+                rowsByUser
+                    .computeIfAbsent(history.getUser().getId(), k -> new ArrayList<>())
+                    .add(new HistorySegmentCodec.Row(
+                        history.getId(),
+                        history.getActionType(),
+                        history.getObjectId(),
+                        history.getTimestamp()
+                    ));
+                ids.add(history.getId());
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Write the segment and its index.
+        HistorySegmentCodec.Encoded encoded;
+        try {
+            encoded = HistorySegmentCodec.encode(rowsByUser);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode history segment of " + day, e);
+        }
+        String path = SEGMENT_PREFIX + day + "-" + historySegmentRepo.countByPartitionDay(day);
+        if (!fileStorageService.storeObject(path + ".seg", encoded.segment(), CONTENT_TYPE)
+            || !fileStorageService.storeObject(path + ".idx", encoded.index(), CONTENT_TYPE)) {
+            throw new RuntimeException("Failed to store history segment " + path);
+        }
+
+        // Catalog the segment and trim the hot table atomically.
+        transactionTemplate.executeWithoutResult(status -> {
+            historySegmentRepo.save(new HistorySegment(
+                day,
+                path + ".seg",
+                path + ".idx",
+                encoded.rowCount(),
+                encoded.minTimestamp(),
+                encoded.maxTimestamp(),
+                rowsByUser.keySet()
+            ));
+            for (int i = 0; i < ids.size(); i += config.getBatchSize()) {
+                historyRepo.deleteAllByIdInBatch(ids.subList(i, Math.min(i + config.getBatchSize(), ids.size())));
+            }
+        });
+        logger.info("Archived {} history records of {} into {}", ids.size(), day, path);
+        return ids.size();
+    }
+
+    /**
+     * Get archived history records of a user, newest first.
+     *
+     * @param userId     The user ID.
+     * @param actionType The action type to filter by, or null for all action types.
+     * @param cursor     Only records strictly after this cursor are returned, or null for no bound.
+     * @param limit      The maximum number of records.
+     * @return The archived histories in descending order of (timestamp, id).
+     * @throws RuntimeException If a segment cannot be read.
+     */
+    public List<History> getTimeline(
+        Integer userId,
+        ActionType actionType,
+        HistoryCursor cursor,
+        int limit
+    ) throws RuntimeException {
+        List<HistorySegment> segments = cursor == null
+            ? historySegmentRepo.findByUserId(userId)
+            : historySegmentRepo.findByUserIdBefore(userId, cursor.timestamp());
+
+        List<HistorySegmentCodec.Row> rows = new ArrayList<>();
+        for (HistorySegment segment : segments) {
+            // Segments are visited newest first, stop once none of the rest can make the cut.
+            if (rows.size() >= limit && segment.getMaxTimestamp().isBefore(rows.get(limit - 1).timestamp())) {
+                break;
+            }
+            for (HistorySegmentCodec.Row row : readBlock(segment, userId)) {
+                if ((actionType == null || row.actionType() == actionType) && isBefore(row, cursor)) {
+                    rows.add(row);
+                }
+            }
+            rows.sort(HistorySegmentCodec.NEWEST_FIRST);
+            if (rows.size() > limit) {
+                rows = new ArrayList<>(rows.subList(0, limit));
+            }
+        }
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        User user = userRepo.getReferenceById(userId);
+        return rows.stream()
+            .map(row -> new History(row.id(), user, row.actionType(), row.objectId(), row.timestamp()))
+            .toList();
+    }
+
+    /**
+     * Read the block of a user from a segment.
+     *
+     * @param segment The segment.
+     * @param userId  The user ID.
+     * @return The records of the user in the segment, newest first.
+     */
+    private List<HistorySegmentCodec.Row> readBlock(HistorySegment segment, Integer userId) {
+        HistorySegmentIndex.Entry entry = getIndex(segment).find(userId);
+        if (entry == null) {
+            return List.of();
+        }
+        InputStream in = fileStorageService.getObject(segment.getObjectPath(), entry.offset(), entry.length());
+        if (in == null) {
+            throw new RuntimeException("Failed to read history segment " + segment.getObjectPath());
+        }
+        try (in) {
+            return HistorySegmentCodec.decodeBlock(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode history segment " + segment.getObjectPath(), e);
+        }
+    }
+
+    /**
+     * Get the per-user index of a segment, from cache if possible.
+     *
+     * @param segment The segment.
+     * @return The index.
+     */
+    private HistorySegmentIndex getIndex(HistorySegment segment) {
+        synchronized (indexCache) {
+            HistorySegmentIndex index = indexCache.get(segment.getId());
+            if (index != null) {
+                return index;
+            }
+        }
+        InputStream in = fileStorageService.getObject(segment.getIndexPath());
+        if (in == null) {
+            throw new RuntimeException("Failed to read history segment index " + segment.getIndexPath());
+        }
+        HistorySegmentIndex index;
+        try (in) {
+            index = HistorySegmentCodec.decodeIndex(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode history segment index " + segment.getIndexPath(), e);
+        }
+        synchronized (indexCache) {
+            indexCache.put(segment.getId(), index);
+        }
+        return index;
+    }
+
+    private static boolean isBefore(HistorySegmentCodec.Row row, HistoryCursor cursor) {
+        if (cursor == null) {
+            return true;
+        }
+        int order = row.timestamp().compareTo(cursor.timestamp());
+        return order < 0 || (order == 0 && row.id() < cursor.id());
+    }
+}
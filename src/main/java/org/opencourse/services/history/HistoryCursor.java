@@ -0,0 +1,66 @@
+package org.opencourse.services.history;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.opencourse.models.History;
+
+/**
+ * Keyset cursor of the history timeline, pointing at the last history record of a page.
+ *
+ * The timeline is ordered by (timestamp, id) descending, so the next page starts strictly
+ * after the record the cursor points at, no matter how many records were added meanwhile.
+ *
+ * @param timestamp The timestamp of the last history record.
+ * @param id        The ID of the last history record.
+ * @author !EEExp3rt
+ */
+public record HistoryCursor(LocalDateTime timestamp, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Create a cursor pointing at a history record.
+     *
+     * @param history The history record.
+     * @return The cursor.
+     */
+    public static HistoryCursor of(History history) {
+        return new HistoryCursor(history.getTimestamp(), history.getId());
+    }
+
+    /**
+     * Encode the cursor into an opaque URL-safe token.
+     *
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from the token produced by {@link #encode()}.
+     *
+     * @param token The encoded cursor.
+     * @return The cursor.
+     * @throws IllegalArgumentException If the token is malformed.
+     */
+    public static HistoryCursor decode(String token) throws IllegalArgumentException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+            return new HistoryCursor(
+                LocalDateTime.parse(raw.substring(0, index)),
+                Long.valueOf(raw.substring(index + 1))
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+    }
+}
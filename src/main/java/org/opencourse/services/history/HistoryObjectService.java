@@ -3,8 +3,17 @@ package org.opencourse.services.history;
 import org.opencourse.models.*;
 import org.opencourse.repositories.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * History object query service manager.
  * 
@@ -70,4 +79,82 @@ public class HistoryObjectService {
         };
     }
 
+    /**
+     * Get the objects of a batch of history records.
+     * 
+     * The records are grouped by the object class of their action types, and each group is
+     * loaded with a single query, so the number of queries does not depend on the number of records.
+     * Records without object ID and records whose object no longer exists are left out of the result.
+     * 
+     * @param histories The history records.
+     * @return The objects keyed by the ID of the history record.
+     */
+    public Map<Long, Model<? extends Number>> getHistoryObjects(Collection<History> histories) {
+        Map<Class<?>, Set<Integer>> idsByClass = new HashMap<>();
+        for (History history : histories) {
+            if (history != null && history.getObjectId() != null) {
+                idsByClass
+                    .computeIfAbsent(history.getActionType().getObjectClass(), k -> new HashSet<>())
+                    .add(history.getObjectId());
+            }
+        }
+
+        Map<Class<?>, Map<Integer, Model<? extends Number>>> objectsByClass = new HashMap<>();
+        idsByClass.forEach((objectClass, ids) -> objectsByClass.put(objectClass, findAllById(objectClass, ids)));
+
+        Map<Long, Model<? extends Number>> result = new HashMap<>();
+        for (History history : histories) {
+            if (history == null || history.getObjectId() == null) {
+                continue;
+            }
+            Model<? extends Number> object = objectsByClass
+                .get(history.getActionType().getObjectClass())
+                .get(history.getObjectId());
+            if (object != null) {
+                result.put(history.getId(), object);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Load the objects of a class in a single query.
+     * 
+     * @param objectClass The object class.
+     * @param ids The IDs of the objects.
+     * @return The found objects keyed by ID.
+     */
+    private Map<Integer, Model<? extends Number>> findAllById(Class<?> objectClass, Set<Integer> ids) {
+        return switch (objectClass.getSimpleName()) {
+            case "Course" -> findAllById(courseRepo, ids, Integer::shortValue);
+            case "Department" -> findAllById(departmentRepo, ids, Integer::byteValue);
+            case "Interaction" -> findAllById(interactionRepo, ids, Function.identity());
+            case "Resource" -> findAllById(resourceRepo, ids, Function.identity());
+            case "User" -> findAllById(userRepo, ids, Function.identity());
+            default -> Map.of();
+        };
+    }
+
+    /**
+     * Load the objects from a repository in a single query.
+     * 
+     * @param <T> The type of the objects.
+     * @param <ID> The type of the object IDs.
+     * @param repo The repository.
+     * @param ids The IDs of the objects.
+     * @param idMapper The mapper from the history object ID to the repository ID type.
+     * @return The found objects keyed by ID.
+     */
+    private <T extends Model<? extends Number>, ID> Map<Integer, Model<? extends Number>> findAllById(
+        JpaRepository<T, ID> repo,
+        Set<Integer> ids,
+        Function<Integer, ID> idMapper
+    ) {
+        List<T> objects = repo.findAllById(ids.stream().map(idMapper).toList());
+        Map<Integer, Model<? extends Number>> result = new HashMap<>();
+        for (T object : objects) {
+            result.put(object.getId().intValue(), object);
+        }
+        return result;
+    }
 }
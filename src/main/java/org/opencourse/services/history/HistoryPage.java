@@ -0,0 +1,24 @@
+package org.opencourse.services.history;
+
+import java.util.List;
+
+import org.opencourse.models.History;
+
+/**
+ * A page of the history timeline.
+ *
+ * @param histories  The history records in descending order of (timestamp, id).
+ * @param nextCursor The cursor of the next page, or null if this is the last page.
+ * @author !EEExp3rt
+ */
+public record HistoryPage(List<History> histories, HistoryCursor nextCursor) {
+
+    /**
+     * Check if there are more history records after this page.
+     *
+     * @return True if there is a next page, false otherwise.
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
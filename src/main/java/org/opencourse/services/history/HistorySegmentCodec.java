@@ -0,0 +1,189 @@
+package org.opencourse.services.history;
+
+import org.opencourse.utils.typeinfo.ActionType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary format of history segments and their per-user indexes.
+ *
+ * A segment is the concatenation of one zlib block per user, each holding the records of
+ * the user newest first. The index lists the users in ascending order with the byte range
+ * of their blocks.
+ *
+ * The native memory of the deflater and inflater is released explicitly instead of being
+ * left to the garbage collector.
+ *
+ * @author !EEExp3rt
+ */
+final class HistorySegmentCodec {
+
+    private static final int INDEX_MAGIC = 0x4F434849;
+    // Version 1 segments held gzip blocks.
+    private static final int INDEX_VERSION = 2;
+
+    /**
+     * Order of records in a block, newest first with ties broken by ID.
+     */
+    static final Comparator<Row> NEWEST_FIRST =
+        Comparator.comparing(Row::timestamp).thenComparing(Row::id).reversed();
+
+    /**
+     * An archived history record.
+     *
+     * @param id         The ID of the history record.
+     * @param actionType The action type.
+     * @param objectId   The ID of the object related to the action, may be null.
+     * @param timestamp  The timestamp of the action.
+     */
+    record Row(long id, ActionType actionType, Integer objectId, LocalDateTime timestamp) {
+    }
+
+    /**
+     * An encoded segment with its index.
+     *
+     * @param segment      The segment content.
+     * @param index        The index content.
+     * @param rowCount     The number of records.
+     * @param minTimestamp The timestamp of the oldest record.
+     * @param maxTimestamp The timestamp of the newest record.
+     */
+    record Encoded(byte[] segment, byte[] index, int rowCount, LocalDateTime minTimestamp, LocalDateTime maxTimestamp) {
+    }
+
+    private HistorySegmentCodec() {
+    }
+
+    /**
+     * Encode the records of a segment.
+     *
+     * @param rowsByUser The records grouped by user ID, must not be empty.
+     * @return The encoded segment and index.
+     * @throws IOException If encoding fails.
+     */
+    static Encoded encode(Map<Integer, List<Row>> rowsByUser) throws IOException {
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        indexOut.writeInt(INDEX_MAGIC);
+        indexOut.writeInt(INDEX_VERSION);
+        indexOut.writeInt(rowsByUser.size());
+
+        int rowCount = 0;
+        LocalDateTime min = null;
+        LocalDateTime max = null;
+        // One deflater reset between blocks, the blocks are only finished and never closed.
+        Deflater deflater = new Deflater();
+        try {
+            for (Map.Entry<Integer, List<Row>> user : new TreeMap<>(rowsByUser).entrySet()) {
+                List<Row> rows = new ArrayList<>(user.getValue());
+                rows.sort(NEWEST_FIRST);
+
+                int offset = segment.size();
+                deflater.reset();
+                DeflaterOutputStream deflated = new DeflaterOutputStream(segment, deflater);
+                DataOutputStream blockOut = new DataOutputStream(deflated);
+                for (Row row : rows) {
+                    writeRow(blockOut, row);
+                }
+                blockOut.flush();
+                deflated.finish();
+
+                indexOut.writeInt(user.getKey());
+                indexOut.writeLong(offset);
+                indexOut.writeInt(segment.size() - offset);
+                indexOut.writeInt(rows.size());
+
+                rowCount += rows.size();
+                LocalDateTime newest = rows.get(0).timestamp();
+                LocalDateTime oldest = rows.get(rows.size() - 1).timestamp();
+                min = min == null || oldest.isBefore(min) ? oldest : min;
+                max = max == null || newest.isAfter(max) ? newest : max;
+            }
+        } finally {
+            deflater.end();
+        }
+        indexOut.flush();
+        return new Encoded(segment.toByteArray(), index.toByteArray(), rowCount, min, max);
+    }
+
+    /**
+     * Decode a segment index.
+     *
+     * @param in The index content.
+     * @return The index.
+     * @throws IOException If the content is not a valid index.
+     */
+    static HistorySegmentIndex decodeIndex(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != INDEX_MAGIC || data.readInt() != INDEX_VERSION) {
+            throw new IOException("Invalid history segment index");
+        }
+        int size = data.readInt();
+        int[] userIds = new int[size];
+        HistorySegmentIndex.Entry[] entries = new HistorySegmentIndex.Entry[size];
+        for (int i = 0; i < size; i++) {
+            userIds[i] = data.readInt();
+            entries[i] = new HistorySegmentIndex.Entry(data.readLong(), data.readInt(), data.readInt());
+        }
+        return new HistorySegmentIndex(userIds, entries);
+    }
+
+    /**
+     * Decode a user block.
+     *
+     * @param in The block content.
+     * @return The records of the block, newest first.
+     * @throws IOException If the content is not a valid block.
+     */
+    static List<Row> decodeBlock(InputStream in) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        Inflater inflater = new Inflater();
+        try (DataInputStream data = new DataInputStream(new InflaterInputStream(in, inflater))) {
+            while (true) {
+                long id;
+                try {
+                    id = data.readLong();
+                } catch (EOFException e) {
+                    return rows;
+                }
+                ActionType actionType = ActionType.getById(data.readByte());
+                Integer objectId = data.readBoolean() ? data.readInt() : null;
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(data.readLong(), data.readInt(), ZoneOffset.UTC);
+                if (actionType == null) {
+                    throw new IOException("Unknown action type in history segment");
+                }
+                rows.add(new Row(id, actionType, objectId, timestamp));
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, Row row) throws IOException {
+        out.writeLong(row.id());
+        out.writeByte(row.actionType().getId());
+        out.writeBoolean(row.objectId() != null);
+        if (row.objectId() != null) {
+            out.writeInt(row.objectId());
+        }
+        out.writeLong(row.timestamp().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(row.timestamp().getNano());
+    }
+}
@@ -0,0 +1,59 @@
+package org.opencourse.services.history;
+
+import java.util.Arrays;
+
+/**
+ * Per-user index of a history segment.
+ *
+ * Each user owning records in the segment has one independently compressed block,
+ * the index maps the user to the byte range of that block so it can be read alone.
+ *
+ * @author !EEExp3rt
+ */
+public class HistorySegmentIndex {
+
+    /**
+     * Location of a user block in the segment.
+     *
+     * @param offset   The offset of the block in the segment object.
+     * @param length   The length of the block in bytes.
+     * @param rowCount The number of records in the block.
+     */
+    public record Entry(long offset, int length, int rowCount) {
+    }
+
+    // Sorted user IDs, with entries at the same positions.
+    private final int[] userIds;
+    private final Entry[] entries;
+
+    /**
+     * Constructor.
+     *
+     * @param userIds The user IDs in ascending order.
+     * @param entries The block entries of the users.
+     */
+    HistorySegmentIndex(int[] userIds, Entry[] entries) {
+        this.userIds = userIds;
+        this.entries = entries;
+    }
+
+    /**
+     * Find the block of a user.
+     *
+     * @param userId The user ID.
+     * @return The block entry, or null if the user has no record in the segment.
+     */
+    public Entry find(int userId) {
+        int position = Arrays.binarySearch(userIds, userId);
+        return position < 0 ? null : entries[position];
+    }
+
+    /**
+     * Get the number of users in the segment.
+     *
+     * @return The number of users.
+     */
+    public int size() {
+        return userIds.length;
+    }
+}
@@ -0,0 +1,381 @@
+package org.opencourse.services.history;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.History;
+import org.opencourse.utils.typeinfo.ActionType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind writer for history records.
+ *
+ * History records submitted here are buffered in a bounded in-memory queue and
+ * inserted in multi-row batches by a background writer thread, so user actions
+ * do not pay an extra INSERT round trip on the request path.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class HistoryWriteBehindService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryWriteBehindService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+    private final ApplicationConfig.History.WriteBehind config;
+    private final BlockingQueue<Entry> queue;
+
+    // Statistics.
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile Timer flushTimer;
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate         The JDBC template used for batch inserts.
+     * @param entityManagerFactory The entity manager factory to resolve the table name from.
+     * @param applicationConfig    The application configuration.
+     */
+    @Autowired
+    public HistoryWriteBehindService(
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationConfig applicationConfig
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .getEntityDescriptor(History.class)
+            .getIdentifierTableDetails()
+            .getTableName();
+        this.insertSql = "insert into " + table + " (user_id, action_type, object_id, timestamp) values (?, ?, ?, ?)";
+        this.config = applicationConfig.getHistory().getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    /**
+     * Check if write-behind mode is enabled.
+     *
+     * @return True if history records should be submitted here, false if they should be saved directly.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Submit a history record to be written in background.
+     *
+     * If a transaction is active, the record is queued only after it commits,
+     * so rolled back actions never show up in history.
+     *
+     * @param history The history record to write.
+     */
+    public void submit(History history) {
+        Entry entry = toEntry(history);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    /**
+     * Submit history records to be written together in background.
+     *
+     * The records are queued back to back, so the writer usually takes them in one batch.
+     * Records not fitting in the queue are written in one batch on the caller thread.
+     *
+     * @param histories The history records to write.
+     */
+    public void submitAll(List<History> histories) {
+        List<Entry> entries = histories.stream().map(HistoryWriteBehindService::toEntry).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueAll(entries);
+                }
+            });
+        } else {
+            enqueueAll(entries);
+        }
+    }
+
+    /**
+     * Write history records in a single JDBC batch on the caller thread.
+     *
+     * The records are written in the transaction of the caller if any, regardless of
+     * whether write-behind mode is enabled.
+     *
+     * @param histories The history records to write.
+     * @throws DataAccessException If the records cannot be written.
+     */
+    public void writeBatch(List<History> histories) throws DataAccessException {
+        if (histories.isEmpty()) {
+            return;
+        }
+        insert(histories.stream().map(HistoryWriteBehindService::toEntry).toList());
+    }
+
+    /**
+     * Get the number of records waiting in queue.
+     *
+     * @return The current queue depth.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of records written by the background writer.
+     *
+     * @return The number of flushed records.
+     */
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+
+    /**
+     * Get the number of records written on the caller thread because the queue was full.
+     *
+     * @return The number of rejected records.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opencourse.history.writebehind.queue.depth", queue, BlockingQueue::size)
+            .description("History records waiting to be written")
+            .register(registry);
+        FunctionCounter.builder("opencourse.history.writebehind.submitted", submitted, LongAdder::sum)
+            .description("History records submitted for write-behind")
+            .register(registry);
+        FunctionCounter.builder("opencourse.history.writebehind.flushed", flushed, LongAdder::sum)
+            .description("History records written in background batches")
+            .register(registry);
+        FunctionCounter.builder("opencourse.history.writebehind.failed", failed, LongAdder::sum)
+            .description("History records dropped after a failed batch write")
+            .register(registry);
+        FunctionCounter.builder("opencourse.history.writebehind.rejected", rejected, LongAdder::sum)
+            .description("History records written synchronously because the queue was full")
+            .register(registry);
+        flushTimer = Timer.builder("opencourse.history.writebehind.flush")
+            .description("Latency of history batch writes")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * Start the background writer thread.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "history-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the background writer and drain all pending records.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(config.getFlushInterval().toMillis() * 4 + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write anything the writer thread did not get to.
+        List<Entry> batch = new ArrayList<>(config.getBatchSize());
+        while (queue.drainTo(batch, config.getBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Put a record into queue, applying backpressure when it is full.
+     *
+     * @param entry The record to queue.
+     */
+    private void enqueue(Entry entry) {
+        submitted.increment();
+        if (!offer(entry)) {
+            // The writer cannot keep up, write on the caller thread instead of dropping the record.
+            rejected.increment();
+            flush(List.of(entry));
+        }
+    }
+
+    /**
+     * Put records into queue, writing the ones not fitting in one batch on the caller thread.
+     *
+     * @param entries The records to queue.
+     */
+    private void enqueueAll(List<Entry> entries) {
+        submitted.add(entries.size());
+        List<Entry> overflow = new ArrayList<>();
+        for (Entry entry : entries) {
+            // Stop waiting on the queue once it is full.
+            if (!overflow.isEmpty() || !offer(entry)) {
+                overflow.add(entry);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            rejected.add(overflow.size());
+            flush(overflow);
+        }
+    }
+
+    /**
+     * Offer a record to the queue, waiting up to the offer timeout when it is full.
+     *
+     * @param entry The record to queue.
+     * @return True if queued, false if the writer is not running or the queue stays full.
+     */
+    private boolean offer(Entry entry) {
+        try {
+            return running && queue.offer(entry, config.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Convert a history record to a queued record.
+     *
+     * @param history The history record.
+     * @return The queued record, timestamped now if the history has no timestamp.
+     */
+    private static Entry toEntry(History history) {
+        return new Entry(
+            history.getUser().getId(),
+            history.getActionType(),
+            history.getObjectId(),
+            history.getTimestamp() != null ? history.getTimestamp() : LocalDateTime.now()
+        );
+    }
+
+    /**
+     * Background writer loop.
+     */
+    private void run() {
+        List<Entry> batch = new ArrayList<>(config.getBatchSize());
+        long pollMillis = config.getFlushInterval().toMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry head = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (head == null) {
+                    continue;
+                }
+                batch.add(head);
+                queue.drainTo(batch, config.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write a batch of records in a single JDBC batch, dropping it on failure.
+     *
+     * @param batch The records to write.
+     */
+    private void flush(List<Entry> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+            flushed.add(batch.size());
+        } catch (DataAccessException e) {
+            failed.add(batch.size());
+            logger.error("Failed to write {} history records", batch.size(), e);
+        } finally {
+            Timer timer = flushTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Insert records in a single JDBC batch.
+     *
+     * @param batch The records to insert.
+     * @throws DataAccessException If the records cannot be inserted.
+     */
+    private void insert(List<Entry> batch) throws DataAccessException {
+        jdbcTemplate.batchUpdate(insertSql, batch, batch.size(), (ps, entry) -> {
+            ps.setInt(1, entry.userId());
+            ps.setByte(2, entry.actionType().getId());
+            if (entry.objectId() != null) {
+                ps.setInt(3, entry.objectId());
+            } else {
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setTimestamp(4, Timestamp.valueOf(entry.timestamp()));
+        });
+    }
+
+    /**
+     * Queued history record.
+     */
+    private record Entry(Integer userId, ActionType actionType, Integer objectId, LocalDateTime timestamp) {
+    }
+}
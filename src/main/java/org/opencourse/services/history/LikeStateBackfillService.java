@@ -0,0 +1,129 @@
+package org.opencourse.services.history;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.History;
+import org.opencourse.models.LikeState;
+import org.opencourse.repositories.HistoryRepo;
+import org.opencourse.repositories.HistorySegmentRepo;
+import org.opencourse.repositories.LikeStateRepo;
+import org.opencourse.utils.typeinfo.ActionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Migration job to backfill the like state table from existing history records.
+ *
+ * The job walks the effective like records with a keyset cursor, one page per transaction,
+ * and skips states which already exist, so it is safe to run again after an interruption.
+ *
+ * Only the hot history table is read, likes already moved to archived segments are not restored,
+ * so the backfill must be completed before history archiving is enabled.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class LikeStateBackfillService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeStateBackfillService.class);
+
+    private final HistoryRepo historyRepo;
+    private final HistorySegmentRepo historySegmentRepo;
+    private final LikeStateRepo likeStateRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationConfig.History.LikeState config;
+
+    /**
+     * Constructor.
+     *
+     * @param historyRepo        The history repository.
+     * @param historySegmentRepo The history segment repository.
+     * @param likeStateRepo      The like state repository.
+     * @param transactionManager The transaction manager.
+     * @param applicationConfig  The application configuration.
+     */
+    @Autowired
+    public LikeStateBackfillService(
+        HistoryRepo historyRepo,
+        HistorySegmentRepo historySegmentRepo,
+        LikeStateRepo likeStateRepo,
+        PlatformTransactionManager transactionManager,
+        ApplicationConfig applicationConfig
+    ) {
+        this.historyRepo = historyRepo;
+        this.historySegmentRepo = historySegmentRepo;
+        this.likeStateRepo = likeStateRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = applicationConfig.getHistory().getLikeState();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (config.isBackfill()) {
+            backfill();
+        }
+    }
+
+    /**
+     * Backfill like states of all resources and interactions.
+     *
+     * @return The number of like states created.
+     */
+    public long backfill() {
+        if (historySegmentRepo.count() > 0) {
+            logger.warn("History has already been archived, likes in archived segments are not backfilled");
+        }
+        long created = backfill(ActionType.LIKE_RESOURCE, ActionType.UNLIKE_RESOURCE, LikeState.ObjectType.RESOURCE)
+            + backfill(ActionType.LIKE_INTERACTION, ActionType.UNLIKE_INTERACTION, LikeState.ObjectType.INTERACTION);
+        logger.info("Like state backfill finished, {} states created", created);
+        return created;
+    }
+
+    /**
+     * Backfill like states of one object type.
+     *
+     * @param likeType   The like action type.
+     * @param unlikeType The unlike action type.
+     * @param objectType The like state object type.
+     * @return The number of like states created.
+     */
+    private long backfill(ActionType likeType, ActionType unlikeType, LikeState.ObjectType objectType) {
+        long created = 0;
+        long cursor = 0L;
+        while (true) {
+            final long afterId = cursor;
+            long[] page = transactionTemplate.execute(status -> {
+                List<History> likes = historyRepo.findEffectiveLikes(
+                    afterId,
+                    likeType,
+                    unlikeType,
+                    PageRequest.of(0, config.getBackfillBatchSize())
+                );
+                long count = 0;
+                for (History like : likes) {
+                    if (!likeStateRepo.existsByUserAndObjectTypeAndObjectId(like.getUser(), objectType, like.getObjectId())) {
+                        LikeState state = new LikeState(like.getUser(), objectType, like.getObjectId());
+                        state.setCreatedAt(like.getTimestamp());
+                        likeStateRepo.save(state);
+                        count++;
+                    }
+                }
+                long last = likes.isEmpty() ? -1L : likes.get(likes.size() - 1).getId();
+                return new long[] {likes.size(), count, last};
+            });
+            created += page[1];
+            if (page[0] < config.getBackfillBatchSize()) {
+                return created;
+            }
+            cursor = page[2];
+        }
+    }
+}
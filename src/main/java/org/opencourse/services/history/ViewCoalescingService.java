@@ -0,0 +1,194 @@
+package org.opencourse.services.history;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalescing of repeated resource views.
+ *
+ * The first view of a resource by a user opens a window of the configured length, and
+ * further views of the same resource by the same user inside the window are suppressed,
+ * so range retries, refreshes and PDF viewers re-requesting the file only count once.
+ * The window is reserved atomically when the view is checked, so concurrent duplicates in
+ * their own transactions are suppressed too. It is released again if the transaction of the
+ * counted view rolls back, so a rolled back view does not suppress its retry.
+ *
+ * Open windows are kept in a bounded concurrent map. Expired windows are swept out once the
+ * map is full, and while it is full of open windows new views are counted without a window.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class ViewCoalescingService implements MeterBinder {
+
+    private final ApplicationConfig.History.ViewCoalescing config;
+    private final LongSupplier clock;
+
+    // Window expiry time in nanoseconds by (user, resource) key.
+    private final Map<Long, Long> windows = new ConcurrentHashMap<>();
+
+    // Earliest time a sweep of the full map can find an expired window, guarded by this.
+    private long nextSweep;
+
+    // Statistics.
+    private final LongAdder counted = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param applicationConfig The application configuration.
+     */
+    @Autowired
+    public ViewCoalescingService(ApplicationConfig applicationConfig) {
+        this(applicationConfig, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param applicationConfig The application configuration.
+     * @param clock             The monotonic clock in nanoseconds.
+     */
+    ViewCoalescingService(ApplicationConfig applicationConfig, LongSupplier clock) {
+        this.config = applicationConfig.getHistory().getViewCoalescing();
+        this.clock = clock;
+        this.nextSweep = clock.getAsLong();
+    }
+
+    /**
+     * Check if a view should be counted, opening a new window if it is.
+     *
+     * @param userId     The ID of the viewing user.
+     * @param resourceId The ID of the viewed resource.
+     * @return True if the view is the first one in its window, false if it is suppressed.
+     */
+    public boolean tryCount(Integer userId, Integer resourceId) {
+        long window = config.getWindow().toNanos();
+        if (window <= 0) {
+            counted.increment();
+            return true;
+        }
+        Long key = ((long) userId << 32) | (resourceId & 0xFFFFFFFFL);
+        long now = clock.getAsLong();
+        Long expiry = now + window;
+        boolean count = open(key, now, expiry);
+        if (count && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        windows.remove(key, expiry);
+                    }
+                }
+            });
+        }
+        if (count) {
+            counted.increment();
+        } else {
+            suppressed.increment();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of views counted.
+     *
+     * @return The number of counted views.
+     */
+    public long getCountedCount() {
+        return counted.sum();
+    }
+
+    /**
+     * Get the number of views suppressed inside an open window.
+     *
+     * @return The number of suppressed views.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Get the number of open windows.
+     *
+     * @return The number of tracked (user, resource) pairs.
+     */
+    public int getWindowCount() {
+        return windows.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("opencourse.history.view.windows", this, ViewCoalescingService::getWindowCount)
+            .description("Open resource view coalescing windows")
+            .register(registry);
+        FunctionCounter.builder("opencourse.history.view.counted", counted, LongAdder::sum)
+            .description("Resource views counted")
+            .register(registry);
+        FunctionCounter.builder("opencourse.history.view.suppressed", suppressed, LongAdder::sum)
+            .description("Repeated resource views suppressed inside a coalescing window")
+            .register(registry);
+    }
+
+    /**
+     * Open the window of a key unless one is already open.
+     *
+     * @param key    The (user, resource) key.
+     * @param now    The current time in nanoseconds.
+     * @param expiry The expiry time of the new window in nanoseconds.
+     * @return True if no window was open, even if the map is too full to open one.
+     */
+    private boolean open(Long key, long now, Long expiry) {
+        if (windows.size() >= config.getMaxEntries() && !windows.containsKey(key) && !evictExpired(now)) {
+            return true;
+        }
+        boolean[] opened = new boolean[1];
+        windows.compute(key, (k, open) -> {
+            if (open != null && open - now > 0) {
+                return open;
+            }
+            opened[0] = true;
+            return expiry;
+        });
+        return opened[0];
+    }
+
+    /**
+     * Drop expired windows from the full map.
+     *
+     * Sweeps are skipped until the earliest open window seen by the last sweep expires.
+     *
+     * @param now The current time in nanoseconds.
+     * @return True if there is room for a new window.
+     */
+    private synchronized boolean evictExpired(long now) {
+        if (now - nextSweep < 0) {
+            return false;
+        }
+        long earliest = now + config.getWindow().toNanos();
+        for (Map.Entry<Long, Long> entry : windows.entrySet()) {
+            long expiry = entry.getValue();
+            if (expiry - now <= 0) {
+                windows.remove(entry.getKey(), expiry);
+            } else if (expiry - earliest < 0) {
+                earliest = expiry;
+            }
+        }
+        nextSweep = earliest;
+        return windows.size() < config.getMaxEntries();
+    }
+}
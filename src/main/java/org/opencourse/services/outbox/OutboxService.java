@@ -0,0 +1,345 @@
+package org.opencourse.services.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.OutboxEvent;
+import org.opencourse.repositories.OutboxEventRepo;
+import org.opencourse.services.storage.FileBlobRegistry;
+import org.opencourse.services.storage.FileStorageService;
+import org.opencourse.services.storage.StoredObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transactional outbox for storage side effects.
+ *
+ * Side effects such as deleting a resource file are written as {@link OutboxEvent} rows in
+ * the transaction of the change causing them, and carried out by a background dispatcher
+ * after the transaction commits. The transaction therefore never waits on the storage, and
+ * a failed side effect is retried with exponential backoff instead of failing the change.
+ *
+ * Events are carried out at least once: an event whose side effect succeeded may run again
+ * if its row cannot be deleted afterwards, so side effects must be idempotent. Deleting a
+ * file treats a file already gone as deleted, and releasing a blob reference commits with
+ * the deletion of the event row, so the reference is dropped exactly once. Events still
+ * failing after the maximum attempts are dropped, leaving the files to the reconciliation.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class OutboxService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationConfig.Storage.Outbox config;
+
+    // Statistics.
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // Released after commits to wake up the dispatcher before the next poll.
+    private final Semaphore signal = new Semaphore(0);
+
+    private volatile boolean running = false;
+    private Thread dispatcher;
+
+    /**
+     * Constructor.
+     *
+     * @param outboxEventRepo    The outbox event repository.
+     * @param fileStorageService The file storage service.
+     * @param transactionManager The transaction manager.
+     * @param applicationConfig  The application configuration.
+     */
+    @Autowired
+    public OutboxService(
+        OutboxEventRepo outboxEventRepo,
+        FileStorageService fileStorageService,
+        PlatformTransactionManager transactionManager,
+        ApplicationConfig applicationConfig
+    ) {
+        this.outboxEventRepo = outboxEventRepo;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = applicationConfig.getStorage().getOutbox();
+    }
+
+    /**
+     * Check if storage side effects should go through the outbox.
+     *
+     * @return True if side effects should be enqueued here, false if they should be carried out directly.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Enqueue deleting a file from the file storage.
+     *
+     * The event is written in the current transaction, so the file is deleted only if the
+     * transaction commits, and the dispatcher is woken up right after the commit.
+     *
+     * @param filePath The path of the file to delete.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDeleteFile(String filePath) {
+        outboxEventRepo.save(new OutboxEvent(OutboxEvent.Type.DELETE_FILE, filePath));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueued.increment();
+                    signal.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the number of events carried out.
+     *
+     * @return The number of completed events.
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of events dropped after the maximum attempts.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("opencourse.outbox.enqueued", enqueued, LongAdder::sum)
+            .description("Outbox events committed")
+            .register(registry);
+        FunctionCounter.builder("opencourse.outbox.completed", completed, LongAdder::sum)
+            .description("Outbox events carried out")
+            .register(registry);
+        FunctionCounter.builder("opencourse.outbox.retried", retried, LongAdder::sum)
+            .description("Outbox event attempts failed and scheduled for retry")
+            .register(registry);
+        FunctionCounter.builder("opencourse.outbox.dropped", dropped, LongAdder::sum)
+            .description("Outbox events dropped after the maximum attempts")
+            .register(registry);
+    }
+
+    /**
+     * Start the background dispatcher thread.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::run, "outbox-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Stop the background dispatcher.
+     *
+     * Pending events stay in the outbox and are dispatched after the next start.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        signal.release();
+        try {
+            dispatcher.join(config.getPollInterval().toMillis() * 4 + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Background dispatcher loop.
+     */
+    private void run() {
+        long pollMillis = config.getPollInterval().toMillis();
+        while (running) {
+            try {
+                signal.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                signal.drainPermits();
+                // Keep going while full batches are due.
+                int claimed;
+                do {
+                    claimed = dispatch(LocalDateTime.now());
+                } while (running && claimed >= config.getBatchSize());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to dispatch outbox events", e);
+            }
+        }
+    }
+
+    /**
+     * Dispatch one batch of due events.
+     *
+     * The batch is claimed in one transaction, then each event is carried out and its row is
+     * deleted on success. A failed event is retried after a delay doubling with every attempt,
+     * set when it was claimed.
+     *
+     * @param now The current time.
+     * @return The number of events claimed.
+     */
+    int dispatch(LocalDateTime now) {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> due = outboxEventRepo.findDue(now, PageRequest.of(0, config.getBatchSize()));
+            List<OutboxEvent> claimed = new ArrayList<>(due.size());
+            for (OutboxEvent event : due) {
+                if (outboxEventRepo.claim(event.getId(), event.getAttempts(), now.plus(getBackoff(event.getAttempts()))) > 0) {
+                    claimed.add(event);
+                }
+            }
+            return claimed;
+        });
+        if (batch == null) {
+            return 0;
+        }
+        for (OutboxEvent event : batch) {
+            String error = perform(event);
+            int attempts = event.getAttempts() + 1;
+            if (error == null) {
+                completed.increment();
+            } else if (attempts >= config.getMaxAttempts()) {
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepo.deleteEvent(event.getId()));
+                dropped.increment();
+                logger.error("Dropped outbox event {} after {} attempts: {}", event, attempts, error);
+            } else {
+                String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepo.recordError(event.getId(), lastError));
+                retried.increment();
+                logger.warn("Outbox event {} failed on attempt {}: {}", event, attempts, error);
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Get the retry delay of an attempt.
+     *
+     * @param attempts The number of earlier attempts.
+     * @return The initial backoff doubled for every earlier attempt, at most the maximum backoff.
+     */
+    Duration getBackoff(int attempts) {
+        Duration backoff = config.getInitialBackoff();
+        for (int i = 0; i < attempts && backoff.compareTo(config.getMaxBackoff()) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(config.getMaxBackoff()) < 0 ? backoff : config.getMaxBackoff();
+    }
+
+    /**
+     * Carry out the side effect of an event and delete its row on success.
+     *
+     * @param event The event.
+     * @return Null on success, or the error to retry with.
+     */
+    private String perform(OutboxEvent event) {
+        try {
+            return switch (event.getType()) {
+                case DELETE_FILE -> FileBlobRegistry.isBlob(event.getPayload())
+                    ? releaseBlob(event.getId(), event.getPayload())
+                    : deleteFile(event.getId(), event.getPayload());
+            };
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * Delete a file from the file storage.
+     *
+     * A file already gone, deleted by an earlier attempt or by the reconciliation, counts as
+     * deleted.
+     *
+     * @param id       The event ID.
+     * @param filePath The file path.
+     * @return Null on success, or the error to retry with.
+     */
+    private String deleteFile(Long id, String filePath) {
+        if (!fileStorageService.deleteFile(filePath) && !isMissing(filePath)) {
+            return "Failed to delete file " + filePath;
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepo.deleteEvent(id));
+        return null;
+    }
+
+    /**
+     * Drop a reference to a blob.
+     *
+     * The reference is dropped in the transaction deleting the event row, so a repeated
+     * attempt finds the row gone and drops nothing. The reference is dropped even if the blob
+     * object cannot be deleted, which keeps the blob for reuse, so that is not retried.
+     *
+     * @param id       The event ID.
+     * @param filePath The blob object path.
+     * @return Null on success.
+     */
+    private String releaseBlob(Long id, String filePath) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (outboxEventRepo.deleteEvent(id) > 0 && !fileStorageService.deleteFile(filePath)) {
+                logger.warn("Failed to release blob {}", filePath);
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Check if a file is known to be missing from the file storage.
+     *
+     * @param filePath The file path.
+     * @return True if listing the path succeeds without finding it.
+     */
+    private boolean isMissing(String filePath) {
+        List<StoredObject> objects = fileStorageService.listObjects(filePath, null, 1);
+        return objects != null && (objects.isEmpty() || !objects.get(0).path().equals(filePath));
+    }
+}
@@ -0,0 +1,658 @@
+package org.opencourse.services.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Resource.ResourceFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache in front of the file storage backend.
+ *
+ * Resource files are never changed once stored, so hot files are kept on local disk and
+ * served from there instead of being proxied from the backend on every download. The cache
+ * is bounded by its total size and evicts the least recently used files. A miss streams the
+ * backend content to its reader while teeing it into a temporary file, which is moved into
+ * place and indexed once the reader reached the end, so readers never see a partial file.
+ * Concurrent misses of the same file wait a bounded time for that fill and otherwise read
+ * from the backend themselves. Cache hits are copied to the response with
+ * {@link FileChannel#transferTo}.
+ *
+ * Range reads are served from the cache when the file is cached, but never fill it.
+ * When disabled, every call goes straight to the backend.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+@Primary
+public class CachingFileStorageService implements FileStorageService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingFileStorageService.class);
+
+    private static final String FILL_SUFFIX = ".fill";
+    private static final String CACHE_SUFFIX = ".cache";
+    private static final BigDecimal BYTES_PER_MB = BigDecimal.valueOf(1024 * 1024);
+
+    private final FileStorageService backend;
+    private final ApplicationConfig.Storage.Cache config;
+
+    // Cached files by object path in access order, and the fills in flight. Both guarded by entries.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Path>> fills = new HashMap<>();
+    private long size;
+
+    // Statistics.
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * A cached file.
+     *
+     * @param path The cache file.
+     * @param size The file size in bytes.
+     */
+    private record Entry(Path path, long size) {}
+
+    /**
+     * Constructor.
+     *
+     * @param backend           The file storage backend.
+     * @param applicationConfig The application configuration.
+     */
+    @Autowired
+    public CachingFileStorageService(
+        @Qualifier(FileStorageService.BACKEND) FileStorageService backend,
+        ApplicationConfig applicationConfig
+    ) {
+        this.backend = backend;
+        this.config = applicationConfig.getStorage().getCache();
+    }
+
+    /**
+     * Prepare the cache directory.
+     *
+     * The index is kept in memory only, so cache files left by a previous run are removed.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            Path directory = Files.createDirectories(getDirectory());
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> {
+                    String name = file.getFileName().toString();
+                    return name.endsWith(FILL_SUFFIX) || name.endsWith(CACHE_SUFFIX);
+                }).forEach(CachingFileStorageService::deleteQuietly);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to prepare cache directory {}", config.getDirectory(), e);
+        }
+    }
+
+    @Override
+    public ResourceFile storeFile(MultipartFile file, ResourceFile.FileType fileType, Short courseId) {
+        return backend.storeFile(file, fileType, courseId);
+    }
+
+    @Override
+    public InputStream getFile(ResourceFile file) {
+        if (!isCacheable(file)) {
+            return backend.getFile(file);
+        }
+        String key = file.getFilePath();
+        CompletableFuture<Path> fill = null;
+        CompletableFuture<Path> running = null;
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                running = fills.get(key);
+                if (running == null) {
+                    fill = new CompletableFuture<>();
+                    fills.put(key, fill);
+                }
+            }
+        }
+
+        // Hit, or a fill of the same file by another request.
+        Path path = entry != null ? entry.path() : running != null ? await(running) : null;
+        if (fill == null) {
+            InputStream cached = path == null ? null : open(path, 0, -1);
+            if (cached != null) {
+                hits.increment();
+                bytesSaved.add(entry != null ? entry.size() : sizeOf(path));
+                return cached;
+            }
+            misses.increment();
+            return backend.getFile(file);
+        }
+
+        // Miss, fill the cache from the backend.
+        misses.increment();
+        return load(key, file, fill);
+    }
+
+    @Override
+    public InputStream getFile(ResourceFile file, long offset, long length) {
+        if (isCacheable(file)) {
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(file.getFilePath());
+            }
+            InputStream cached = entry == null ? null : open(entry.path(), offset, length);
+            if (cached != null) {
+                hits.increment();
+                bytesSaved.add(Math.max(0, Math.min(length, entry.size() - offset)));
+                return cached;
+            }
+            misses.increment();
+        }
+        return backend.getFile(file, offset, length);
+    }
+
+    @Override
+    public String presign(ResourceFile file, Duration expiry, String fileName) {
+        return backend.presign(file, expiry, fileName);
+    }
+
+    @Override
+    public long getFileLength(ResourceFile file) {
+        if (isCacheable(file)) {
+            synchronized (entries) {
+                Entry entry = entries.get(file.getFilePath());
+                if (entry != null) {
+                    return entry.size();
+                }
+            }
+        }
+        return backend.getFileLength(file);
+    }
+
+    @Override
+    public boolean storeObject(String objectPath, byte[] content, String contentType) {
+        return backend.storeObject(objectPath, content, contentType);
+    }
+
+    @Override
+    public InputStream getObject(String objectPath) {
+        return backend.getObject(objectPath);
+    }
+
+    @Override
+    public InputStream getObject(String objectPath, long offset, long length) {
+        return backend.getObject(objectPath, offset, length);
+    }
+
+    /**
+     * Delete a file from the backend and the cache.
+     *
+     * The cached copy and any fill in flight are dropped after the backend deletion,
+     * so a fill that started before the deletion is never indexed.
+     *
+     * @param filePath The file path.
+     * @return True if the file is deleted successfully, false otherwise.
+     */
+    @Override
+    public boolean deleteFile(String filePath) {
+        boolean deleted = backend.deleteFile(filePath);
+        invalidate(filePath);
+        return deleted;
+    }
+
+    @Override
+    public List<StoredObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        return backend.listObjects(prefix, startAfter, maxKeys);
+    }
+
+    @Override
+    public int deleteObjects(List<String> objectPaths) {
+        int deleted = backend.deleteObjects(objectPaths);
+        objectPaths.forEach(this::invalidate);
+        return deleted;
+    }
+
+    @Override
+    public BigDecimal calculateFileSizeMB(long fileSize) {
+        return backend.calculateFileSizeMB(fileSize);
+    }
+
+    /**
+     * Drop the cached copy of a file.
+     *
+     * @param filePath The file path.
+     */
+    public void invalidate(String filePath) {
+        Entry entry;
+        synchronized (entries) {
+            fills.remove(filePath);
+            entry = entries.remove(filePath);
+            if (entry != null) {
+                size -= entry.size();
+            }
+        }
+        if (entry != null) {
+            deleteQuietly(entry.path());
+        }
+    }
+
+    /**
+     * Get the total size of the cached files.
+     *
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    /**
+     * Get the number of cached files.
+     *
+     * @return The number of files.
+     */
+    public int getEntries() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the ratio of cache hits to cacheable reads.
+     *
+     * @return The hit ratio, or 0 if nothing was read yet.
+     */
+    public double getHitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * Get the bytes served from the cache instead of the backend.
+     *
+     * @return The bytes saved.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Start filling the cache with a file from the backend.
+     *
+     * @param key  The object path.
+     * @param file The file.
+     * @param fill The fill registered by this request, completed with the cache file or null.
+     * @return The file content teed into the cache, the plain backend content if the cache
+     *         file cannot be created, or null if the backend has no such file.
+     */
+    private InputStream load(String key, ResourceFile file, CompletableFuture<Path> fill) {
+        InputStream in = null;
+        Path temp = null;
+        boolean filling = false;
+        try {
+            in = backend.getFile(file);
+            if (in == null) {
+                return null;
+            }
+            Path directory = Files.createDirectories(getDirectory());
+            temp = Files.createTempFile(directory, "file-", FILL_SUFFIX);
+            InputStream tee = new FillInputStream(in, key, fill, temp);
+            filling = true;
+            return tee;
+        } catch (IOException e) {
+            logger.warn("Failed to cache {}, reading from the backend", key, e);
+            return in;
+        } catch (RuntimeException e) {
+            closeQuietly(in);
+            throw e;
+        } finally {
+            if (!filling) {
+                if (temp != null) {
+                    deleteQuietly(temp);
+                }
+                complete(key, fill, null);
+            }
+        }
+    }
+
+    /**
+     * Wait for a fill of another request.
+     *
+     * @param fill The fill.
+     * @return The cache file, or null if the fill failed or did not finish in time.
+     */
+    private Path await(CompletableFuture<Path> fill) {
+        try {
+            return fill.get(config.getFillWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Finish a fill and wake up the requests waiting for it.
+     *
+     * @param key  The object path.
+     * @param fill The fill.
+     * @param path The indexed cache file, or null if the file is not cached.
+     */
+    private void complete(String key, CompletableFuture<Path> fill, Path path) {
+        synchronized (entries) {
+            fills.remove(key, fill);
+        }
+        fill.complete(path);
+    }
+
+    /**
+     * Index a filled cache file, evicting the least recently used files over the size limit.
+     *
+     * @param key   The object path.
+     * @param fill  The fill of the file.
+     * @param entry The cache file.
+     * @return True if indexed, false if the file was deleted while filling.
+     */
+    private boolean index(String key, CompletableFuture<Path> fill, Entry entry) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            if (fills.get(key) != fill) {
+                return false;
+            }
+            entries.put(key, entry);
+            size += entry.size();
+            long maxSize = config.getMaxSize().toBytes();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (size > maxSize && eldest.hasNext()) {
+                Entry victim = eldest.next().getValue();
+                if (victim == entry) {
+                    continue;
+                }
+                eldest.remove();
+                size -= victim.size();
+                evicted.add(victim.path());
+            }
+        }
+        evictions.add(evicted.size());
+        evicted.forEach(CachingFileStorageService::deleteQuietly);
+        return true;
+    }
+
+    private boolean isCacheable(ResourceFile file) {
+        if (!config.isEnabled() || file == null || file.getFilePath() == null) {
+            return false;
+        }
+        BigDecimal fileSize = file.getFileSize();
+        return fileSize == null || fileSize.multiply(BYTES_PER_MB).longValue() <= getMaxFileSize();
+    }
+
+    private long getMaxFileSize() {
+        return Math.min(config.getMaxFileSize().toBytes(), config.getMaxSize().toBytes());
+    }
+
+    private Path getDirectory() {
+        return Paths.get(config.getDirectory());
+    }
+
+    /**
+     * Open a cache file.
+     *
+     * @param path   The cache file.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes, or a negative value for the rest of the file.
+     * @return The file content, or null if the file was evicted.
+     */
+    private static InputStream open(Path path, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            long end = length < 0 ? channel.size() : Math.min(channel.size(), offset + length);
+            return new FileChannelInputStream(channel, offset, end);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close backend stream", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cache file {}", path, e);
+        }
+    }
+
+    /**
+     * Backend content teed into a cache file as it is read.
+     *
+     * The cache file is only indexed if the reader reached the end of the content before
+     * closing the stream, otherwise it is dropped. Writing to the cache file stops at the
+     * file size limit or on the first write error, without failing the read.
+     */
+    private final class FillInputStream extends FilterInputStream {
+
+        private final String key;
+        private final CompletableFuture<Path> fill;
+        private final Path temp;
+        private OutputStream out;
+        private long written;
+        private boolean eof;
+        private boolean closed;
+
+        FillInputStream(InputStream in, String key, CompletableFuture<Path> fill, Path temp) throws IOException {
+            super(in);
+            this.key = key;
+            this.fill = fill;
+            this.temp = temp;
+            this.out = Files.newOutputStream(temp);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n < 0) {
+                eof = true;
+            } else {
+                tee(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes still go to the cache file.
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public long transferTo(OutputStream target) throws IOException {
+            byte[] buffer = new byte[8192];
+            long transferred = 0;
+            int read;
+            while ((read = read(buffer, 0, buffer.length)) >= 0) {
+                target.write(buffer, 0, read);
+                transferred += read;
+            }
+            return transferred;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                finish();
+            }
+        }
+
+        private void tee(byte[] b, int off, int len) {
+            if (out == null) {
+                return;
+            }
+            try {
+                if (written + len > getMaxFileSize()) {
+                    throw new IOException("File exceeds the cache file size limit");
+                }
+                out.write(b, off, len);
+                written += len;
+            } catch (IOException e) {
+                logger.debug("Stopped caching {}", key, e);
+                abandon();
+            }
+        }
+
+        private void abandon() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close cache file {}", temp, e);
+            }
+            out = null;
+        }
+
+        private void finish() {
+            Path path = null;
+            Path target = null;
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                    if (eof) {
+                        target = temp.resolveSibling(
+                            temp.getFileName().toString().replace(FILL_SUFFIX, CACHE_SUFFIX));
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                        if (index(key, fill, new Entry(target, written))) {
+                            path = target;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to cache {}", key, e);
+            } finally {
+                if (out != null) {
+                    abandon();
+                }
+                if (path == null) {
+                    deleteQuietly(temp);
+                    if (target != null) {
+                        deleteQuietly(target);
+                    }
+                }
+                complete(key, fill, path);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("opencourse.storage.cache.hits", hits, LongAdder::sum)
+            .description("Resource file reads served from the local cache")
+            .register(registry);
+        FunctionCounter.builder("opencourse.storage.cache.misses", misses, LongAdder::sum)
+            .description("Resource file reads served from the storage backend")
+            .register(registry);
+        FunctionCounter.builder("opencourse.storage.cache.bytes.saved", bytesSaved, LongAdder::sum)
+            .description("Bytes served from the local cache instead of the storage backend")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("opencourse.storage.cache.evictions", evictions, LongAdder::sum)
+            .description("Files evicted from the local cache")
+            .register(registry);
+        Gauge.builder("opencourse.storage.cache.hit.ratio", this, CachingFileStorageService::getHitRatio)
+            .description("Ratio of cacheable reads served from the local cache")
+            .register(registry);
+        Gauge.builder("opencourse.storage.cache.size", this, CachingFileStorageService::getSize)
+            .description("Total size of the files in the local cache")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("opencourse.storage.cache.entries", this, CachingFileStorageService::getEntries)
+            .description("Files in the local cache")
+            .register(registry);
+    }
+}
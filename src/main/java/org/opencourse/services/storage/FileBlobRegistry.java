@@ -0,0 +1,127 @@
+package org.opencourse.services.storage;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.FileBlob;
+import org.opencourse.repositories.FileBlobRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Reference counts of content-addressed file blobs.
+ *
+ * With deduplication enabled, a file storage stores each distinct content once under
+ * {@link #BLOB_PREFIX} followed by its SHA-256 digest, and every resource uploaded with the
+ * same bytes references the same blob. Uploading known content only takes a new reference,
+ * and deleting a resource file drops a reference, deleting the object with the last one.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class FileBlobRegistry {
+
+    // Object path prefix of blobs.
+    public static final String BLOB_PREFIX = "blobs/";
+
+    private final FileBlobRepo fileBlobRepo;
+    private final ApplicationConfig.Storage.Dedup config;
+
+    /**
+     * Constructor.
+     *
+     * @param fileBlobRepo      The file blob repository.
+     * @param applicationConfig The application configuration.
+     */
+    @Autowired
+    public FileBlobRegistry(FileBlobRepo fileBlobRepo, ApplicationConfig applicationConfig) {
+        this.fileBlobRepo = fileBlobRepo;
+        this.config = applicationConfig.getStorage().getDedup();
+    }
+
+    /**
+     * Check if new files are stored as deduplicated blobs.
+     *
+     * @return True if deduplication is enabled.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Check if a file path is a blob.
+     *
+     * Blobs stay reference counted after deduplication is disabled.
+     *
+     * @param objectPath The file path.
+     * @return True if the path is under {@link #BLOB_PREFIX}.
+     */
+    public static boolean isBlob(String objectPath) {
+        return objectPath != null && objectPath.startsWith(BLOB_PREFIX);
+    }
+
+    /**
+     * Take a reference to the blob of known content.
+     *
+     * @param digest The hex SHA-256 digest of the content.
+     * @return The blob object path, or null if the content is not stored yet.
+     */
+    @Transactional
+    public String acquire(String digest) {
+        if (fileBlobRepo.incrementRefCount(digest) == 0) {
+            return null;
+        }
+        return fileBlobRepo.findByDigest(digest).map(FileBlob::getObjectPath).orElse(null);
+    }
+
+    /**
+     * Register an uploaded blob with one reference.
+     *
+     * If a concurrent upload of the same content registered first, a reference to that
+     * blob is taken instead and its path is returned, so the caller can remove its own
+     * object when the paths differ.
+     *
+     * @param digest     The hex SHA-256 digest of the content.
+     * @param objectPath The path of the uploaded object.
+     * @param size       The size of the content in bytes.
+     * @return The path of the registered blob.
+     */
+    @Transactional
+    public String register(String digest, String objectPath, long size) {
+        if (fileBlobRepo.insertIfAbsent(digest, objectPath, size) > 0) {
+            return objectPath;
+        }
+        String registered = acquire(digest);
+        return registered != null ? registered : objectPath;
+    }
+
+    /**
+     * Drop a reference to a blob, deleting the blob with its last reference.
+     *
+     * The unreferenced blob row stays locked while the object is deleted, so a concurrent
+     * upload of the same content waits and then uploads it again instead of referencing an
+     * object about to be deleted. If the object cannot be deleted, the row is kept without
+     * references and reused by the next upload of the same content.
+     *
+     * @param objectPath   The blob object path.
+     * @param deleteObject Deletes the blob object, returning true on success or if it is already gone.
+     * @return True if the reference is dropped, false if the blob is unknown or cannot be deleted.
+     */
+    @Transactional
+    public boolean release(String objectPath, Predicate<String> deleteObject) {
+        if (fileBlobRepo.decrementRefCount(objectPath) == 0) {
+            return false;
+        }
+        Optional<FileBlob> unreferenced = fileBlobRepo.findUnreferencedForUpdate(objectPath);
+        if (unreferenced.isEmpty()) {
+            return true;
+        }
+        if (!deleteObject.test(objectPath)) {
+            return false;
+        }
+        fileBlobRepo.delete(unreferenced.get());
+        return true;
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * File storage service interface.
@@ -13,6 +15,11 @@ import java.math.BigDecimal;
  */
 public interface FileStorageService {
 
+    /**
+     * Qualifier of the storage backend wrapped by {@link CachingFileStorageService}.
+     */
+    String BACKEND = "fileStorageBackend";
+
     /**
      * Store a file.
      * 
@@ -31,6 +38,62 @@ public interface FileStorageService {
      */
     InputStream getFile(ResourceFile file);
 
+    /**
+     * Get a byte range of a file.
+     * 
+     * @param file   The file to be retrieved.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes.
+     * @return The content of the range as an {@link InputStream} or null if error.
+     */
+    InputStream getFile(ResourceFile file, long offset, long length);
+
+    /**
+     * Create a short-lived URL to download a file directly from the storage.
+     * 
+     * @param file     The file to be downloaded.
+     * @param expiry   How long the URL stays valid.
+     * @param fileName The file name suggested to the client.
+     * @return The URL, or null if the storage cannot serve files directly or if error.
+     */
+    String presign(ResourceFile file, Duration expiry, String fileName);
+
+    /**
+     * Get the exact size of a file.
+     * 
+     * @param file The file.
+     * @return The file size in bytes, or -1 if error.
+     */
+    long getFileLength(ResourceFile file);
+
+    /**
+     * Store a raw object.
+     * 
+     * @param objectPath  The object path.
+     * @param content     The object content.
+     * @param contentType The content type of the object.
+     * @return True if the object is stored successfully, false otherwise.
+     */
+    boolean storeObject(String objectPath, byte[] content, String contentType);
+
+    /**
+     * Get a raw object.
+     * 
+     * @param objectPath The object path.
+     * @return The object content as an {@link InputStream} or null if error.
+     */
+    InputStream getObject(String objectPath);
+
+    /**
+     * Get a byte range of a raw object.
+     * 
+     * @param objectPath The object path.
+     * @param offset     The offset of the first byte.
+     * @param length     The number of bytes.
+     * @return The content of the range as an {@link InputStream} or null if error.
+     */
+    InputStream getObject(String objectPath, long offset, long length);
+
     /**
      * Delete a file.
      * 
@@ -39,6 +102,24 @@ public interface FileStorageService {
      */
     boolean deleteFile(String filePath);
 
+    /**
+     * List one page of raw objects under a prefix in key order.
+     * 
+     * @param prefix     The object path prefix.
+     * @param startAfter List objects after this path, or null to start from the first one.
+     * @param maxKeys    The maximum number of objects.
+     * @return Up to {@code maxKeys} objects, empty after the last one, or null if error.
+     */
+    List<StoredObject> listObjects(String prefix, String startAfter, int maxKeys);
+
+    /**
+     * Delete raw objects in one batch.
+     * 
+     * @param objectPaths The object paths.
+     * @return The number of objects deleted, or -1 if error.
+     */
+    int deleteObjects(List<String> objectPaths);
+
     /**
      * Calculate the file size.
      * 
@@ -0,0 +1,419 @@
+package org.opencourse.services.storage;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Resource.ResourceFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Local filesystem file storage service.
+ *
+ * Objects are stored as files under the configured directory with the same paths as in
+ * MinIO, so resource files are sharded into one directory per course. Every file is written
+ * to a temporary file and atomically moved into place, so readers never see a partial file.
+ * Reads are served from a {@link FileChannel}, which copies the file to the response with
+ * {@link FileChannel#transferTo}.
+ *
+ * Selected with {@code app.storage.backend: LOCAL}, for tests and small deployments that
+ * run without a MinIO server.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+@Qualifier(FileStorageService.BACKEND)
+@ConditionalOnProperty(prefix = "app.storage", name = "backend", havingValue = "local")
+public class LocalFileStorageService implements FileStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileStorageService.class);
+
+    // Directory of files being written, on the same filesystem as the objects.
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final String TEMP_SUFFIX = ".upload";
+    private static final long TRANSFER_SIZE = 8L * 1024 * 1024;
+
+    private final Path root;
+    private final Path tempDirectory;
+    private final FileBlobRegistry fileBlobRegistry;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationConfig The application configuration.
+     * @param fileBlobRegistry  The reference counts of deduplicated blobs.
+     */
+    @Autowired
+    public LocalFileStorageService(ApplicationConfig applicationConfig, FileBlobRegistry fileBlobRegistry) {
+        this.root = Paths.get(applicationConfig.getStorage().getLocal().getDirectory()).toAbsolutePath().normalize();
+        this.tempDirectory = root.resolve(TEMP_DIRECTORY);
+        this.fileBlobRegistry = fileBlobRegistry;
+        init();
+    }
+
+    @Override
+    public ResourceFile storeFile(MultipartFile file, ResourceFile.FileType fileType, Short courseId) {
+        Path temp = null;
+        try {
+            String filename = file.getOriginalFilename();
+            String extension = filename.substring(filename.lastIndexOf("."));
+            // Calculate file size in MB.
+            BigDecimal fileSize = calculateFileSizeMB(file.getSize());
+            if (fileBlobRegistry.isEnabled()) {
+                // Digest the content while writing it.
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                    temp = write(inputStream);
+                }
+                String objectPath = storeBlob(temp, HexFormat.of().formatHex(digest.digest()), extension, file.getSize());
+                temp = null;
+                return new ResourceFile(fileType, fileSize, objectPath);
+            }
+            try (InputStream inputStream = file.getInputStream()) {
+                temp = write(inputStream);
+            }
+            // Build the object path with a unique filename.
+            String objectPath = "resources/" + courseId.toString() + "/" + UUID.randomUUID().toString() + extension;
+            move(temp, objectPath);
+            return new ResourceFile(fileType, fileSize, objectPath);
+        } catch (Exception e) {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Store a written file as a content-addressed blob.
+     *
+     * @param temp      The written temporary file, moved or deleted.
+     * @param digest    The hex SHA-256 digest of the content.
+     * @param extension The file extension including the dot.
+     * @param size      The size of the content in bytes.
+     * @return The blob object path.
+     * @throws IOException If the file cannot be moved into place.
+     */
+    private String storeBlob(Path temp, String digest, String extension, long size) throws IOException {
+        String objectPath = fileBlobRegistry.acquire(digest);
+        if (objectPath != null) {
+            deleteQuietly(temp);
+            return objectPath;
+        }
+        objectPath = FileBlobRegistry.BLOB_PREFIX + digest + extension;
+        move(temp, objectPath);
+        String registered = fileBlobRegistry.register(digest, objectPath, size);
+        if (!registered.equals(objectPath)) {
+            // The same content was registered concurrently under another extension.
+            removeObject(objectPath);
+        }
+        return registered;
+    }
+
+    @Override
+    public InputStream getFile(ResourceFile file) {
+        return getObject(file.getFilePath());
+    }
+
+    @Override
+    public InputStream getFile(ResourceFile file, long offset, long length) {
+        return getObject(file.getFilePath(), offset, length);
+    }
+
+    /**
+     * Files are only served through the application.
+     *
+     * @return Always null.
+     */
+    @Override
+    public String presign(ResourceFile file, Duration expiry, String fileName) {
+        return null;
+    }
+
+    @Override
+    public long getFileLength(ResourceFile file) {
+        try {
+            return Files.size(resolve(file.getFilePath()));
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public boolean storeObject(String objectPath, byte[] content, String contentType) {
+        Path temp = null;
+        try {
+            temp = write(new ByteArrayInputStream(content));
+            move(temp, objectPath);
+            return true;
+        } catch (Exception e) {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public InputStream getObject(String objectPath) {
+        return getObject(objectPath, 0, -1);
+    }
+
+    @Override
+    public InputStream getObject(String objectPath, long offset, long length) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(resolve(objectPath), StandardOpenOption.READ);
+            long end = length < 0 ? channel.size() : Math.min(channel.size(), offset + length);
+            return new FileChannelInputStream(channel, offset, end);
+        } catch (Exception e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Delete a file.
+     *
+     * A blob is only deleted with its last reference, see {@link FileBlobRegistry#release}.
+     *
+     * @param filePath The file path.
+     * @return True if the file or the reference is deleted successfully, false otherwise.
+     */
+    @Override
+    public boolean deleteFile(String filePath) {
+        if (FileBlobRegistry.isBlob(filePath)) {
+            return fileBlobRegistry.release(filePath, this::discardObject);
+        }
+        return removeObject(filePath);
+    }
+
+    @Override
+    public List<StoredObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        try {
+            List<StoredObject> objects = new ArrayList<>(maxKeys);
+            // Walk from the deepest directory covering the prefix.
+            String directoryKey = prefix.substring(0, prefix.lastIndexOf('/') + 1);
+            Path directory = directoryKey.isEmpty() ? root : resolve(directoryKey);
+            if (Files.isDirectory(directory)) {
+                list(directory, directoryKey, prefix, startAfter, maxKeys, objects);
+            }
+            return objects;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * List the files of a directory tree in object path order.
+     *
+     * Only one directory is listed at a time, and subtrees whose paths all sort before
+     * {@code startAfter} are skipped without being listed.
+     *
+     * @param directory    The directory.
+     * @param directoryKey The object path prefix of the directory, ending with a slash.
+     * @param prefix       The object path prefix to list.
+     * @param startAfter   List objects after this path, or null.
+     * @param maxKeys      The maximum number of objects.
+     * @param objects      The listed objects.
+     * @throws IOException If a directory cannot be listed.
+     */
+    private void list(
+        Path directory,
+        String directoryKey,
+        String prefix,
+        String startAfter,
+        int maxKeys,
+        List<StoredObject> objects
+    ) throws IOException {
+        // Directory keys end with a slash, so they sort like the object paths below them.
+        Map<String, Path> children = new TreeMap<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.filter(entry -> !entry.equals(tempDirectory)).forEach(entry -> children.put(
+                directoryKey + entry.getFileName() + (Files.isDirectory(entry) ? "/" : ""),
+                entry
+            ));
+        }
+        for (Map.Entry<String, Path> child : children.entrySet()) {
+            if (objects.size() >= maxKeys) {
+                return;
+            }
+            String key = child.getKey();
+            if (key.endsWith("/")) {
+                boolean inPrefix = key.startsWith(prefix) || prefix.startsWith(key);
+                boolean listed = startAfter != null && key.compareTo(startAfter) < 0 && !startAfter.startsWith(key);
+                if (inPrefix && !listed) {
+                    list(child.getValue(), key, prefix, startAfter, maxKeys, objects);
+                }
+            } else if (key.startsWith(prefix) && (startAfter == null || key.compareTo(startAfter) > 0)) {
+                BasicFileAttributes attributes = Files.readAttributes(child.getValue(), BasicFileAttributes.class);
+                objects.add(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+            }
+        }
+    }
+
+    @Override
+    public int deleteObjects(List<String> objectPaths) {
+        int deleted = 0;
+        for (String objectPath : objectPaths) {
+            if (removeObject(objectPath)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete an object.
+     *
+     * @param objectPath The object path.
+     * @return True if the object is deleted successfully, false otherwise.
+     */
+    private boolean removeObject(String objectPath) {
+        try {
+            Files.delete(resolve(objectPath));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Delete an object that may already be gone.
+     *
+     * @param objectPath The object path.
+     * @return True if the object is deleted or does not exist, false otherwise.
+     */
+    private boolean discardObject(String objectPath) {
+        try {
+            Files.deleteIfExists(resolve(objectPath));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public BigDecimal calculateFileSizeMB(long fileSize) {
+        // Transform bytes to MB, keep two decimal places.
+        return new BigDecimal(fileSize)
+            .divide(new BigDecimal(1024 * 1024), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Write content to a new temporary file and flush it to disk.
+     *
+     * @param content The content.
+     * @return The temporary file.
+     * @throws IOException If the file cannot be written.
+     */
+    private Path write(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tempDirectory, null, TEMP_SUFFIX);
+        try (
+            ReadableByteChannel source = Channels.newChannel(content);
+            FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)
+        ) {
+            long position = 0;
+            long n;
+            while ((n = target.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+                position += n;
+            }
+            target.force(true);
+            return temp;
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Atomically move a written file to its object path.
+     *
+     * @param temp       The written temporary file.
+     * @param objectPath The object path.
+     * @throws IOException If the file cannot be moved.
+     */
+    private void move(Path temp, String objectPath) throws IOException {
+        Path target = resolve(objectPath);
+        Files.createDirectories(target.getParent());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Resolve an object path to its file.
+     *
+     * @param objectPath The object path.
+     * @return The file.
+     * @throws IllegalArgumentException If the path is outside the storage directory.
+     */
+    private Path resolve(String objectPath) throws IllegalArgumentException {
+        Path path = root.resolve(objectPath).normalize();
+        if (!path.startsWith(root) || path.equals(root) || path.startsWith(tempDirectory)) {
+            throw new IllegalArgumentException("Invalid object path: " + objectPath);
+        }
+        return path;
+    }
+
+    /**
+     * Delete a file, logging failures.
+     *
+     * @param path The file.
+     */
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}", path, e);
+        }
+    }
+
+    /**
+     * Prepare the storage directory, removing files left half-written by a previous run.
+     *
+     * @throws RuntimeException If the directory cannot be created.
+     */
+    private void init() throws RuntimeException {
+        try {
+            Files.createDirectories(tempDirectory);
+            try (Stream<Path> files = Files.list(tempDirectory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .forEach(LocalFileStorageService::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize local file storage service", e);
+        }
+    }
+}
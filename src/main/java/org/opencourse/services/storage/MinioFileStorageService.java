@@ -1,17 +1,33 @@
 package org.opencourse.services.storage;
 
 import io.minio.*;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
 
 import org.opencourse.configs.MinioConfig;
 import org.opencourse.models.Resource.ResourceFile;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MinIO file storage service manager.
@@ -19,53 +35,126 @@ import java.util.UUID;
  * @author !EEExp3rt
  */
 @Service
+@Qualifier(FileStorageService.BACKEND)
+@ConditionalOnProperty(prefix = "app.storage", name = "backend", havingValue = "minio", matchIfMissing = true)
 public class MinioFileStorageService implements FileStorageService {
 
     private final MinioClient minioClient;
     private final MinioConfig minioConfig;
+    private final MinioMultipartUploader multipartUploader;
+    private final FileBlobRegistry fileBlobRegistry;
 
     /**
      * Constructor.
      * 
      * @param minioClient MinIO client.
      * @param minioConfig MinIO configuration.
+     * @param multipartUploader The parallel multipart uploader for large files.
+     * @param fileBlobRegistry The reference counts of deduplicated blobs.
      */
     @Autowired
     public MinioFileStorageService(
         MinioClient minioClient,
-        MinioConfig minioConfig
+        MinioConfig minioConfig,
+        MinioMultipartUploader multipartUploader,
+        FileBlobRegistry fileBlobRegistry
     ) {
         this.minioClient = minioClient;
         this.minioConfig = minioConfig;
+        this.multipartUploader = multipartUploader;
+        this.fileBlobRegistry = fileBlobRegistry;
         init();
     }
 
     @Override
     public ResourceFile storeFile(MultipartFile file, ResourceFile.FileType fileType, Short courseId) {
         try {
-            // Generate a unique filename.
             String filename = file.getOriginalFilename();
-            filename = UUID.randomUUID().toString() + filename.substring(filename.lastIndexOf("."));
+            String extension = filename.substring(filename.lastIndexOf("."));
+            // Calculate file size in MB.
+            BigDecimal fileSize = calculateFileSizeMB(file.getSize());
+            if (fileBlobRegistry.isEnabled()) {
+                return new ResourceFile(fileType, fileSize, storeBlob(file, extension));
+            }
+            // Generate a unique filename.
+            filename = UUID.randomUUID().toString() + extension;
             // Build the object path.
             String objectPath = "resources/" + courseId.toString() + "/" + filename;
-            // Upload file to MinIO.
+            upload(objectPath, file);
+            // Return the resource file object.
+            return new ResourceFile(fileType, fileSize, objectPath);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store a file as a content-addressed blob.
+     *
+     * The digest is computed from the uploaded file before anything is sent to MinIO,
+     * so content already stored is only referenced again without uploading it.
+     *
+     * @param file      The file to be stored.
+     * @param extension The file extension including the dot.
+     * @return The blob object path.
+     * @throws Exception If the file cannot be read or uploaded.
+     */
+    private String storeBlob(MultipartFile file, String extension) throws Exception {
+        String digest = digest(file);
+        String objectPath = fileBlobRegistry.acquire(digest);
+        if (objectPath != null) {
+            return objectPath;
+        }
+        objectPath = FileBlobRegistry.BLOB_PREFIX + digest + extension;
+        upload(objectPath, file);
+        String registered = fileBlobRegistry.register(digest, objectPath, file.getSize());
+        if (!registered.equals(objectPath)) {
+            // The same content was registered concurrently under another extension.
+            removeObject(objectPath);
+        }
+        return registered;
+    }
+
+    /**
+     * Upload a file to MinIO, large files in parallel parts.
+     *
+     * @param objectPath The object path.
+     * @param file       The file to be uploaded.
+     * @throws Exception If the upload fails.
+     */
+    private void upload(String objectPath, MultipartFile file) throws Exception {
+        String bucket = minioConfig.getMinioConfigProperties().getBucketName();
+        if (multipartUploader.accepts(file.getSize())) {
+            try (InputStream inputStream = file.getInputStream()) {
+                multipartUploader.upload(bucket, objectPath, inputStream, file.getSize(), file.getContentType());
+            }
+        } else {
             minioClient.putObject(
                 PutObjectArgs.builder()
-                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .bucket(bucket)
                     .object(objectPath)
                     .stream(file.getInputStream(), file.getSize(), -1)
                     .contentType(file.getContentType())
                     .build()
             );
-            // Calculate file size in MB.
-            BigDecimal fileSize = calculateFileSizeMB(file.getSize());
-            // Return the resource file object.
-            return new ResourceFile(fileType, fileSize, objectPath);
-        } catch (Exception e) {
-            return null;
         }
     }
 
+    /**
+     * Compute the hex SHA-256 digest of a file.
+     *
+     * @param file The file.
+     * @return The hex digest.
+     * @throws Exception If the file cannot be read.
+     */
+    private static String digest(MultipartFile file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
     @Override
     public InputStream getFile(ResourceFile file) {
         try {
@@ -80,19 +169,197 @@ public class MinioFileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public InputStream getFile(ResourceFile file, long offset, long length) {
+        return getObject(file.getFilePath(), offset, length);
+    }
+
+    @Override
+    public String presign(ResourceFile file, Duration expiry, String fileName) {
+        try {
+            return minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                    .method(Method.GET)
+                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .object(file.getFilePath())
+                    .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                    .extraQueryParams(Map.of(
+                        "response-content-disposition", "attachment; filename=\"" + fileName + "\""
+                    ))
+                    .build()
+            );
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public long getFileLength(ResourceFile file) {
+        try {
+            return minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .object(file.getFilePath())
+                    .build()
+            ).size();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public boolean storeObject(String objectPath, byte[] content, String contentType) {
+        try {
+            minioClient.putObject(
+                PutObjectArgs.builder()
+                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .object(objectPath)
+                    .stream(new ByteArrayInputStream(content), content.length, -1)
+                    .contentType(contentType)
+                    .build()
+            );
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public InputStream getObject(String objectPath) {
+        try {
+            return minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .object(objectPath)
+                    .build()
+            );
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream getObject(String objectPath, long offset, long length) {
+        try {
+            return minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .object(objectPath)
+                    .offset(offset)
+                    .length(length)
+                    .build()
+            );
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Delete a file.
+     *
+     * A blob is only deleted with its last reference, see {@link FileBlobRegistry#release}.
+     *
+     * @param filePath The file path.
+     * @return True if the file or the reference is deleted successfully, false otherwise.
+     */
     @Override
     public boolean deleteFile(String filePath) {
+        if (FileBlobRegistry.isBlob(filePath)) {
+            return fileBlobRegistry.release(filePath, this::discardObject);
+        }
+        return removeObject(filePath);
+    }
+
+    @Override
+    public List<StoredObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        try {
+            ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                .prefix(prefix)
+                .recursive(true)
+                .maxKeys(maxKeys);
+            if (startAfter != null) {
+                args.startAfter(startAfter);
+            }
+            // The results are fetched lazily, stop before the next page is requested.
+            List<StoredObject> objects = new ArrayList<>(maxKeys);
+            for (Result<Item> result : minioClient.listObjects(args.build())) {
+                Item item = result.get();
+                objects.add(new StoredObject(item.objectName(), item.size(), item.lastModified().toInstant()));
+                if (objects.size() >= maxKeys) {
+                    break;
+                }
+            }
+            return objects;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Delete objects with multi-object delete requests.
+     *
+     * Blobs are deleted as plain objects, without going through their reference counts.
+     *
+     * @param objectPaths The object paths.
+     * @return The number of objects deleted, or -1 if error.
+     */
+    @Override
+    public int deleteObjects(List<String> objectPaths) {
+        if (objectPaths.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<DeleteObject> objects = objectPaths.stream().map(DeleteObject::new).toList();
+            // The deletion runs while the results are iterated, which only yields failed objects.
+            int failed = 0;
+            for (Result<DeleteError> result : minioClient.removeObjects(
+                RemoveObjectsArgs.builder()
+                    .bucket(minioConfig.getMinioConfigProperties().getBucketName())
+                    .objects(objects)
+                    .build()
+            )) {
+                result.get();
+                failed++;
+            }
+            return objectPaths.size() - failed;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Delete an object.
+     *
+     * @param objectPath The object path.
+     * @return True if the object is deleted successfully, false otherwise.
+     */
+    private boolean removeObject(String objectPath) {
         try {
             minioClient.statObject(
                 StatObjectArgs.builder()
                     .bucket(minioConfig.getMinioConfigProperties().getBucketName())
-                    .object(filePath)
+                    .object(objectPath)
                     .build()
             );
+        } catch (Exception e) {
+            return false;
+        }
+        return discardObject(objectPath);
+    }
+
+    /**
+     * Delete an object that may already be gone.
+     *
+     * @param objectPath The object path.
+     * @return True if the object is deleted or does not exist, false otherwise.
+     */
+    private boolean discardObject(String objectPath) {
+        try {
             minioClient.removeObject(
                 RemoveObjectArgs.builder()
                     .bucket(minioConfig.getMinioConfigProperties().getBucketName())
-                    .object(filePath)
+                    .object(objectPath)
                     .build()
             );
             return true;
@@ -0,0 +1,183 @@
+package org.opencourse.services.storage;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+
+import io.minio.MinioAsyncClient;
+import io.minio.UploadPartResponse;
+import io.minio.messages.Part;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel multipart uploader for MinIO.
+ *
+ * The stream is read part by part on the calling thread, and each part is uploaded
+ * asynchronously while the next one is read. At most {@code concurrency} parts are in
+ * flight, which also bounds the buffered memory of an upload to {@code concurrency} parts.
+ * If any part fails, the remaining parts are not sent and the multipart upload is aborted
+ * so no orphaned parts are left in the bucket.
+ *
+ * @author !EEExp3rt
+ */
+@Component
+public class MinioMultipartUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinioMultipartUploader.class);
+
+    // Smallest part size accepted by S3 compatible stores, except for the last part.
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final MinioAsyncClient minioAsyncClient;
+    private final ApplicationConfig.Storage.Multipart config;
+
+    /**
+     * Constructor.
+     *
+     * @param minioAsyncClient  MinIO asynchronous client.
+     * @param applicationConfig The application configuration.
+     */
+    @Autowired
+    public MinioMultipartUploader(
+        MinioAsyncClient minioAsyncClient,
+        ApplicationConfig applicationConfig
+    ) {
+        this.minioAsyncClient = minioAsyncClient;
+        this.config = applicationConfig.getStorage().getMultipart();
+    }
+
+    /**
+     * Get the effective part size.
+     *
+     * @return The configured part size in bytes, at least {@link #MIN_PART_SIZE}.
+     */
+    public long getPartSize() {
+        return Math.max(config.getPartSize().toBytes(), MIN_PART_SIZE);
+    }
+
+    /**
+     * Check if an object should be uploaded in parts.
+     *
+     * @param size The object size in bytes.
+     * @return True if multipart upload is enabled and the object spans more than one part.
+     */
+    public boolean accepts(long size) {
+        return config.isEnabled() && size > getPartSize();
+    }
+
+    /**
+     * Upload an object in parts.
+     *
+     * @param bucket      The bucket name.
+     * @param object      The object path.
+     * @param stream      The object content, read up to {@code size} bytes.
+     * @param size        The object size in bytes.
+     * @param contentType The content type of the object, or null.
+     * @throws RuntimeException If the upload fails. The multipart upload is aborted in that case.
+     */
+    public void upload(
+        String bucket,
+        String object,
+        InputStream stream,
+        long size,
+        String contentType
+    ) throws RuntimeException {
+        Multimap<String, String> headers = contentType == null
+            ? null
+            : ImmutableMultimap.of("Content-Type", contentType);
+        String uploadId;
+        try {
+            uploadId = minioAsyncClient
+                .createMultipartUploadAsync(bucket, null, object, headers, null)
+                .join()
+                .result()
+                .uploadId();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create multipart upload of " + object, unwrap(e));
+        }
+
+        long partSize = getPartSize();
+        int concurrency = config.getConcurrency();
+        int partCount = (int) ((size + partSize - 1) / partSize);
+        Part[] parts = new Part[partCount];
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        boolean drained = false;
+        try {
+            for (int i = 0; i < partCount && failure.get() == null; i++) {
+                int partNumber = i + 1;
+                int length = (int) Math.min(partSize, size - i * partSize);
+                byte[] data = stream.readNBytes(length);
+                if (data.length != length) {
+                    throw new IOException("Unexpected end of stream in part " + partNumber);
+                }
+                permits.acquire();
+                try {
+                    minioAsyncClient
+                        .uploadPartAsync(bucket, null, object, data, length, uploadId, partNumber, null, null)
+                        .whenComplete((UploadPartResponse response, Throwable e) -> {
+                            if (e == null) {
+                                parts[partNumber - 1] = new Part(partNumber, response.etag());
+                            } else {
+                                failure.compareAndSet(null, unwrap(e));
+                            }
+                            permits.release();
+                        });
+                } catch (Exception e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            // Wait for the parts in flight.
+            permits.acquire(concurrency);
+            drained = true;
+            if (failure.get() != null) {
+                throw new IOException("Failed to upload part", failure.get());
+            }
+            minioAsyncClient
+                .completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null)
+                .join();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // Let parts in flight finish so none of them lands after the abort.
+            if (!drained) {
+                permits.acquireUninterruptibly(concurrency);
+            }
+            abort(bucket, object, uploadId);
+            throw new RuntimeException("Failed to upload " + object + " in parts", unwrap(e));
+        }
+    }
+
+    /**
+     * Abort a multipart upload, discarding its uploaded parts.
+     *
+     * @param bucket   The bucket name.
+     * @param object   The object path.
+     * @param uploadId The upload ID.
+     */
+    private void abort(String bucket, String object, String uploadId) {
+        try {
+            minioAsyncClient
+                .abortMultipartUploadAsync(bucket, null, object, uploadId, null, null)
+                .join();
+        } catch (Exception e) {
+            logger.warn("Failed to abort multipart upload {} of {}", uploadId, object, unwrap(e));
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
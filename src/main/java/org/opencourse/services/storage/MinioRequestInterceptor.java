@@ -0,0 +1,159 @@
+package org.opencourse.services.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import org.opencourse.configs.MinioConfig;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation timeouts and latency of MinIO requests.
+ *
+ * Every request sent by the MinIO clients is classified by its S3 operation, gets the read
+ * and write timeouts configured for that operation, and is timed until its response headers
+ * arrive. Downloaded bodies are streamed afterwards and are not part of the latency.
+ *
+ * @author !EEExp3rt
+ */
+public class MinioRequestInterceptor implements Interceptor, MeterBinder {
+
+    /**
+     * S3 operation types.
+     */
+    public enum Operation {
+        STAT,
+        GET,
+        PUT,
+        UPLOAD_PART,
+        MULTIPART,
+        DELETE,
+        LIST,
+        OTHER
+    }
+
+    private final MinioConfig.MinioConfigProperties.Timeouts timeouts;
+
+    // Latency by operation, null until bound to a registry.
+    private volatile Map<Operation, Timer> timers;
+
+    // Statistics.
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    /**
+     * Constructor.
+     *
+     * @param minioConfigProperties MinIO configuration properties.
+     */
+    public MinioRequestInterceptor(MinioConfig.MinioConfigProperties minioConfigProperties) {
+        this.timeouts = minioConfigProperties.getTimeouts();
+        for (Operation operation : Operation.values()) {
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Operation operation = getOperation(request);
+        int timeout = (int) Math.min(getTimeout(operation).toMillis(), Integer.MAX_VALUE);
+        long start = System.nanoTime();
+        try {
+            Response response = chain
+                .withReadTimeout(timeout, TimeUnit.MILLISECONDS)
+                .withWriteTimeout(timeout, TimeUnit.MILLISECONDS)
+                .proceed(request);
+            if (response.code() >= 500) {
+                errors.get(operation).increment();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            errors.get(operation).increment();
+            throw e;
+        } finally {
+            Map<Operation, Timer> bound = timers;
+            if (bound != null) {
+                bound.get(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<Operation, Timer> bound = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            String tag = operation.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            bound.put(operation, Timer.builder("opencourse.minio.requests")
+                .description("Latency of MinIO requests until the response headers")
+                .tag("operation", tag)
+                .publishPercentileHistogram()
+                .register(registry));
+            FunctionCounter.builder("opencourse.minio.errors", errors.get(operation), LongAdder::sum)
+                .description("MinIO requests failed by an I/O error, a timeout or a server error")
+                .tag("operation", tag)
+                .register(registry);
+        }
+        timers = bound;
+    }
+
+    /**
+     * Get the timeout of an operation.
+     *
+     * @param operation The operation.
+     * @return The read and write timeout, zero for none.
+     */
+    public Duration getTimeout(Operation operation) {
+        return switch (operation) {
+            case STAT -> timeouts.getStat();
+            case GET -> timeouts.getGet();
+            case PUT -> timeouts.getPut();
+            case UPLOAD_PART -> timeouts.getUploadPart();
+            case MULTIPART -> timeouts.getMultipart();
+            case DELETE -> timeouts.getDelete();
+            case LIST -> timeouts.getList();
+            case OTHER -> timeouts.getOther();
+        };
+    }
+
+    /**
+     * Classify a request by its S3 operation.
+     *
+     * Requests are expected in path style, which the MinIO clients use for a MinIO endpoint.
+     *
+     * @param request The request.
+     * @return The operation.
+     */
+    static Operation getOperation(Request request) {
+        HttpUrl url = request.url();
+        boolean object = url.pathSegments().stream().filter(segment -> !segment.isEmpty()).count() > 1;
+        boolean multipart = url.queryParameter("uploadId") != null || url.queryParameterNames().contains("uploads");
+        return switch (request.method()) {
+            case "HEAD" -> Operation.STAT;
+            case "GET" -> multipart ? Operation.MULTIPART
+                : object ? Operation.GET
+                : url.queryParameterNames().contains("location") ? Operation.OTHER
+                : Operation.LIST;
+            case "PUT" -> !object ? Operation.OTHER
+                : url.queryParameter("partNumber") != null ? Operation.UPLOAD_PART
+                : Operation.PUT;
+            case "POST" -> multipart ? Operation.MULTIPART
+                : url.queryParameterNames().contains("delete") ? Operation.DELETE
+                : Operation.OTHER;
+            case "DELETE" -> multipart ? Operation.MULTIPART : Operation.DELETE;
+            default -> Operation.OTHER;
+        };
+    }
+}
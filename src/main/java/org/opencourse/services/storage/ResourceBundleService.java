@@ -0,0 +1,301 @@
+package org.opencourse.services.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Resource;
+import org.opencourse.models.User;
+import org.opencourse.services.ResourceManager;
+import org.opencourse.services.concurrency.BandwidthLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streaming ZIP bundles of resource files.
+ *
+ * The bundle is written entry by entry straight from the storage streams through a small
+ * copy buffer, so no file is held in memory whatever its size. While one file is written,
+ * the next ones are already being opened on a bounded pool, hiding the storage round trip
+ * between entries. The views of all files written are counted together afterwards.
+ *
+ * @author !EEExp3rt
+ */
+@Service
+public class ResourceBundleService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceBundleService.class);
+
+    private final FileStorageService fileStorageService;
+    private final ResourceManager resourceManager;
+    private final BandwidthLimiter bandwidthLimiter;
+    private final ApplicationConfig.Storage.Bundle config;
+
+    // Opens files ahead of the entry being written.
+    private volatile ThreadPoolExecutor prefetcher;
+
+    // Statistics.
+    private final LongAdder bundles = new LongAdder();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param fileStorageService The file storage service.
+     * @param resourceManager    The resource manager.
+     * @param bandwidthLimiter   The download bandwidth limiter.
+     * @param applicationConfig  The application configuration.
+     */
+    @Autowired
+    public ResourceBundleService(
+        FileStorageService fileStorageService,
+        ResourceManager resourceManager,
+        BandwidthLimiter bandwidthLimiter,
+        ApplicationConfig applicationConfig
+    ) {
+        this.fileStorageService = fileStorageService;
+        this.resourceManager = resourceManager;
+        this.bandwidthLimiter = bandwidthLimiter;
+        this.config = applicationConfig.getStorage().getBundle();
+    }
+
+    /**
+     * Get the maximum number of resources in one bundle.
+     *
+     * @return The maximum number of resources.
+     */
+    public int getMaxFiles() {
+        return config.getMaxFiles();
+    }
+
+    /**
+     * Write the files of resources as a ZIP archive.
+     *
+     * Entries are named after the resources, and files missing from the storage are skipped.
+     * The output stream is finished but not closed.
+     *
+     * @param resources The resources.
+     * @param user      The downloader, whose views of the written files are counted.
+     * @param out       The output stream.
+     * @return The number of files written.
+     * @throws IOException If writing fails, usually because the client went away.
+     */
+    public int writeBundle(List<Resource> resources, User user, OutputStream out) throws IOException {
+        List<Resource> bundled = resources.stream()
+            .filter(resource -> resource.getResourceFile() != null && resource.getResourceFile().getFilePath() != null)
+            .toList();
+        List<Resource> written = new ArrayList<>(bundled.size());
+        Deque<Future<InputStream>> opened = new ArrayDeque<>();
+        Set<String> names = new HashSet<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(config.getCompressionLevel());
+        bundles.increment();
+        try {
+            int next = 0;
+            for (Resource resource : bundled) {
+                // Keep the configured number of files opening behind the current one.
+                while (next < bundled.size() && opened.size() <= config.getPrefetch()) {
+                    opened.add(open(bundled.get(next++)));
+                }
+                try (InputStream file = await(opened.poll())) {
+                    if (file == null) {
+                        missing.increment();
+                        logger.warn("Skipped missing file {} of resource {}", resource.getResourceFile().getFilePath(), resource.getId());
+                        continue;
+                    }
+                    ZipEntry entry = new ZipEntry(getEntryName(resource, names));
+                    if (resource.getCreatedAt() != null) {
+                        entry.setTime(resource.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                    }
+                    zip.putNextEntry(entry);
+                    bytes.add(bandwidthLimiter.limit(file, user.getId()).transferTo(zip));
+                    zip.closeEntry();
+                }
+                written.add(resource);
+                files.increment();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            // Release the files opened ahead if the bundle is aborted.
+            for (Future<InputStream> future : opened) {
+                closeQuietly(future);
+            }
+            if (!written.isEmpty()) {
+                resourceManager.countViews(written, user);
+            }
+        }
+        return written.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("opencourse.bundle.requests", bundles, LongAdder::sum)
+            .description("Resource bundles written")
+            .register(registry);
+        FunctionCounter.builder("opencourse.bundle.files", files, LongAdder::sum)
+            .description("Resource files written into bundles")
+            .register(registry);
+        FunctionCounter.builder("opencourse.bundle.bytes", bytes, LongAdder::sum)
+            .description("Uncompressed bytes written into bundles")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("opencourse.bundle.missing", missing, LongAdder::sum)
+            .description("Resource files skipped because they could not be opened")
+            .register(registry);
+    }
+
+    /**
+     * Start the prefetch threads.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PostConstruct
+    public void start() {
+        if (prefetcher != null) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        // No queue, a file is opened inline instead of waiting for a busy pool.
+        prefetcher = new ThreadPoolExecutor(
+            0,
+            config.getPrefetchThreads(),
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "bundle-prefetch-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+    /**
+     * Stop the prefetch threads.
+     *
+     * @apiNote This method is called by Spring automatically.
+     */
+    @PreDestroy
+    public void stop() {
+        if (prefetcher != null) {
+            prefetcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Start opening the file of a resource.
+     *
+     * @param resource The resource.
+     * @return The file stream being opened, null if the file cannot be opened.
+     */
+    private Future<InputStream> open(Resource resource) {
+        ThreadPoolExecutor executor = prefetcher;
+        if (executor != null) {
+            try {
+                return CompletableFuture.supplyAsync(() -> fileStorageService.getFile(resource.getResourceFile()), executor);
+            } catch (RejectedExecutionException e) {
+                // All threads are busy, open the file inline.
+            }
+        }
+        try {
+            return CompletableFuture.completedFuture(fileStorageService.getFile(resource.getResourceFile()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Wait for a file to be opened.
+     *
+     * @param future The file stream being opened.
+     * @return The file stream, or null if the file cannot be opened.
+     * @throws IOException If interrupted while waiting.
+     */
+    private static InputStream await(Future<InputStream> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while opening a file", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Close a file stream opened ahead once it is ready.
+     *
+     * @param future The file stream being opened.
+     */
+    private static void closeQuietly(Future<InputStream> future) {
+        try {
+            InputStream file = await(future);
+            if (file != null) {
+                file.close();
+            }
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    /**
+     * Get a unique entry name of a resource file.
+     *
+     * The name is the resource name with the file extension, with characters not allowed in
+     * file names replaced, and numbered if another entry has the same name.
+     *
+     * @param resource The resource.
+     * @param names    The entry names already used, lower cased.
+     * @return The entry name.
+     */
+    static String getEntryName(Resource resource, Set<String> names) {
+        String path = resource.getResourceFile().getFilePath();
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot) : "";
+        String base = resource.getName() == null ? "" : resource.getName().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        if (base.isEmpty() || base.startsWith(".")) {
+            base = "resource-" + resource.getId() + base;
+        }
+        if (!extension.isEmpty() && base.toLowerCase(Locale.ROOT).endsWith(extension.toLowerCase(Locale.ROOT))) {
+            base = base.substring(0, base.length() - extension.length());
+        }
+        String name = base + extension;
+        for (int i = 2; !names.add(name.toLowerCase(Locale.ROOT)); i++) {
+            name = base + " (" + i + ")" + extension;
+        }
+        return name;
+    }
+}
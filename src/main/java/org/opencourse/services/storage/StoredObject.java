@@ -0,0 +1,14 @@
+package org.opencourse.services.storage;
+
+import java.time.Instant;
+
+/**
+ * An object listed from the file storage.
+ *
+ * @param path         The object path.
+ * @param size         The object size in bytes.
+ * @param lastModified When the object was last written.
+ * @author !EEExp3rt
+ */
+public record StoredObject(String path, long size, Instant lastModified) {
+}
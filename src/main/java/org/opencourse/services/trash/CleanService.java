@@ -1,23 +1,59 @@
 package org.opencourse.services.trash;
 
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.repositories.ResourceRepo;
+import org.opencourse.services.storage.FileStorageService;
+import org.opencourse.services.storage.StoredObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.transaction.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Clean service manager.
- * 
+ *
  * @author !EEExp3rt
  */
 @Service
 public class CleanService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CleanService.class);
+
+    private static final String RESOURCE_PREFIX = "resources/";
+
+    // Object holding the last reconciled path of an unfinished pass, outside the listed prefix.
+    static final String CURSOR_OBJECT = "system/reconcile-cursor";
+
+    private final ResourceRepo resourceRepo;
+    private final FileStorageService fileStorageService;
+    private final ApplicationConfig.Storage.Reconcile config;
+
     /**
      * Constructor.
+     *
+     * @param resourceRepo       The resource repository.
+     * @param fileStorageService The file storage service.
+     * @param applicationConfig  The application configuration.
      */
     @Autowired
-    public CleanService() {
+    public CleanService(
+        ResourceRepo resourceRepo,
+        FileStorageService fileStorageService,
+        ApplicationConfig applicationConfig
+    ) {
+        this.resourceRepo = resourceRepo;
+        this.fileStorageService = fileStorageService;
+        this.config = applicationConfig.getStorage().getReconcile();
     }
 
     /**
@@ -36,11 +72,107 @@ public class CleanService {
         // TODO: Implement this method.
     }
 
+    /**
+     * Run the resource file reconciliation on schedule if enabled.
+     */
+    @Scheduled(cron = "${app.storage.reconcile.cron:0 0 4 * * *}")
+    public void scheduledCleanResourceFiles() {
+        if (config.isEnabled()) {
+            cleanResourceFiles();
+        }
+    }
+
     /**
      * Clean all trashed resource files in file storage system.
+     *
+     * Resource files are left behind when deleting the file of a deleted resource fails, or
+     * when rolling back a failed upload fails. Objects under {@code resources/} are listed one
+     * page at a time in path order, the paths of each page are looked up in one query, and the
+     * ones no resource references are deleted in one multi-object delete. Objects younger than
+     * the grace period are kept, since their resource may not be committed yet.
+     *
+     * A run stops after the configured number of pages and the next run resumes after the last
+     * reconciled path, so memory stays bounded by one page however many objects are stored.
+     *
+     * @return The number of resource files deleted.
      */
-    @Transactional
-    public void cleanResourceFiles() {
-        // TODO: Implement this method.
+    public int cleanResourceFiles() {
+        return cleanResourceFiles(Instant.now());
+    }
+
+    /**
+     * Clean trashed resource files older than the grace period.
+     *
+     * @param now The current time.
+     * @return The number of resource files deleted.
+     */
+    int cleanResourceFiles(Instant now) {
+        Instant cutoff = now.minus(config.getGracePeriod());
+        String cursor = loadCursor();
+        int deleted = 0;
+        for (int page = 0; page < config.getMaxPages(); page++) {
+            List<StoredObject> objects = fileStorageService.listObjects(RESOURCE_PREFIX, cursor, config.getPageSize());
+            if (objects == null) {
+                logger.warn("Failed to list resource files after {}", cursor);
+                return deleted;
+            }
+            if (objects.isEmpty()) {
+                // The pass is complete, start over on the next run.
+                saveCursor(null);
+                logger.info("Resource file reconciliation completed, {} orphaned files deleted", deleted);
+                return deleted;
+            }
+            List<String> candidates = objects.stream()
+                .filter(object -> object.lastModified().isBefore(cutoff))
+                .map(StoredObject::path)
+                .toList();
+            if (!candidates.isEmpty()) {
+                Set<String> referenced = resourceRepo.findReferencedFilePaths(candidates);
+                List<String> orphans = candidates.stream()
+                    .filter(path -> !referenced.contains(path))
+                    .toList();
+                if (!orphans.isEmpty()) {
+                    int count = fileStorageService.deleteObjects(orphans);
+                    if (count < 0) {
+                        logger.warn("Failed to delete {} orphaned resource files after {}", orphans.size(), cursor);
+                        return deleted;
+                    }
+                    deleted += count;
+                }
+            }
+            cursor = objects.get(objects.size() - 1).path();
+            saveCursor(cursor);
+        }
+        logger.info("Resource file reconciliation paused after {}, {} orphaned files deleted", cursor, deleted);
+        return deleted;
+    }
+
+    /**
+     * Load the cursor of an unfinished pass.
+     *
+     * @return The last reconciled path, or null to start from the first one.
+     */
+    private String loadCursor() {
+        try (InputStream inputStream = fileStorageService.getObject(CURSOR_OBJECT)) {
+            if (inputStream == null) {
+                return null;
+            }
+            String cursor = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            return cursor.isEmpty() ? null : cursor;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Save the cursor of the current pass.
+     *
+     * @param cursor The last reconciled path, or null if the pass is complete.
+     */
+    private void saveCursor(String cursor) {
+        byte[] content = cursor == null ? new byte[0] : cursor.getBytes(StandardCharsets.UTF_8);
+        if (!fileStorageService.storeObject(CURSOR_OBJECT, content, "text/plain")) {
+            logger.warn("Failed to save resource file reconciliation cursor {}", cursor);
+        }
     }
-}
\ No newline at end of file
+}
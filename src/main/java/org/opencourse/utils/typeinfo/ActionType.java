@@ -35,6 +35,15 @@ public enum ActionType implements TypeInfo {
     UPDATE_USER((byte) 40, "Update-User", "更新用户", User.class),
     DELETE_USER((byte) 41, "Delete-User", "删除用户", User.class);
 
+    // Lookup table indexed by ID, IDs are non-negative bytes.
+    private static final ActionType[] BY_ID = new ActionType[Byte.MAX_VALUE + 1];
+
+    static {
+        for (ActionType type : values()) {
+            BY_ID[type.id] = type;
+        }
+    }
+
     private final byte id;
     private final String name;
     private final String description;
@@ -73,11 +82,6 @@ public enum ActionType implements TypeInfo {
      * @return The action type with the given ID, or null if not found.
      */
     public static ActionType getById(byte id) {
-        for (ActionType type : values()) {
-            if (type.id == id) {
-                return type;
-            }
-        }
-        return null;
+        return id < 0 ? null : BY_ID[id];
     }
 }
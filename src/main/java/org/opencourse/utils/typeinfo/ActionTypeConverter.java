@@ -0,0 +1,30 @@
+package org.opencourse.utils.typeinfo;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * JPA converter storing {@link ActionType} as its byte ID.
+ * 
+ * @author !EEExp3rt
+ */
+@Converter
+public class ActionTypeConverter implements AttributeConverter<ActionType, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(ActionType actionType) {
+        return actionType == null ? null : actionType.getId();
+    }
+
+    @Override
+    public ActionType convertToEntityAttribute(Byte id) throws IllegalArgumentException {
+        if (id == null) {
+            return null;
+        }
+        ActionType actionType = ActionType.getById(id);
+        if (actionType == null) {
+            throw new IllegalArgumentException("Unknown action type ID: " + id);
+        }
+        return actionType;
+    }
+}
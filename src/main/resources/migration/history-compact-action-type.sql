@@ -0,0 +1,63 @@
+-- Migrate `History`.`action_type` from the enum of ActionType names to the ActionType byte IDs,
+-- and add the secondary indexes for the query patterns of the history service.
+-- `idx_history_user_timeline` already exists since the timeline API was introduced.
+--
+-- Run once with the application stopped, before starting the version storing byte IDs, with the
+-- mysql client so that `delimiter` is understood and the script stops at the first error.
+-- The conversion is done in a new column and swapped in at the end, so the old column stays intact
+-- until the final `alter table`; if interrupted before it, just continue with the remaining statements.
+
+alter table `History` add column `action_type_id` tinyint null after `action_type`;
+
+-- Convert in chunks to keep each transaction small, until no row is updated any more.
+-- Fails without touching the old column if any row is left unconverted.
+drop procedure if exists `history_compact_action_type`;
+
+delimiter $$
+create procedure `history_compact_action_type`()
+begin
+    declare updated int default 1;
+    while updated > 0 do
+        update `History` set `action_type_id` = case `action_type`
+                when 'CREATE_COURSE' then 21
+                when 'UPDATE_COURSE' then 22
+                when 'DELETE_COURSE' then 23
+                when 'CREATE_DEPARTMENT' then 24
+                when 'UPDATE_DEPARTMENT' then 25
+                when 'DELETE_DEPARTMENT' then 26
+                when 'CREATE_RESOURCE' then 27
+                when 'UPDATE_RESOURCE' then 28
+                when 'DELETE_RESOURCE' then 29
+                when 'LIKE_RESOURCE' then 30
+                when 'UNLIKE_RESOURCE' then 31
+                when 'VIEW_RESOURCE' then 32
+                when 'CREATE_INTERACTION' then 33
+                when 'UPDATE_INTERACTION' then 34
+                when 'DELETE_INTERACTION' then 35
+                when 'LIKE_INTERACTION' then 36
+                when 'UNLIKE_INTERACTION' then 37
+                when 'RATE_COURSE' then 38
+                when 'CREATE_USER' then 39
+                when 'UPDATE_USER' then 40
+                when 'DELETE_USER' then 41
+            end
+        where `action_type_id` is null
+        limit 50000;
+        set updated = row_count();
+    end while;
+
+    if (select count(*) from `History` where `action_type_id` is null) > 0 then
+        signal sqlstate '45000'
+            set message_text = 'History rows with an unknown action_type are left unconverted';
+    end if;
+end$$
+delimiter ;
+
+call `history_compact_action_type`();
+drop procedure `history_compact_action_type`;
+
+alter table `History`
+    drop column `action_type`,
+    change column `action_type_id` `action_type` tinyint not null,
+    add index `idx_history_user_action_timeline` (`user_id`, `action_type`, `timestamp`, `id`),
+    add index `idx_history_timestamp` (`timestamp`);
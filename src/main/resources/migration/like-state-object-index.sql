@@ -0,0 +1,13 @@
+-- Add the index on `LikeState`.(`object_type`, `object_id`) used to delete the like states of a
+-- deleted resource or interaction, and remove the like states left behind by objects deleted before.
+--
+-- Can be run with the application online, InnoDB builds the index without blocking writes.
+-- Run after the like state backfill, if any, which restores the like states of deleted objects too.
+
+alter table `LikeState` add index `idx_like_state_object` (`object_type`, `object_id`), algorithm=inplace, lock=none;
+
+delete l from `LikeState` l left join `Resource` r on r.`id` = l.`object_id`
+where l.`object_type` = 'RESOURCE' and r.`id` is null;
+
+delete l from `LikeState` l left join `Interaction` i on i.`id` = l.`object_id`
+where l.`object_type` = 'INTERACTION' and i.`id` is null;
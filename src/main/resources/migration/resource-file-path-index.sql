@@ -0,0 +1,6 @@
+-- Add the index on `Resource`.`file_path` used by the storage reconciler to look up
+-- listed object paths in batches.
+--
+-- Can be run with the application online, InnoDB builds the index without blocking writes.
+
+alter table `Resource` add index `idx_resource_file_path` (`file_path`), algorithm=inplace, lock=none;
@@ -66,6 +66,8 @@ create table `Resource` if not exists (
     `views` int default 0,
     `likes` int default 0,
     `dislikes` int default 0,
+    /* Indexes */
+    index `idx_resource_file_path` (`file_path`),
     /* Foreign Keys */
     foreign key (`course_id`) references `Course`(`id`),
     foreign key (`user_id`) references `User`(`id`)
@@ -92,30 +94,71 @@ create table `Interaction` if not exists (
 create table `History` if not exists (
     `id` bigint auto_increment primary key,
     `user_id` int not null,
-    `action_type` enum(
-        'CREATE_COURSE',      -- 21
-        'UPDATE_COURSE',      -- 22
-        'DELETE_COURSE',      -- 23
-        'CREATE_DEPARTMENT',  -- 24
-        'UPDATE_DEPARTMENT',  -- 25
-        'DELETE_DEPARTMENT',  -- 26
-        'CREATE_RESOURCE',    -- 27
-        'UPDATE_RESOURCE',    -- 28
-        'DELETE_RESOURCE',    -- 29
-        'LIKE_RESOURCE',      -- 30
-        'UNLIKE_RESOURCE',    -- 31
-        'VIEW_RESOURCE',      -- 32
-        'CREATE_INTERACTION', -- 33
-        'UPDATE_INTERACTION', -- 34
-        'DELETE_INTERACTION', -- 35
-        'LIKE_INTERACTION',   -- 36
-        'UNLIKE_INTERACTION', -- 37
-        'RATE_COURSE',        -- 38
-        'CREATE_USER',        -- 39
-        'UPDATE_USER',        -- 40
-        'DELETE_USER'         -- 41
-    ) not null,
+    -- `action_type` stores the byte ID of ActionType, see migration/history-compact-action-type.sql.
+    `action_type` tinyint not null,
     `object_id` int default null,
     `timestamp` timestamp default current_timestamp,
+    index `idx_history_user_timeline` (`user_id`, `timestamp`, `id`),
+    index `idx_history_user_action_timeline` (`user_id`, `action_type`, `timestamp`, `id`),
+    index `idx_history_timestamp` (`timestamp`),
     foreign key (`user_id`) references `User`(`id`)
 ) engine=InnoDB default charset=utf8mb4 collate=utf8mb4_unicode_ci;
+
+-- `LikeState` table records the objects currently liked by users.
+create table `LikeState` if not exists (
+    `id` bigint auto_increment primary key,
+    `user_id` int not null,
+    `object_type` enum('RESOURCE', 'INTERACTION') not null,
+    `object_id` int not null,
+    `created_at` timestamp default current_timestamp,
+    unique key `uk_like_state_user_object` (`user_id`, `object_type`, `object_id`),
+    index `idx_like_state_object` (`object_type`, `object_id`),
+    foreign key (`user_id`) references `User`(`id`)
+) engine=InnoDB default charset=utf8mb4 collate=utf8mb4_unicode_ci;
+
+-- `HistorySegment` table catalogs archived history segments in the file storage.
+create table `HistorySegment` if not exists (
+    `id` bigint auto_increment primary key,
+    `partition_day` date not null,
+    `object_path` varchar(255) not null,
+    `index_path` varchar(255) not null,
+    `row_count` int not null,
+    `min_timestamp` timestamp not null,
+    `max_timestamp` timestamp not null,
+    `created_at` timestamp default current_timestamp,
+    unique key `uk_history_segment_path` (`object_path`),
+    index `idx_history_segment_time` (`max_timestamp`, `min_timestamp`)
+) engine=InnoDB default charset=utf8mb4 collate=utf8mb4_unicode_ci;
+
+-- `HistorySegmentUser` table catalogs the users with records in each archived history segment.
+create table `HistorySegmentUser` if not exists (
+    `segment_id` bigint not null,
+    `user_id` int not null,
+    primary key (`segment_id`, `user_id`),
+    index `idx_history_segment_user` (`user_id`, `segment_id`),
+    foreign key (`segment_id`) references `HistorySegment`(`id`)
+) engine=InnoDB default charset=utf8mb4 collate=utf8mb4_unicode_ci;
+
+-- `FileBlob` table reference-counts deduplicated resource files stored under their content digest.
+create table `FileBlob` if not exists (
+    `id` bigint auto_increment primary key,
+    `digest` char(64) not null,
+    `object_path` varchar(255) not null,
+    `file_size` bigint not null,
+    `ref_count` int not null,
+    `created_at` timestamp default current_timestamp,
+    unique key `uk_file_blob_digest` (`digest`),
+    unique key `uk_file_blob_path` (`object_path`)
+) engine=InnoDB default charset=utf8mb4 collate=utf8mb4_unicode_ci;
+
+-- `Outbox` table holds storage side effects to carry out after the transaction writing them commits.
+create table `Outbox` if not exists (
+    `id` bigint auto_increment primary key,
+    `event_type` varchar(31) not null,
+    `payload` varchar(255) not null,
+    `attempts` int not null,
+    `next_attempt_at` timestamp not null,
+    `last_error` varchar(255),
+    `created_at` timestamp default current_timestamp,
+    index `idx_outbox_next_attempt` (`next_attempt_at`, `id`)
+) engine=InnoDB default charset=utf8mb4 collate=utf8mb4_unicode_ci;
\ No newline at end of file
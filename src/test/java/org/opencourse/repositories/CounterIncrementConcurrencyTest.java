@@ -0,0 +1,165 @@
+package org.opencourse.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opencourse.models.Course;
+import org.opencourse.models.Department;
+import org.opencourse.models.Interaction;
+import org.opencourse.models.Resource;
+import org.opencourse.models.User;
+import org.opencourse.utils.typeinfo.CourseType;
+import org.opencourse.utils.typeinfo.ResourceType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency tests for the atomic counter increments of {@link ResourceRepo} and {@link InteractionRepo}.
+ *
+ * Each increment runs in its own committed transaction, so the test itself is not transactional.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnableJpaRepositories(basePackageClasses = {
+    ResourceRepo.class, InteractionRepo.class, UserRepo.class, DepartmentRepo.class, CourseRepo.class
+})
+@EntityScan(basePackageClasses = {Resource.class, Interaction.class, User.class, Department.class, Course.class})
+class CounterIncrementConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS = 250;
+
+    @Autowired
+    private ResourceRepo resourceRepo;
+
+    @Autowired
+    private InteractionRepo interactionRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DepartmentRepo departmentRepo;
+
+    @Autowired
+    private CourseRepo courseRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Test data.
+    private Resource resource;
+    private Interaction interaction;
+
+    @BeforeEach
+    void setUp() {
+        Department department = departmentRepo.save(new Department("Computer Science"));
+        User user = userRepo.save(new User("uploader", "uploader@example.com", "hashedPassword", User.UserRole.USER));
+        Course course = courseRepo.save(
+            new Course("Data Structures", "CS101", department, CourseType.MAJOR_REQUIRED, new BigDecimal("3.0")));
+        resource = resourceRepo.save(new Resource(
+            "Final Exam 2023",
+            ResourceType.EXAM,
+            new Resource.ResourceFile(Resource.ResourceFile.FileType.PDF, new BigDecimal("2.50"), "/uploads/exam.pdf"),
+            course,
+            user
+        ));
+        interaction = interactionRepo.save(new Interaction(course, user, "Great course!", (byte) 5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        interactionRepo.deleteAll();
+        resourceRepo.deleteAll();
+        courseRepo.deleteAll();
+        userRepo.deleteAll();
+        departmentRepo.deleteAll();
+    }
+
+    /**
+     * Run an action concurrently, each call in its own transaction.
+     *
+     * @param action The action to run.
+     */
+    private void runConcurrently(Runnable action) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int i = 0; i < INCREMENTS; i++) {
+                        transactionTemplate.executeWithoutResult(status -> action.run());
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count every concurrent resource view")
+    void incrementViews_WithConcurrentViews_ShouldBeExact() throws Exception {
+        // When.
+        runConcurrently(() -> resourceRepo.incrementViews(resource.getId(), 1));
+
+        // Then.
+        assertThat(resourceRepo.findById(resource.getId()).orElseThrow().getViews())
+            .isEqualTo(THREADS * INCREMENTS);
+    }
+
+    @Test
+    @DisplayName("Should count every concurrent resource like and dislike")
+    void incrementLikes_WithConcurrentLikes_ShouldBeExact() throws Exception {
+        // When.
+        runConcurrently(() -> {
+            resourceRepo.incrementLikes(resource.getId(), 1);
+            resourceRepo.incrementDislikes(resource.getId(), 1);
+        });
+
+        // Then.
+        Resource reloaded = resourceRepo.findById(resource.getId()).orElseThrow();
+        assertThat(reloaded.getLikes()).isEqualTo(THREADS * INCREMENTS);
+        assertThat(reloaded.getDislikes()).isEqualTo(THREADS * INCREMENTS);
+    }
+
+    @Test
+    @DisplayName("Should count every concurrent interaction like")
+    void incrementLikes_WithConcurrentInteractionLikes_ShouldBeExact() throws Exception {
+        // When.
+        runConcurrently(() -> interactionRepo.incrementLikes(interaction.getId(), 1));
+
+        // Then.
+        assertThat(interactionRepo.findById(interaction.getId()).orElseThrow().getLikes())
+            .isEqualTo(THREADS * INCREMENTS);
+    }
+}
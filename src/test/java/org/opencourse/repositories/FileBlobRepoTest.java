@@ -0,0 +1,108 @@
+package org.opencourse.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.opencourse.models.FileBlob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link FileBlobRepo}.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@EnableJpaRepositories(basePackageClasses = FileBlobRepo.class)
+@EntityScan(basePackageClasses = FileBlob.class)
+class FileBlobRepoTest {
+
+    private static final String DIGEST = "a".repeat(64);
+    private static final String PATH = "blobs/" + DIGEST + ".pdf";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FileBlobRepo fileBlobRepo;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persistAndFlush(new FileBlob(DIGEST, PATH, 2048L));
+    }
+
+    private int refCount(String digest) {
+        entityManager.clear();
+        return fileBlobRepo.findByDigest(digest).orElseThrow().getRefCount();
+    }
+
+    @Test
+    void contextLoads() {
+        assertThat(fileBlobRepo).isNotNull();
+        assertThat(entityManager).isNotNull();
+    }
+
+    @Test
+    void testInsertIfAbsent_WhenAbsent_ShouldInsertWithOneReference() {
+        // Given
+        String digest = "b".repeat(64);
+
+        // When
+        int inserted = fileBlobRepo.insertIfAbsent(digest, "blobs/" + digest + ".pdf", 1024L);
+
+        // Then
+        assertThat(inserted).isEqualTo(1);
+        FileBlob blob = fileBlobRepo.findByDigest(digest).orElseThrow();
+        assertThat(blob.getObjectPath()).isEqualTo("blobs/" + digest + ".pdf");
+        assertThat(blob.getSize()).isEqualTo(1024L);
+        assertThat(blob.getRefCount()).isEqualTo(1);
+        assertThat(blob.getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    void testInsertIfAbsent_WhenPresent_ShouldInsertNothing() {
+        // When
+        int inserted = fileBlobRepo.insertIfAbsent(DIGEST, "blobs/" + DIGEST + ".txt", 2048L);
+
+        // Then
+        assertThat(inserted).isZero();
+        assertThat(fileBlobRepo.count()).isEqualTo(1);
+        assertThat(refCount(DIGEST)).isEqualTo(1);
+    }
+
+    @Test
+    void testIncrementAndDecrementRefCount_ShouldNotGoBelowZero() {
+        // When & Then
+        assertThat(fileBlobRepo.incrementRefCount(DIGEST)).isEqualTo(1);
+        assertThat(refCount(DIGEST)).isEqualTo(2);
+
+        assertThat(fileBlobRepo.decrementRefCount(PATH)).isEqualTo(1);
+        assertThat(fileBlobRepo.decrementRefCount(PATH)).isEqualTo(1);
+        assertThat(fileBlobRepo.decrementRefCount(PATH)).isZero();
+        assertThat(refCount(DIGEST)).isZero();
+
+        assertThat(fileBlobRepo.incrementRefCount("c".repeat(64))).isZero();
+    }
+
+    @Test
+    void testFindUnreferencedForUpdate_ShouldOnlyFindBlobsWithoutReferences() {
+        // When & Then
+        assertThat(fileBlobRepo.findUnreferencedForUpdate(PATH)).isEmpty();
+
+        fileBlobRepo.decrementRefCount(PATH);
+        entityManager.clear();
+        assertThat(fileBlobRepo.findUnreferencedForUpdate(PATH)).isPresent();
+    }
+
+    @Test
+    void testSave_WhenDuplicateDigest_ShouldViolateUniqueConstraint() {
+        assertThatThrownBy(() -> fileBlobRepo.saveAndFlush(new FileBlob(DIGEST, "blobs/other.pdf", 2048L)))
+            .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -252,6 +253,152 @@ class HistoryRepoTest {
         assertThat(latestCourseAction.get().getObjectId()).isEqualTo(courseId);
     }
 
+    @Test
+    void testFindEffectiveLikes_WhenLikeNotRevoked_ShouldReturnLike() {
+        // When
+        List<History> likes = historyRepo.findEffectiveLikes(
+            0L, ActionType.LIKE_RESOURCE, ActionType.UNLIKE_RESOURCE, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(likes).hasSize(1);
+        assertThat(likes.get(0).getId()).isEqualTo(history3.getId());
+    }
+
+    @Test
+    void testFindEffectiveLikes_WhenLikeRevoked_ShouldSkipLike() {
+        // Given
+        History unlike = new History(normalUser, ActionType.UNLIKE_RESOURCE, 1001);
+        entityManager.persistAndFlush(unlike);
+        History otherLike = new History(adminUser, ActionType.LIKE_RESOURCE, 1001);
+        entityManager.persistAndFlush(otherLike);
+
+        // When
+        List<History> likes = historyRepo.findEffectiveLikes(
+            0L, ActionType.LIKE_RESOURCE, ActionType.UNLIKE_RESOURCE, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(likes).extracting(History::getId).containsExactly(otherLike.getId());
+    }
+
+    @Test
+    void testFindEffectiveLikes_WithCursor_ShouldReturnLikesAfterCursor() {
+        // When
+        List<History> likes = historyRepo.findEffectiveLikes(
+            history3.getId(), ActionType.LIKE_RESOURCE, ActionType.UNLIKE_RESOURCE, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(likes).isEmpty();
+    }
+
+    @Test
+    void testFindTimeline_ShouldReturnFirstPageInDescendingOrder() {
+        // When
+        List<History> page = historyRepo.findTimeline(normalUser.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(page).extracting(History::getId).containsExactly(history3.getId(), history2.getId());
+    }
+
+    @Test
+    void testFindTimeline_WithActionType_ShouldFilterByActionType() {
+        // When
+        List<History> page = historyRepo.findTimelineByActionType(
+            normalUser.getId(), ActionType.VIEW_RESOURCE, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(page).extracting(History::getId).containsExactly(history2.getId());
+    }
+
+    @Test
+    void testFindTimelineBeforeByActionType_ShouldFilterRecordsAfterCursor() {
+        // Given
+        entityManager.clear();
+        History latest = historyRepo.findTimeline(normalUser.getId(), PageRequest.of(0, 1)).get(0);
+
+        // When
+        List<History> views = historyRepo.findTimelineBeforeByActionType(
+            normalUser.getId(), ActionType.VIEW_RESOURCE, latest.getTimestamp(), latest.getId(), PageRequest.of(0, 10));
+        List<History> none = historyRepo.findTimelineBeforeByActionType(
+            normalUser.getId(), ActionType.VIEW_RESOURCE, views.get(0).getTimestamp(), views.get(0).getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(latest.getId()).isEqualTo(history3.getId());
+        assertThat(views).extracting(History::getId).containsExactly(history2.getId());
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void testFindTimelineBefore_ShouldReturnRecordsAfterCursor() {
+        // Given
+        entityManager.clear();
+        List<History> first = historyRepo.findTimeline(normalUser.getId(), PageRequest.of(0, 2));
+        History last = first.get(first.size() - 1);
+
+        // When
+        List<History> page = historyRepo.findTimelineBefore(
+            normalUser.getId(), last.getTimestamp(), last.getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(last.getId()).isEqualTo(history2.getId());
+        assertThat(page).extracting(History::getId).containsExactly(history1.getId());
+    }
+
+    @Test
+    void testFindTimelineBefore_WithSameTimestamp_ShouldBreakTiesById() {
+        // Given
+        History sameTime = new History(normalUser, ActionType.VIEW_RESOURCE, 1002);
+        entityManager.persistAndFlush(sameTime);
+        entityManager.getEntityManager()
+            .createNativeQuery("update \"history\" set timestamp = (select timestamp from \"history\" where id = ?1) where id = ?2")
+            .setParameter(1, history3.getId())
+            .setParameter(2, sameTime.getId())
+            .executeUpdate();
+        entityManager.clear();
+
+        // When
+        List<History> first = historyRepo.findTimeline(normalUser.getId(), PageRequest.of(0, 1));
+        List<History> rest = historyRepo.findTimelineBefore(
+            normalUser.getId(), first.get(0).getTimestamp(), first.get(0).getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(first).extracting(History::getId).containsExactly(sameTime.getId());
+        assertThat(rest).extracting(History::getId)
+            .containsExactly(history3.getId(), history2.getId(), history1.getId());
+    }
+
+    @Test
+    void testFindMinTimestamp_ShouldReturnOldestTimestamp() {
+        // Given
+        entityManager.clear();
+        List<History> all = historyRepo.findAll();
+
+        // When
+        LocalDateTime oldest = historyRepo.findMinTimestamp();
+
+        // Then
+        assertThat(oldest).isEqualTo(all.stream().map(History::getTimestamp).min(LocalDateTime::compareTo).get());
+    }
+
+    @Test
+    void testFindByTimestampRange_ShouldPageByIdWithinRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+
+        // When
+        List<History> first = historyRepo.findByTimestampRange(from, to, 0L, PageRequest.of(0, 3));
+        List<History> rest = historyRepo.findByTimestampRange(
+            from, to, first.get(first.size() - 1).getId(), PageRequest.of(0, 3));
+        List<History> none = historyRepo.findByTimestampRange(
+            from.minusDays(10), from.minusDays(9), 0L, PageRequest.of(0, 3));
+
+        // Then
+        assertThat(first).extracting(History::getId)
+            .containsExactly(history1.getId(), history2.getId(), history3.getId());
+        assertThat(rest).extracting(History::getId).containsExactly(history4.getId(), history5.getId());
+        assertThat(none).isEmpty();
+    }
+
     @Test
     void testHistoryEntityBasicFunctionality() {
         // When
@@ -355,6 +502,24 @@ class HistoryRepoTest {
         assertThat(ActionType.getById((byte) 38)).isEqualTo(ActionType.RATE_COURSE);
         assertThat(ActionType.getById((byte) 39)).isEqualTo(ActionType.CREATE_USER);
         assertThat(ActionType.getById((byte) 99)).isNull();
+        assertThat(ActionType.getById((byte) -1)).isNull();
+        for (ActionType type : ActionType.values()) {
+            assertThat(ActionType.getById(type.getId())).isSameAs(type);
+        }
+    }
+
+    @Test
+    void testActionTypeStoredAsByteId() {
+        // When
+        Object stored = entityManager.getEntityManager()
+            .createNativeQuery("select action_type from \"history\" where id = ?1")
+            .setParameter(1, history3.getId())
+            .getSingleResult();
+
+        // Then
+        assertThat(((Number) stored).byteValue()).isEqualTo(ActionType.LIKE_RESOURCE.getId());
+        entityManager.clear();
+        assertThat(historyRepo.findById(history3.getId()).get().getActionType()).isEqualTo(ActionType.LIKE_RESOURCE);
     }
 
     @Test
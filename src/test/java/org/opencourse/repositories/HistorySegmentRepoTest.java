@@ -0,0 +1,86 @@
+package org.opencourse.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.opencourse.models.HistorySegment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link HistorySegmentRepo}.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@EnableJpaRepositories(basePackageClasses = HistorySegmentRepo.class)
+@EntityScan(basePackageClasses = HistorySegment.class)
+class HistorySegmentRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HistorySegmentRepo historySegmentRepo;
+
+    // Data.
+    private HistorySegment segment1;
+    private HistorySegment segment2;
+    private HistorySegment segment3;
+
+    private static HistorySegment segment(LocalDate day, int sequence, Integer... userIds) {
+        String path = "history/segments/" + day + "-" + sequence;
+        return new HistorySegment(day, path + ".seg", path + ".idx", 10,
+            day.atTime(sequence, 0), day.atTime(20 + sequence, 0), List.of(userIds));
+    }
+
+    @BeforeEach
+    void setUp() {
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        segment1 = entityManager.persistAndFlush(segment(day, 0, 1, 2));
+        segment2 = entityManager.persistAndFlush(segment(day.plusDays(1), 0, 1));
+        segment3 = entityManager.persistAndFlush(segment(day.plusDays(1), 1, 1, 3));
+    }
+
+    @Test
+    void testFindByUserId_ShouldReturnSegmentsOfUserNewestFirst() {
+        // When
+        List<HistorySegment> all = historySegmentRepo.findByUserId(1);
+        List<HistorySegment> some = historySegmentRepo.findByUserId(2);
+        List<HistorySegment> none = historySegmentRepo.findByUserId(4);
+
+        // Then
+        assertThat(all).extracting(HistorySegment::getId)
+            .containsExactly(segment3.getId(), segment2.getId(), segment1.getId());
+        assertThat(some).extracting(HistorySegment::getId).containsExactly(segment1.getId());
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void testFindByUserIdBefore_ShouldSkipNewerSegments() {
+        // When
+        List<HistorySegment> segments = historySegmentRepo
+            .findByUserIdBefore(1, LocalDate.of(2025, 1, 1).atTime(23, 0));
+
+        // Then
+        assertThat(segments).extracting(HistorySegment::getId).containsExactly(segment1.getId());
+    }
+
+    @Test
+    void testCountByPartitionDay_ShouldCountSegmentsOfDay() {
+        assertThat(historySegmentRepo.countByPartitionDay(LocalDate.of(2025, 1, 2))).isEqualTo(2);
+        assertThat(historySegmentRepo.countByPartitionDay(LocalDate.of(2025, 1, 3))).isZero();
+    }
+
+    @Test
+    void testCreatedAtAutoGeneration() {
+        assertThat(segment1.getCreatedAt()).isNotNull();
+    }
+}
@@ -490,4 +490,24 @@ class InteractionRepoTest {
         assertThat(found.get().getContent()).isEqualTo("");
         assertThat(found.get().getRating()).isEqualTo((byte) 5);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should atomically add to like and dislike counts")
+    void incrementCounters_ShouldUpdateOnlyTargetRow() {
+        // Given.
+        entityManager.flush();
+
+        // When.
+        int updated = interactionRepo.incrementLikes(interaction1.getId(), 2);
+        interactionRepo.incrementDislikes(interaction1.getId(), 1);
+        interactionRepo.incrementDislikes(interaction1.getId(), -1);
+        entityManager.clear();
+
+        // Then.
+        assertThat(updated).isEqualTo(1);
+        Interaction reloaded = interactionRepo.findById(interaction1.getId()).orElseThrow();
+        assertThat(reloaded.getLikes()).isEqualTo(3);
+        assertThat(reloaded.getDislikes()).isZero();
+        assertThat(interactionRepo.findById(interaction2.getId()).orElseThrow().getLikes()).isEqualTo(3);
+    }
+}
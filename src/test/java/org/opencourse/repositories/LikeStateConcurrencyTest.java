@@ -0,0 +1,213 @@
+package org.opencourse.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opencourse.models.Course;
+import org.opencourse.models.Department;
+import org.opencourse.models.Interaction;
+import org.opencourse.models.LikeState;
+import org.opencourse.models.Resource;
+import org.opencourse.models.User;
+import org.opencourse.utils.typeinfo.CourseType;
+import org.opencourse.utils.typeinfo.ResourceType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency tests for the conditional like state changes of {@link LikeStateRepo}.
+ *
+ * Every thread hammers the same (user, object) pair and applies the affected-row count of
+ * the like state change to the like counter, as the managers do. Each click runs in its own
+ * committed transaction, so the test itself is not transactional.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnableJpaRepositories(basePackageClasses = {
+    LikeStateRepo.class, ResourceRepo.class, InteractionRepo.class, UserRepo.class, DepartmentRepo.class, CourseRepo.class
+})
+@EntityScan(basePackageClasses = {
+    LikeState.class, Resource.class, Interaction.class, User.class, Department.class, Course.class
+})
+class LikeStateConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int CLICKS = 200;
+
+    @Autowired
+    private LikeStateRepo likeStateRepo;
+
+    @Autowired
+    private ResourceRepo resourceRepo;
+
+    @Autowired
+    private InteractionRepo interactionRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DepartmentRepo departmentRepo;
+
+    @Autowired
+    private CourseRepo courseRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Test data.
+    private User user;
+    private Resource resource;
+    private Interaction interaction;
+
+    @BeforeEach
+    void setUp() {
+        Department department = departmentRepo.save(new Department("Computer Science"));
+        User uploader = userRepo.save(new User("uploader", "uploader@example.com", "hashedPassword", User.UserRole.USER));
+        user = userRepo.save(new User("clicker", "clicker@example.com", "hashedPassword", User.UserRole.USER));
+        Course course = courseRepo.save(
+            new Course("Data Structures", "CS101", department, CourseType.MAJOR_REQUIRED, new BigDecimal("3.0")));
+        resource = resourceRepo.save(new Resource(
+            "Final Exam 2023",
+            ResourceType.EXAM,
+            new Resource.ResourceFile(Resource.ResourceFile.FileType.PDF, new BigDecimal("2.50"), "/uploads/exam.pdf"),
+            course,
+            uploader
+        ));
+        interaction = interactionRepo.save(new Interaction(course, uploader, "Great course!", (byte) 5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeStateRepo.deleteAll();
+        interactionRepo.deleteAll();
+        resourceRepo.deleteAll();
+        courseRepo.deleteAll();
+        userRepo.deleteAll();
+        departmentRepo.deleteAll();
+    }
+
+    /**
+     * Run clicks concurrently, each click in its own transaction.
+     *
+     * @param click The click to run, given the click number of its thread.
+     */
+    private void clickConcurrently(IntConsumer click) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int i = 0; i < CLICKS; i++) {
+                        final int n = thread + i;
+                        transactionTemplate.executeWithoutResult(status -> click.accept(n));
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void likeResource(AtomicInteger changes) {
+        int inserted = likeStateRepo.insertIfAbsent(user, LikeState.ObjectType.RESOURCE, resource.getId());
+        if (inserted > 0) {
+            resourceRepo.incrementLikes(resource.getId(), inserted);
+            changes.addAndGet(inserted);
+        }
+    }
+
+    private void unlikeResource(AtomicInteger changes) {
+        int deleted = likeStateRepo.deleteByUserAndObjectTypeAndObjectId(
+            user, LikeState.ObjectType.RESOURCE, resource.getId());
+        if (deleted > 0) {
+            resourceRepo.incrementLikes(resource.getId(), -deleted);
+            changes.addAndGet(-deleted);
+        }
+    }
+
+    @Test
+    @DisplayName("Should count only one of many concurrent likes of the same resource")
+    void like_WithConcurrentClicksOfSameUser_ShouldCountOnce() throws Exception {
+        // Given.
+        AtomicInteger changes = new AtomicInteger();
+
+        // When.
+        clickConcurrently(n -> likeResource(changes));
+
+        // Then.
+        assertThat(changes.get()).isEqualTo(1);
+        assertThat(likeStateRepo.count()).isEqualTo(1);
+        assertThat(resourceRepo.findById(resource.getId()).orElseThrow().getLikes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the like count equal to the like state under concurrent toggles")
+    void likeAndUnlike_WithConcurrentToggles_ShouldMatchLikeState() throws Exception {
+        // Given.
+        AtomicInteger changes = new AtomicInteger();
+
+        // When.
+        clickConcurrently(n -> {
+            if (n % 2 == 0) {
+                likeResource(changes);
+            } else {
+                unlikeResource(changes);
+            }
+        });
+
+        // Then.
+        long liked = likeStateRepo.count();
+        assertThat(liked).isBetween(0L, 1L);
+        assertThat(changes.get()).isEqualTo((int) liked);
+        assertThat(resourceRepo.findById(resource.getId()).orElseThrow().getLikes()).isEqualTo((int) liked);
+    }
+
+    @Test
+    @DisplayName("Should count only one of many concurrent likes of the same interaction")
+    void like_WithConcurrentInteractionClicks_ShouldCountOnce() throws Exception {
+        // When.
+        clickConcurrently(n -> {
+            int inserted = likeStateRepo.insertIfAbsent(user, LikeState.ObjectType.INTERACTION, interaction.getId());
+            if (inserted > 0) {
+                interactionRepo.incrementLikes(interaction.getId(), inserted);
+            }
+        });
+
+        // Then.
+        assertThat(likeStateRepo.count()).isEqualTo(1);
+        assertThat(interactionRepo.findById(interaction.getId()).orElseThrow().getLikes()).isEqualTo(1);
+    }
+}
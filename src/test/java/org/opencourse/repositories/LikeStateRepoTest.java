@@ -0,0 +1,172 @@
+package org.opencourse.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.opencourse.models.LikeState;
+import org.opencourse.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link LikeStateRepo}.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@EnableJpaRepositories(basePackageClasses = {LikeStateRepo.class, UserRepo.class})
+@EntityScan(basePackageClasses = {LikeState.class, User.class})
+class LikeStateRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LikeStateRepo likeStateRepo;
+
+    // Data.
+    private User normalUser;
+    private User otherUser;
+
+    @BeforeEach
+    void setUp() {
+        normalUser = new User("normaluser", "user@example.com", "hashedPassword456", User.UserRole.USER);
+        otherUser = new User("otheruser", "other@example.com", "hashedPassword789", User.UserRole.USER);
+        entityManager.persistAndFlush(normalUser);
+        entityManager.persistAndFlush(otherUser);
+
+        entityManager.persistAndFlush(new LikeState(normalUser, LikeState.ObjectType.RESOURCE, 1001));
+        entityManager.persistAndFlush(new LikeState(normalUser, LikeState.ObjectType.INTERACTION, 2001));
+    }
+
+    @Test
+    void contextLoads() {
+        assertThat(likeStateRepo).isNotNull();
+        assertThat(entityManager).isNotNull();
+    }
+
+    @Test
+    void testExistsByUserAndObjectTypeAndObjectId_WhenLiked_ShouldReturnTrue() {
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.RESOURCE, 1001)).isTrue();
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.INTERACTION, 2001)).isTrue();
+    }
+
+    @Test
+    void testExistsByUserAndObjectTypeAndObjectId_WhenNotLiked_ShouldReturnFalse() {
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            otherUser, LikeState.ObjectType.RESOURCE, 1001)).isFalse();
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.INTERACTION, 1001)).isFalse();
+    }
+
+    @Test
+    void testFindLikedObjectIds_ShouldReturnOnlyLikedIdsOfGivenType() {
+        // Given
+        entityManager.persistAndFlush(new LikeState(normalUser, LikeState.ObjectType.RESOURCE, 1003));
+        entityManager.persistAndFlush(new LikeState(otherUser, LikeState.ObjectType.RESOURCE, 1002));
+
+        // When
+        Set<Integer> liked = likeStateRepo.findLikedObjectIds(
+            normalUser, LikeState.ObjectType.RESOURCE, List.of(1001, 1002, 1003, 2001));
+
+        // Then
+        assertThat(liked).containsExactlyInAnyOrder(1001, 1003);
+    }
+
+    @Test
+    void testFindLikedObjectIds_WhenNoneLiked_ShouldReturnEmptySet() {
+        assertThat(likeStateRepo.findLikedObjectIds(
+            otherUser, LikeState.ObjectType.INTERACTION, List.of(2001, 2002))).isEmpty();
+    }
+
+    @Test
+    void testDeleteByUserAndObjectTypeAndObjectId_WhenLiked_ShouldDeleteOneRow() {
+        // When
+        int deleted = likeStateRepo.deleteByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.RESOURCE, 1001);
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.RESOURCE, 1001)).isFalse();
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.INTERACTION, 2001)).isTrue();
+    }
+
+    @Test
+    void testDeleteByUserAndObjectTypeAndObjectId_WhenNotLiked_ShouldDeleteNothing() {
+        // When
+        int deleted = likeStateRepo.deleteByUserAndObjectTypeAndObjectId(
+            otherUser, LikeState.ObjectType.RESOURCE, 1001);
+
+        // Then
+        assertThat(deleted).isZero();
+    }
+
+    @Test
+    void testDeleteByObjectTypeAndObjectId_ShouldDeleteLikesOfAllUsersOnObject() {
+        // Given
+        entityManager.persistAndFlush(new LikeState(otherUser, LikeState.ObjectType.RESOURCE, 1001));
+
+        // When
+        int deleted = likeStateRepo.deleteByObjectTypeAndObjectId(LikeState.ObjectType.RESOURCE, 1001);
+
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.RESOURCE, 1001)).isFalse();
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            otherUser, LikeState.ObjectType.RESOURCE, 1001)).isFalse();
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            normalUser, LikeState.ObjectType.INTERACTION, 2001)).isTrue();
+    }
+
+    @Test
+    void testInsertIfAbsent_WhenNotLiked_ShouldInsertOneRow() {
+        // When
+        int inserted = likeStateRepo.insertIfAbsent(otherUser, LikeState.ObjectType.RESOURCE, 1001);
+
+        // Then
+        assertThat(inserted).isEqualTo(1);
+        assertThat(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            otherUser, LikeState.ObjectType.RESOURCE, 1001)).isTrue();
+    }
+
+    @Test
+    void testInsertIfAbsent_WhenLiked_ShouldInsertNothing() {
+        // When
+        int inserted = likeStateRepo.insertIfAbsent(normalUser, LikeState.ObjectType.RESOURCE, 1001);
+
+        // Then
+        assertThat(inserted).isZero();
+        assertThat(likeStateRepo.count()).isEqualTo(2);
+    }
+
+    @Test
+    void testSave_WhenDuplicateLike_ShouldViolateUniqueConstraint() {
+        assertThatThrownBy(() -> likeStateRepo.saveAndFlush(
+            new LikeState(normalUser, LikeState.ObjectType.RESOURCE, 1001)))
+            .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testCreatedAtAutoGeneration() {
+        // When
+        LikeState state = likeStateRepo.saveAndFlush(new LikeState(otherUser, LikeState.ObjectType.RESOURCE, 1001));
+
+        // Then
+        assertThat(state.getId()).isNotNull();
+        assertThat(state.getCreatedAt()).isNotNull();
+    }
+}
@@ -0,0 +1,141 @@
+package org.opencourse.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.opencourse.models.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link OutboxEventRepo}.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@EnableJpaRepositories(basePackageClasses = OutboxEventRepo.class)
+@EntityScan(basePackageClasses = OutboxEvent.class)
+class OutboxEventRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxEventRepo outboxEventRepo;
+
+    private OutboxEvent first;
+    private OutboxEvent second;
+
+    @BeforeEach
+    void setUp() {
+        first = entityManager.persistAndFlush(new OutboxEvent(OutboxEvent.Type.DELETE_FILE, "resources/1/a.pdf"));
+        second = entityManager.persistAndFlush(new OutboxEvent(OutboxEvent.Type.DELETE_FILE, "resources/1/b.pdf"));
+        entityManager.clear();
+    }
+
+    private OutboxEvent reload(OutboxEvent event) {
+        entityManager.clear();
+        return outboxEventRepo.findById(event.getId()).orElseThrow();
+    }
+
+    @Test
+    void contextLoads() {
+        assertThat(outboxEventRepo).isNotNull();
+        assertThat(entityManager).isNotNull();
+    }
+
+    @Test
+    void testSave_ShouldBeDueRightAway() {
+        // When
+        OutboxEvent event = reload(first);
+
+        // Then
+        assertThat(event.getType()).isEqualTo(OutboxEvent.Type.DELETE_FILE);
+        assertThat(event.getPayload()).isEqualTo("resources/1/a.pdf");
+        assertThat(event.getAttempts()).isZero();
+        assertThat(event.getLastError()).isNull();
+        assertThat(event.getCreatedAt()).isNotNull();
+        assertThat(event.getNextAttemptAt()).isEqualTo(event.getCreatedAt());
+    }
+
+    @Test
+    void testFindDue_ShouldReturnDueEventsInOrderUpToLimit() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+
+        // When
+        List<OutboxEvent> all = outboxEventRepo.findDue(now, PageRequest.of(0, 10));
+        List<OutboxEvent> limited = outboxEventRepo.findDue(now, PageRequest.of(0, 1));
+
+        // Then
+        assertThat(all).extracting(OutboxEvent::getId).containsExactly(first.getId(), second.getId());
+        assertThat(limited).extracting(OutboxEvent::getId).containsExactly(first.getId());
+    }
+
+    @Test
+    void testClaim_ShouldIncrementAttemptsAndDelayEvent() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime retryAt = now.plusMinutes(5);
+
+        // When
+        int claimed = outboxEventRepo.claim(first.getId(), 0, retryAt);
+        entityManager.flush();
+
+        // Then
+        assertThat(claimed).isEqualTo(1);
+        OutboxEvent event = reload(first);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getNextAttemptAt()).isEqualTo(retryAt);
+        assertThat(outboxEventRepo.findDue(now, PageRequest.of(0, 10)))
+            .extracting(OutboxEvent::getId)
+            .containsExactly(second.getId());
+        assertThat(outboxEventRepo.findDue(retryAt, PageRequest.of(0, 10)))
+            .extracting(OutboxEvent::getId)
+            .containsExactly(second.getId(), first.getId());
+    }
+
+    @Test
+    void testClaim_WithStaleAttempts_ShouldClaimNothing() {
+        // Given
+        LocalDateTime retryAt = LocalDateTime.now().plusMinutes(5);
+        outboxEventRepo.claim(first.getId(), 0, retryAt);
+
+        // When
+        int claimed = outboxEventRepo.claim(first.getId(), 0, retryAt.plusMinutes(5));
+
+        // Then
+        assertThat(claimed).isZero();
+        assertThat(reload(first).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void testRecordError_ShouldStoreLastError() {
+        // When
+        int updated = outboxEventRepo.recordError(first.getId(), "Failed to delete file resources/1/a.pdf");
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(reload(first).getLastError()).isEqualTo("Failed to delete file resources/1/a.pdf");
+    }
+
+    @Test
+    void testDeleteEvent_ShouldDeleteOnlyThatEvent() {
+        // When
+        int deleted = outboxEventRepo.deleteEvent(first.getId());
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        entityManager.clear();
+        assertThat(outboxEventRepo.findAll()).extracting(OutboxEvent::getId).containsExactly(second.getId());
+    }
+}
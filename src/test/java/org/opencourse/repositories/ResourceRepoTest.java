@@ -18,6 +18,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -694,4 +695,60 @@ class ResourceRepoTest {
         List<Resource> student1Resources = resourceRepo.findByUserId(student1.getId());
         assertThat(student1Resources).hasSize(2); // original + bulk
     }
+
+    @Test
+    void testIncrementCounters_ShouldUpdateOnlyTargetRow() {
+        // Given
+        entityManager.flush();
+
+        // When
+        int updated = resourceRepo.incrementViews(resource1.getId(), 3);
+        resourceRepo.incrementLikes(resource1.getId(), 2);
+        resourceRepo.incrementLikes(resource1.getId(), -1);
+        resourceRepo.incrementDislikes(resource1.getId(), 1);
+        entityManager.clear();
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        Resource reloaded = resourceRepo.findById(resource1.getId()).orElseThrow();
+        assertThat(reloaded.getViews()).isEqualTo(3);
+        assertThat(reloaded.getLikes()).isEqualTo(1);
+        assertThat(reloaded.getDislikes()).isEqualTo(1);
+        Resource untouched = resourceRepo.findById(resource2.getId()).orElseThrow();
+        assertThat(untouched.getViews()).isZero();
+        assertThat(untouched.getLikes()).isZero();
+    }
+
+    @Test
+    void testIncrementViews_WithSeveralResources_ShouldUpdateAllInOneStatement() {
+        // Given
+        entityManager.flush();
+
+        // When
+        int updated = resourceRepo.incrementViews(List.of(resource1.getId(), resource2.getId(), -1), 1);
+        entityManager.clear();
+
+        // Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(resourceRepo.findById(resource1.getId()).orElseThrow().getViews()).isEqualTo(1);
+        assertThat(resourceRepo.findById(resource2.getId()).orElseThrow().getViews()).isEqualTo(1);
+    }
+
+    @Test
+    void testIncrementViews_WithMissingResource_ShouldUpdateNothing() {
+        assertThat(resourceRepo.incrementViews(-1, 1)).isZero();
+    }
+
+    @Test
+    void testFindReferencedFilePaths_ShouldReturnOnlyReferencedPaths() {
+        // When
+        Set<String> referenced = resourceRepo.findReferencedFilePaths(List.of(
+            "/uploads/cs101/exam_2023.pdf",
+            "/uploads/cs101/orphan.pdf",
+            "/uploads/textbook.pdf"
+        ));
+
+        // Then
+        assertThat(referenced).containsExactlyInAnyOrder("/uploads/cs101/exam_2023.pdf", "/uploads/textbook.pdf");
+    }
 }
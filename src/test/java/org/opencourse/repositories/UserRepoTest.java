@@ -507,4 +507,17 @@ public class UserRepoTest {
         long totalUsers = userRepo.count();
         assertThat(totalUsers).isEqualTo(6); // 3 original + 3 bulk
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIncrementActivity_ShouldUpdateOnlyTargetUser() {
+        // When
+        int updated = userRepo.incrementActivity(normalUser.getId(), 5);
+        userRepo.incrementActivity(normalUser.getId(), -2);
+        entityManager.clear();
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(userRepo.findById(normalUser.getId()).orElseThrow().getActivity()).isEqualTo(4);
+        assertThat(userRepo.findById(adminUser.getId()).orElseThrow().getActivity()).isEqualTo(1);
+    }
+}
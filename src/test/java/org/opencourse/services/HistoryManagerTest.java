@@ -9,16 +9,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opencourse.models.*;
 import org.opencourse.repositories.HistoryRepo;
+import org.opencourse.repositories.LikeStateRepo;
+import org.opencourse.services.history.HistoryArchiveService;
+import org.opencourse.services.history.HistoryCursor;
 import org.opencourse.services.history.HistoryObjectService;
+import org.opencourse.services.history.HistoryPage;
+import org.opencourse.services.history.HistoryWriteBehindService;
 import org.opencourse.utils.typeinfo.ActionType;
 import org.opencourse.utils.typeinfo.CourseType;
 import org.opencourse.utils.typeinfo.ResourceType;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -36,9 +43,18 @@ class HistoryManagerTest {
     @Mock
     private HistoryRepo historyRepo;
 
+    @Mock
+    private LikeStateRepo likeStateRepo;
+
     @Mock
     private HistoryObjectService historyObjectService;
 
+    @Mock
+    private HistoryWriteBehindService historyWriteBehindService;
+
+    @Mock
+    private HistoryArchiveService historyArchiveService;
+
     @InjectMocks
     private HistoryManager historyManager;
 
@@ -154,6 +170,129 @@ class HistoryManagerTest {
         verify(historyRepo).findAllByUserIdOrderByTimestampDesc(userId);
     }
 
+    @Test
+    @DisplayName("Should return first timeline page with next cursor when more histories exist")
+    void getTimeline_WithMoreHistories_ShouldReturnPageWithNextCursor() {
+        // Given.
+        LocalDateTime now = LocalDateTime.now();
+        History history1 = spy(new History(testUser, ActionType.VIEW_RESOURCE, 1));
+        History history2 = spy(new History(testUser, ActionType.VIEW_RESOURCE, 2));
+        History history3 = spy(new History(testUser, ActionType.VIEW_RESOURCE, 3));
+        history2.setTimestamp(now.minusMinutes(1));
+        doReturn(2L).when(history2).getId();
+
+        when(historyRepo.findTimelineByActionType(1, ActionType.VIEW_RESOURCE, PageRequest.of(0, 3)))
+            .thenReturn(Arrays.asList(history1, history2, history3));
+
+        // When.
+        HistoryPage page = historyManager.getTimeline(1, ActionType.VIEW_RESOURCE, null, 2);
+
+        // Then.
+        assertThat(page.histories()).containsExactly(history1, history2);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.nextCursor()).isEqualTo(new HistoryCursor(now.minusMinutes(1), 2L));
+        verify(historyRepo, never()).findTimeline(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should query after cursor and return last page without next cursor")
+    void getTimeline_WithCursorOnLastPage_ShouldReturnPageWithoutNextCursor() {
+        // Given.
+        LocalDateTime timestamp = LocalDateTime.now();
+        HistoryCursor cursor = new HistoryCursor(timestamp, 10L);
+        History history = new History(testUser, ActionType.CREATE_COURSE, 1);
+
+        when(historyRepo.findTimelineBefore(1, timestamp, 10L, PageRequest.of(0, 21)))
+            .thenReturn(List.of(history));
+
+        // When.
+        HistoryPage page = historyManager.getTimeline(1, null, cursor, 20);
+
+        // Then.
+        assertThat(page.histories()).containsExactly(history);
+        assertThat(page.hasNext()).isFalse();
+        verify(historyRepo, never()).findTimeline(any(), any());
+        verify(historyRepo, never()).findTimelineBeforeByActionType(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fill the page from archived segments when the hot table runs out")
+    void getTimeline_WithArchivedHistories_ShouldMergeHotAndArchived() {
+        // Given.
+        LocalDateTime now = LocalDateTime.now();
+        History hot = new History(5L, testUser, ActionType.VIEW_RESOURCE, 1, now);
+        History archived1 = new History(3L, testUser, ActionType.VIEW_RESOURCE, 2, now.minusDays(100));
+        History archived2 = new History(2L, testUser, ActionType.VIEW_RESOURCE, 3, now.minusDays(101));
+
+        when(historyRepo.findTimeline(1, PageRequest.of(0, 3))).thenReturn(List.of(hot));
+        when(historyArchiveService.getTimeline(1, null, null, 3)).thenReturn(List.of(archived1, archived2));
+
+        // When.
+        HistoryPage page = historyManager.getTimeline(1, null, null, 2);
+
+        // Then.
+        assertThat(page.histories()).containsExactly(hot, archived1);
+        assertThat(page.nextCursor()).isEqualTo(HistoryCursor.of(archived1));
+    }
+
+    @Test
+    @DisplayName("Should not consult archived segments when the hot table fills the page")
+    void getTimeline_WithFullHotPage_ShouldNotReadArchive() {
+        // Given.
+        LocalDateTime now = LocalDateTime.now();
+        List<History> hot = List.of(
+            new History(3L, testUser, ActionType.VIEW_RESOURCE, 1, now),
+            new History(2L, testUser, ActionType.VIEW_RESOURCE, 1, now.minusMinutes(1))
+        );
+        when(historyRepo.findTimeline(1, PageRequest.of(0, 2))).thenReturn(hot);
+
+        // When.
+        HistoryPage page = historyManager.getTimeline(1, null, null, 1);
+
+        // Then.
+        assertThat(page.histories()).containsExactly(hot.get(0));
+        verifyNoInteractions(historyArchiveService);
+    }
+
+    @Test
+    @DisplayName("Should not read archived histories for all histories of the user")
+    void getHistories_WithArchive_ShouldOnlyReadHotTable() {
+        // Given.
+        History hot = new History(5L, testUser, ActionType.CREATE_COURSE, 1, LocalDateTime.now());
+        when(historyRepo.findAllByUserIdOrderByTimestampDesc(1)).thenReturn(List.of(hot));
+
+        // When.
+        List<History> result = historyManager.getHistories(1);
+
+        // Then.
+        assertThat(result).containsExactly(hot);
+        verifyNoInteractions(historyArchiveService);
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when page size is not positive")
+    void getTimeline_WithNonPositiveSize_ShouldThrowException() {
+        // When & Then.
+        assertThatThrownBy(() -> historyManager.getTimeline(1, null, null, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(historyRepo);
+    }
+
+    @Test
+    @DisplayName("Should decode the cursor it encoded and reject malformed cursors")
+    void historyCursor_EncodeAndDecode_ShouldRoundTrip() {
+        // Given.
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 5, 1, 12, 30, 15, 123000000), 42L);
+
+        // When.
+        HistoryCursor decoded = HistoryCursor.decode(cursor.encode());
+
+        // Then.
+        assertThat(decoded).isEqualTo(cursor);
+        assertThatThrownBy(() -> HistoryCursor.decode("not-a-cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     @DisplayName("Should return history object when history is valid")
     void getHistoryObject_WithValidHistory_ShouldReturnObject() {
@@ -185,96 +324,55 @@ class HistoryManagerTest {
     }
 
     @Test
-    @DisplayName("Should return true when user has liked interaction")
-    void getLikeStatus_WithLikedInteraction_ShouldReturnTrue() {
+    @DisplayName("Should delegate batch history object lookup to history object service")
+    void getHistoryObjects_WithHistories_ShouldDelegateToService() {
         // Given.
-        History likeHistory = new History(
-            testUser,
-            ActionType.LIKE_INTERACTION,
-            testInteraction.getId()
-        );
-        List<ActionType> actionTypes = Arrays.asList(
-            ActionType.LIKE_INTERACTION,
-            ActionType.UNLIKE_INTERACTION
-        );
-        Integer id = testInteraction.getId();
-
-        when(historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        )).thenReturn(Optional.of(likeHistory));
+        List<History> histories = List.of(testHistory);
+        Map<Long, Model<? extends Number>> objects = Map.of(1L, testCourse);
+        doReturn(objects).when(historyObjectService).getHistoryObjects(histories);
 
         // When.
-        boolean result = historyManager.getLikeStatus(testUser, testInteraction);
+        Map<Long, Model<? extends Number>> result = historyManager.getHistoryObjects(histories);
 
         // Then.
-        assertThat(result).isTrue();
-        verify(historyRepo).findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        );
+        assertThat(result).isSameAs(objects);
+        verify(historyObjectService).getHistoryObjects(histories);
     }
 
     @Test
-    @DisplayName("Should return false when user has unliked interaction")
-    void getLikeStatus_WithUnlikedInteraction_ShouldReturnFalse() {
+    @DisplayName("Should return true when user has liked interaction")
+    void getLikeStatus_WithLikedInteraction_ShouldReturnTrue() {
         // Given.
-        History unlikeHistory = new History(
-            testUser,
-            ActionType.UNLIKE_INTERACTION,
-            testInteraction.getId()
-        );
-        Integer id = testInteraction.getId();
-        List<ActionType> actionTypes = Arrays.asList(
-            ActionType.LIKE_INTERACTION,
-            ActionType.UNLIKE_INTERACTION
-        );
-
-        when(historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        )).thenReturn(Optional.of(unlikeHistory));
+        when(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()
+        )).thenReturn(true);
 
         // When.
         boolean result = historyManager.getLikeStatus(testUser, testInteraction);
 
         // Then.
-        assertThat(result).isFalse();
-        verify(historyRepo).findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
+        assertThat(result).isTrue();
+        verify(likeStateRepo).existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()
         );
+        verifyNoInteractions(historyRepo);
     }
 
     @Test
-    @DisplayName("Should return false when no like history exists for interaction")
-    void getLikeStatus_WithNoHistoryForInteraction_ShouldReturnFalse() {
+    @DisplayName("Should return false when user has not liked interaction")
+    void getLikeStatus_WithNoLikeStateForInteraction_ShouldReturnFalse() {
         // Given.
-        Integer id = testInteraction.getId();
-        List<ActionType> actionTypes = Arrays.asList(
-            ActionType.LIKE_INTERACTION,
-            ActionType.UNLIKE_INTERACTION
-        );
-
-        when(historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        )).thenReturn(Optional.empty());
+        when(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()
+        )).thenReturn(false);
 
         // When.
         boolean result = historyManager.getLikeStatus(testUser, testInteraction);
 
         // Then.
         assertThat(result).isFalse();
-        verify(historyRepo).findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
+        verify(likeStateRepo).existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()
         );
     }
 
@@ -282,94 +380,103 @@ class HistoryManagerTest {
     @DisplayName("Should return true when user has liked resource")
     void getLikeStatus_WithLikedResource_ShouldReturnTrue() {
         // Given.
-        History likeHistory = new History(
-            testUser,
-            ActionType.LIKE_RESOURCE,
-            testResource.getId()
-        );
-        Integer id = testResource.getId();
-        List<ActionType> actionTypes = Arrays.asList(
-            ActionType.LIKE_RESOURCE,
-            ActionType.UNLIKE_RESOURCE
-        );
-
-        when(historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        )).thenReturn(Optional.of(likeHistory));
+        when(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.RESOURCE, testResource.getId()
+        )).thenReturn(true);
 
         // When.
         boolean result = historyManager.getLikeStatus(testUser, testResource);
 
         // Then.
         assertThat(result).isTrue();
-        verify(historyRepo).findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
+        verify(likeStateRepo).existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.RESOURCE, testResource.getId()
         );
+        verifyNoInteractions(historyRepo);
     }
 
     @Test
-    @DisplayName("Should return false when user has unliked resource")
-    void getLikeStatus_WithUnlikedResource_ShouldReturnFalse() {
+    @DisplayName("Should return false when user has not liked resource")
+    void getLikeStatus_WithNoLikeStateForResource_ShouldReturnFalse() {
         // Given.
-        History unlikeHistory = new History(
-            testUser,
-            ActionType.UNLIKE_RESOURCE,
-            testResource.getId()
-        );
-        Integer id = testResource.getId();
-        List<ActionType> actionTypes = Arrays.asList(
-            ActionType.LIKE_RESOURCE,
-            ActionType.UNLIKE_RESOURCE
-        );
-
-        when(historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        )).thenReturn(Optional.of(unlikeHistory));
+        when(likeStateRepo.existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.RESOURCE, testResource.getId()
+        )).thenReturn(false);
 
         // When.
         boolean result = historyManager.getLikeStatus(testUser, testResource);
 
         // Then.
         assertThat(result).isFalse();
-        verify(historyRepo).findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
+        verify(likeStateRepo).existsByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.RESOURCE, testResource.getId()
         );
     }
 
     @Test
-    @DisplayName("Should return false when no like history exists for resource")
-    void getLikeStatus_WithNoHistoryForResource_ShouldReturnFalse() {
+    @DisplayName("Should resolve like status of multiple resources in one query")
+    void getLikedResourceIds_WithMultipleResources_ShouldQueryOnce() {
         // Given.
-        Integer id = testResource.getId();
-        List<ActionType> actionTypes = Arrays.asList(
-            ActionType.LIKE_RESOURCE,
-            ActionType.UNLIKE_RESOURCE
-        );
+        List<Integer> resourceIds = List.of(1, 2, 3);
+        when(likeStateRepo.findLikedObjectIds(testUser, LikeState.ObjectType.RESOURCE, resourceIds))
+            .thenReturn(Set.of(1, 3));
+
+        // When.
+        Set<Integer> result = historyManager.getLikedResourceIds(testUser, resourceIds);
+
+        // Then.
+        assertThat(result).containsExactlyInAnyOrder(1, 3);
+        verify(likeStateRepo, times(1)).findLikedObjectIds(testUser, LikeState.ObjectType.RESOURCE, resourceIds);
+        verifyNoMoreInteractions(likeStateRepo);
+    }
+
+    @Test
+    @DisplayName("Should resolve like status of multiple interactions in one query")
+    void getLikedInteractionIds_WithMultipleInteractions_ShouldQueryOnce() {
+        // Given.
+        List<Integer> interactionIds = List.of(10, 20);
+        when(likeStateRepo.findLikedObjectIds(testUser, LikeState.ObjectType.INTERACTION, interactionIds))
+            .thenReturn(Set.of(20));
 
-        when(historyRepo.findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        )).thenReturn(Optional.empty());
+        // When.
+        Set<Integer> result = historyManager.getLikedInteractionIds(testUser, interactionIds);
 
+        // Then.
+        assertThat(result).containsExactly(20);
+        verify(likeStateRepo, times(1)).findLikedObjectIds(testUser, LikeState.ObjectType.INTERACTION, interactionIds);
+    }
+
+    @Test
+    @DisplayName("Should return empty set without querying when no ids are given")
+    void getLikedResourceIds_WithEmptyIds_ShouldNotQuery() {
         // When.
-        boolean result = historyManager.getLikeStatus(testUser, testResource);
+        Set<Integer> result = historyManager.getLikedResourceIds(testUser, List.of());
 
         // Then.
-        assertThat(result).isFalse();
-        verify(historyRepo).findFirstByUserAndObjectIdAndActionTypeInOrderByTimestampDesc(
-            eq(testUser),
-            eq(id),
-            eq(actionTypes)
-        );
+        assertThat(result).isEmpty();
+        verifyNoInteractions(likeStateRepo);
+    }
+
+    @Test
+    @DisplayName("Should delete like states of all users on a deleted resource")
+    void clearLikeStates_WithResource_ShouldDeleteResourceLikeStates() {
+        // When.
+        historyManager.clearLikeStates(testResource);
+
+        // Then.
+        verify(likeStateRepo).deleteByObjectTypeAndObjectId(LikeState.ObjectType.RESOURCE, testResource.getId());
+        verifyNoMoreInteractions(likeStateRepo);
+    }
+
+    @Test
+    @DisplayName("Should delete like states of all users on a deleted interaction")
+    void clearLikeStates_WithInteraction_ShouldDeleteInteractionLikeStates() {
+        // When.
+        historyManager.clearLikeStates(testInteraction);
+
+        // Then.
+        verify(likeStateRepo).deleteByObjectTypeAndObjectId(LikeState.ObjectType.INTERACTION, testInteraction.getId());
+        verifyNoMoreInteractions(likeStateRepo);
     }
 
     // Course logging tests
@@ -626,9 +733,10 @@ class HistoryManagerTest {
             testResource.getId()
         );
         when(historyRepo.save(any(History.class))).thenReturn(expectedHistory);
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.RESOURCE, testResource.getId())).thenReturn(1);
 
         // When.
-        historyManager.logLikeResource(testUser, testResource);
+        boolean result = historyManager.logLikeResource(testUser, testResource);
 
         // Then.
         verify(historyRepo).save(argThat(history -> 
@@ -636,6 +744,22 @@ class HistoryManagerTest {
             history.getActionType() == ActionType.LIKE_RESOURCE &&
             history.getObjectId().equals(testResource.getId())
         ));
+        verify(likeStateRepo).insertIfAbsent(testUser, LikeState.ObjectType.RESOURCE, testResource.getId());
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not log like resource action when already liked")
+    void logLikeResource_WithAlreadyLiked_ShouldNotSaveHistory() {
+        // Given.
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.RESOURCE, testResource.getId())).thenReturn(0);
+
+        // When.
+        boolean result = historyManager.logLikeResource(testUser, testResource);
+
+        // Then.
+        assertThat(result).isFalse();
+        verifyNoInteractions(historyRepo, historyWriteBehindService);
     }
 
     @Test
@@ -648,9 +772,11 @@ class HistoryManagerTest {
             testResource.getId()
         );
         when(historyRepo.save(any(History.class))).thenReturn(expectedHistory);
+        when(likeStateRepo.deleteByUserAndObjectTypeAndObjectId(testUser, LikeState.ObjectType.RESOURCE, testResource.getId()))
+            .thenReturn(1);
 
         // When.
-        historyManager.logUnlikeResource(testUser, testResource);
+        boolean result = historyManager.logUnlikeResource(testUser, testResource);
 
         // Then.
         verify(historyRepo).save(argThat(history -> 
@@ -658,6 +784,25 @@ class HistoryManagerTest {
             history.getActionType() == ActionType.UNLIKE_RESOURCE &&
             history.getObjectId().equals(testResource.getId())
         ));
+        verify(likeStateRepo).deleteByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.RESOURCE, testResource.getId()
+        );
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not log unlike resource action when not liked")
+    void logUnlikeResource_WithNotLiked_ShouldNotSaveHistory() {
+        // Given.
+        when(likeStateRepo.deleteByUserAndObjectTypeAndObjectId(testUser, LikeState.ObjectType.RESOURCE, testResource.getId()))
+            .thenReturn(0);
+
+        // When.
+        boolean result = historyManager.logUnlikeResource(testUser, testResource);
+
+        // Then.
+        assertThat(result).isFalse();
+        verifyNoInteractions(historyRepo, historyWriteBehindService);
     }
 
     @Test
@@ -694,6 +839,10 @@ class HistoryManagerTest {
             .isInstanceOf(RuntimeException.class)
             .hasMessage("Failed to log Create-Resource");
 
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.RESOURCE, testResource.getId())).thenReturn(1);
+        when(likeStateRepo.deleteByUserAndObjectTypeAndObjectId(testUser, LikeState.ObjectType.RESOURCE, testResource.getId()))
+            .thenReturn(1);
+
         assertThatThrownBy(() -> historyManager.logLikeResource(testUser, testResource))
             .isInstanceOf(RuntimeException.class)
             .hasMessage("Failed to log Like-Resource");
@@ -781,9 +930,10 @@ class HistoryManagerTest {
             testInteraction.getId()
         );
         when(historyRepo.save(any(History.class))).thenReturn(expectedHistory);
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId())).thenReturn(1);
 
         // When.
-        historyManager.logLikeInteraction(testUser, testInteraction);
+        boolean result = historyManager.logLikeInteraction(testUser, testInteraction);
 
         // Then.
         verify(historyRepo).save(argThat(history -> 
@@ -791,6 +941,22 @@ class HistoryManagerTest {
             history.getActionType() == ActionType.LIKE_INTERACTION &&
             history.getObjectId().equals(testInteraction.getId())
         ));
+        verify(likeStateRepo).insertIfAbsent(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId());
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not log like interaction action when already liked")
+    void logLikeInteraction_WithAlreadyLiked_ShouldNotSaveHistory() {
+        // Given.
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId())).thenReturn(0);
+
+        // When.
+        boolean result = historyManager.logLikeInteraction(testUser, testInteraction);
+
+        // Then.
+        assertThat(result).isFalse();
+        verifyNoInteractions(historyRepo, historyWriteBehindService);
     }
 
     @Test
@@ -803,9 +969,11 @@ class HistoryManagerTest {
             testInteraction.getId()
         );
         when(historyRepo.save(any(History.class))).thenReturn(expectedHistory);
+        when(likeStateRepo.deleteByUserAndObjectTypeAndObjectId(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()))
+            .thenReturn(1);
 
         // When.
-        historyManager.logUnlikeInteraction(testUser, testInteraction);
+        boolean result = historyManager.logUnlikeInteraction(testUser, testInteraction);
 
         // Then.
         verify(historyRepo).save(argThat(history -> 
@@ -813,6 +981,25 @@ class HistoryManagerTest {
             history.getActionType() == ActionType.UNLIKE_INTERACTION &&
             history.getObjectId().equals(testInteraction.getId())
         ));
+        verify(likeStateRepo).deleteByUserAndObjectTypeAndObjectId(
+            testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()
+        );
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not log unlike interaction action when not liked")
+    void logUnlikeInteraction_WithNotLiked_ShouldNotSaveHistory() {
+        // Given.
+        when(likeStateRepo.deleteByUserAndObjectTypeAndObjectId(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()))
+            .thenReturn(0);
+
+        // When.
+        boolean result = historyManager.logUnlikeInteraction(testUser, testInteraction);
+
+        // Then.
+        assertThat(result).isFalse();
+        verifyNoInteractions(historyRepo, historyWriteBehindService);
     }
 
     @Test
@@ -827,6 +1014,10 @@ class HistoryManagerTest {
             .isInstanceOf(RuntimeException.class)
             .hasMessage("Failed to log Create-Interaction");
 
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId())).thenReturn(1);
+        when(likeStateRepo.deleteByUserAndObjectTypeAndObjectId(testUser, LikeState.ObjectType.INTERACTION, testInteraction.getId()))
+            .thenReturn(1);
+
         assertThatThrownBy(() -> historyManager.logLikeInteraction(testUser, testInteraction))
             .isInstanceOf(RuntimeException.class)
             .hasMessage("Failed to log Like-Interaction");
@@ -950,4 +1141,80 @@ class HistoryManagerTest {
 
         verify(historyRepo).save(any(History.class));
     }
+
+    // Write-behind tests
+
+    @Test
+    @DisplayName("Should submit history to write-behind service when enabled")
+    void logViewResource_WithWriteBehindEnabled_ShouldSubmitHistory() {
+        // Given.
+        when(historyWriteBehindService.isEnabled()).thenReturn(true);
+
+        // When.
+        historyManager.logViewResource(testUser, testResource);
+
+        // Then.
+        verify(historyWriteBehindService).submit(argThat(history ->
+            history.getUser().equals(testUser) &&
+            history.getActionType() == ActionType.VIEW_RESOURCE &&
+            history.getObjectId().equals(testResource.getId())
+        ));
+        verifyNoInteractions(historyRepo);
+    }
+
+    @Test
+    @DisplayName("Should submit like history to write-behind service and insert like state directly")
+    void logLikeResource_WithWriteBehindEnabled_ShouldSubmitHistoryAndSaveLikeState() {
+        // Given.
+        when(historyWriteBehindService.isEnabled()).thenReturn(true);
+        when(likeStateRepo.insertIfAbsent(testUser, LikeState.ObjectType.RESOURCE, testResource.getId())).thenReturn(1);
+
+        // When.
+        historyManager.logLikeResource(testUser, testResource);
+
+        // Then.
+        verify(historyWriteBehindService).submit(argThat(history ->
+            history.getActionType() == ActionType.LIKE_RESOURCE
+        ));
+        verify(likeStateRepo).insertIfAbsent(testUser, LikeState.ObjectType.RESOURCE, testResource.getId());
+        verifyNoInteractions(historyRepo);
+    }
+
+    @Test
+    @DisplayName("Should write views of several resources in one batch")
+    void logViewResources_WithSeveralResources_ShouldWriteOneBatch() {
+        // Given.
+        Resource other = spy(new Resource(
+            "Other Resource", "Description", ResourceType.NOTE, testResource.getResourceFile(), testCourse, testUser));
+        when(other.getId()).thenReturn(2);
+
+        // When.
+        historyManager.logViewResources(testUser, List.of(testResource, other));
+
+        // Then.
+        verify(historyWriteBehindService).writeBatch(argThat(histories ->
+            histories.size() == 2 &&
+            histories.stream().allMatch(history -> history.getActionType() == ActionType.VIEW_RESOURCE) &&
+            histories.get(0).getObjectId() == 1 &&
+            histories.get(1).getObjectId() == 2
+        ));
+        verifyNoInteractions(historyRepo);
+    }
+
+    @Test
+    @DisplayName("Should submit views of several resources together to write-behind service when enabled")
+    void logViewResources_WithWriteBehindEnabled_ShouldSubmitAllTogether() {
+        // Given.
+        when(historyWriteBehindService.isEnabled()).thenReturn(true);
+
+        // When.
+        historyManager.logViewResources(testUser, List.of(testResource));
+
+        // Then.
+        verify(historyWriteBehindService).submitAll(argThat(histories ->
+            histories.size() == 1 && histories.get(0).getActionType() == ActionType.VIEW_RESOURCE
+        ));
+        verify(historyWriteBehindService, never()).submit(any());
+        verifyNoInteractions(historyRepo);
+    }
 }
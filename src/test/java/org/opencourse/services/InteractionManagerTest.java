@@ -17,13 +17,15 @@ import org.opencourse.models.Interaction;
 import org.opencourse.models.User;
 import org.opencourse.repositories.CourseRepo;
 import org.opencourse.repositories.InteractionRepo;
-import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.concurrency.ActivityAggregator;
+import org.opencourse.services.concurrency.AsyncLikeService;
 import org.opencourse.utils.typeinfo.CourseType;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,7 +48,7 @@ class InteractionManagerTest {
     private CourseRepo courseRepo;
 
     @Mock
-    private UserRepo userRepo;
+    private ActivityAggregator activityAggregator;
 
     @Mock
     private ApplicationConfig applicationConfig;
@@ -60,6 +62,9 @@ class InteractionManagerTest {
     @Mock
     private HistoryManager historyManager;
 
+    @Mock
+    private AsyncLikeService asyncLikeService;
+
     @InjectMocks
     private InteractionManager interactionManager;
 
@@ -148,7 +153,6 @@ class InteractionManagerTest {
         when(courseRepo.findById((short) 1)).thenReturn(Optional.of(testCourse));
         when(interactionRepo.findByCourseAndUser(testCourse, testUser)).thenReturn(Optional.empty());
         when(interactionRepo.save(any(Interaction.class))).thenReturn(testInteraction);
-        when(userRepo.save(testUser)).thenReturn(testUser);
 
         // When.
         Interaction result = interactionManager.addInteraction(testCreationDto, testUser);
@@ -160,8 +164,7 @@ class InteractionManagerTest {
         verify(courseRepo).findById((short) 1);
         verify(interactionRepo).findByCourseAndUser(testCourse, testUser);
         verify(interactionRepo).save(any(Interaction.class));
-        verify(testUser).addActivity(10);
-        verify(userRepo).save(testUser);
+        verify(activityAggregator).add(testUser, 10);
         verify(historyManager).logCreateInteraction(testUser, testInteraction);
         verify(historyManager).logRateCourse(testUser, testCourse);
     }
@@ -193,8 +196,7 @@ class InteractionManagerTest {
         verify(historyManager).logRateCourse(testUser, testCourse);
         
         // Should not add activity for updates.
-        verify(testUser, never()).addActivity(anyInt());
-        verify(userRepo, never()).save(testUser);
+        verify(activityAggregator, never()).add(any(), anyInt());
     }
 
     @Test
@@ -233,7 +235,7 @@ class InteractionManagerTest {
             .hasMessage("课程不存在");
 
         verify(courseRepo).findById((short) 1);
-        verifyNoInteractions(interactionRepo, userRepo, historyManager);
+        verifyNoInteractions(interactionRepo, activityAggregator, historyManager);
     }
 
     @Test
@@ -245,7 +247,6 @@ class InteractionManagerTest {
         when(courseRepo.findById((short) 1)).thenReturn(Optional.of(testCourse));
         when(interactionRepo.findByCourseAndUser(testCourse, testUser)).thenReturn(Optional.empty());
         when(interactionRepo.save(any(Interaction.class))).thenReturn(testInteraction);
-        when(userRepo.save(testUser)).thenReturn(testUser);
 
         // When.
         Interaction result = interactionManager.addInteraction(noRatingDto, testUser);
@@ -363,7 +364,6 @@ class InteractionManagerTest {
     void deleteInteraction_WithOwner_ShouldDeleteInteraction() {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
-        when(userRepo.save(testCreator)).thenReturn(testCreator);
 
         // When.
         boolean result = interactionManager.deleteInteraction(1, testCreator);
@@ -373,8 +373,8 @@ class InteractionManagerTest {
 
         verify(interactionRepo).findById(1);
         verify(interactionRepo).delete(testInteraction);
-        verify(testCreator).addActivity(-5);
-        verify(userRepo).save(testCreator);
+        verify(historyManager).clearLikeStates(testInteraction);
+        verify(activityAggregator).add(testCreator, -5);
         verify(historyManager).logDeleteInteraction(testCreator, testInteraction);
     }
 
@@ -384,7 +384,6 @@ class InteractionManagerTest {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
         when(testAdmin.getRole()).thenReturn(User.UserRole.ADMIN);
-        when(userRepo.save(testAdmin)).thenReturn(testAdmin);
 
         // When.
         boolean result = interactionManager.deleteInteraction(1, testAdmin);
@@ -394,8 +393,8 @@ class InteractionManagerTest {
 
         verify(interactionRepo).findById(1);
         verify(interactionRepo).delete(testInteraction);
-        verify(testAdmin).addActivity(-5);
-        verify(userRepo).save(testAdmin);
+        verify(historyManager).clearLikeStates(testInteraction);
+        verify(activityAggregator).add(testAdmin, -5);
         verify(historyManager).logDeleteInteraction(testAdmin, testInteraction);
     }
 
@@ -413,7 +412,7 @@ class InteractionManagerTest {
 
         verify(interactionRepo).findById(999);
         verifyNoMoreInteractions(interactionRepo);
-        verifyNoInteractions(userRepo, historyManager);
+        verifyNoInteractions(activityAggregator, historyManager);
     }
 
     @Test
@@ -431,7 +430,7 @@ class InteractionManagerTest {
 
         verify(interactionRepo).findById(1);
         verifyNoMoreInteractions(interactionRepo);
-        verifyNoInteractions(userRepo, historyManager);
+        verifyNoInteractions(activityAggregator, historyManager);
     }
 
     // Get Interactions Tests.
@@ -515,9 +514,7 @@ class InteractionManagerTest {
     void likeInteraction_WithUserNotLiked_ShouldReturnTrue() {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
-        when(historyManager.getLikeStatus(testUser, testInteraction)).thenReturn(false);
-        when(userRepo.save(testCreator)).thenReturn(testCreator);
-        when(interactionRepo.save(testInteraction)).thenReturn(testInteraction);
+        when(historyManager.logLikeInteraction(testUser, testInteraction)).thenReturn(true);
 
         // When.
         boolean result = interactionManager.likeInteraction(1, testUser);
@@ -526,12 +523,10 @@ class InteractionManagerTest {
         assertThat(result).isTrue();
 
         verify(interactionRepo).findById(1);
-        verify(historyManager).getLikeStatus(testUser, testInteraction);
         verify(historyManager).logLikeInteraction(testUser, testInteraction);
-        verify(testCreator).addActivity(2);
-        verify(userRepo).save(testCreator);
-        verify(testInteraction).likes();
-        verify(interactionRepo).save(testInteraction);
+        verify(activityAggregator).add(testCreator, 2);
+        verify(asyncLikeService).add(AsyncLikeService.Counter.INTERACTION_LIKES, 1, 1);
+        verify(interactionRepo, never()).save(any());
     }
 
     @Test
@@ -539,7 +534,7 @@ class InteractionManagerTest {
     void likeInteraction_WithUserAlreadyLiked_ShouldReturnFalse() {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
-        when(historyManager.getLikeStatus(testUser, testInteraction)).thenReturn(true);
+        when(historyManager.logLikeInteraction(testUser, testInteraction)).thenReturn(false);
 
         // When.
         boolean result = interactionManager.likeInteraction(1, testUser);
@@ -548,8 +543,9 @@ class InteractionManagerTest {
         assertThat(result).isFalse();
 
         verify(interactionRepo).findById(1);
-        verify(historyManager).getLikeStatus(testUser, testInteraction);
-        verifyNoMoreInteractions(historyManager, userRepo, interactionRepo);
+        verify(historyManager).logLikeInteraction(testUser, testInteraction);
+        verifyNoInteractions(asyncLikeService);
+        verifyNoMoreInteractions(historyManager, activityAggregator, interactionRepo);
     }
 
     @Test
@@ -565,7 +561,7 @@ class InteractionManagerTest {
         assertThat(result).isFalse();
 
         verify(interactionRepo).findById(999);
-        verifyNoInteractions(historyManager, userRepo);
+        verifyNoInteractions(historyManager, activityAggregator);
     }
 
     // Unlike Interaction Tests.
@@ -575,9 +571,7 @@ class InteractionManagerTest {
     void unlikeInteraction_WithUserHasLiked_ShouldReturnTrue() {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
-        when(historyManager.getLikeStatus(testUser, testInteraction)).thenReturn(true);
-        when(userRepo.save(testCreator)).thenReturn(testCreator);
-        when(interactionRepo.save(testInteraction)).thenReturn(testInteraction);
+        when(historyManager.logUnlikeInteraction(testUser, testInteraction)).thenReturn(true);
 
         // When.
         boolean result = interactionManager.unlikeInteraction(1, testUser);
@@ -586,12 +580,10 @@ class InteractionManagerTest {
         assertThat(result).isTrue();
 
         verify(interactionRepo).findById(1);
-        verify(historyManager).getLikeStatus(testUser, testInteraction);
         verify(historyManager).logUnlikeInteraction(testUser, testInteraction);
-        verify(testCreator).addActivity(-1);
-        verify(userRepo).save(testCreator);
-        verify(testInteraction).unlikes();
-        verify(interactionRepo).save(testInteraction);
+        verify(activityAggregator).add(testCreator, -1);
+        verify(asyncLikeService).add(AsyncLikeService.Counter.INTERACTION_LIKES, 1, -1);
+        verify(interactionRepo, never()).save(any());
     }
 
     @Test
@@ -599,7 +591,7 @@ class InteractionManagerTest {
     void unlikeInteraction_WithUserNotLiked_ShouldReturnFalse() {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
-        when(historyManager.getLikeStatus(testUser, testInteraction)).thenReturn(false);
+        when(historyManager.logUnlikeInteraction(testUser, testInteraction)).thenReturn(false);
 
         // When.
         boolean result = interactionManager.unlikeInteraction(1, testUser);
@@ -608,8 +600,9 @@ class InteractionManagerTest {
         assertThat(result).isFalse();
 
         verify(interactionRepo).findById(1);
-        verify(historyManager).getLikeStatus(testUser, testInteraction);
-        verifyNoMoreInteractions(historyManager, userRepo, interactionRepo);
+        verify(historyManager).logUnlikeInteraction(testUser, testInteraction);
+        verifyNoInteractions(asyncLikeService);
+        verifyNoMoreInteractions(historyManager, activityAggregator, interactionRepo);
     }
 
     @Test
@@ -625,7 +618,7 @@ class InteractionManagerTest {
         assertThat(result).isFalse();
 
         verify(interactionRepo).findById(999);
-        verifyNoInteractions(historyManager, userRepo);
+        verifyNoInteractions(historyManager, activityAggregator);
     }
 
     // Get User Interaction Status Tests.
@@ -691,7 +684,6 @@ class InteractionManagerTest {
         when(courseRepo.findById((short) 1)).thenReturn(Optional.of(testCourse));
         when(interactionRepo.findByCourseAndUser(testCourse, testUser)).thenReturn(Optional.empty());
         when(interactionRepo.save(any(Interaction.class))).thenReturn(testInteraction);
-        when(userRepo.save(testUser)).thenReturn(testUser);
 
         // When.
         Interaction result = interactionManager.addInteraction(nullContentDto, testUser);
@@ -711,30 +703,28 @@ class InteractionManagerTest {
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
         
         // First: User hasn't liked, then likes.
-        when(historyManager.getLikeStatus(testUser, testInteraction)).thenReturn(false);
-        when(userRepo.save(testCreator)).thenReturn(testCreator);
-        when(interactionRepo.save(testInteraction)).thenReturn(testInteraction);
+        when(historyManager.logLikeInteraction(testUser, testInteraction)).thenReturn(true);
 
         // When - Like.
         boolean likeResult = interactionManager.likeInteraction(1, testUser);
 
         // Then.
         assertThat(likeResult).isTrue();
-        verify(testInteraction).likes();
+        verify(asyncLikeService).add(AsyncLikeService.Counter.INTERACTION_LIKES, 1, 1);
 
         // Given - Now user has liked.
-        when(historyManager.getLikeStatus(testUser, testInteraction)).thenReturn(true);
+        when(historyManager.logUnlikeInteraction(testUser, testInteraction)).thenReturn(true);
 
         // When - Unlike.
         boolean unlikeResult = interactionManager.unlikeInteraction(1, testUser);
 
         // Then.
         assertThat(unlikeResult).isTrue();
-        verify(testInteraction).unlikes();
+        verify(asyncLikeService).add(AsyncLikeService.Counter.INTERACTION_LIKES, 1, -1);
 
         // Verify activity changes.
-        verify(testCreator).addActivity(2); // Like
-        verify(testCreator).addActivity(-1); // Unlike
+        verify(activityAggregator).add(testCreator, 2); // Like
+        verify(activityAggregator).add(testCreator, -1); // Unlike
     }
 
     @Test
@@ -763,7 +753,6 @@ class InteractionManagerTest {
     void deleteInteraction_ShouldCorrectlyCalculateActivity() {
         // Given.
         when(interactionRepo.findById(1)).thenReturn(Optional.of(testInteraction));
-        when(userRepo.save(testCreator)).thenReturn(testCreator);
 
         // When.
         boolean result = interactionManager.deleteInteraction(1, testCreator);
@@ -772,8 +761,7 @@ class InteractionManagerTest {
         assertThat(result).isTrue();
         
         // Verify the activity is correctly reduced.
-        verify(testCreator).addActivity(-5); // Should be negative for deletion
-        verify(userRepo).save(testCreator);
+        verify(activityAggregator).add(testCreator, -5); // Should be negative for deletion
         verify(interactionRepo).delete(testInteraction);
         verify(historyManager).logDeleteInteraction(testCreator, testInteraction);
     }
@@ -804,4 +792,20 @@ class InteractionManagerTest {
         assertThat(userResult1).hasSize(1);
         assertThat(userResult2).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should delegate bulk like status lookup to history manager")
+    void getLikedInteractionIds_WithMultipleInteractions_ShouldDelegateOnce() {
+        // Given.
+        List<Integer> interactionIds = List.of(1, 2, 3);
+        when(historyManager.getLikedInteractionIds(testUser, interactionIds)).thenReturn(Set.of(2));
+
+        // When.
+        Set<Integer> result = interactionManager.getLikedInteractionIds(testUser, interactionIds);
+
+        // Then.
+        assertThat(result).containsExactly(2);
+        verify(historyManager).getLikedInteractionIds(testUser, interactionIds);
+        verifyNoInteractions(interactionRepo);
+    }
+}
@@ -19,7 +19,11 @@ import org.opencourse.models.Resource.ResourceFile;
 import org.opencourse.models.User;
 import org.opencourse.repositories.CourseRepo;
 import org.opencourse.repositories.ResourceRepo;
-import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.concurrency.ActivityAggregator;
+import org.opencourse.services.concurrency.AsyncLikeService;
+import org.opencourse.services.concurrency.BandwidthLimiter;
+import org.opencourse.services.history.ViewCoalescingService;
+import org.opencourse.services.outbox.OutboxService;
 import org.opencourse.services.storage.FileInfo;
 import org.opencourse.services.storage.FileStorageService;
 import org.opencourse.utils.typeinfo.CourseType;
@@ -27,13 +31,18 @@ import org.opencourse.utils.typeinfo.ResourceType;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -52,7 +61,7 @@ class ResourceManagerTest {
     private ResourceRepo resourceRepo;
 
     @Mock
-    private UserRepo userRepo;
+    private ActivityAggregator activityAggregator;
 
     @Mock
     private FileStorageService fileStorageService;
@@ -60,6 +69,18 @@ class ResourceManagerTest {
     @Mock
     private HistoryManager historyManager;
 
+    @Mock
+    private ViewCoalescingService viewCoalescingService;
+
+    @Mock
+    private AsyncLikeService asyncLikeService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BandwidthLimiter bandwidthLimiter;
+
     @Mock
     private MultipartFile mockFile;
 
@@ -197,7 +218,6 @@ class ResourceManagerTest {
         when(fileStorageService.storeFile(eq(mockFile), eq(ResourceFile.FileType.PDF), eq((short) 1)))
             .thenReturn(testResourceFile);
         when(resourceRepo.save(any(Resource.class))).thenReturn(testResource);
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
 
         // When.
         Resource result = resourceManager.addResource(testUploadDto, mockFile, testCreator);
@@ -209,12 +229,11 @@ class ResourceManagerTest {
         verify(applicationConfig).getActivity();
         verify(activityConfig).getResource();
         verify(activityResourceConfig).getAdd();
-        verify(testCreator).addActivity(10);
+        verify(activityAggregator).add(testCreator, 10);
 
         verify(courseRepo).findById((short) 1);
         verify(fileStorageService).storeFile(eq(mockFile), eq(ResourceFile.FileType.PDF), eq((short) 1));
         verify(resourceRepo).save(any(Resource.class));
-        verify(userRepo).save(eq(testCreator));
         verify(historyManager).logCreateResource(eq(testCreator), any(Resource.class));
     }
 
@@ -290,6 +309,37 @@ class ResourceManagerTest {
         verify(fileStorageService).deleteFile(testResourceFile.getFilePath());
     }
 
+    @Test
+    @DisplayName("Should create a resource for a stored file without touching the storage")
+    void createResource_WithStoredFile_ShouldOnlySaveResource() {
+        // Given.
+        when(courseRepo.findById((short) 1)).thenReturn(Optional.of(testCourse));
+        when(resourceRepo.save(any(Resource.class))).thenReturn(testResource);
+
+        // When.
+        Resource result = resourceManager.createResource(testUploadDto, testResourceFile, testCreator);
+
+        // Then.
+        assertThat(result).isEqualTo(testResource);
+        verify(resourceRepo).save(argThat(resource -> resource.getResourceFile() == testResourceFile));
+        verify(activityAggregator).add(testCreator, 10);
+        verify(historyManager).logCreateResource(testCreator, testResource);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @DisplayName("Should leave the stored file to the caller when the course is not found")
+    void createResource_WithInvalidCourseId_ShouldNotDeleteFile() {
+        // Given.
+        when(courseRepo.findById((short) 1)).thenReturn(Optional.empty());
+
+        // When & Then.
+        assertThatThrownBy(() -> resourceManager.createResource(testUploadDto, testResourceFile, testCreator))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Course not found");
+        verifyNoInteractions(fileStorageService, resourceRepo);
+    }
+
     // Resource Delete Tests.
 
     @Test
@@ -297,7 +347,6 @@ class ResourceManagerTest {
     void deleteResource_WithValidData_ShouldReturnTrueAndDeleteSuccessfully() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
         when(fileStorageService.deleteFile(testResourceFile.getFilePath())).thenReturn(true);
 
         // When.
@@ -310,10 +359,10 @@ class ResourceManagerTest {
         verify(applicationConfig).getActivity();
         verify(activityConfig).getResource();
         verify(activityResourceConfig).getDelete();
-        verify(testCreator).addActivity(-5);
+        verify(activityAggregator).add(testCreator, -5);
 
-        verify(userRepo).save(eq(testCreator));
         verify(historyManager).logDeleteResource(eq(testCreator), eq(testResource));
+        verify(historyManager).clearLikeStates(eq(testResource));
         verify(resourceRepo).delete(eq(testResource));
         verify(fileStorageService).deleteFile(testResourceFile.getFilePath());
     }
@@ -323,7 +372,6 @@ class ResourceManagerTest {
     void deleteResource_WithAdminUser_ShouldReturnTrueAndDeleteSuccessfully() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
         when(fileStorageService.deleteFile(testResourceFile.getFilePath())).thenReturn(true);
 
         // When.
@@ -336,10 +384,10 @@ class ResourceManagerTest {
         verify(applicationConfig).getActivity();
         verify(activityConfig).getResource();
         verify(activityResourceConfig).getDelete();
-        verify(testCreator).addActivity(-5);
+        verify(activityAggregator).add(testCreator, -5);
 
-        verify(userRepo).save(eq(testCreator));
         verify(historyManager).logDeleteResource(eq(testAdmin), eq(testResource));
+        verify(historyManager).clearLikeStates(eq(testResource));
         verify(resourceRepo).delete(eq(testResource));
         verify(fileStorageService).deleteFile(testResourceFile.getFilePath());
     }
@@ -358,13 +406,13 @@ class ResourceManagerTest {
 
         verify(resourceRepo).findById(999);
         verifyNoInteractions(
-            userRepo,
+            activityAggregator,
             historyManager,
             fileStorageService,
             applicationConfig
         );
 
-        verify(userRepo, never()).save(any());
+        verify(activityAggregator, never()).add(any(), anyInt());
         verify(resourceRepo, never()).delete(any());
         verify(fileStorageService, never()).deleteFile(anyString());
     }
@@ -383,13 +431,13 @@ class ResourceManagerTest {
 
         verify(resourceRepo).findById(1);
         verifyNoInteractions(
-            userRepo,
+            activityAggregator,
             historyManager,
             fileStorageService,
             applicationConfig
         );
 
-        verify(userRepo, never()).save(any());
+        verify(activityAggregator, never()).add(any(), anyInt());
         verify(resourceRepo, never()).delete(any());
         verify(fileStorageService, never()).deleteFile(anyString());
     }
@@ -399,7 +447,6 @@ class ResourceManagerTest {
     void deleteResource_WithResourceDeleteFailure_ShouldThrowException() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
         doThrow(new RuntimeException("Database error")).when(resourceRepo).delete(eq(testResource));
 
         // When & Then.
@@ -416,7 +463,6 @@ class ResourceManagerTest {
     void deleteResource_WithFileDeleteFailure_ShouldThrowException() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
         when(fileStorageService.deleteFile(testResourceFile.getFilePath())).thenReturn(false);
 
         // When & Then.
@@ -427,6 +473,40 @@ class ResourceManagerTest {
         verify(fileStorageService).deleteFile(testResourceFile.getFilePath());
     }
 
+    @Test
+    @DisplayName("Should enqueue the file deletion instead of deleting the file when the outbox is enabled")
+    void deleteResource_WithOutboxEnabled_ShouldEnqueueFileDeletion() {
+        // Given.
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(outboxService.isEnabled()).thenReturn(true);
+
+        // When.
+        boolean result = resourceManager.deleteResource(1, testCreator);
+
+        // Then.
+        assertThat(result).isTrue();
+        verify(resourceRepo).delete(eq(testResource));
+        verify(outboxService).enqueueDeleteFile(testResourceFile.getFilePath());
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @DisplayName("Should not enqueue the file deletion when resource deletion fails")
+    void deleteResource_WithOutboxEnabledAndResourceDeleteFailure_ShouldNotEnqueue() {
+        // Given.
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(outboxService.isEnabled()).thenReturn(true);
+        doThrow(new RuntimeException("Database error")).when(resourceRepo).delete(eq(testResource));
+
+        // When & Then.
+        assertThatThrownBy(() -> resourceManager.deleteResource(1, testCreator))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage("Failed to delete resource");
+
+        verify(outboxService, never()).enqueueDeleteFile(any());
+        verifyNoInteractions(fileStorageService);
+    }
+
     // Resource Update Tests.
 
     @Test
@@ -578,9 +658,7 @@ class ResourceManagerTest {
     void likeResource_WithUserNotLiked_ShouldReturnTrue() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(historyManager.getLikeStatus(testUser, testResource)).thenReturn(false);
-        when(resourceRepo.save(eq(testResource))).thenReturn(testResource);
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
+        when(historyManager.logLikeResource(testUser, testResource)).thenReturn(true);
 
         // When.
         boolean result = resourceManager.likeResource(1, testUser);
@@ -593,20 +671,33 @@ class ResourceManagerTest {
         verify(applicationConfig).getActivity();
         verify(activityConfig).getResource();
         verify(activityResourceConfig).getLike();
-        verify(testCreator).addActivity(1);
+        verify(activityAggregator).add(testCreator, 1);
 
-        verify(historyManager).getLikeStatus(testUser, testResource);
-        verify(resourceRepo).save(eq(testResource));
-        verify(userRepo).save(eq(testCreator));
+        verify(asyncLikeService).add(AsyncLikeService.Counter.RESOURCE_LIKES, 1, 1);
+        verify(resourceRepo, never()).save(any());
         verify(historyManager).logLikeResource(testUser, testResource);
     }
 
+    @Test
+    @DisplayName("Should merge pending likes into the like count of a resource")
+    void getLikes_ShouldMergePendingLikes() {
+        // Given.
+        when(testResource.getLikes()).thenReturn(10);
+        when(asyncLikeService.getLikes(AsyncLikeService.Counter.RESOURCE_LIKES, 1, 10)).thenReturn(13);
+
+        // When.
+        int likes = resourceManager.getLikes(testResource);
+
+        // Then.
+        assertThat(likes).isEqualTo(13);
+    }
+
     @Test
     @DisplayName("Should return false when user already liked resource")
     void likeResource_WithUserAlreadyLiked_ShouldReturnFalse() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(historyManager.getLikeStatus(testUser, testResource)).thenReturn(true);
+        when(historyManager.logLikeResource(testUser, testResource)).thenReturn(false);
 
         // When.
         boolean result = resourceManager.likeResource(1, testUser);
@@ -614,8 +705,9 @@ class ResourceManagerTest {
         // Then.
         assertThat(result).isFalse();
         verify(resourceRepo).findById(1);
-        verify(historyManager).getLikeStatus(testUser, testResource);
-        verifyNoMoreInteractions(resourceRepo, userRepo, historyManager);
+        verify(historyManager).logLikeResource(testUser, testResource);
+        verifyNoInteractions(asyncLikeService);
+        verifyNoMoreInteractions(resourceRepo, activityAggregator, historyManager);
     }
 
     @Test
@@ -630,7 +722,7 @@ class ResourceManagerTest {
             .hasMessage("Resource not found");
 
         verify(resourceRepo).findById(999);
-        verifyNoInteractions(userRepo, historyManager);
+        verifyNoInteractions(activityAggregator, historyManager);
     }
 
     // Resource Unlike Tests.
@@ -640,9 +732,7 @@ class ResourceManagerTest {
     void unlikeResource_WithUserHasLiked_ShouldReturnTrue() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(historyManager.getLikeStatus(testUser, testResource)).thenReturn(true);
-        when(resourceRepo.save(eq(testResource))).thenReturn(testResource);
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
+        when(historyManager.logUnlikeResource(testUser, testResource)).thenReturn(true);
 
         // When.
         boolean result = resourceManager.unlikeResource(1, testUser);
@@ -655,11 +745,10 @@ class ResourceManagerTest {
         verify(applicationConfig).getActivity();
         verify(activityConfig).getResource();
         verify(activityResourceConfig).getUnlike();
-        verify(testCreator).addActivity(-1);
+        verify(activityAggregator).add(testCreator, -1);
 
-        verify(historyManager).getLikeStatus(testUser, testResource);
-        verify(resourceRepo).save(eq(testResource));
-        verify(userRepo).save(eq(testCreator));
+        verify(asyncLikeService).add(AsyncLikeService.Counter.RESOURCE_LIKES, 1, -1);
+        verify(resourceRepo, never()).save(any());
         verify(historyManager).logUnlikeResource(testUser, testResource);
     }
 
@@ -668,7 +757,7 @@ class ResourceManagerTest {
     void unlikeResource_WithUserNotLiked_ShouldReturnFalse() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(historyManager.getLikeStatus(testUser, testResource)).thenReturn(false);
+        when(historyManager.logUnlikeResource(testUser, testResource)).thenReturn(false);
 
         // When.
         boolean result = resourceManager.unlikeResource(1, testUser);
@@ -676,8 +765,9 @@ class ResourceManagerTest {
         // Then.
         assertThat(result).isFalse();
         verify(resourceRepo).findById(1);
-        verify(historyManager).getLikeStatus(testUser, testResource);
-        verifyNoMoreInteractions(resourceRepo, userRepo, historyManager);
+        verify(historyManager).logUnlikeResource(testUser, testResource);
+        verifyNoInteractions(asyncLikeService);
+        verifyNoMoreInteractions(resourceRepo, activityAggregator, historyManager);
     }
 
     @Test
@@ -692,7 +782,7 @@ class ResourceManagerTest {
             .hasMessage("Resource not found");
 
         verify(resourceRepo).findById(999);
-        verifyNoInteractions(userRepo, historyManager);
+        verifyNoInteractions(activityAggregator, historyManager);
     }
 
     // Resource View Tests.
@@ -702,8 +792,7 @@ class ResourceManagerTest {
     void viewResource_WithValidData_ShouldReturnFileInfo() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
-        when(resourceRepo.save(eq(testResource))).thenReturn(testResource);
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(true);
         when(fileStorageService.getFile(testResourceFile)).thenReturn(mockInputStream);
 
         // When.
@@ -718,15 +807,242 @@ class ResourceManagerTest {
         verify(applicationConfig).getActivity();
         verify(activityConfig).getResource();
         verify(activityResourceConfig).getView();
-        verify(testCreator).addActivity(5);
+        verify(activityAggregator).add(testCreator, 5);
 
-        verify(userRepo).save(eq(testCreator));
-        verify(testResource).addView();
-        verify(resourceRepo).save(eq(testResource));
+        verify(resourceRepo).incrementViews(1, 1);
+        verify(testResource, never()).addView();
+        verify(resourceRepo, never()).save(any());
         verify(historyManager).logViewResource(testUser, testResource);
         verify(fileStorageService).getFile(testResourceFile);
     }
 
+    @Test
+    @DisplayName("Should return file without counting a repeated view inside the window")
+    void viewResource_WithRepeatedView_ShouldNotCountAgain() {
+        // Given.
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(false);
+        when(fileStorageService.getFile(testResourceFile)).thenReturn(mockInputStream);
+
+        // When.
+        FileInfo result = resourceManager.viewResource(1, testUser);
+
+        // Then.
+        assertThat(result).isNotNull();
+        assertThat(result.getFile()).isEqualTo(mockInputStream);
+
+        verify(activityAggregator, never()).add(any(), anyInt());
+        verify(testResource, never()).addView();
+        verify(resourceRepo, never()).save(any());
+        verify(resourceRepo, never()).incrementViews(anyInt(), anyInt());
+        verifyNoInteractions(activityAggregator, historyManager);
+        verify(fileStorageService).getFile(testResourceFile);
+    }
+
+    @Test
+    @DisplayName("Should shape the file stream when download bandwidth is limited")
+    void viewResource_WithBandwidthLimit_ShouldReturnShapedStream() {
+        // Given.
+        InputStream shaped = mock(InputStream.class);
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(fileStorageService.getFile(testResourceFile)).thenReturn(mockInputStream);
+        when(bandwidthLimiter.isEnabled()).thenReturn(true);
+        when(bandwidthLimiter.limit(mockInputStream, 1)).thenReturn(shaped);
+
+        // When.
+        FileInfo result = resourceManager.viewResource(1, testUser);
+
+        // Then.
+        assertThat(result.getFile()).isSameAs(shaped);
+        verify(bandwidthLimiter).limit(mockInputStream, 1);
+    }
+
+    @Test
+    @DisplayName("Should return the range without counting a view when the range starts later")
+    void viewResource_WithLaterRange_ShouldNotCountView() {
+        // Given.
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(fileStorageService.getFile(testResourceFile, 1024L, 512L)).thenReturn(mockInputStream);
+
+        // When.
+        FileInfo result = resourceManager.viewResource(1, testUser, 1024L, 512L);
+
+        // Then.
+        assertThat(result.getFile()).isEqualTo(mockInputStream);
+
+        verify(resourceRepo, never()).incrementViews(anyInt(), anyInt());
+        verifyNoInteractions(viewCoalescingService, activityAggregator, historyManager);
+        verify(fileStorageService, never()).getFile(testResourceFile);
+    }
+
+    @Test
+    @DisplayName("Should count a view when the range starts at the first byte")
+    void viewResource_WithFirstRange_ShouldCountView() {
+        // Given.
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(true);
+        when(fileStorageService.getFile(testResourceFile, 0L, 512L)).thenReturn(mockInputStream);
+
+        // When.
+        FileInfo result = resourceManager.viewResource(1, testUser, 0L, 512L);
+
+        // Then.
+        assertThat(result.getFile()).isEqualTo(mockInputStream);
+
+        verify(activityAggregator).add(testCreator, 5);
+        verify(resourceRepo).incrementViews(1, 1);
+        verify(historyManager).logViewResource(testUser, testResource);
+        verify(fileStorageService, never()).getFile(testResourceFile);
+    }
+
+    @Test
+    @DisplayName("Should not presign a URL when downloads are streamed")
+    void viewResourceUrl_InStreamMode_ShouldReturnNull() {
+        // Given.
+        when(applicationConfig.getStorage()).thenReturn(new ApplicationConfig.Storage());
+
+        // When.
+        String result = resourceManager.viewResourceUrl(1, testUser, true);
+
+        // Then.
+        assertThat(result).isNull();
+        verifyNoInteractions(resourceRepo, fileStorageService, viewCoalescingService, historyManager);
+    }
+
+    @Test
+    @DisplayName("Should count the view and return a presigned URL in redirect mode")
+    void viewResourceUrl_InRedirectMode_ShouldCountViewAndPresign() {
+        // Given.
+        ApplicationConfig.Storage storage = new ApplicationConfig.Storage();
+        storage.getDownload().setMode(ApplicationConfig.Storage.Download.Mode.REDIRECT);
+        when(applicationConfig.getStorage()).thenReturn(storage);
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(true);
+        when(fileStorageService.presign(testResourceFile, Duration.ofMinutes(5), "test-file.pdf"))
+            .thenReturn("http://minio/presigned");
+
+        // When.
+        String result = resourceManager.viewResourceUrl(1, testUser, true);
+
+        // Then.
+        assertThat(result).isEqualTo("http://minio/presigned");
+        verify(activityAggregator).add(testCreator, 5);
+        verify(resourceRepo).incrementViews(1, 1);
+        verify(historyManager).logViewResource(testUser, testResource);
+        verify(fileStorageService, never()).getFile(any());
+    }
+
+    @Test
+    @DisplayName("Should not count the view when presigning fails or for later ranges")
+    void viewResourceUrl_WithoutUrlOrLaterRange_ShouldNotCountView() {
+        // Given.
+        ApplicationConfig.Storage storage = new ApplicationConfig.Storage();
+        storage.getDownload().setMode(ApplicationConfig.Storage.Download.Mode.REDIRECT);
+        when(applicationConfig.getStorage()).thenReturn(storage);
+        when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
+        when(fileStorageService.presign(eq(testResourceFile), any(), any()))
+            .thenReturn(null, "http://minio/presigned");
+
+        // When & Then.
+        assertThat(resourceManager.viewResourceUrl(1, testUser, true)).isNull();
+        assertThat(resourceManager.viewResourceUrl(1, testUser, false)).isEqualTo("http://minio/presigned");
+
+        verify(resourceRepo, never()).incrementViews(anyInt(), anyInt());
+        verifyNoInteractions(viewCoalescingService, activityAggregator, historyManager);
+    }
+
+    @Test
+    @DisplayName("Should count a revalidated view without fetching the file")
+    void countView_WithCachedFile_ShouldNotFetchFile() {
+        // Given.
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(true);
+
+        // When.
+        resourceManager.countView(testResource, testUser);
+
+        // Then.
+        verify(activityAggregator).add(testCreator, 5);
+        verify(resourceRepo).incrementViews(1, 1);
+        verify(historyManager).logViewResource(testUser, testResource);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @DisplayName("Should count views of several resources in one update and one history batch")
+    void countViews_WithSeveralResources_ShouldCountOnceInBatch() {
+        // Given.
+        Resource other = spy(new Resource(
+            "Other Resource", "Other Description", ResourceType.NOTE, testResourceFile, testCourse, testCreator));
+        when(other.getId()).thenReturn(2);
+        Resource coalesced = spy(new Resource(
+            "Coalesced Resource", "Other Description", ResourceType.NOTE, testResourceFile, testCourse, testCreator));
+        when(coalesced.getId()).thenReturn(3);
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(true);
+        when(viewCoalescingService.tryCount(1, 2)).thenReturn(true);
+        when(viewCoalescingService.tryCount(1, 3)).thenReturn(false);
+
+        // When.
+        resourceManager.countViews(List.of(testResource, other, coalesced), testUser);
+
+        // Then.
+        verify(activityAggregator, times(2)).add(testCreator, 5);
+        verify(resourceRepo).incrementViews(List.of(1, 2), 1);
+        verify(resourceRepo, never()).incrementViews(anyInt(), anyInt());
+        verify(historyManager).logViewResources(testUser, List.of(testResource, other));
+        verify(historyManager, never()).logViewResource(any(), any());
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @DisplayName("Should not write anything when all views are coalesced")
+    void countViews_WhenAllCoalesced_ShouldWriteNothing() {
+        // Given.
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(false);
+
+        // When.
+        resourceManager.countViews(List.of(testResource), testUser);
+
+        // Then.
+        verifyNoInteractions(resourceRepo, historyManager, activityAggregator);
+    }
+
+    @Test
+    @DisplayName("Should derive a stable strong ETag from the stored object path")
+    void getETag_ShouldDependOnlyOnObjectPath() {
+        // Given.
+        Resource sameFile = new Resource(
+            "Other Resource", "Other Description", ResourceType.NOTE, testResourceFile, testCourse, testCreator);
+        Resource otherFile = new Resource(
+            "Test Resource", "Test Description", ResourceType.EXAM,
+            new ResourceFile(ResourceFile.FileType.PDF, new BigDecimal("1.50"), "resources/1/other-file.pdf"),
+            testCourse, testCreator);
+
+        // When.
+        String eTag = resourceManager.getETag(testResource);
+
+        // Then.
+        assertThat(eTag).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+        assertThat(eTag).doesNotContain("test-file");
+        assertThat(resourceManager.getETag(sameFile)).isEqualTo(eTag);
+        assertThat(resourceManager.getETag(otherFile)).isNotEqualTo(eTag);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @DisplayName("Should use the creation time as last modified time")
+    void getLastModified_ShouldUseCreatedAt() {
+        // Given.
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 8, 30);
+        when(testResource.getCreatedAt()).thenReturn(createdAt);
+
+        // When & Then.
+        assertThat(resourceManager.getLastModified(testResource))
+            .isEqualTo(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        when(testResource.getCreatedAt()).thenReturn(null);
+        assertThat(resourceManager.getLastModified(testResource)).isEqualTo(-1L);
+    }
+
     @Test
     @DisplayName("Should throw IllegalArgumentException when viewing non-existent resource")
     void viewResource_WithInvalidResourceId_ShouldThrowException() {
@@ -739,7 +1055,7 @@ class ResourceManagerTest {
             .hasMessage("Resource not found");
 
         verify(resourceRepo).findById(999);
-        verifyNoInteractions(userRepo, historyManager, fileStorageService);
+        verifyNoInteractions(activityAggregator, historyManager, fileStorageService);
     }
 
     @Test
@@ -747,8 +1063,7 @@ class ResourceManagerTest {
     void viewResource_WithFileServiceReturnsNull_ShouldReturnFileInfoWithNullStream() {
         // Given.
         when(resourceRepo.findById(1)).thenReturn(Optional.of(testResource));
-        when(userRepo.save(eq(testCreator))).thenReturn(testCreator);
-        when(resourceRepo.save(eq(testResource))).thenReturn(testResource);
+        when(viewCoalescingService.tryCount(1, 1)).thenReturn(true);
         when(fileStorageService.getFile(testResourceFile)).thenReturn(null);
 
         // When.
@@ -759,11 +1074,27 @@ class ResourceManagerTest {
         assertThat(result.getFile()).isNull();
 
         verify(resourceRepo).findById(1);
-        verify(testCreator).addActivity(5);
-        verify(userRepo).save(eq(testCreator));
-        verify(testResource).addView();
-        verify(resourceRepo).save(eq(testResource));
+        verify(activityAggregator).add(testCreator, 5);
+        verify(resourceRepo).incrementViews(1, 1);
+        verify(testResource, never()).addView();
+        verify(resourceRepo, never()).save(any());
         verify(historyManager).logViewResource(testUser, testResource);
         verify(fileStorageService).getFile(testResourceFile);
     }
+
+    @Test
+    @DisplayName("Should delegate bulk like status lookup to history manager")
+    void getLikedResourceIds_WithMultipleResources_ShouldDelegateOnce() {
+        // Given.
+        List<Integer> resourceIds = List.of(1, 2);
+        when(historyManager.getLikedResourceIds(testUser, resourceIds)).thenReturn(Set.of(1));
+
+        // When.
+        Set<Integer> result = resourceManager.getLikedResourceIds(testUser, resourceIds);
+
+        // Then.
+        assertThat(result).containsExactly(1);
+        verify(historyManager).getLikedResourceIds(testUser, resourceIds);
+        verifyNoInteractions(resourceRepo);
+    }
 }
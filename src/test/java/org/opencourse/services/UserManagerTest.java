@@ -13,6 +13,7 @@ import org.opencourse.dto.request.UserLoginDto;
 import org.opencourse.dto.request.UserRegistrationDto;
 import org.opencourse.models.User;
 import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.concurrency.ActivityAggregator;
 import org.opencourse.services.email.EmailService;
 import org.opencourse.services.email.VerificationService;
 import org.opencourse.utils.JwtUtils;
@@ -57,6 +58,9 @@ public class UserManagerTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private ActivityAggregator activityAggregator;
+
     private UserManager userManager;
 
     @BeforeEach
@@ -67,7 +71,8 @@ public class UserManagerTest {
                 emailService,
                 verificationService,
                 authenticationManager,
-                jwtUtils
+                jwtUtils,
+                activityAggregator
         );
     }
 
@@ -454,6 +459,7 @@ public class UserManagerTest {
         User user = new User("testuser", "user@example.com", "encodedPassword", User.UserRole.USER);
         user.setActivity(10);
         when(userRepo.findById(userId)).thenReturn(Optional.of(user));
+        when(activityAggregator.getActivity(user.getId(), 10)).thenReturn(10);
 
         // Act
         Integer result = userManager.getUserActivity(userId);
@@ -462,6 +468,21 @@ public class UserManagerTest {
         assertThat(result).isEqualTo(10);
     }
 
+    @Test
+    void testGetActivity_WithPendingActivity_ShouldMergePendingDelta() {
+        // Arrange
+        User user = spy(new User("testuser", "user@example.com", "encodedPassword", User.UserRole.USER));
+        when(user.getId()).thenReturn(1);
+        user.setActivity(10);
+        when(activityAggregator.getActivity(1, 10)).thenReturn(13);
+
+        // Act
+        Integer result = userManager.getActivity(user);
+
+        // Assert
+        assertThat(result).isEqualTo(13);
+    }
+
     @Test
     void testGetUserActivity_WhenUserDoesNotExist_ShouldReturnZero() {
         // Arrange
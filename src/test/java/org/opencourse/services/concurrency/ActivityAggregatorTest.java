@@ -0,0 +1,262 @@
+package org.opencourse.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.User;
+import org.opencourse.repositories.UserRepo;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ActivityAggregator}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class ActivityAggregatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactoryImplementor sessionFactory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserRepo userRepo;
+
+    private ApplicationConfig applicationConfig;
+    private ActivityAggregator aggregator;
+    private User uploader;
+    private User commenter;
+
+    // Committed activity by user ID.
+    private Map<Integer, Long> table;
+
+    // Activity written by the current transaction of each thread.
+    private final ThreadLocal<Map<Integer, Long>> staged = ThreadLocal.withInitial(HashMap::new);
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        applicationConfig.getActivity().getAggregation().setEnabled(true);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class)
+            .getIdentifierTableDetails().getTableName()).thenReturn("`User`");
+        aggregator = new ActivityAggregator(jdbcTemplate, entityManagerFactory, transactionManager, userRepo, applicationConfig);
+
+        uploader = spy(new User("uploader", "uploader@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(uploader.getId()).thenReturn(1);
+        commenter = spy(new User("commenter", "commenter@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(commenter.getId()).thenReturn(2);
+
+        table = new ConcurrentHashMap<>();
+        String updateSql = "update `User` set activity = coalesce(activity, 0) + ? where id = ?";
+        lenient().when(jdbcTemplate.batchUpdate(eq(updateSql), anyList())).thenAnswer(this::stage);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().doAnswer(invocation -> {
+            staged.get().forEach((userId, delta) -> table.merge(userId, delta, Long::sum));
+            staged.get().clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        lenient().doAnswer(invocation -> {
+            staged.get().clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+    }
+
+    /**
+     * Write a batch update to the current transaction.
+     *
+     * @param invocation The batch update invocation.
+     * @return The update counts.
+     */
+    private int[] stage(InvocationOnMock invocation) {
+        List<Object[]> batch = invocation.getArgument(1);
+        for (Object[] args : batch) {
+            staged.get().merge((Integer) args[1], (Long) args[0], Long::sum);
+        }
+        return new int[batch.size()];
+    }
+
+    @Test
+    @DisplayName("Should flush deltas of all users in one batch")
+    void flush_WithManyDeltas_ShouldUpdateEachUserOnce() {
+        // Given.
+        aggregator.add(uploader, 1);
+        aggregator.add(uploader, 1);
+        aggregator.add(uploader, -1);
+        aggregator.add(commenter, 10);
+
+        // When.
+        int rows = aggregator.flush();
+
+        // Then.
+        assertThat(rows).isEqualTo(2);
+        assertThat(table).containsEntry(1, 1L).containsEntry(2, 10L);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(userRepo);
+        verify(uploader, never()).addActivity(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should merge pending deltas into reads until flushed")
+    void getActivity_WithPendingDeltas_ShouldMergeThem() {
+        // Given.
+        aggregator.add(uploader, 5);
+
+        // When & Then.
+        assertThat(aggregator.getActivity(1, 10)).isEqualTo(15);
+        assertThat(aggregator.getActivity(2, 10)).isEqualTo(10);
+
+        aggregator.flush();
+        assertThat(aggregator.getActivity(1, 15)).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Should ignore actions with zero weight")
+    void add_WithZeroWeight_ShouldDoNothing() {
+        // When.
+        aggregator.add(uploader, 0);
+
+        // Then.
+        assertThat(aggregator.getPendingRows()).isZero();
+        assertThat(aggregator.flush()).isZero();
+        verifyNoInteractions(jdbcTemplate, userRepo);
+    }
+
+    @Test
+    @DisplayName("Should keep deltas of a failed flush for the next one")
+    void flush_WhenUpdateFails_ShouldRetryDeltas() {
+        // Given.
+        aggregator.add(uploader, 3);
+        doThrow(new DataAccessResourceFailureException("down"))
+            .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When.
+        int rows = aggregator.flush();
+
+        // Then.
+        assertThat(rows).isZero();
+        assertThat(aggregator.getPending(1)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should roll back a batch failing partway and apply its deltas once on retry")
+    void flush_WhenBatchFailsPartway_ShouldNotApplyDeltasTwice() {
+        // Given.
+        aggregator.add(uploader, 3);
+        aggregator.add(commenter, 10);
+        doAnswer(invocation -> {
+            // The first row is written before the batch fails.
+            List<Object[]> batch = invocation.getArgument(1);
+            staged.get().merge((Integer) batch.get(0)[1], (Long) batch.get(0)[0], Long::sum);
+            throw new DataAccessResourceFailureException("Connection lost");
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When.
+        int failed = aggregator.flush();
+
+        // Then.
+        assertThat(failed).isZero();
+        assertThat(table).isEmpty();
+        verify(transactionManager).rollback(any());
+
+        // Given.
+        doAnswer(this::stage).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When.
+        int rows = aggregator.flush();
+
+        // Then.
+        assertThat(rows).isEqualTo(2);
+        assertThat(table).containsOnly(Map.entry(1, 3L), Map.entry(2, 10L));
+    }
+
+    @Test
+    @DisplayName("Should apply deltas immediately when disabled")
+    void add_WhenDisabled_ShouldIncrementDirectly() {
+        // Given.
+        applicationConfig.getActivity().getAggregation().setEnabled(false);
+
+        // When.
+        aggregator.add(uploader, -5);
+
+        // Then.
+        verify(userRepo).incrementActivity(1, -5);
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(aggregator.getPendingRows()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not lose activity of a popular uploader under concurrent views")
+    void add_WithConcurrentViewsAndFlushes_ShouldNotLoseActivity() throws Exception {
+        // Given.
+        int threads = 16;
+        int views = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean viewing = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (viewing.get()) {
+                aggregator.flush();
+            }
+        });
+        flusher.start();
+
+        // When.
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < views; i++) {
+                    aggregator.add(uploader, 1);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        viewing.set(false);
+        flusher.join();
+        aggregator.flush();
+
+        // Then.
+        assertThat(table.get(1)).isEqualTo((long) threads * views);
+        assertThat(aggregator.getPending(1)).isZero();
+    }
+}
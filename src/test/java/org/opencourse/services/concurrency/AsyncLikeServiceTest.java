@@ -0,0 +1,327 @@
+package org.opencourse.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Interaction;
+import org.opencourse.models.Resource;
+import org.opencourse.repositories.InteractionRepo;
+import org.opencourse.repositories.ResourceRepo;
+import org.opencourse.services.concurrency.AsyncLikeService.Counter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AsyncLikeService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class AsyncLikeServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactoryImplementor sessionFactory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ResourceRepo resourceRepo;
+
+    @Mock
+    private InteractionRepo interactionRepo;
+
+    private ApplicationConfig applicationConfig;
+    private AsyncLikeService service;
+
+    // Committed like counts by (SQL, row ID).
+    private Map<String, Long> table;
+
+    // Like counts written by the current transaction of each thread.
+    private final ThreadLocal<Map<String, Long>> staged = ThreadLocal.withInitial(HashMap::new);
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        applicationConfig.getLikeCounter().setEnabled(true);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(Resource.class)
+            .getIdentifierTableDetails().getTableName()).thenReturn("`Resource`");
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(Interaction.class)
+            .getIdentifierTableDetails().getTableName()).thenReturn("`Interaction`");
+        service = new AsyncLikeService(
+            jdbcTemplate, entityManagerFactory, transactionManager, resourceRepo, interactionRepo, applicationConfig
+        );
+
+        table = new ConcurrentHashMap<>();
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(this::stage);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().doAnswer(invocation -> {
+            staged.get().forEach((row, delta) -> table.merge(row, delta, Long::sum));
+            staged.get().clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        lenient().doAnswer(invocation -> {
+            staged.get().clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+    }
+
+    /**
+     * Write a batch update to the current transaction.
+     *
+     * @param invocation The batch update invocation.
+     * @return The update counts.
+     */
+    private int[] stage(InvocationOnMock invocation) {
+        String sql = invocation.getArgument(0);
+        List<Object[]> batch = invocation.getArgument(1);
+        for (Object[] args : batch) {
+            staged.get().merge(sql + "#" + args[1], (Long) args[0], Long::sum);
+        }
+        return new int[batch.size()];
+    }
+
+    private long persisted(Counter counter, Integer id) {
+        String sql = counter == Counter.RESOURCE_LIKES
+            ? "update `Resource` set likes = coalesce(likes, 0) + ? where id = ?"
+            : "update `Interaction` set likes = coalesce(likes, 0) + ? where id = ?";
+        return table.getOrDefault(sql + "#" + id, 0L);
+    }
+
+    @Test
+    @DisplayName("Should aggregate deltas into one update per row")
+    void flush_WithManyDeltas_ShouldUpdateEachRowOnce() {
+        // Given.
+        for (int i = 0; i < 5; i++) {
+            service.add(Counter.RESOURCE_LIKES, 1, 1);
+        }
+        service.add(Counter.RESOURCE_LIKES, 1, -1);
+        service.add(Counter.RESOURCE_LIKES, 2, 1);
+        service.add(Counter.INTERACTION_LIKES, 1, 1);
+
+        // When.
+        int rows = service.flush();
+
+        // Then.
+        assertThat(rows).isEqualTo(3);
+        assertThat(persisted(Counter.RESOURCE_LIKES, 1)).isEqualTo(4);
+        assertThat(persisted(Counter.RESOURCE_LIKES, 2)).isEqualTo(1);
+        assertThat(persisted(Counter.INTERACTION_LIKES, 1)).isEqualTo(1);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(resourceRepo, interactionRepo);
+    }
+
+    @Test
+    @DisplayName("Should merge pending deltas into reads until flushed")
+    void getLikes_WithPendingDeltas_ShouldMergeThem() {
+        // Given.
+        service.add(Counter.RESOURCE_LIKES, 1, 1);
+        service.add(Counter.RESOURCE_LIKES, 1, 1);
+
+        // When & Then.
+        assertThat(service.getLikes(Counter.RESOURCE_LIKES, 1, 10)).isEqualTo(12);
+        assertThat(service.getLikes(Counter.INTERACTION_LIKES, 1, 10)).isEqualTo(10);
+
+        service.flush();
+        assertThat(service.getPending(Counter.RESOURCE_LIKES, 1)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retire idle rows on the next flush")
+    void flush_WithIdleRow_ShouldRetireIt() {
+        // Given.
+        service.add(Counter.RESOURCE_LIKES, 1, 1);
+        service.flush();
+        assertThat(service.getPendingRows()).isEqualTo(1);
+
+        // When.
+        int rows = service.flush();
+
+        // Then.
+        assertThat(rows).isZero();
+        assertThat(service.getPendingRows()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep deltas of a failed flush for the next one")
+    void flush_WhenUpdateFails_ShouldRetryDeltas() {
+        // Given.
+        service.add(Counter.RESOURCE_LIKES, 1, 1);
+        service.add(Counter.RESOURCE_LIKES, 1, 1);
+        doThrow(new DataAccessResourceFailureException("down"))
+            .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When.
+        int failed = service.flush();
+
+        // Then.
+        assertThat(failed).isZero();
+        assertThat(service.getPending(Counter.RESOURCE_LIKES, 1)).isEqualTo(2);
+
+        // Given.
+        reset(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[1]);
+
+        // When.
+        int rows = service.flush();
+
+        // Then.
+        assertThat(rows).isEqualTo(1);
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> batch) ->
+            batch.size() == 1 && batch.get(0)[0].equals(2L) && batch.get(0)[1].equals(1)));
+    }
+
+    @Test
+    @DisplayName("Should roll back a batch failing partway and apply its deltas once on retry")
+    void flush_WhenBatchFailsPartway_ShouldNotApplyDeltasTwice() {
+        // Given.
+        service.add(Counter.RESOURCE_LIKES, 1, 2);
+        service.add(Counter.RESOURCE_LIKES, 2, 3);
+        doAnswer(invocation -> {
+            // The first row is written before the batch fails.
+            List<Object[]> batch = invocation.getArgument(1);
+            staged.get().merge(invocation.getArgument(0) + "#" + batch.get(0)[1], (Long) batch.get(0)[0], Long::sum);
+            throw new DataAccessResourceFailureException("Connection lost");
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When.
+        int failed = service.flush();
+
+        // Then.
+        assertThat(failed).isZero();
+        assertThat(table).isEmpty();
+        verify(transactionManager).rollback(any());
+
+        // Given.
+        doAnswer(this::stage).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        // When.
+        int rows = service.flush();
+
+        // Then.
+        assertThat(rows).isEqualTo(2);
+        assertThat(persisted(Counter.RESOURCE_LIKES, 1)).isEqualTo(2);
+        assertThat(persisted(Counter.RESOURCE_LIKES, 2)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should apply deltas immediately when disabled")
+    void add_WhenDisabled_ShouldUpdateDirectly() {
+        // Given.
+        applicationConfig.getLikeCounter().setEnabled(false);
+
+        // When.
+        service.add(Counter.INTERACTION_LIKES, 7, -1);
+
+        // Then.
+        verify(interactionRepo).incrementLikes(7, -1);
+        verifyNoInteractions(jdbcTemplate, resourceRepo);
+        assertThat(service.getPendingRows()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should only accumulate deltas after the transaction commits")
+    void add_InTransaction_ShouldWaitForCommit() {
+        // Given.
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When.
+            service.add(Counter.RESOURCE_LIKES, 1, 1);
+
+            // Then.
+            assertThat(service.getPending(Counter.RESOURCE_LIKES, 1)).isZero();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertThat(service.getPending(Counter.RESOURCE_LIKES, 1)).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not lose likes under concurrent clicks and flushes")
+    void add_WithConcurrentClicksAndFlushes_ShouldNotLoseLikes() throws Exception {
+        // Given.
+        int threads = 16;
+        int clicks = 5000;
+        int rows = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean clicking = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (clicking.get()) {
+                service.flush();
+            }
+        });
+        flusher.start();
+
+        // When.
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < clicks; i++) {
+                    // Every third click of a thread is an unlike.
+                    int delta = i % 3 == 2 ? -1 : 1;
+                    service.add(Counter.RESOURCE_LIKES, (thread + i) % rows, delta);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        clicking.set(false);
+        flusher.join();
+        service.flush();
+
+        // Then.
+        long expected = 0;
+        for (int i = 0; i < clicks; i++) {
+            expected += i % 3 == 2 ? -1 : 1;
+        }
+        long total = 0;
+        for (int id = 0; id < rows; id++) {
+            total += persisted(Counter.RESOURCE_LIKES, id);
+            assertThat(service.getPending(Counter.RESOURCE_LIKES, id)).isZero();
+        }
+        assertThat(total).isEqualTo(expected * threads);
+    }
+}
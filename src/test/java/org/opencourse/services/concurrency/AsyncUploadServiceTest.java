@@ -0,0 +1,260 @@
+package org.opencourse.services.concurrency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.dto.request.ResourceUploadDto;
+import org.opencourse.models.Resource;
+import org.opencourse.models.Resource.ResourceFile;
+import org.opencourse.models.User;
+import org.opencourse.repositories.CourseRepo;
+import org.opencourse.services.ResourceManager;
+import org.opencourse.utils.typeinfo.ResourceType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AsyncUploadService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class AsyncUploadServiceTest {
+
+    private static final Short COURSE_ID = 1;
+
+    @Mock
+    private ResourceManager resourceManager;
+
+    @Mock
+    private CourseRepo courseRepo;
+
+    @TempDir
+    private Path directory;
+
+    private ApplicationConfig applicationConfig;
+    private AsyncUploadService asyncUploadService;
+    private User uploader;
+    private User other;
+    private ResourceUploadDto dto;
+    private MockMultipartFile file;
+    private ResourceFile resourceFile;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        ApplicationConfig.Storage.Upload upload = applicationConfig.getStorage().getUpload();
+        upload.setEnabled(true);
+        upload.setSpoolDirectory(directory.toString());
+        upload.setWorkers(1);
+        upload.setQueueCapacity(1);
+        asyncUploadService = new AsyncUploadService(resourceManager, courseRepo, applicationConfig);
+        asyncUploadService.start();
+
+        uploader = spy(new User("uploader", "uploader@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(uploader.getId()).thenReturn(1);
+        other = spy(new User("other", "other@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(other.getId()).thenReturn(2);
+
+        dto = new ResourceUploadDto("Slides", "Week 1", ResourceType.EXAM, Resource.ResourceFile.FileType.PDF, COURSE_ID);
+        file = new MockMultipartFile("file", "slides.pdf", "application/pdf", "slides content".getBytes());
+        resourceFile = new ResourceFile(ResourceFile.FileType.PDF, new BigDecimal("0.01"), "resources/1/slides.pdf");
+        lenient().when(resourceManager.storeResourceFile(eq(dto), any(MultipartFile.class))).thenReturn(resourceFile);
+        lenient().when(courseRepo.existsById(COURSE_ID)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncUploadService.stop();
+    }
+
+    private AsyncUploadService.Ticket await(AsyncUploadService.Ticket ticket) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!ticket.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return ticket;
+    }
+
+    private long spoolFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should create the resource in background from the spooled file")
+    void submit_WithValidUpload_ShouldSucceedInBackground() throws Exception {
+        // Given.
+        Resource resource = mock(Resource.class);
+        when(resource.getId()).thenReturn(42);
+        when(resourceManager.storeResourceFile(eq(dto), any(MultipartFile.class))).thenAnswer(invocation -> {
+            MultipartFile spooled = invocation.getArgument(1);
+            assertThat(spooled.getOriginalFilename()).isEqualTo("slides.pdf");
+            assertThat(spooled.getContentType()).isEqualTo("application/pdf");
+            assertThat(spooled.getSize()).isEqualTo(file.getSize());
+            assertThat(spooled.getBytes()).isEqualTo(file.getBytes());
+            return resourceFile;
+        });
+        when(resourceManager.createResource(dto, resourceFile, uploader)).thenReturn(resource);
+
+        // When.
+        AsyncUploadService.Ticket ticket = asyncUploadService.submit(dto, file, uploader);
+
+        // Then.
+        assertThat(ticket).isNotNull();
+        assertThat(await(ticket).getStatus()).isEqualTo(AsyncUploadService.Status.SUCCEEDED);
+        assertThat(ticket.getResourceId()).isEqualTo(42);
+        assertThat(ticket.getError()).isNull();
+        assertThat(spoolFiles()).isZero();
+        InOrder inOrder = inOrder(resourceManager);
+        inOrder.verify(resourceManager).storeResourceFile(eq(dto), any(MultipartFile.class));
+        inOrder.verify(resourceManager).createResource(dto, resourceFile, uploader);
+        verify(resourceManager, never()).rollbackResourceFile(any(), any());
+        verify(resourceManager, never()).addResource(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should delete the stored file when the resource cannot be created")
+    void submit_WhenCreateResourceFails_ShouldRollbackFile() throws Exception {
+        // Given.
+        RuntimeException error = new RuntimeException("Database error");
+        when(resourceManager.createResource(dto, resourceFile, uploader)).thenThrow(error);
+
+        // When.
+        AsyncUploadService.Ticket ticket = asyncUploadService.submit(dto, file, uploader);
+
+        // Then.
+        assertThat(await(ticket).getStatus()).isEqualTo(AsyncUploadService.Status.FAILED);
+        assertThat(ticket.getError()).isEqualTo("Database error");
+        verify(resourceManager).rollbackResourceFile(resourceFile, error);
+        assertThat(spoolFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should mark the ticket failed when the file cannot be stored")
+    void submit_WhenStoreFails_ShouldFailTicket() throws Exception {
+        // Given.
+        when(resourceManager.storeResourceFile(eq(dto), any(MultipartFile.class)))
+            .thenThrow(new RuntimeException("Failed to store file slides.pdf"));
+
+        // When.
+        AsyncUploadService.Ticket ticket = asyncUploadService.submit(dto, file, uploader);
+
+        // Then.
+        assertThat(await(ticket).getStatus()).isEqualTo(AsyncUploadService.Status.FAILED);
+        assertThat(ticket.getResourceId()).isNull();
+        assertThat(ticket.getError()).isEqualTo("Failed to store file slides.pdf");
+        assertThat(spoolFiles()).isZero();
+        verify(resourceManager, never()).createResource(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject an upload to an unknown course without spooling it")
+    void submit_WithUnknownCourse_ShouldThrow() throws Exception {
+        // Given.
+        when(courseRepo.existsById(COURSE_ID)).thenReturn(false);
+
+        // When & Then.
+        assertThatThrownBy(() -> asyncUploadService.submit(dto, file, uploader))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Course not found");
+        assertThat(spoolFiles()).isZero();
+        verifyNoInteractions(resourceManager);
+    }
+
+    @Test
+    @DisplayName("Should return null and drop the spooled file when the queue is full")
+    void submit_WhenQueueIsFull_ShouldReturnNull() throws Exception {
+        // Given.
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(resourceManager.storeResourceFile(eq(dto), any(MultipartFile.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return resourceFile;
+        });
+
+        // When.
+        AsyncUploadService.Ticket running = asyncUploadService.submit(dto, file, uploader);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        AsyncUploadService.Ticket queued = asyncUploadService.submit(dto, file, uploader);
+        AsyncUploadService.Ticket rejected = asyncUploadService.submit(dto, file, uploader);
+
+        // Then.
+        assertThat(running).isNotNull();
+        assertThat(queued).isNotNull();
+        assertThat(queued.getStatus()).isEqualTo(AsyncUploadService.Status.PENDING);
+        assertThat(rejected).isNull();
+        assertThat(asyncUploadService.getQueueDepth()).isEqualTo(1);
+        assertThat(spoolFiles()).isEqualTo(2);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should only show a ticket to its uploader")
+    void getTicket_WithOtherUser_ShouldReturnNull() throws Exception {
+        // Given.
+        when(resourceManager.createResource(dto, resourceFile, uploader)).thenReturn(mock(Resource.class));
+        AsyncUploadService.Ticket ticket = asyncUploadService.submit(dto, file, uploader);
+
+        // When & Then.
+        assertThat(asyncUploadService.getTicket(ticket.getId(), uploader)).isSameAs(ticket);
+        assertThat(asyncUploadService.getTicket(ticket.getId(), other)).isNull();
+        assertThat(asyncUploadService.getTicket("unknown", uploader)).isNull();
+        await(ticket);
+    }
+
+    @Test
+    @DisplayName("Should expire finished tickets after the retention")
+    void expireTickets_ShouldRemoveOnlyFinishedExpiredTickets() throws Exception {
+        // Given.
+        when(resourceManager.createResource(dto, resourceFile, uploader)).thenReturn(mock(Resource.class));
+        AsyncUploadService.Ticket ticket = await(asyncUploadService.submit(dto, file, uploader));
+
+        // When.
+        asyncUploadService.expireTickets();
+        AsyncUploadService.Ticket kept = asyncUploadService.getTicket(ticket.getId(), uploader);
+        applicationConfig.getStorage().getUpload().setTicketRetention(Duration.ofMillis(-1));
+        asyncUploadService.expireTickets();
+
+        // Then.
+        assertThat(kept).isSameAs(ticket);
+        assertThat(asyncUploadService.getTicket(ticket.getId(), uploader)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should refuse uploads when asynchronous upload is disabled")
+    void submit_WhenDisabled_ShouldThrow() {
+        // Given.
+        applicationConfig.getStorage().getUpload().setEnabled(false);
+        AsyncUploadService disabled = new AsyncUploadService(resourceManager, courseRepo, applicationConfig);
+        disabled.start();
+
+        // When & Then.
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThatThrownBy(() -> disabled.submit(dto, file, uploader))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,170 @@
+package org.opencourse.services.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opencourse.configs.ApplicationConfig;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BandwidthLimiter}.
+ *
+ * @author !EEExp3rt
+ */
+class BandwidthLimiterTest {
+
+    private ApplicationConfig applicationConfig;
+    private ApplicationConfig.Storage.Download.Bandwidth config;
+    private AtomicLong clock;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        config = applicationConfig.getStorage().getDownload().getBandwidth();
+        config.setEnabled(true);
+        config.setUserRate(DataSize.ofBytes(1000));
+        config.setGlobalRate(DataSize.ofBytes(0));
+        config.setBurst(DataSize.ofBytes(100));
+        config.setIdleExpiry(Duration.ofMinutes(5));
+        clock = new AtomicLong();
+        registry = new SimpleMeterRegistry();
+    }
+
+    private BandwidthLimiter limiter() {
+        BandwidthLimiter limiter = new BandwidthLimiter(applicationConfig, clock::get);
+        limiter.bindTo(registry);
+        return limiter;
+    }
+
+    private static int download(BandwidthLimiter limiter, Integer userId, int size) throws IOException {
+        try (InputStream file = limiter.limit(new ByteArrayInputStream(new byte[size]), userId)) {
+            return file.readAllBytes().length;
+        }
+    }
+
+    private double delays() {
+        return registry.get("opencourse.bandwidth.delays").functionCounter().count();
+    }
+
+    private double delayTime() {
+        return registry.get("opencourse.bandwidth.delay.time").functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("Should return the same stream when shaping is disabled or nothing is limited")
+    void limit_WhenDisabledOrUnlimited_ShouldReturnSameStream() {
+        // Given.
+        InputStream file = new ByteArrayInputStream(new byte[10]);
+        config.setEnabled(false);
+        BandwidthLimiter disabled = limiter();
+        config.setEnabled(true);
+        config.setUserRate(DataSize.ofBytes(0));
+        BandwidthLimiter unlimited = new BandwidthLimiter(applicationConfig, clock::get);
+
+        // When & Then.
+        assertThat(disabled.limit(file, 1)).isSameAs(file);
+        assertThat(unlimited.limit(file, 1)).isSameAs(file);
+        assertThat(unlimited.limit(null, 1)).isNull();
+        assertThat(unlimited.getUserCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should send a burst without waiting")
+    void limit_WithinBurst_ShouldNotWait() throws IOException {
+        // Given.
+        BandwidthLimiter limiter = limiter();
+
+        // When.
+        int read = download(limiter, 1, 100);
+
+        // Then.
+        assertThat(read).isEqualTo(100);
+        assertThat(delays()).isZero();
+        assertThat(registry.get("opencourse.bandwidth.bytes").functionCounter().count()).isEqualTo(100.0);
+        assertThat(limiter.getUserCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should wait for the bytes read beyond the burst at the user rate")
+    void limit_BeyondBurst_ShouldWaitAtUserRate() throws IOException {
+        // Given.
+        BandwidthLimiter limiter = limiter();
+
+        // When.
+        long start = System.nanoTime();
+        int read = download(limiter, 1, 150);
+        long elapsed = System.nanoTime() - start;
+
+        // Then.
+        assertThat(read).isEqualTo(150);
+        assertThat(delays()).isEqualTo(1.0);
+        assertThat(delayTime()).isEqualTo(0.05);
+        assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(limiter.getThrottledCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give every user a bucket of their own")
+    void limit_WithDifferentUsers_ShouldNotShareUserRate() throws IOException {
+        // Given.
+        BandwidthLimiter limiter = limiter();
+
+        // When.
+        download(limiter, 1, 100);
+        download(limiter, 2, 100);
+
+        // Then.
+        assertThat(delays()).isZero();
+        assertThat(limiter.getUserCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should share the global rate among all users")
+    void limit_WithGlobalRate_ShouldShareItAmongUsers() throws IOException {
+        // Given.
+        config.setUserRate(DataSize.ofBytes(0));
+        config.setGlobalRate(DataSize.ofBytes(1000));
+        BandwidthLimiter limiter = limiter();
+
+        // When.
+        download(limiter, 1, 100);
+        download(limiter, 2, 50);
+
+        // Then.
+        assertThat(delays()).isEqualTo(1.0);
+        assertThat(delayTime()).isEqualTo(0.05);
+        assertThat(limiter.getUserCount()).isZero();
+        assertThat(registry.get("opencourse.bandwidth.global.available").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should expire only the buckets idle for the idle expiry")
+    void expireIdleBuckets_ShouldRemoveIdleBuckets() throws IOException {
+        // Given.
+        BandwidthLimiter limiter = limiter();
+        download(limiter, 1, 100);
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        download(limiter, 2, 100);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // When.
+        limiter.expireIdleBuckets();
+
+        // Then.
+        assertThat(limiter.getUserCount()).isEqualTo(1);
+        assertThat(limiter.limit(new ByteArrayInputStream(new byte[1]), 2)).isNotNull();
+        assertThat(limiter.getUserCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,78 @@
+package org.opencourse.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TokenBucket}.
+ *
+ * @author !EEExp3rt
+ */
+class TokenBucketTest {
+
+    private AtomicLong clock;
+    private TokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        // 1000 tokens per second, so a token takes a millisecond.
+        bucket = new TokenBucket(1000, 100, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should take tokens within the burst right away")
+    void acquire_WithinBurst_ShouldNotWait() {
+        // When & Then.
+        assertThat(bucket.available()).isEqualTo(100);
+        assertThat(bucket.acquire(60)).isZero();
+        assertThat(bucket.acquire(40)).isZero();
+        assertThat(bucket.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should wait for tokens beyond the burst")
+    void acquire_BeyondBurst_ShouldReturnWait() {
+        // When & Then.
+        assertThat(bucket.acquire(100)).isZero();
+        assertThat(bucket.acquire(10)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(bucket.acquire(10)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    @DisplayName("Should refill over time up to the burst")
+    void acquire_AfterIdle_ShouldRefillUpToBurst() {
+        // Given.
+        bucket.acquire(100);
+
+        // When.
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(30));
+
+        // Then.
+        assertThat(bucket.available()).isEqualTo(30);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(bucket.available()).isEqualTo(100);
+        assertThat(bucket.acquire(100)).isZero();
+        assertThat(bucket.acquire(1)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    @DisplayName("Should be idle only once full for the idle time")
+    void isIdle_ShouldCountFromWhenFull() {
+        // Given.
+        bucket.acquire(50);
+
+        // When & Then.
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(bucket.isIdle(1)).isFalse();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(bucket.isIdle(TimeUnit.MILLISECONDS.toNanos(10))).isTrue();
+        assertThat(bucket.isIdle(TimeUnit.MILLISECONDS.toNanos(11))).isFalse();
+    }
+}
@@ -0,0 +1,268 @@
+package org.opencourse.services.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.History;
+import org.opencourse.models.HistorySegment;
+import org.opencourse.models.User;
+import org.opencourse.repositories.HistoryRepo;
+import org.opencourse.repositories.HistorySegmentRepo;
+import org.opencourse.repositories.UserRepo;
+import org.opencourse.services.storage.FileStorageService;
+import org.opencourse.utils.typeinfo.ActionType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link HistoryArchiveService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class HistoryArchiveServiceTest {
+
+    @Mock
+    private HistoryRepo historyRepo;
+
+    @Mock
+    private HistorySegmentRepo historySegmentRepo;
+
+    @Mock
+    private UserRepo userRepo;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HistoryArchiveService historyArchiveService;
+
+    // Test data.
+    private final Map<String, byte[]> objects = new HashMap<>();
+    private final List<HistorySegment> segments = new ArrayList<>();
+    private final LocalDate day = LocalDate.of(2025, 1, 10);
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.getHistory().getArchive().setHorizon(Duration.ofDays(30));
+        applicationConfig.getHistory().getArchive().setBatchSize(2);
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        // In-memory object storage.
+        lenient().when(fileStorageService.storeObject(anyString(), any(byte[].class), anyString()))
+            .thenAnswer(invocation -> {
+                objects.put(invocation.getArgument(0), invocation.getArgument(1));
+                return true;
+            });
+        lenient().when(fileStorageService.getObject(anyString())).thenAnswer(invocation ->
+            new ByteArrayInputStream(objects.get(invocation.<String>getArgument(0))));
+        lenient().when(fileStorageService.getObject(anyString(), anyLong(), anyLong())).thenAnswer(invocation ->
+            new ByteArrayInputStream(
+                objects.get(invocation.<String>getArgument(0)),
+                invocation.<Long>getArgument(1).intValue(),
+                invocation.<Long>getArgument(2).intValue()
+            ));
+
+        // In-memory segment catalog.
+        lenient().when(historySegmentRepo.save(any(HistorySegment.class))).thenAnswer(invocation -> {
+            HistorySegment segment = spy(invocation.<HistorySegment>getArgument(0));
+            lenient().when(segment.getId()).thenReturn((long) segments.size() + 1);
+            segments.add(segment);
+            return segment;
+        });
+        lenient().when(historySegmentRepo.findByUserId(anyInt())).thenAnswer(invocation ->
+            segments.stream()
+                .filter(segment -> segment.getUserIds().contains(invocation.<Integer>getArgument(0)))
+                .sorted((a, b) -> b.getMaxTimestamp().compareTo(a.getMaxTimestamp()))
+                .toList());
+        lenient().when(historySegmentRepo.findByUserIdBefore(anyInt(), any())).thenAnswer(invocation ->
+            segments.stream()
+                .filter(segment -> segment.getUserIds().contains(invocation.<Integer>getArgument(0)))
+                .filter(segment -> !segment.getMinTimestamp().isAfter(invocation.getArgument(1)))
+                .sorted((a, b) -> b.getMaxTimestamp().compareTo(a.getMaxTimestamp()))
+                .toList());
+
+        alice = spy(new User("alice", "alice@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(alice.getId()).thenReturn(1);
+        bob = spy(new User("bob", "bob@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(bob.getId()).thenReturn(2);
+        lenient().when(userRepo.getReferenceById(1)).thenReturn(alice);
+
+        historyArchiveService = new HistoryArchiveService(
+            historyRepo, historySegmentRepo, userRepo, fileStorageService, transactionManager, applicationConfig);
+    }
+
+    private History history(long id, User user, ActionType actionType, Integer objectId, int hour) {
+        return new History(id, user, actionType, objectId, day.atTime(hour, 0));
+    }
+
+    private void stubTestDay() {
+        List<History> rows = Arrays.asList(
+            history(1L, alice, ActionType.VIEW_RESOURCE, 100, 8),
+            history(2L, bob, ActionType.VIEW_RESOURCE, 100, 9),
+            history(3L, alice, ActionType.LIKE_RESOURCE, 100, 10),
+            history(4L, alice, ActionType.DELETE_USER, null, 11)
+        );
+        when(historyRepo.findByTimestampRange(eq(day.atStartOfDay()), eq(day.plusDays(1).atStartOfDay()), anyLong(), any()))
+            .thenAnswer(invocation -> {
+                long afterId = invocation.getArgument(2);
+                int pageSize = invocation.<Pageable>getArgument(3).getPageSize();
+                return rows.stream().filter(h -> h.getId() > afterId).limit(pageSize).toList();
+            });
+        when(historySegmentRepo.countByPartitionDay(day)).thenReturn(0L);
+    }
+
+    private void archiveTestDay() {
+        stubTestDay();
+        assertThat(historyArchiveService.archiveDay(day)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should write segment with index, catalog it and delete archived rows")
+    void archiveDay_WithHistories_ShouldWriteSegmentAndDeleteRows() {
+        // When.
+        archiveTestDay();
+
+        // Then.
+        assertThat(objects).containsOnlyKeys("history/segments/2025-01-10-0.seg", "history/segments/2025-01-10-0.idx");
+        assertThat(segments).hasSize(1);
+        HistorySegment segment = segments.get(0);
+        assertThat(segment.getRowCount()).isEqualTo(4);
+        assertThat(segment.getMinTimestamp()).isEqualTo(day.atTime(8, 0));
+        assertThat(segment.getMaxTimestamp()).isEqualTo(day.atTime(11, 0));
+        assertThat(segment.getUserIds()).containsExactlyInAnyOrder(1, 2);
+        verify(historyRepo).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(historyRepo).deleteAllByIdInBatch(List.of(3L, 4L));
+    }
+
+    @Test
+    @DisplayName("Should leave the rest of the day for the next segment once a segment is full")
+    void archiveDay_WithMoreRowsThanSegment_ShouldStopAtMaxSegmentRows() {
+        // Given.
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.getHistory().getArchive().setBatchSize(2);
+        applicationConfig.getHistory().getArchive().setMaxSegmentRows(3);
+        historyArchiveService = new HistoryArchiveService(
+            historyRepo, historySegmentRepo, userRepo, fileStorageService, transactionManager, applicationConfig);
+        stubTestDay();
+
+        // When.
+        int archived = historyArchiveService.archiveDay(day);
+
+        // Then.
+        assertThat(archived).isEqualTo(3);
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0).getRowCount()).isEqualTo(3);
+        verify(historyRepo).findByTimestampRange(any(), any(), eq(2L), eq(PageRequest.of(0, 1)));
+        verify(historyRepo).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(historyRepo).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("Should read back only the archived records of the requested user")
+    void getTimeline_AfterArchive_ShouldReturnUserRecordsNewestFirst() {
+        // Given.
+        archiveTestDay();
+
+        // When.
+        List<History> histories = historyArchiveService.getTimeline(1, null, null, 10);
+
+        // Then.
+        assertThat(histories).extracting(History::getId).containsExactly(4L, 3L, 1L);
+        assertThat(histories.get(0).getObjectId()).isNull();
+        assertThat(histories.get(1).getActionType()).isEqualTo(ActionType.LIKE_RESOURCE);
+        assertThat(histories.get(1).getTimestamp()).isEqualTo(day.atTime(10, 0));
+        assertThat(histories).allMatch(h -> h.getUser() == alice);
+    }
+
+    @Test
+    @DisplayName("Should not read any segment for a user without archived records")
+    void getTimeline_WithUserWithoutArchivedRecords_ShouldSkipSegments() {
+        // Given.
+        archiveTestDay();
+
+        // When.
+        List<History> histories = historyArchiveService.getTimeline(3, null, null, 10);
+
+        // Then.
+        assertThat(histories).isEmpty();
+        verify(fileStorageService, never()).getObject(anyString());
+        verify(fileStorageService, never()).getObject(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should apply action type filter, cursor and limit to archived records")
+    void getTimeline_WithFilterAndCursor_ShouldReturnMatchingRecords() {
+        // Given.
+        archiveTestDay();
+
+        // When.
+        List<History> views = historyArchiveService.getTimeline(1, ActionType.VIEW_RESOURCE, null, 10);
+        List<History> page = historyArchiveService.getTimeline(
+            1, null, new HistoryCursor(day.atTime(11, 0), 4L), 1);
+
+        // Then.
+        assertThat(views).extracting(History::getId).containsExactly(1L);
+        assertThat(page).extracting(History::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should archive whole days older than the horizon only")
+    void archive_WithOldAndRecentHistories_ShouldStopAtHorizon() {
+        // Given.
+        LocalDateTime now = day.plusDays(31).atTime(12, 0);
+        when(historyRepo.findMinTimestamp()).thenReturn(day.atTime(8, 0), now.minusDays(30));
+        when(historyRepo.findByTimestampRange(any(), any(), anyLong(), any()))
+            .thenReturn(List.of(history(1L, alice, ActionType.VIEW_RESOURCE, 100, 8)));
+
+        // When.
+        long archived = historyArchiveService.archive(now);
+
+        // Then.
+        assertThat(archived).isEqualTo(1);
+        verify(historyRepo, times(1)).findByTimestampRange(any(), any(), anyLong(), any());
+        verify(historyRepo).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Should keep hot rows when segment upload fails")
+    void archiveDay_WithStorageFailure_ShouldThrowAndKeepRows() {
+        // Given.
+        when(historyRepo.findByTimestampRange(any(), any(), anyLong(), any()))
+            .thenReturn(List.of(history(1L, alice, ActionType.VIEW_RESOURCE, 100, 8)));
+        when(fileStorageService.storeObject(anyString(), any(byte[].class), anyString())).thenReturn(false);
+
+        // When & Then.
+        assertThatThrownBy(() -> historyArchiveService.archiveDay(day))
+            .isInstanceOf(RuntimeException.class);
+        verify(historySegmentRepo, never()).save(any());
+        verify(historyRepo, never()).deleteAllByIdInBatch(any());
+    }
+}
@@ -0,0 +1,135 @@
+package org.opencourse.services.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.models.*;
+import org.opencourse.repositories.*;
+import org.opencourse.utils.typeinfo.ActionType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link HistoryObjectService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class HistoryObjectServiceTest {
+
+    @Mock
+    private CourseRepo courseRepo;
+
+    @Mock
+    private DepartmentRepo departmentRepo;
+
+    @Mock
+    private InteractionRepo interactionRepo;
+
+    @Mock
+    private ResourceRepo resourceRepo;
+
+    @Mock
+    private UserRepo userRepo;
+
+    @InjectMocks
+    private HistoryObjectService historyObjectService;
+
+    // Test data.
+    private User testUser;
+    private Course testCourse;
+    private Resource testResource1;
+    private Resource testResource2;
+
+    @BeforeEach
+    void setUp() {
+        testUser = mock(User.class);
+        testCourse = mock(Course.class);
+        lenient().when(testCourse.getId()).thenReturn((short) 7);
+        testResource1 = mock(Resource.class);
+        lenient().when(testResource1.getId()).thenReturn(101);
+        testResource2 = mock(Resource.class);
+        lenient().when(testResource2.getId()).thenReturn(102);
+    }
+
+    private History history(long id, ActionType actionType, Integer objectId) {
+        History history = spy(new History(testUser, actionType, objectId));
+        lenient().when(history.getId()).thenReturn(id);
+        return history;
+    }
+
+    @Test
+    @DisplayName("Should load objects with one query per object type")
+    void getHistoryObjects_WithMixedTypes_ShouldQueryOncePerType() {
+        // Given.
+        History view1 = history(1L, ActionType.VIEW_RESOURCE, 101);
+        History like1 = history(2L, ActionType.LIKE_RESOURCE, 101);
+        History view2 = history(3L, ActionType.VIEW_RESOURCE, 102);
+        History rate = history(4L, ActionType.RATE_COURSE, 7);
+
+        when(resourceRepo.findAllById(anyIterable())).thenReturn(List.of(testResource1, testResource2));
+        when(courseRepo.findAllById(anyIterable())).thenReturn(List.of(testCourse));
+
+        // When.
+        Map<Long, Model<? extends Number>> result =
+            historyObjectService.getHistoryObjects(Arrays.asList(view1, like1, view2, rate));
+
+        // Then.
+        assertThat(result)
+            .containsEntry(1L, testResource1)
+            .containsEntry(2L, testResource1)
+            .containsEntry(3L, testResource2)
+            .containsEntry(4L, testCourse)
+            .hasSize(4);
+        verify(resourceRepo, times(1)).findAllById(argThat(ids -> {
+            assertThat(ids).containsExactlyInAnyOrder(101, 102);
+            return true;
+        }));
+        verify(courseRepo, times(1)).findAllById(argThat(ids -> {
+            assertThat(ids).containsExactly((short) 7);
+            return true;
+        }));
+        verifyNoInteractions(departmentRepo, interactionRepo, userRepo);
+    }
+
+    @Test
+    @DisplayName("Should skip histories without object ID and deleted objects")
+    void getHistoryObjects_WithMissingObjects_ShouldSkipThem() {
+        // Given.
+        History noObject = history(1L, ActionType.DELETE_USER, null);
+        History existing = history(2L, ActionType.VIEW_RESOURCE, 101);
+        History deleted = history(3L, ActionType.VIEW_RESOURCE, 999);
+
+        when(resourceRepo.findAllById(anyIterable())).thenReturn(List.of(testResource1));
+
+        // When.
+        Map<Long, Model<? extends Number>> result =
+            historyObjectService.getHistoryObjects(Arrays.asList(noObject, existing, deleted));
+
+        // Then.
+        assertThat(result).containsOnlyKeys(2L);
+        assertThat(result.get(2L)).isSameAs(testResource1);
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    @DisplayName("Should return empty map without queries for empty input")
+    void getHistoryObjects_WithEmptyList_ShouldNotQuery() {
+        // When.
+        Map<Long, Model<? extends Number>> result = historyObjectService.getHistoryObjects(List.of());
+
+        // Then.
+        assertThat(result).isEmpty();
+        verifyNoInteractions(courseRepo, departmentRepo, interactionRepo, resourceRepo, userRepo);
+    }
+}
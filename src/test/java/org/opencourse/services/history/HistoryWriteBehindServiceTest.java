@@ -0,0 +1,222 @@
+package org.opencourse.services.history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.History;
+import org.opencourse.models.User;
+import org.opencourse.utils.typeinfo.ActionType;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link HistoryWriteBehindService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class HistoryWriteBehindServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactoryImplementor sessionFactory;
+
+    private ApplicationConfig applicationConfig;
+    private HistoryWriteBehindService service;
+    private User testUser;
+    private AtomicInteger written;
+
+    // Size of every batch written.
+    private List<Integer> batches;
+
+    // Holds the first batch write until released.
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        ApplicationConfig.History.WriteBehind config = applicationConfig.getHistory().getWriteBehind();
+        config.setEnabled(true);
+        config.setQueueCapacity(16);
+        config.setBatchSize(8);
+        config.setFlushInterval(Duration.ofMillis(20));
+        config.setOfferTimeout(Duration.ofMillis(10));
+
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(History.class)
+            .getIdentifierTableDetails().getTableName()).thenReturn("`History`");
+
+        testUser = spy(new User("testUser", "test@example.com", "hashedPassword", User.UserRole.USER));
+        lenient().when(testUser.getId()).thenReturn(1);
+
+        written = new AtomicInteger();
+        batches = new CopyOnWriteArrayList<>();
+        release = new CountDownLatch(0);
+        String insertSql = "insert into `History` (user_id, action_type, object_id, timestamp) values (?, ?, ?, ?)";
+        lenient().when(jdbcTemplate.batchUpdate(eq(insertSql), anyCollection(), anyInt(), any()))
+            .thenAnswer(invocation -> {
+                Collection<?> batch = invocation.getArgument(1);
+                if (batches.isEmpty()) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                batches.add(batch.size());
+                written.addAndGet(batch.size());
+                return new int[0][0];
+            });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write all submitted histories in batches and drain on stop")
+    void submit_WithManyHistories_ShouldWriteAllInBatches() {
+        // Given.
+        applicationConfig.getHistory().getWriteBehind().setQueueCapacity(128);
+        // The writer is held in its first write until everything is queued.
+        release = new CountDownLatch(1);
+        service = new HistoryWriteBehindService(jdbcTemplate, entityManagerFactory, applicationConfig);
+        service.start();
+
+        // When.
+        for (int i = 0; i < 100; i++) {
+            service.submit(new History(testUser, ActionType.VIEW_RESOURCE, i));
+        }
+        release.countDown();
+        service.stop();
+
+        // Then.
+        assertThat(written.get()).isEqualTo(100);
+        assertThat(service.getQueueDepth()).isZero();
+        assertThat(service.getRejectedCount()).isZero();
+        // The first write takes what was queued when the writer woke up, the rest are full batches.
+        assertThat(batches).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(8));
+        assertThat(batches.subList(1, batches.size() - 1)).allSatisfy(size -> assertThat(size).isEqualTo(8));
+        assertThat(batches.size()).isLessThanOrEqualTo(1 + (100 - 1 + 7) / 8);
+    }
+
+    @Test
+    @DisplayName("Should write on caller thread when writer is not running")
+    void submit_WhenWriterNotRunning_ShouldWriteSynchronously() {
+        // Given.
+        service = new HistoryWriteBehindService(jdbcTemplate, entityManagerFactory, applicationConfig);
+
+        // When.
+        service.submit(new History(testUser, ActionType.CREATE_USER));
+
+        // Then.
+        assertThat(written.get()).isEqualTo(1);
+        assertThat(service.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write histories in one batch on the caller thread and report failures")
+    void writeBatch_WithHistories_ShouldWriteOneBatch() {
+        // Given.
+        applicationConfig.getHistory().getWriteBehind().setEnabled(false);
+        service = new HistoryWriteBehindService(jdbcTemplate, entityManagerFactory, applicationConfig);
+
+        // When.
+        service.writeBatch(List.of(
+            new History(testUser, ActionType.VIEW_RESOURCE, 1),
+            new History(testUser, ActionType.VIEW_RESOURCE, 2)
+        ));
+
+        // Then.
+        assertThat(batches).containsExactly(2);
+        assertThat(service.getRejectedCount()).isZero();
+        doThrow(new DataAccessResourceFailureException("Database unavailable"))
+            .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertThatThrownBy(() -> service.writeBatch(List.of(new History(testUser, ActionType.VIEW_RESOURCE, 3))))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Should write histories submitted together in one batch when writer is not running")
+    void submitAll_WhenWriterNotRunning_ShouldWriteOneBatch() {
+        // Given.
+        service = new HistoryWriteBehindService(jdbcTemplate, entityManagerFactory, applicationConfig);
+
+        // When.
+        service.submitAll(List.of(
+            new History(testUser, ActionType.VIEW_RESOURCE, 1),
+            new History(testUser, ActionType.VIEW_RESOURCE, 2),
+            new History(testUser, ActionType.VIEW_RESOURCE, 3)
+        ));
+
+        // Then.
+        assertThat(written.get()).isEqualTo(3);
+        assertThat(service.getRejectedCount()).isEqualTo(3);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertThat(batches).containsExactly(3);
+    }
+
+    @Test
+    @DisplayName("Should queue histories submitted together for the writer")
+    void submitAll_WithWriterRunning_ShouldWriteAll() {
+        // Given.
+        service = new HistoryWriteBehindService(jdbcTemplate, entityManagerFactory, applicationConfig);
+        service.start();
+
+        // When.
+        service.submitAll(List.of(
+            new History(testUser, ActionType.VIEW_RESOURCE, 1),
+            new History(testUser, ActionType.VIEW_RESOURCE, 2)
+        ));
+        service.stop();
+
+        // Then.
+        assertThat(written.get()).isEqualTo(2);
+        assertThat(service.getRejectedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not start writer when write-behind is disabled")
+    void start_WhenDisabled_ShouldNotBeEnabled() {
+        // Given.
+        applicationConfig.getHistory().getWriteBehind().setEnabled(false);
+        service = new HistoryWriteBehindService(jdbcTemplate, entityManagerFactory, applicationConfig);
+
+        // When.
+        service.start();
+
+        // Then.
+        assertThat(service.isEnabled()).isFalse();
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
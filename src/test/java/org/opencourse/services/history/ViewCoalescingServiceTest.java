@@ -0,0 +1,266 @@
+package org.opencourse.services.history;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opencourse.configs.ApplicationConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ViewCoalescingService}.
+ *
+ * @author !EEExp3rt
+ */
+class ViewCoalescingServiceTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private ApplicationConfig applicationConfig;
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        ApplicationConfig.History.ViewCoalescing config = applicationConfig.getHistory().getViewCoalescing();
+        config.setWindow(Duration.ofSeconds(30));
+        config.setMaxEntries(4);
+        now = new AtomicLong(1000 * SECOND);
+    }
+
+    private ViewCoalescingService newService() {
+        return new ViewCoalescingService(applicationConfig, now::get);
+    }
+
+    @Test
+    @DisplayName("Should count the first view and suppress repeats inside the window")
+    void tryCount_WithRepeatedViews_ShouldSuppressInsideWindow() {
+        // Given.
+        ViewCoalescingService service = newService();
+
+        // When.
+        boolean first = service.tryCount(1, 100);
+        now.addAndGet(10 * SECOND);
+        boolean second = service.tryCount(1, 100);
+        now.addAndGet(10 * SECOND);
+        boolean third = service.tryCount(1, 100);
+
+        // Then.
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(third).isFalse();
+        assertThat(service.getCountedCount()).isEqualTo(1);
+        assertThat(service.getSuppressedCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should count a view again once the window has expired")
+    void tryCount_AfterWindowExpired_ShouldCountAgain() {
+        // Given.
+        ViewCoalescingService service = newService();
+        service.tryCount(1, 100);
+
+        // When.
+        now.addAndGet(30 * SECOND);
+        boolean result = service.tryCount(1, 100);
+
+        // Then.
+        assertThat(result).isTrue();
+        assertThat(service.getCountedCount()).isEqualTo(2);
+        assertThat(service.getSuppressedCount()).isZero();
+        assertThat(service.getWindowCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep windows of different users and resources apart")
+    void tryCount_WithDifferentKeys_ShouldCountEach() {
+        // Given.
+        ViewCoalescingService service = newService();
+
+        // When & Then.
+        assertThat(service.tryCount(1, 100)).isTrue();
+        assertThat(service.tryCount(2, 100)).isTrue();
+        assertThat(service.tryCount(1, 101)).isTrue();
+        assertThat(service.tryCount(100, 1)).isTrue();
+        assertThat(service.getWindowCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should count views without a window while the map is full of open windows")
+    void tryCount_WhenFull_ShouldCountWithoutWindow() {
+        // Given.
+        ViewCoalescingService service = newService();
+        for (int i = 1; i <= 5; i++) {
+            service.tryCount(1, i);
+        }
+
+        // When & Then.
+        assertThat(service.getWindowCount()).isEqualTo(4);
+        assertThat(service.tryCount(1, 5)).isTrue();
+        assertThat(service.tryCount(1, 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should sweep expired windows once the map is full")
+    void tryCount_WhenFullOfExpiredWindows_ShouldEvictExpired() {
+        // Given.
+        ViewCoalescingService service = newService();
+        for (int i = 1; i <= 4; i++) {
+            service.tryCount(1, i);
+        }
+        now.addAndGet(30 * SECOND);
+
+        // When.
+        boolean result = service.tryCount(1, 5);
+
+        // Then.
+        assertThat(result).isTrue();
+        assertThat(service.getWindowCount()).isEqualTo(1);
+        assertThat(service.tryCount(1, 5)).isFalse();
+    }
+
+    /**
+     * Check a view in its own transaction.
+     *
+     * @param service The service.
+     * @param status  The completion status of the transaction.
+     * @return True if the view is counted.
+     */
+    private boolean tryCountInTransaction(ViewCoalescingService service, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            boolean count = service.tryCount(1, 100);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(status);
+            }
+            return count;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reserve the window when a view is checked inside a transaction")
+    void tryCount_InTransaction_ShouldReserveWindowBeforeCommit() {
+        // Given.
+        ViewCoalescingService service = newService();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When.
+            boolean first = service.tryCount(1, 100);
+
+            // Then.
+            assertThat(first).isTrue();
+            assertThat(service.getWindowCount()).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(tryCountInTransaction(service, TransactionSynchronization.STATUS_COMMITTED)).isFalse();
+        assertThat(service.getWindowCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release the window of a rolled back view")
+    void tryCount_InRolledBackTransaction_ShouldCountRetry() {
+        // Given.
+        ViewCoalescingService service = newService();
+        tryCountInTransaction(service, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // When.
+        boolean retry = tryCountInTransaction(service, TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then.
+        assertThat(retry).isTrue();
+        assertThat(service.getCountedCount()).isEqualTo(2);
+        assertThat(service.getWindowCount()).isEqualTo(1);
+        assertThat(service.tryCount(1, 100)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count concurrent first views of the same key in their own transactions once")
+    void tryCount_WithConcurrentViews_ShouldCountOnce() throws Exception {
+        // Given.
+        ViewCoalescingService service = newService();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch checked = new CountDownLatch(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // When.
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    TransactionSynchronizationManager.initSynchronization();
+                    try {
+                        boolean count = service.tryCount(1, 100);
+                        // Every view is checked before any transaction commits.
+                        checked.countDown();
+                        checked.await();
+                        return count;
+                    } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    }
+                }));
+            }
+            start.countDown();
+            int counted = 0;
+            for (Future<Boolean> result : results) {
+                counted += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            // Then.
+            assertThat(counted).isEqualTo(1);
+            assertThat(service.getSuppressedCount()).isEqualTo(threads - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count every view when the window is zero")
+    void tryCount_WithZeroWindow_ShouldNeverSuppress() {
+        // Given.
+        applicationConfig.getHistory().getViewCoalescing().setWindow(Duration.ZERO);
+        ViewCoalescingService service = newService();
+
+        // When & Then.
+        assertThat(service.tryCount(1, 100)).isTrue();
+        assertThat(service.tryCount(1, 100)).isTrue();
+        assertThat(service.getSuppressedCount()).isZero();
+        assertThat(service.getWindowCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should expose counted and suppressed views as metrics")
+    void bindTo_ShouldRegisterMeters() {
+        // Given.
+        ViewCoalescingService service = newService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+
+        // When.
+        service.tryCount(1, 100);
+        service.tryCount(1, 100);
+
+        // Then.
+        assertThat(registry.get("opencourse.history.view.counted").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("opencourse.history.view.suppressed").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("opencourse.history.view.windows").gauge().value()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,281 @@
+package org.opencourse.services.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.OutboxEvent;
+import org.opencourse.repositories.OutboxEventRepo;
+import org.opencourse.services.storage.FileStorageService;
+import org.opencourse.services.storage.StoredObject;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link OutboxService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final String PATH = "resources/1/a.pdf";
+
+    @Mock
+    private OutboxEventRepo outboxEventRepo;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ApplicationConfig.Storage.Outbox config;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        config = applicationConfig.getStorage().getOutbox();
+        config.setMaxAttempts(3);
+        config.setInitialBackoff(Duration.ofSeconds(30));
+        config.setMaxBackoff(Duration.ofMinutes(10));
+        outboxService = new OutboxService(outboxEventRepo, fileStorageService, transactionManager, applicationConfig);
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(outboxEventRepo.claim(anyLong(), anyInt(), any())).thenReturn(1);
+    }
+
+    private OutboxEvent event(long id, String path, int attempts) {
+        OutboxEvent event = spy(new OutboxEvent(OutboxEvent.Type.DELETE_FILE, path));
+        lenient().when(event.getId()).thenReturn(id);
+        lenient().when(event.getAttempts()).thenReturn(attempts);
+        when(outboxEventRepo.findDue(eq(NOW), any())).thenReturn(List.of(event));
+        return event;
+    }
+
+    @Test
+    @DisplayName("Should delete the file and the event on success")
+    void dispatch_WhenDeleteSucceeds_ShouldCompleteEvent() {
+        // Given.
+        event(1L, PATH, 0);
+        when(fileStorageService.deleteFile(PATH)).thenReturn(true);
+
+        // When.
+        int claimed = outboxService.dispatch(NOW);
+
+        // Then.
+        assertThat(claimed).isEqualTo(1);
+        verify(outboxEventRepo).claim(1L, 0, NOW.plusSeconds(30));
+        verify(outboxEventRepo).deleteEvent(1L);
+        verify(outboxEventRepo, never()).recordError(anyLong(), anyString());
+        assertThat(outboxService.getCompletedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should complete an event whose file is already gone")
+    void dispatch_WhenFileMissing_ShouldCompleteEvent() {
+        // Given.
+        event(1L, PATH, 0);
+        when(fileStorageService.deleteFile(PATH)).thenReturn(false);
+        when(fileStorageService.listObjects(PATH, null, 1))
+            .thenReturn(List.of(new StoredObject(PATH + ".bak", 1L, Instant.EPOCH)));
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        verify(outboxEventRepo).deleteEvent(1L);
+        verify(outboxEventRepo, never()).recordError(anyLong(), anyString());
+        assertThat(outboxService.getCompletedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep a failed event for retry with a doubled delay")
+    void dispatch_WhenDeleteFails_ShouldRetryLater() {
+        // Given.
+        event(1L, PATH, 1);
+        when(fileStorageService.deleteFile(PATH)).thenReturn(false);
+        when(fileStorageService.listObjects(PATH, null, 1)).thenReturn(List.of(new StoredObject(PATH, 1L, Instant.EPOCH)));
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        verify(outboxEventRepo).claim(1L, 1, NOW.plusSeconds(60));
+        verify(outboxEventRepo).recordError(1L, "Failed to delete file " + PATH);
+        verify(outboxEventRepo, never()).deleteEvent(anyLong());
+        assertThat(outboxService.getCompletedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should record the exception of a failed attempt")
+    void dispatch_WhenDeleteThrows_ShouldRecordError() {
+        // Given.
+        event(1L, PATH, 0);
+        when(fileStorageService.deleteFile(PATH)).thenThrow(new IllegalStateException("Storage unavailable"));
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        ArgumentCaptor<String> error = ArgumentCaptor.forClass(String.class);
+        verify(outboxEventRepo).recordError(eq(1L), error.capture());
+        assertThat(error.getValue()).contains("Storage unavailable");
+        verify(outboxEventRepo, never()).deleteEvent(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should drop an event failing on its last attempt")
+    void dispatch_WhenLastAttemptFails_ShouldDropEvent() {
+        // Given.
+        event(1L, PATH, 2);
+        when(fileStorageService.deleteFile(PATH)).thenReturn(false);
+        when(fileStorageService.listObjects(PATH, null, 1)).thenReturn(null);
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        verify(outboxEventRepo).deleteEvent(1L);
+        verify(outboxEventRepo, never()).recordError(anyLong(), anyString());
+        assertThat(outboxService.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip an event claimed by another dispatcher")
+    void dispatch_WhenClaimLost_ShouldSkipEvent() {
+        // Given.
+        event(1L, PATH, 0);
+        when(outboxEventRepo.claim(anyLong(), anyInt(), any())).thenReturn(0);
+
+        // When.
+        int claimed = outboxService.dispatch(NOW);
+
+        // Then.
+        assertThat(claimed).isZero();
+        verifyNoInteractions(fileStorageService);
+        verify(outboxEventRepo, never()).deleteEvent(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should not retry a blob whose reference could not be released")
+    void dispatch_WhenBlobReleaseFails_ShouldCompleteEvent() {
+        // Given.
+        String blob = "blobs/" + "a".repeat(64) + ".pdf";
+        event(1L, blob, 0);
+        when(outboxEventRepo.deleteEvent(1L)).thenReturn(1);
+        when(fileStorageService.deleteFile(blob)).thenReturn(false);
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        verify(fileStorageService).deleteFile(blob);
+        verify(outboxEventRepo).deleteEvent(1L);
+        verify(outboxEventRepo, never()).recordError(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should release a blob in the transaction deleting its event")
+    void dispatch_WithBlob_ShouldReleaseWithEventDeletion() {
+        // Given.
+        String blob = "blobs/" + "a".repeat(64) + ".pdf";
+        event(1L, blob, 0);
+        when(outboxEventRepo.deleteEvent(1L)).thenReturn(1);
+        when(fileStorageService.deleteFile(blob)).thenReturn(true);
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        InOrder inOrder = inOrder(transactionManager, outboxEventRepo, fileStorageService);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxEventRepo).deleteEvent(1L);
+        inOrder.verify(fileStorageService).deleteFile(blob);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verifyNoMoreInteractions();
+        assertThat(outboxService.getCompletedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not release a blob again when its event is already deleted")
+    void dispatch_WithCompletedBlobEvent_ShouldNotReleaseAgain() {
+        // Given.
+        String blob = "blobs/" + "a".repeat(64) + ".pdf";
+        event(1L, blob, 0);
+        when(outboxEventRepo.deleteEvent(1L)).thenReturn(0);
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        verify(fileStorageService, never()).deleteFile(anyString());
+        verify(outboxEventRepo, never()).recordError(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should roll back the event deletion when a blob release fails")
+    void dispatch_WhenBlobReleaseThrows_ShouldRollBackAndRetry() {
+        // Given.
+        String blob = "blobs/" + "a".repeat(64) + ".pdf";
+        event(1L, blob, 0);
+        when(outboxEventRepo.deleteEvent(1L)).thenReturn(1);
+        when(fileStorageService.deleteFile(blob)).thenThrow(new IllegalStateException("Database unavailable"));
+
+        // When.
+        outboxService.dispatch(NOW);
+
+        // Then.
+        verify(transactionManager).rollback(any());
+        verify(outboxEventRepo).recordError(eq(1L), contains("Database unavailable"));
+        assertThat(outboxService.getCompletedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should double the backoff for every attempt up to the maximum")
+    void getBackoff_ShouldGrowExponentiallyUpToMaximum() {
+        // When & Then.
+        assertThat(outboxService.getBackoff(0)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(outboxService.getBackoff(1)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(outboxService.getBackoff(3)).isEqualTo(Duration.ofSeconds(240));
+        assertThat(outboxService.getBackoff(5)).isEqualTo(Duration.ofMinutes(10));
+        assertThat(outboxService.getBackoff(1000)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Should write a due delete event on enqueue")
+    void enqueueDeleteFile_ShouldSaveDueEvent() {
+        // When.
+        outboxService.enqueueDeleteFile(PATH);
+
+        // Then.
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepo).save(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(OutboxEvent.Type.DELETE_FILE);
+        assertThat(event.getValue().getPayload()).isEqualTo(PATH);
+        assertThat(event.getValue().getAttempts()).isZero();
+        verifyNoInteractions(fileStorageService);
+    }
+}
@@ -0,0 +1,436 @@
+package org.opencourse.services.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Resource.ResourceFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CachingFileStorageService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingFileStorageServiceTest {
+
+    private static final int FILE_SIZE = 4096;
+
+    @Mock
+    private FileStorageService backend;
+
+    @TempDir
+    private Path directory;
+
+    private ApplicationConfig applicationConfig;
+    private CachingFileStorageService cachingFileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        ApplicationConfig.Storage.Cache cache = applicationConfig.getStorage().getCache();
+        cache.setEnabled(true);
+        cache.setDirectory(directory.toString());
+        cache.setMaxSize(DataSize.ofBytes(3L * FILE_SIZE));
+        cachingFileStorageService = new CachingFileStorageService(backend, applicationConfig);
+        cachingFileStorageService.start();
+    }
+
+    private static ResourceFile file(String name) {
+        return new ResourceFile(ResourceFile.FileType.PDF, new BigDecimal("0.01"), "resources/1/" + name + ".pdf");
+    }
+
+    private static byte[] content(int seed) {
+        byte[] content = new byte[FILE_SIZE];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private void stubBackend(ResourceFile file, byte[] content) {
+        when(backend.getFile(file)).thenAnswer(invocation -> new ByteArrayInputStream(content));
+    }
+
+    private static byte[] readAll(InputStream stream) throws Exception {
+        try (stream) {
+            return stream.readAllBytes();
+        }
+    }
+
+    /**
+     * Backend content that blocks after a prefix until released.
+     */
+    private static final class GatedInputStream extends InputStream {
+
+        private final byte[] content;
+        private final int gate;
+        private final CountDownLatch release;
+        private int position;
+
+        GatedInputStream(byte[] content, int gate, CountDownLatch release) {
+            this.content = content;
+            this.gate = gate;
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position == gate) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            if (position >= content.length) {
+                return -1;
+            }
+            int end = position < gate ? gate : content.length;
+            int n = Math.min(len, end - position);
+            System.arraycopy(content, position, b, off, n);
+            position += n;
+            return n;
+        }
+    }
+
+    private long cacheFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fetch a file from the backend once and serve repeats from disk")
+    void getFile_WithRepeatedReads_ShouldHitCache() throws Exception {
+        // Given.
+        ResourceFile file = file("slides");
+        byte[] content = content(1);
+        stubBackend(file, content);
+
+        // When.
+        byte[] first = readAll(cachingFileStorageService.getFile(file));
+        byte[] second = readAll(cachingFileStorageService.getFile(file));
+
+        // Then.
+        assertThat(first).isEqualTo(content);
+        assertThat(second).isEqualTo(content);
+        verify(backend, times(1)).getFile(file);
+        assertThat(cachingFileStorageService.getHitRatio()).isEqualTo(0.5);
+        assertThat(cachingFileStorageService.getBytesSaved()).isEqualTo(FILE_SIZE);
+        assertThat(cachingFileStorageService.getSize()).isEqualTo(FILE_SIZE);
+        assertThat(cacheFiles()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fill the cache once for concurrent misses of the same file")
+    void getFile_WithConcurrentMisses_ShouldFetchOnce() throws Exception {
+        // Given.
+        ResourceFile file = file("exam");
+        byte[] content = content(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(backend.getFile(file)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new ByteArrayInputStream(content);
+        });
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When.
+        List<Future<byte[]>> reads = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                reads.add(executor.submit(() -> readAll(cachingFileStorageService.getFile(file))));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then.
+            for (Future<byte[]> read : reads) {
+                assertThat(read.get(5, TimeUnit.SECONDS)).isEqualTo(content);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(backend, times(1)).getFile(file);
+        assertThat(cachingFileStorageService.getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stream a miss to its reader before the backend content ends")
+    void getFile_OnMiss_ShouldStreamBeforeFillCompletes() throws Exception {
+        // Given.
+        ResourceFile file = file("handout");
+        byte[] content = content(11);
+        int half = FILE_SIZE / 2;
+        CountDownLatch release = new CountDownLatch(1);
+        when(backend.getFile(file)).thenReturn(new GatedInputStream(content, half, release));
+
+        // When.
+        InputStream stream = cachingFileStorageService.getFile(file);
+        byte[] head = stream.readNBytes(half);
+
+        // Then.
+        assertThat(head).isEqualTo(Arrays.copyOf(content, half));
+        assertThat(cachingFileStorageService.getEntries()).isZero();
+        release.countDown();
+        assertThat(readAll(stream)).isEqualTo(Arrays.copyOfRange(content, half, FILE_SIZE));
+        assertThat(cachingFileStorageService.getEntries()).isEqualTo(1);
+        assertThat(cacheFiles()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should read from the backend when a concurrent fill does not finish in time")
+    void getFile_WhenFillIsSlow_ShouldFallBackToBackend() throws Exception {
+        // Given.
+        applicationConfig.getStorage().getCache().setFillWait(Duration.ofMillis(50));
+        ResourceFile file = file("reader");
+        byte[] content = content(12);
+        stubBackend(file, content);
+        InputStream filling = cachingFileStorageService.getFile(file);
+
+        // When.
+        byte[] read = readAll(cachingFileStorageService.getFile(file));
+
+        // Then.
+        assertThat(read).isEqualTo(content);
+        verify(backend, times(2)).getFile(file);
+        assertThat(readAll(filling)).isEqualTo(content);
+        assertThat(cachingFileStorageService.getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the cache file when the reader stops before the end")
+    void getFile_WhenReaderStopsEarly_ShouldNotIndex() throws Exception {
+        // Given.
+        ResourceFile file = file("preview");
+        stubBackend(file, content(13));
+
+        // When.
+        try (InputStream stream = cachingFileStorageService.getFile(file)) {
+            stream.readNBytes(100);
+        }
+
+        // Then.
+        assertThat(cachingFileStorageService.getEntries()).isZero();
+        assertThat(cacheFiles()).isZero();
+        readAll(cachingFileStorageService.getFile(file));
+        assertThat(cachingFileStorageService.getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release the fill and leave no file when the backend fails")
+    void getFile_WhenBackendFails_ShouldReleaseFill() throws Exception {
+        // Given.
+        ResourceFile file = file("broken");
+        byte[] content = content(14);
+        when(backend.getFile(file))
+            .thenThrow(new IllegalStateException("Backend unavailable"))
+            .thenAnswer(invocation -> new ByteArrayInputStream(content));
+
+        // When & Then.
+        assertThatThrownBy(() -> cachingFileStorageService.getFile(file))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(cacheFiles()).isZero();
+        assertThat(readAll(cachingFileStorageService.getFile(file))).isEqualTo(content);
+        assertThat(cachingFileStorageService.getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used file over the size limit")
+    void getFile_OverMaxSize_ShouldEvictLeastRecentlyUsed() throws Exception {
+        // Given.
+        ResourceFile a = file("a");
+        ResourceFile b = file("b");
+        ResourceFile c = file("c");
+        ResourceFile d = file("d");
+        stubBackend(a, content(1));
+        stubBackend(b, content(2));
+        stubBackend(c, content(3));
+        stubBackend(d, content(4));
+
+        // When.
+        readAll(cachingFileStorageService.getFile(a));
+        readAll(cachingFileStorageService.getFile(b));
+        readAll(cachingFileStorageService.getFile(c));
+        readAll(cachingFileStorageService.getFile(a));
+        readAll(cachingFileStorageService.getFile(d));
+
+        // Then.
+        assertThat(cachingFileStorageService.getSize()).isEqualTo(3L * FILE_SIZE);
+        assertThat(cacheFiles()).isEqualTo(3);
+        readAll(cachingFileStorageService.getFile(a));
+        readAll(cachingFileStorageService.getFile(b));
+        verify(backend, times(1)).getFile(a);
+        verify(backend, times(2)).getFile(b);
+    }
+
+    @Test
+    @DisplayName("Should not cache files larger than the file size limit")
+    void getFile_WithLargeFile_ShouldBypassCache() throws Exception {
+        // Given.
+        ResourceFile file = new ResourceFile(
+            ResourceFile.FileType.PDF, new BigDecimal("80.00"), "resources/1/video.pdf");
+        byte[] content = content(5);
+        stubBackend(file, content);
+
+        // When.
+        readAll(cachingFileStorageService.getFile(file));
+        readAll(cachingFileStorageService.getFile(file));
+
+        // Then.
+        verify(backend, times(2)).getFile(file);
+        assertThat(cacheFiles()).isZero();
+        assertThat(cachingFileStorageService.getHitRatio()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop the cached copy when the file is deleted")
+    void deleteFile_WithCachedFile_ShouldInvalidate() throws Exception {
+        // Given.
+        ResourceFile file = file("notes");
+        stubBackend(file, content(6));
+        when(backend.deleteFile(file.getFilePath())).thenReturn(true);
+        readAll(cachingFileStorageService.getFile(file));
+
+        // When.
+        boolean result = cachingFileStorageService.deleteFile(file.getFilePath());
+
+        // Then.
+        assertThat(result).isTrue();
+        assertThat(cachingFileStorageService.getEntries()).isZero();
+        assertThat(cachingFileStorageService.getSize()).isZero();
+        assertThat(cacheFiles()).isZero();
+        readAll(cachingFileStorageService.getFile(file));
+        verify(backend, times(2)).getFile(file);
+    }
+
+    @Test
+    @DisplayName("Should drop the cached copies of files deleted in a batch")
+    void deleteObjects_WithCachedFile_ShouldInvalidate() throws Exception {
+        // Given.
+        ResourceFile file = file("orphan");
+        stubBackend(file, content(8));
+        when(backend.deleteObjects(List.of(file.getFilePath()))).thenReturn(1);
+        readAll(cachingFileStorageService.getFile(file));
+
+        // When.
+        int deleted = cachingFileStorageService.deleteObjects(List.of(file.getFilePath()));
+
+        // Then.
+        assertThat(deleted).isEqualTo(1);
+        assertThat(cachingFileStorageService.getEntries()).isZero();
+        assertThat(cacheFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not index a file deleted while it was being filled")
+    void deleteFile_DuringFill_ShouldNotIndex() throws Exception {
+        // Given.
+        ResourceFile file = file("draft");
+        byte[] content = content(7);
+        when(backend.getFile(file)).thenAnswer(invocation -> {
+            cachingFileStorageService.deleteFile(file.getFilePath());
+            return new ByteArrayInputStream(content);
+        });
+
+        // When.
+        byte[] read = readAll(cachingFileStorageService.getFile(file));
+
+        // Then.
+        assertThat(read).isEqualTo(content);
+        assertThat(cachingFileStorageService.getEntries()).isZero();
+        assertThat(cacheFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should serve ranges and lengths of cached files without the backend")
+    void getFileRangeAndLength_WithCachedFile_ShouldNotCallBackend() throws Exception {
+        // Given.
+        ResourceFile file = file("book");
+        byte[] content = content(8);
+        stubBackend(file, content);
+        readAll(cachingFileStorageService.getFile(file));
+
+        // When.
+        byte[] range = readAll(cachingFileStorageService.getFile(file, 1000L, 24L));
+        long length = cachingFileStorageService.getFileLength(file);
+
+        // Then.
+        assertThat(range).isEqualTo(Arrays.copyOfRange(content, 1000, 1024));
+        assertThat(length).isEqualTo(FILE_SIZE);
+        verify(backend, never()).getFile(any(ResourceFile.class), anyLong(), anyLong());
+        verify(backend, never()).getFileLength(any());
+    }
+
+    @Test
+    @DisplayName("Should transfer cached files through the file channel")
+    void transferTo_WithCachedFile_ShouldCopyWholeRange() throws Exception {
+        // Given.
+        ResourceFile file = file("lecture");
+        byte[] content = content(9);
+        stubBackend(file, content);
+        readAll(cachingFileStorageService.getFile(file));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When.
+        long transferred;
+        try (InputStream stream = cachingFileStorageService.getFile(file)) {
+            assertThat(stream).isInstanceOf(FileChannelInputStream.class);
+            transferred = stream.transferTo(out);
+        }
+
+        // Then.
+        assertThat(transferred).isEqualTo(FILE_SIZE);
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("Should pass every read to the backend when disabled")
+    void getFile_WhenDisabled_ShouldUseBackend() throws Exception {
+        // Given.
+        applicationConfig.getStorage().getCache().setEnabled(false);
+        ResourceFile file = file("syllabus");
+        stubBackend(file, content(10));
+
+        // When.
+        readAll(cachingFileStorageService.getFile(file));
+        readAll(cachingFileStorageService.getFile(file));
+
+        // Then.
+        verify(backend, times(2)).getFile(file);
+        assertThat(cacheFiles()).isZero();
+    }
+}
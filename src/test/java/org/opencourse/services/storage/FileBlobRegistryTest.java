@@ -0,0 +1,137 @@
+package org.opencourse.services.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.FileBlob;
+import org.opencourse.repositories.FileBlobRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FileBlobRegistry} against the database.
+ *
+ * @author !EEExp3rt
+ */
+@DataJpaTest
+@Import(FileBlobRegistry.class)
+@EnableConfigurationProperties(ApplicationConfig.class)
+@EnableJpaRepositories(basePackageClasses = FileBlobRepo.class)
+@EntityScan(basePackageClasses = FileBlob.class)
+class FileBlobRegistryTest {
+
+    private static final String DIGEST = "d".repeat(64);
+    private static final String PATH = FileBlobRegistry.BLOB_PREFIX + DIGEST + ".pdf";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FileBlobRepo fileBlobRepo;
+
+    @Autowired
+    private FileBlobRegistry fileBlobRegistry;
+
+    // Objects deleted by the registry.
+    private List<String> deleted;
+
+    @BeforeEach
+    void setUp() {
+        deleted = new ArrayList<>();
+    }
+
+    private boolean delete(String objectPath) {
+        deleted.add(objectPath);
+        return true;
+    }
+
+    private int refCount() {
+        entityManager.flush();
+        entityManager.clear();
+        return fileBlobRepo.findByDigest(DIGEST).map(FileBlob::getRefCount).orElse(-1);
+    }
+
+    @Test
+    @DisplayName("Should reference known content instead of storing it again")
+    void acquire_WithKnownContent_ShouldAddReference() {
+        // Given.
+        assertThat(fileBlobRegistry.acquire(DIGEST)).isNull();
+        fileBlobRegistry.register(DIGEST, PATH, 2048L);
+
+        // When.
+        String path = fileBlobRegistry.acquire(DIGEST);
+
+        // Then.
+        assertThat(path).isEqualTo(PATH);
+        assertThat(refCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reuse the blob registered first by a concurrent upload")
+    void register_WithRegisteredContent_ShouldReturnExistingPath() {
+        // Given.
+        fileBlobRegistry.register(DIGEST, PATH, 2048L);
+
+        // When.
+        String path = fileBlobRegistry.register(DIGEST, FileBlobRegistry.BLOB_PREFIX + DIGEST + ".txt", 2048L);
+
+        // Then.
+        assertThat(path).isEqualTo(PATH);
+        assertThat(refCount()).isEqualTo(2);
+        assertThat(fileBlobRepo.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should delete a shared blob only with its last reference")
+    void release_WithSharedBlob_ShouldDeleteWithLastReference() {
+        // Given.
+        fileBlobRegistry.register(DIGEST, PATH, 2048L);
+        fileBlobRegistry.acquire(DIGEST);
+
+        // When & Then.
+        assertThat(fileBlobRegistry.release(PATH, this::delete)).isTrue();
+        assertThat(deleted).isEmpty();
+        assertThat(refCount()).isEqualTo(1);
+
+        assertThat(fileBlobRegistry.release(PATH, this::delete)).isTrue();
+        assertThat(deleted).containsExactly(PATH);
+        assertThat(refCount()).isEqualTo(-1);
+
+        assertThat(fileBlobRegistry.release(PATH, this::delete)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep an unreferenced blob for reuse when its object cannot be deleted")
+    void release_WhenDeleteFails_ShouldKeepBlobForReuse() {
+        // Given.
+        fileBlobRegistry.register(DIGEST, PATH, 2048L);
+
+        // When.
+        boolean released = fileBlobRegistry.release(PATH, path -> false);
+
+        // Then.
+        assertThat(released).isFalse();
+        assertThat(refCount()).isZero();
+        assertThat(fileBlobRegistry.acquire(DIGEST)).isEqualTo(PATH);
+        assertThat(refCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should recognize blob paths")
+    void isBlob_ShouldCheckPrefix() {
+        assertThat(FileBlobRegistry.isBlob(PATH)).isTrue();
+        assertThat(FileBlobRegistry.isBlob("resources/1/file.pdf")).isFalse();
+        assertThat(FileBlobRegistry.isBlob(null)).isFalse();
+    }
+}
@@ -0,0 +1,297 @@
+package org.opencourse.services.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Resource.ResourceFile;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link LocalFileStorageService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class LocalFileStorageServiceTest {
+
+    private static final Short COURSE_ID = 123;
+
+    @Mock
+    private FileBlobRegistry fileBlobRegistry;
+
+    @TempDir
+    private Path tempDir;
+
+    private Path directory;
+    private LocalFileStorageService localFileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        directory = tempDir.resolve("storage");
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.getStorage().getLocal().setDirectory(directory.toString());
+        localFileStorageService = new LocalFileStorageService(applicationConfig, fileBlobRegistry);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] readAll(InputStream stream) throws Exception {
+        try (stream) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private long tempFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory.resolve(".tmp"))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should store a file under its course directory and read it back")
+    void storeFile_WithValidFile_ShouldStoreUnderCourseDirectory() throws Exception {
+        // Given.
+        byte[] content = content(64 * 1024);
+        MockMultipartFile file = new MockMultipartFile("file", "slides.pdf", "application/pdf", content);
+
+        // When.
+        ResourceFile result = localFileStorageService.storeFile(file, ResourceFile.FileType.PDF, COURSE_ID);
+
+        // Then.
+        assertThat(result).isNotNull();
+        assertThat(result.getFileType()).isEqualTo(ResourceFile.FileType.PDF);
+        assertThat(result.getFileSize()).isEqualTo(new BigDecimal("0.06"));
+        assertThat(result.getFilePath()).startsWith("resources/123/").endsWith(".pdf");
+        assertThat(directory.resolve(result.getFilePath())).hasBinaryContent(content);
+        assertThat(readAll(localFileStorageService.getFile(result))).isEqualTo(content);
+        assertThat(localFileStorageService.getFileLength(result)).isEqualTo(content.length);
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should serve a byte range of a file")
+    void getFile_WithRange_ShouldReturnRange() throws Exception {
+        // Given.
+        byte[] content = content(4096);
+        ResourceFile file = localFileStorageService.storeFile(
+            new MockMultipartFile("file", "notes.txt", "text/plain", content), ResourceFile.FileType.TEXT, COURSE_ID);
+
+        // When.
+        byte[] range = readAll(localFileStorageService.getFile(file, 100, 50));
+        byte[] tail = readAll(localFileStorageService.getFile(file, 4000, 1000));
+
+        // Then.
+        assertThat(range).containsExactly(Arrays.copyOfRange(content, 100, 150));
+        assertThat(tail).containsExactly(Arrays.copyOfRange(content, 4000, 4096));
+    }
+
+    @Test
+    @DisplayName("Should copy a file to an output stream through its file channel")
+    void getFile_WithTransferTo_ShouldUseFileChannel() throws Exception {
+        // Given.
+        byte[] content = content(256 * 1024);
+        ResourceFile file = localFileStorageService.storeFile(
+            new MockMultipartFile("file", "video.mp4", "video/mp4", content), ResourceFile.FileType.OTHER, COURSE_ID);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When.
+        try (InputStream stream = localFileStorageService.getFile(file)) {
+            assertThat(stream).isInstanceOf(FileChannelInputStream.class);
+            stream.transferTo(out);
+        }
+
+        // Then.
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("Should store, read and delete raw objects")
+    void storeObject_ShouldRoundTripAndDelete() throws Exception {
+        // Given.
+        byte[] content = "{\"id\": 1}".getBytes();
+
+        // When.
+        boolean stored = localFileStorageService.storeObject("exports/1.json", content, "application/json");
+        byte[] read = readAll(localFileStorageService.getObject("exports/1.json"));
+        boolean deleted = localFileStorageService.deleteFile("exports/1.json");
+
+        // Then.
+        assertThat(stored).isTrue();
+        assertThat(read).isEqualTo(content);
+        assertThat(deleted).isTrue();
+        assertThat(localFileStorageService.getObject("exports/1.json")).isNull();
+        assertThat(localFileStorageService.deleteFile("exports/1.json")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject object paths outside the storage directory")
+    void storeObject_WithTraversalPath_ShouldFail() throws Exception {
+        // Given.
+        Files.writeString(directory.resolveSibling("outside.txt"), "secret");
+
+        // When.
+        boolean stored = localFileStorageService.storeObject("../escape.txt", "x".getBytes(), "text/plain");
+        boolean storedInTemp = localFileStorageService.storeObject(".tmp/file.upload", "x".getBytes(), "text/plain");
+
+        // Then.
+        assertThat(stored).isFalse();
+        assertThat(storedInTemp).isFalse();
+        assertThat(directory.resolveSibling("escape.txt")).doesNotExist();
+        assertThat(localFileStorageService.getObject("../outside.txt")).isNull();
+        assertThat(localFileStorageService.deleteFile("../outside.txt")).isFalse();
+        assertThat(directory.resolveSibling("outside.txt")).exists();
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should return null when storing file with null filename")
+    void storeFile_WithNullFilename_ShouldReturnNull() {
+        // Given.
+        MockMultipartFile file = new MockMultipartFile("file", null, "text/plain", "content".getBytes());
+
+        // When.
+        ResourceFile result = localFileStorageService.storeFile(file, ResourceFile.FileType.TEXT, COURSE_ID);
+
+        // Then.
+        assertThat(result).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not serve presigned URLs")
+    void presign_ShouldReturnNull() {
+        // Given.
+        ResourceFile file = new ResourceFile(ResourceFile.FileType.PDF, BigDecimal.ONE, "resources/1/a.pdf");
+
+        // When & Then.
+        assertThat(localFileStorageService.presign(file, Duration.ofMinutes(5), "a.pdf")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should remove files left half-written by a previous run")
+    void constructor_WithStaleTempFiles_ShouldRemoveThem() throws Exception {
+        // Given.
+        Files.writeString(directory.resolve(".tmp").resolve("stale.upload"), "partial");
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.getStorage().getLocal().setDirectory(directory.toString());
+
+        // When.
+        new LocalFileStorageService(applicationConfig, fileBlobRegistry);
+
+        // Then.
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reference known content without writing a new blob")
+    void storeFile_WithKnownContent_ShouldReferenceBlob() throws Exception {
+        // Given.
+        byte[] content = "shared".getBytes();
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        when(fileBlobRegistry.isEnabled()).thenReturn(true);
+        when(fileBlobRegistry.acquire(digest)).thenReturn("blobs/" + digest + ".pdf");
+
+        // When.
+        ResourceFile result = localFileStorageService.storeFile(
+            new MockMultipartFile("file", "copy.pdf", "application/pdf", content), ResourceFile.FileType.PDF, COURSE_ID);
+
+        // Then.
+        assertThat(result.getFilePath()).isEqualTo("blobs/" + digest + ".pdf");
+        verify(fileBlobRegistry, never()).register(anyString(), anyString(), anyLong());
+        assertThat(directory.resolve("blobs")).doesNotExist();
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should write new content as a blob and delete it through the registry")
+    void storeFile_WithNewContent_ShouldWriteAndRegisterBlob() throws Exception {
+        // Given.
+        byte[] content = "unique".getBytes();
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        String objectPath = "blobs/" + digest + ".txt";
+        when(fileBlobRegistry.isEnabled()).thenReturn(true);
+        when(fileBlobRegistry.register(digest, objectPath, content.length)).thenReturn(objectPath);
+        when(fileBlobRegistry.release(eq(objectPath), any())).thenAnswer(
+            invocation -> invocation.<Predicate<String>>getArgument(1).test(objectPath));
+
+        // When.
+        ResourceFile result = localFileStorageService.storeFile(
+            new MockMultipartFile("file", "notes.txt", "text/plain", content), ResourceFile.FileType.TEXT, COURSE_ID);
+        boolean deleted = localFileStorageService.deleteFile(result.getFilePath());
+
+        // Then.
+        assertThat(result.getFilePath()).isEqualTo(objectPath);
+        assertThat(deleted).isTrue();
+        assertThat(directory.resolve(objectPath)).doesNotExist();
+        // A blob already gone counts as deleted, so its row is not kept for reuse.
+        assertThat(localFileStorageService.deleteFile(objectPath)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should list objects page by page in path order")
+    void listObjects_WithPages_ShouldListInPathOrder() throws Exception {
+        // Given.
+        for (String path : List.of("resources/123/b.pdf", "resources/12/a.pdf", "resources/12.txt", "resources/123/a.pdf", "history/x")) {
+            assertThat(localFileStorageService.storeObject(path, "x".getBytes(), "text/plain")).isTrue();
+        }
+
+        // When.
+        List<StoredObject> first = localFileStorageService.listObjects("resources/", null, 2);
+        List<StoredObject> second = localFileStorageService.listObjects("resources/", first.get(1).path(), 2);
+        List<StoredObject> last = localFileStorageService.listObjects("resources/", second.get(1).path(), 2);
+
+        // Then.
+        assertThat(first).extracting(StoredObject::path).containsExactly("resources/12.txt", "resources/12/a.pdf");
+        assertThat(second).extracting(StoredObject::path).containsExactly("resources/123/a.pdf", "resources/123/b.pdf");
+        assertThat(second.get(0).size()).isEqualTo(1);
+        assertThat(second.get(0).lastModified()).isNotNull();
+        assertThat(last).isEmpty();
+        assertThat(localFileStorageService.listObjects("resources/123/", "resources/123/a.pdf", 10))
+            .extracting(StoredObject::path).containsExactly("resources/123/b.pdf");
+        assertThat(localFileStorageService.listObjects("missing/", null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should delete a batch of objects")
+    void deleteObjects_ShouldDeleteEachObject() throws Exception {
+        // Given.
+        localFileStorageService.storeObject("resources/1/a.pdf", "a".getBytes(), "application/pdf");
+        localFileStorageService.storeObject("resources/1/b.pdf", "b".getBytes(), "application/pdf");
+
+        // When.
+        int deleted = localFileStorageService.deleteObjects(List.of("resources/1/a.pdf", "resources/1/b.pdf", "resources/1/c.pdf"));
+
+        // Then.
+        assertThat(deleted).isEqualTo(2);
+        assertThat(localFileStorageService.listObjects("resources/", null, 10)).isEmpty();
+    }
+}
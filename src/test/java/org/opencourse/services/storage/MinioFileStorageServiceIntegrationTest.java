@@ -9,18 +9,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.opencourse.configs.ApplicationConfig;
 import org.opencourse.configs.MinioConfig;
 import org.opencourse.models.Resource.ResourceFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -31,11 +40,15 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 @SpringBootTest(classes = {
     MinioConfig.class,
+    ApplicationConfig.class,
+    MinioMultipartUploader.class,
     MinioFileStorageService.class
 })
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class MinioFileStorageServiceIntegrationTest {
 
+    private static final Logger logger = LoggerFactory.getLogger(MinioFileStorageServiceIntegrationTest.class);
+
     // MinIO configuration.
     @Autowired
     private MinioConfig minioConfig;
@@ -44,6 +57,10 @@ class MinioFileStorageServiceIntegrationTest {
     @Autowired
     private MinioClient minioClient;
 
+    // Blob reference counts, deduplication disabled.
+    @MockitoBean
+    private FileBlobRegistry fileBlobRegistry;
+
     // MinIO file storage service to be tested.
     @Autowired
     private MinioFileStorageService minioFileStorageService;
@@ -53,6 +70,8 @@ class MinioFileStorageServiceIntegrationTest {
 
     // Test data.
     private static final Short COURSE_ID = 123;
+    private static final int BENCHMARK_FILE_SIZE = 32 * 1024 * 1024;
+    private static final int BENCHMARK_READS = 5;
 
     @BeforeAll
     void setUpOnce() throws Exception {
@@ -340,4 +359,55 @@ class MinioFileStorageServiceIntegrationTest {
         // Then.
         assertThat(result).isNull();
     }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should report the read latency of local storage and MinIO")
+    void getFile_Benchmark_ShouldReportLocalAndMinioReadLatency(@TempDir Path directory) throws Exception {
+        // Given.
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.getStorage().getLocal().setDirectory(directory.toString());
+        LocalFileStorageService localFileStorageService = new LocalFileStorageService(applicationConfig, fileBlobRegistry);
+        byte[] content = new byte[BENCHMARK_FILE_SIZE];
+        new Random(42).nextBytes(content);
+        MultipartFile mockFile = new MockMultipartFile("file", "benchmark.mp4", "video/mp4", content);
+
+        ResourceFile minioFile = minioFileStorageService.storeFile(mockFile, ResourceFile.FileType.OTHER, COURSE_ID);
+        if (minioFile != null) {
+            filesToCleanup.add(minioFile.getFilePath());
+        }
+        ResourceFile localFile = localFileStorageService.storeFile(mockFile, ResourceFile.FileType.OTHER, COURSE_ID);
+        assertThat(minioFile).isNotNull();
+        assertThat(localFile).isNotNull();
+
+        // When.
+        long minio = readRepeatedly(minioFileStorageService, minioFile);
+        long local = readRepeatedly(localFileStorageService, localFile);
+
+        // Then.
+        logger.info(
+            "Read {} x {} MB: MinIO {} ms, local {} ms",
+            BENCHMARK_READS, BENCHMARK_FILE_SIZE >> 20, minio / 1_000_000, local / 1_000_000
+        );
+    }
+
+    /**
+     * Read a file repeatedly to a discarding stream, after one warm-up read.
+     *
+     * @param service The file storage service.
+     * @param file    The file to be read.
+     * @return The elapsed nanoseconds of the timed reads.
+     */
+    private static long readRepeatedly(FileStorageService service, ResourceFile file) throws Exception {
+        try (InputStream stream = service.getFile(file)) {
+            stream.transferTo(OutputStream.nullOutputStream());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_READS; i++) {
+            try (InputStream stream = service.getFile(file)) {
+                assertThat(stream.transferTo(OutputStream.nullOutputStream())).isEqualTo(BENCHMARK_FILE_SIZE);
+            }
+        }
+        return System.nanoTime() - start;
+    }
 }
@@ -1,6 +1,9 @@
 package org.opencourse.services.storage;
 
 import io.minio.*;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.Item;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -14,9 +17,18 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +48,12 @@ class MinioFileStorageServiceTest {
     @Mock
     private MinioConfig.MinioConfigProperties minioConfigProperties;
 
+    @Mock
+    private MinioMultipartUploader multipartUploader;
+
+    @Mock
+    private FileBlobRegistry fileBlobRegistry;
+
     @Mock
     private MultipartFile multipartFile;
 
@@ -49,7 +67,7 @@ class MinioFileStorageServiceTest {
         lenient().when(minioConfig.getMinioConfigProperties()).thenReturn(minioConfigProperties);
         lenient().when(minioConfigProperties.getBucketName()).thenReturn(BUCKET_NAME);
         lenient().when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(false);
-        minioFileStorageService = new MinioFileStorageService(minioClient, minioConfig);
+        minioFileStorageService = new MinioFileStorageService(minioClient, minioConfig, multipartUploader, fileBlobRegistry);
         verify(minioClient).makeBucket(any(MakeBucketArgs.class));
     }
 
@@ -115,6 +133,57 @@ class MinioFileStorageServiceTest {
         verify(minioClient).putObject(any(PutObjectArgs.class));
     }
 
+    @Test
+    @DisplayName("Should upload large file in parts when multipart upload accepts it")
+    void storeFile_WithLargeFile_ShouldUploadInParts() throws Exception {
+        // Given.
+        long fileSize = 1024L * 1024L * 40; // 40MB.
+        InputStream inputStream = new ByteArrayInputStream("large content".getBytes());
+
+        when(multipartFile.getOriginalFilename()).thenReturn("textbook.pdf");
+        when(multipartFile.getSize()).thenReturn(fileSize);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(multipartFile.getInputStream()).thenReturn(inputStream);
+        when(multipartUploader.accepts(fileSize)).thenReturn(true);
+
+        // When.
+        ResourceFile result = minioFileStorageService.storeFile(
+            multipartFile,
+            ResourceFile.FileType.PDF,
+            COURSE_ID
+        );
+
+        // Then.
+        assertThat(result).isNotNull();
+        assertThat(result.getFileSize()).isEqualTo(new BigDecimal("40.00"));
+        verify(multipartUploader).upload(
+            eq(BUCKET_NAME), eq(result.getFilePath()), eq(inputStream), eq(fileSize), eq("application/pdf"));
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+    }
+
+    @Test
+    @DisplayName("Should return null when multipart upload fails")
+    void storeFile_WhenMultipartUploadFails_ShouldReturnNull() throws Exception {
+        // Given.
+        long fileSize = 1024L * 1024L * 40; // 40MB.
+        when(multipartFile.getOriginalFilename()).thenReturn("textbook.pdf");
+        when(multipartFile.getSize()).thenReturn(fileSize);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(multipartUploader.accepts(fileSize)).thenReturn(true);
+        doThrow(new RuntimeException("Failed to upload in parts"))
+            .when(multipartUploader).upload(any(), any(), any(), anyLong(), any());
+
+        // When.
+        ResourceFile result = minioFileStorageService.storeFile(
+            multipartFile,
+            ResourceFile.FileType.PDF,
+            COURSE_ID
+        );
+
+        // Then.
+        assertThat(result).isNull();
+    }
+
     @Test
     @DisplayName("Should throw exception when filename is null")
     void storeFile_WithNullFilename_ShouldThrowException() throws Exception {
@@ -158,6 +227,50 @@ class MinioFileStorageServiceTest {
         verify(minioClient).putObject(any(PutObjectArgs.class));
     }
 
+    @Test
+    @DisplayName("Should only reference known content without uploading it again")
+    void storeFile_WithKnownContent_ShouldNotUpload() throws Exception {
+        // Given.
+        byte[] content = "past paper".getBytes();
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        when(fileBlobRegistry.isEnabled()).thenReturn(true);
+        when(fileBlobRegistry.acquire(digest)).thenReturn("blobs/" + digest + ".pdf");
+        when(multipartFile.getOriginalFilename()).thenReturn("exam.pdf");
+        when(multipartFile.getSize()).thenReturn((long) content.length);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+
+        // When.
+        ResourceFile result = minioFileStorageService.storeFile(multipartFile, ResourceFile.FileType.PDF, COURSE_ID);
+
+        // Then.
+        assertThat(result.getFilePath()).isEqualTo("blobs/" + digest + ".pdf");
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+        verify(fileBlobRegistry, never()).register(any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should upload new content under its digest and register the blob")
+    void storeFile_WithNewContent_ShouldUploadUnderDigest() throws Exception {
+        // Given.
+        byte[] content = "new lecture notes".getBytes();
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        String path = "blobs/" + digest + ".pdf";
+        when(fileBlobRegistry.isEnabled()).thenReturn(true);
+        when(fileBlobRegistry.register(digest, path, content.length)).thenReturn(path);
+        when(multipartFile.getOriginalFilename()).thenReturn("notes.pdf");
+        when(multipartFile.getSize()).thenReturn((long) content.length);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(content));
+
+        // When.
+        ResourceFile result = minioFileStorageService.storeFile(multipartFile, ResourceFile.FileType.PDF, COURSE_ID);
+
+        // Then.
+        assertThat(result.getFilePath()).isEqualTo(path);
+        verify(minioClient).putObject(argThat((PutObjectArgs args) -> args.object().equals(path)));
+        verify(minioClient, never()).removeObject(any(RemoveObjectArgs.class));
+    }
+
     @Test
     @DisplayName("Should successfully retrieve file when file exists")
     void getFile_WithExistingFile_ShouldReturnInputStream() throws Exception {
@@ -203,6 +316,159 @@ class MinioFileStorageServiceTest {
         verify(minioClient).getObject(any(GetObjectArgs.class));
     }
 
+    @Test
+    @DisplayName("Should request the given byte range of a file")
+    void getFile_WithRange_ShouldPassOffsetAndLength() throws Exception {
+        // Given.
+        ResourceFile resourceFile = new ResourceFile(
+            ResourceFile.FileType.PDF,
+            new BigDecimal("1.50"),
+            "resources/123/test-file.pdf"
+        );
+        GetObjectResponse mockResponse = mock(GetObjectResponse.class);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse);
+
+        // When.
+        InputStream result = minioFileStorageService.getFile(resourceFile, 1024L, 512L);
+
+        // Then.
+        assertThat(result).isEqualTo(mockResponse);
+        verify(minioClient).getObject(argThat((GetObjectArgs args) ->
+            args.object().equals("resources/123/test-file.pdf") && args.offset() == 1024L && args.length() == 512L));
+    }
+
+    @Test
+    @DisplayName("Should presign a short-lived download URL of a file")
+    void presign_WithExistingFile_ShouldReturnUrl() throws Exception {
+        // Given.
+        ResourceFile resourceFile = new ResourceFile(
+            ResourceFile.FileType.PDF,
+            new BigDecimal("1.50"),
+            "resources/123/test-file.pdf"
+        );
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+            .thenReturn("http://localhost:9000/opencourse-test/resources/123/test-file.pdf?X-Amz-Signature=abc");
+
+        // When.
+        String result = minioFileStorageService.presign(resourceFile, Duration.ofMinutes(5), "test-file.pdf");
+
+        // Then.
+        assertThat(result).contains("X-Amz-Signature");
+        verify(minioClient).getPresignedObjectUrl(argThat((GetPresignedObjectUrlArgs args) ->
+            args.method() == Method.GET
+                && args.bucket().equals(BUCKET_NAME)
+                && args.object().equals("resources/123/test-file.pdf")
+                && args.expiry() == 300
+                && args.extraQueryParams().get("response-content-disposition")
+                    .contains("attachment; filename=\"test-file.pdf\"")));
+    }
+
+    @Test
+    @DisplayName("Should return null when MinIO throws exception during presigning")
+    void presign_WithMinioException_ShouldReturnNull() throws Exception {
+        // Given.
+        ResourceFile resourceFile = new ResourceFile(
+            ResourceFile.FileType.PDF,
+            new BigDecimal("1.50"),
+            "resources/123/test-file.pdf"
+        );
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+            .thenThrow(new RuntimeException("No credentials"));
+
+        // When & Then.
+        assertThat(minioFileStorageService.presign(resourceFile, Duration.ofMinutes(5), "test-file.pdf")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return the exact file size from object metadata")
+    void getFileLength_WithExistingFile_ShouldReturnSize() throws Exception {
+        // Given.
+        ResourceFile resourceFile = new ResourceFile(
+            ResourceFile.FileType.PDF,
+            new BigDecimal("1.50"),
+            "resources/123/test-file.pdf"
+        );
+        StatObjectResponse stat = mock(StatObjectResponse.class);
+        when(stat.size()).thenReturn(1572864L);
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(stat);
+
+        // When.
+        long result = minioFileStorageService.getFileLength(resourceFile);
+
+        // Then.
+        assertThat(result).isEqualTo(1572864L);
+        verify(minioClient).statObject(argThat((StatObjectArgs args) ->
+            args.object().equals("resources/123/test-file.pdf") && args.bucket().equals(BUCKET_NAME)));
+    }
+
+    @Test
+    @DisplayName("Should return -1 when MinIO throws exception during file stat")
+    void getFileLength_WithMinioException_ShouldReturnMinusOne() throws Exception {
+        // Given.
+        ResourceFile resourceFile = new ResourceFile(
+            ResourceFile.FileType.PDF,
+            new BigDecimal("1.50"),
+            "resources/123/non-existent-file.pdf"
+        );
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(new RuntimeException("Not found"));
+
+        // When & Then.
+        assertThat(minioFileStorageService.getFileLength(resourceFile)).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("Should successfully store raw object")
+    void storeObject_WithValidContent_ShouldReturnTrue() throws Exception {
+        // When.
+        boolean result = minioFileStorageService.storeObject(
+            "history/segments/2025-01-01-0.seg", new byte[] {1, 2, 3}, "application/octet-stream");
+
+        // Then.
+        assertThat(result).isTrue();
+        verify(minioClient).putObject(argThat((PutObjectArgs args) ->
+            args.object().equals("history/segments/2025-01-01-0.seg") && args.bucket().equals(BUCKET_NAME)));
+    }
+
+    @Test
+    @DisplayName("Should return false when MinIO throws exception during object upload")
+    void storeObject_WithMinioException_ShouldReturnFalse() throws Exception {
+        // Given.
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(new RuntimeException("Upload failed"));
+
+        // When.
+        boolean result = minioFileStorageService.storeObject("object", new byte[0], "application/octet-stream");
+
+        // Then.
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should request the given byte range of an object")
+    void getObject_WithRange_ShouldPassOffsetAndLength() throws Exception {
+        // Given.
+        GetObjectResponse mockResponse = mock(GetObjectResponse.class);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse);
+
+        // When.
+        InputStream result = minioFileStorageService.getObject("object", 128L, 64L);
+
+        // Then.
+        assertThat(result).isEqualTo(mockResponse);
+        verify(minioClient).getObject(argThat((GetObjectArgs args) ->
+            args.object().equals("object") && args.offset() == 128L && args.length() == 64L));
+    }
+
+    @Test
+    @DisplayName("Should return null when MinIO throws exception during object retrieval")
+    void getObject_WithMinioException_ShouldReturnNull() throws Exception {
+        // Given.
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenThrow(new RuntimeException("Not found"));
+
+        // When & Then.
+        assertThat(minioFileStorageService.getObject("object")).isNull();
+        assertThat(minioFileStorageService.getObject("object", 0L, 1L)).isNull();
+    }
+
     @Test
     @DisplayName("Should successfully delete file when file exists")
     void deleteFile_WithExistingFile_ShouldReturnTrue() throws Exception {
@@ -218,6 +484,33 @@ class MinioFileStorageServiceTest {
         verify(minioClient).removeObject(any(RemoveObjectArgs.class));
     }
 
+    @Test
+    @DisplayName("Should release a blob reference and delete the object only when asked")
+    void deleteFile_WithBlob_ShouldReleaseReference() throws Exception {
+        // Given.
+        String path = "blobs/" + "a".repeat(64) + ".pdf";
+        when(fileBlobRegistry.release(eq(path), any())).thenReturn(true);
+
+        // When.
+        boolean result = minioFileStorageService.deleteFile(path);
+
+        // Then.
+        assertThat(result).isTrue();
+        verify(minioClient, never()).removeObject(any(RemoveObjectArgs.class));
+
+        // Given.
+        when(fileBlobRegistry.release(eq(path), any())).thenAnswer(invocation ->
+            invocation.<Predicate<String>>getArgument(1).test(path));
+
+        // When.
+        result = minioFileStorageService.deleteFile(path);
+
+        // Then.
+        assertThat(result).isTrue();
+        verify(minioClient).removeObject(argThat((RemoveObjectArgs args) -> args.object().equals(path)));
+        verify(minioClient, never()).statObject(any(StatObjectArgs.class));
+    }
+
     @Test
     @DisplayName("Should return false when MinIO throws exception during file deletion")
     void deleteFile_WithMinioException_ShouldReturnFalse() throws Exception {
@@ -235,6 +528,53 @@ class MinioFileStorageServiceTest {
         verify(minioClient).removeObject(any(RemoveObjectArgs.class));
     }
 
+    @Test
+    @DisplayName("Should list one page of objects after the start path")
+    void listObjects_WithStartAfter_ShouldReturnOnePage() throws Exception {
+        // Given.
+        ZonedDateTime lastModified = ZonedDateTime.of(2025, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<Result<Item>> results = new ArrayList<>();
+        for (String path : List.of("resources/1/b.pdf", "resources/1/c.pdf", "resources/2/a.pdf")) {
+            Item item = mock(Item.class);
+            lenient().when(item.objectName()).thenReturn(path);
+            lenient().when(item.size()).thenReturn(1024L);
+            lenient().when(item.lastModified()).thenReturn(lastModified);
+            results.add(new Result<>(item));
+        }
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenReturn(results);
+
+        // When.
+        List<StoredObject> objects = minioFileStorageService.listObjects("resources/", "resources/1/a.pdf", 2);
+
+        // Then.
+        assertThat(objects).containsExactly(
+            new StoredObject("resources/1/b.pdf", 1024L, lastModified.toInstant()),
+            new StoredObject("resources/1/c.pdf", 1024L, lastModified.toInstant())
+        );
+        verify(minioClient).listObjects(argThat((ListObjectsArgs args) ->
+            args.prefix().equals("resources/")
+                && args.startAfter().equals("resources/1/a.pdf")
+                && args.maxKeys() == 2
+                && args.recursive()
+        ));
+    }
+
+    @Test
+    @DisplayName("Should delete objects in one request and count failed ones out")
+    void deleteObjects_WithOneFailure_ShouldReturnDeletedCount() throws Exception {
+        // Given.
+        List<Result<DeleteError>> errors = List.of(new Result<>(mock(DeleteError.class)));
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenReturn(errors);
+
+        // When.
+        int deleted = minioFileStorageService.deleteObjects(List.of("resources/1/a.pdf", "resources/1/b.pdf"));
+
+        // Then.
+        assertThat(deleted).isEqualTo(1);
+        verify(minioClient).removeObjects(any(RemoveObjectsArgs.class));
+        assertThat(minioFileStorageService.deleteObjects(List.of())).isZero();
+    }
+
     @Test
     @DisplayName("Should correctly calculate file size in MB for various file sizes")
     void calculateFileSizeMB_WithVariousFileSizes_ShouldReturnCorrectMBValues() {
@@ -0,0 +1,299 @@
+package org.opencourse.services.storage;
+
+import io.minio.CreateMultipartUploadResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.UploadPartResponse;
+import io.minio.messages.InitiateMultipartUploadResult;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MinioMultipartUploader}.
+ *
+ * The MinIO asynchronous client is replaced by an in-memory stand-in that stores the
+ * uploaded parts and completes each part after a simulated network latency.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class MinioMultipartUploaderTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinioMultipartUploaderTest.class);
+
+    private static final String BUCKET_NAME = "opencourse-test";
+    private static final String OBJECT = "resources/123/textbook.pdf";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final int PART_SIZE = (int) MinioMultipartUploader.MIN_PART_SIZE;
+
+    @Mock
+    private MinioAsyncClient minioAsyncClient;
+
+    private ApplicationConfig applicationConfig;
+    private MinioMultipartUploader uploader;
+
+    // Stand-in state.
+    private Map<Integer, byte[]> uploadedParts;
+    private AtomicInteger inFlight;
+    private AtomicInteger maxInFlight;
+    private long latencyMillis;
+    private int failingPart;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        applicationConfig = new ApplicationConfig();
+        ApplicationConfig.Storage.Multipart multipart = applicationConfig.getStorage().getMultipart();
+        multipart.setEnabled(true);
+        multipart.setPartSize(DataSize.ofBytes(PART_SIZE));
+        multipart.setConcurrency(4);
+        uploader = new MinioMultipartUploader(minioAsyncClient, applicationConfig);
+
+        uploadedParts = new ConcurrentHashMap<>();
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        latencyMillis = 0;
+        failingPart = -1;
+
+        InitiateMultipartUploadResult initiated = mock(InitiateMultipartUploadResult.class);
+        CreateMultipartUploadResponse created = mock(CreateMultipartUploadResponse.class);
+        lenient().when(initiated.uploadId()).thenReturn(UPLOAD_ID);
+        lenient().when(created.result()).thenReturn(initiated);
+        lenient().when(minioAsyncClient.createMultipartUploadAsync(eq(BUCKET_NAME), isNull(), eq(OBJECT), any(), isNull()))
+            .thenReturn(CompletableFuture.completedFuture(created));
+        lenient().when(minioAsyncClient.uploadPartAsync(
+            eq(BUCKET_NAME), isNull(), eq(OBJECT), any(), anyLong(), eq(UPLOAD_ID), anyInt(), isNull(), isNull()
+        )).thenAnswer(invocation -> {
+            byte[] data = invocation.getArgument(3);
+            int partNumber = invocation.getArgument(6);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                if (partNumber == failingPart) {
+                    throw new IllegalStateException("Part " + partNumber + " failed");
+                }
+                uploadedParts.put(partNumber, data);
+                return new UploadPartResponse(null, BUCKET_NAME, null, OBJECT, UPLOAD_ID, partNumber, "etag-" + partNumber);
+            }, CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+        });
+        lenient().when(minioAsyncClient.completeMultipartUploadAsync(
+            eq(BUCKET_NAME), isNull(), eq(OBJECT), eq(UPLOAD_ID), any(), isNull(), isNull()
+        )).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(minioAsyncClient.abortMultipartUploadAsync(
+            eq(BUCKET_NAME), isNull(), eq(OBJECT), eq(UPLOAD_ID), isNull(), isNull()
+        )).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    private static byte[] content(long size) {
+        byte[] content = new byte[(int) size];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+
+    @Test
+    @DisplayName("Should upload every part and complete with parts in order")
+    void upload_WithLargeObject_ShouldUploadAllPartsAndComplete() throws Exception {
+        // Given.
+        byte[] content = content(4L * PART_SIZE + 1000);
+
+        // When.
+        uploader.upload(BUCKET_NAME, OBJECT, new ByteArrayInputStream(content), content.length, "application/pdf");
+
+        // Then.
+        ArgumentCaptor<Part[]> parts = ArgumentCaptor.forClass(Part[].class);
+        verify(minioAsyncClient).completeMultipartUploadAsync(
+            eq(BUCKET_NAME), isNull(), eq(OBJECT), eq(UPLOAD_ID), parts.capture(), isNull(), isNull());
+        assertThat(parts.getValue()).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(parts.getValue()[i].partNumber()).isEqualTo(i + 1);
+            assertThat(parts.getValue()[i].etag()).isEqualTo("etag-" + (i + 1));
+        }
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        for (byte[] part : new TreeMap<>(uploadedParts).values()) {
+            uploaded.write(part);
+        }
+        assertThat(uploaded.toByteArray()).isEqualTo(content);
+        verify(minioAsyncClient, never()).abortMultipartUploadAsync(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should abort the upload when a part fails")
+    void upload_WhenPartFails_ShouldAbort() throws Exception {
+        // Given.
+        byte[] content = content(4L * PART_SIZE);
+        failingPart = 2;
+
+        // When & Then.
+        assertThatThrownBy(() -> uploader.upload(
+            BUCKET_NAME, OBJECT, new ByteArrayInputStream(content), content.length, null))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining(OBJECT);
+        verify(minioAsyncClient).abortMultipartUploadAsync(BUCKET_NAME, null, OBJECT, UPLOAD_ID, null, null);
+        verify(minioAsyncClient, never()).completeMultipartUploadAsync(any(), any(), any(), any(), any(), any(), any());
+        assertThat(inFlight.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should abort the upload when the stream ends early")
+    void upload_WhenStreamIsShort_ShouldAbort() throws Exception {
+        // Given.
+        byte[] content = content(PART_SIZE + 10);
+
+        // When & Then.
+        assertThatThrownBy(() -> uploader.upload(
+            BUCKET_NAME, OBJECT, new ByteArrayInputStream(content), 3L * PART_SIZE, null))
+            .isInstanceOf(RuntimeException.class);
+        verify(minioAsyncClient).abortMultipartUploadAsync(BUCKET_NAME, null, OBJECT, UPLOAD_ID, null, null);
+    }
+
+    @Test
+    @DisplayName("Should keep parts in flight within the configured concurrency")
+    void upload_WithLatency_ShouldBoundPartsInFlight() {
+        // Given.
+        byte[] content = content(8L * PART_SIZE);
+        latencyMillis = 30;
+
+        // When.
+        uploader.upload(BUCKET_NAME, OBJECT, new ByteArrayInputStream(content), content.length, null);
+
+        // Then.
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+        assertThat(uploadedParts).hasSize(8);
+    }
+
+    private static void awaitStarted(Map<Integer, CompletableFuture<UploadPartResponse>> started, int parts)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.size() < parts && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(started).hasSize(parts);
+    }
+
+    private static void complete(Map<Integer, CompletableFuture<UploadPartResponse>> started, int partNumber) {
+        started.get(partNumber).complete(
+            new UploadPartResponse(null, BUCKET_NAME, null, OBJECT, UPLOAD_ID, partNumber, "etag-" + partNumber));
+    }
+
+    @Test
+    @DisplayName("Should overlap parts up to the concurrency and complete them in part order")
+    void upload_WithParallelParts_ShouldOverlapAndKeepPartOrder() throws Exception {
+        // Given.
+        byte[] content = content(8L * PART_SIZE);
+        Map<Integer, CompletableFuture<UploadPartResponse>> started = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            CompletableFuture<UploadPartResponse> response = new CompletableFuture<>();
+            started.put(invocation.getArgument(6), response);
+            return response;
+        }).when(minioAsyncClient).uploadPartAsync(
+            eq(BUCKET_NAME), isNull(), eq(OBJECT), any(), anyLong(), eq(UPLOAD_ID), anyInt(), isNull(), isNull());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // When.
+            Future<?> upload = executor.submit(() ->
+                uploader.upload(BUCKET_NAME, OBJECT, new ByteArrayInputStream(content), content.length, null));
+
+            // Then.
+            // Four parts are in flight at once, and the fifth waits for one of them.
+            awaitStarted(started, 4);
+            assertThat(started).containsOnlyKeys(1, 2, 3, 4);
+            for (int partNumber = 4; partNumber >= 1; partNumber--) {
+                complete(started, partNumber);
+            }
+            awaitStarted(started, 8);
+            for (int partNumber = 8; partNumber >= 5; partNumber--) {
+                complete(started, partNumber);
+            }
+            upload.get(5, TimeUnit.SECONDS);
+
+            // Parts completed out of order are still listed in part order.
+            ArgumentCaptor<Part[]> parts = ArgumentCaptor.forClass(Part[].class);
+            verify(minioAsyncClient).completeMultipartUploadAsync(
+                eq(BUCKET_NAME), isNull(), eq(OBJECT), eq(UPLOAD_ID), parts.capture(), isNull(), isNull());
+            assertThat(parts.getValue()).extracting(Part::partNumber).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+            assertThat(parts.getValue()).extracting(Part::etag)
+                .containsExactly("etag-1", "etag-2", "etag-3", "etag-4", "etag-5", "etag-6", "etag-7", "etag-8");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should report sequential and parallel upload latency against a delayed stand-in")
+    void upload_Benchmark_ShouldReportSequentialAndParallelLatency() {
+        // Given.
+        ApplicationConfig.Storage.Multipart multipart = applicationConfig.getStorage().getMultipart();
+        byte[] content = content(8L * PART_SIZE);
+        latencyMillis = 100;
+
+        // When.
+        multipart.setConcurrency(1);
+        long sequential = timeUpload(content);
+        multipart.setConcurrency(4);
+        long parallel = timeUpload(content);
+
+        // Then.
+        logger.info(
+            "Uploaded {} parts of {} MB with {} ms part latency: sequential {} ms, parallel {} ms",
+            content.length / PART_SIZE, PART_SIZE >> 20, latencyMillis, sequential / 1_000_000, parallel / 1_000_000
+        );
+        assertThat(uploadedParts).hasSize(8);
+    }
+
+    /**
+     * Upload an object to the stand-in.
+     *
+     * @param content The object content.
+     * @return The elapsed nanoseconds.
+     */
+    private long timeUpload(byte[] content) {
+        long start = System.nanoTime();
+        uploader.upload(BUCKET_NAME, OBJECT, new ByteArrayInputStream(content), content.length, null);
+        return System.nanoTime() - start;
+    }
+
+    @Test
+    @DisplayName("Should only accept enabled uploads larger than one part")
+    void accepts_ShouldRequireEnabledAndMoreThanOnePart() {
+        // Given.
+        ApplicationConfig.Storage.Multipart multipart = applicationConfig.getStorage().getMultipart();
+
+        // When & Then.
+        assertThat(uploader.accepts(PART_SIZE)).isFalse();
+        assertThat(uploader.accepts(PART_SIZE + 1L)).isTrue();
+
+        multipart.setPartSize(DataSize.ofKilobytes(64));
+        assertThat(uploader.getPartSize()).isEqualTo(MinioMultipartUploader.MIN_PART_SIZE);
+
+        multipart.setEnabled(false);
+        assertThat(uploader.accepts(10L * PART_SIZE)).isFalse();
+    }
+}
@@ -0,0 +1,141 @@
+package org.opencourse.services.storage;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.MinioConfig;
+import org.opencourse.services.storage.MinioRequestInterceptor.Operation;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MinioRequestInterceptor}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class MinioRequestInterceptorTest {
+
+    private static final String BUCKET = "http://minio:9000/opencourse/";
+    private static final String OBJECT = BUCKET + "resources/1/a.pdf";
+
+    @Mock
+    private Interceptor.Chain chain;
+
+    private MinioConfig.MinioConfigProperties minioConfigProperties;
+    private MinioRequestInterceptor interceptor;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        minioConfigProperties = new MinioConfig.MinioConfigProperties();
+        minioConfigProperties.getTimeouts().setGet(Duration.ofSeconds(7));
+        interceptor = new MinioRequestInterceptor(minioConfigProperties);
+        registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+        lenient().when(chain.withReadTimeout(anyInt(), any())).thenReturn(chain);
+        lenient().when(chain.withWriteTimeout(anyInt(), any())).thenReturn(chain);
+    }
+
+    private static Request request(String method, String url) {
+        RequestBody body = method.equals("PUT") || method.equals("POST") ? RequestBody.create(new byte[0]) : null;
+        return new Request.Builder().url(url).method(method, body).build();
+    }
+
+    private static Response response(Request request, int code) {
+        return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(code).message("").build();
+    }
+
+    private Timer timer(String operation) {
+        return registry.get("opencourse.minio.requests").tag("operation", operation).timer();
+    }
+
+    private double errors(String operation) {
+        return registry.get("opencourse.minio.errors").tag("operation", operation).functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("Should classify requests by their S3 operation")
+    void getOperation_ShouldClassifyRequests() {
+        // When & Then.
+        assertThat(MinioRequestInterceptor.getOperation(request("HEAD", OBJECT))).isEqualTo(Operation.STAT);
+        assertThat(MinioRequestInterceptor.getOperation(request("HEAD", BUCKET))).isEqualTo(Operation.STAT);
+        assertThat(MinioRequestInterceptor.getOperation(request("GET", OBJECT))).isEqualTo(Operation.GET);
+        assertThat(MinioRequestInterceptor.getOperation(request("GET", BUCKET + "?list-type=2&prefix=resources/")))
+            .isEqualTo(Operation.LIST);
+        assertThat(MinioRequestInterceptor.getOperation(request("GET", BUCKET + "?location"))).isEqualTo(Operation.OTHER);
+        assertThat(MinioRequestInterceptor.getOperation(request("PUT", OBJECT))).isEqualTo(Operation.PUT);
+        assertThat(MinioRequestInterceptor.getOperation(request("PUT", OBJECT + "?partNumber=2&uploadId=u")))
+            .isEqualTo(Operation.UPLOAD_PART);
+        assertThat(MinioRequestInterceptor.getOperation(request("PUT", BUCKET))).isEqualTo(Operation.OTHER);
+        assertThat(MinioRequestInterceptor.getOperation(request("POST", OBJECT + "?uploads"))).isEqualTo(Operation.MULTIPART);
+        assertThat(MinioRequestInterceptor.getOperation(request("POST", OBJECT + "?uploadId=u")))
+            .isEqualTo(Operation.MULTIPART);
+        assertThat(MinioRequestInterceptor.getOperation(request("DELETE", OBJECT + "?uploadId=u")))
+            .isEqualTo(Operation.MULTIPART);
+        assertThat(MinioRequestInterceptor.getOperation(request("POST", BUCKET + "?delete"))).isEqualTo(Operation.DELETE);
+        assertThat(MinioRequestInterceptor.getOperation(request("DELETE", OBJECT))).isEqualTo(Operation.DELETE);
+    }
+
+    @Test
+    @DisplayName("Should apply the timeout of the operation and time the request")
+    void intercept_ShouldApplyOperationTimeoutAndRecordLatency() throws IOException {
+        // Given.
+        Request request = request("GET", OBJECT);
+        when(chain.request()).thenReturn(request);
+        when(chain.proceed(request)).thenReturn(response(request, 200));
+
+        // When.
+        Response response = interceptor.intercept(chain);
+
+        // Then.
+        assertThat(response.code()).isEqualTo(200);
+        verify(chain).withReadTimeout(7000, TimeUnit.MILLISECONDS);
+        verify(chain).withWriteTimeout(7000, TimeUnit.MILLISECONDS);
+        assertThat(timer("get").count()).isEqualTo(1);
+        assertThat(timer("stat").count()).isZero();
+        assertThat(errors("get")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count server errors and failed requests of the operation")
+    void intercept_WithFailures_ShouldCountErrors() throws IOException {
+        // Given.
+        Request put = request("PUT", OBJECT + "?partNumber=1&uploadId=u");
+        Request stat = request("HEAD", OBJECT);
+        when(chain.request()).thenReturn(put, stat);
+        when(chain.proceed(put)).thenReturn(response(put, 503));
+        when(chain.proceed(stat)).thenThrow(new SocketTimeoutException("timeout"));
+
+        // When.
+        interceptor.intercept(chain);
+
+        // Then.
+        assertThatThrownBy(() -> interceptor.intercept(chain)).isInstanceOf(SocketTimeoutException.class);
+        assertThat(errors("upload-part")).isEqualTo(1.0);
+        assertThat(errors("stat")).isEqualTo(1.0);
+        assertThat(timer("upload-part").count()).isEqualTo(1);
+        assertThat(timer("stat").count()).isEqualTo(1);
+    }
+}
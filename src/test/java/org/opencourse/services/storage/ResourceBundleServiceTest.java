@@ -0,0 +1,230 @@
+package org.opencourse.services.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.models.Course;
+import org.opencourse.models.Resource;
+import org.opencourse.models.Resource.ResourceFile;
+import org.opencourse.models.User;
+import org.opencourse.services.ResourceManager;
+import org.opencourse.services.concurrency.BandwidthLimiter;
+import org.opencourse.utils.typeinfo.ResourceType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ResourceBundleService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class ResourceBundleServiceTest {
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private ResourceManager resourceManager;
+
+    @Mock
+    private Course course;
+
+    @Mock
+    private User user;
+
+    private ApplicationConfig applicationConfig;
+    private ResourceBundleService resourceBundleService;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        resourceBundleService = new ResourceBundleService(
+            fileStorageService, resourceManager, new BandwidthLimiter(applicationConfig), applicationConfig);
+        resourceBundleService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        resourceBundleService.stop();
+    }
+
+    private Resource resource(int id, String name, String path, String content) {
+        ResourceFile file = new ResourceFile(ResourceFile.FileType.PDF, new BigDecimal("1.00"), path);
+        Resource resource = spy(new Resource(name, "Description", ResourceType.EXAM, file, course, user));
+        lenient().when(resource.getId()).thenReturn(id);
+        if (content != null) {
+            lenient().when(fileStorageService.getFile(file))
+                .thenAnswer(invocation -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        }
+        return resource;
+    }
+
+    private static Map<String, String> unzip(byte[] bundle) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bundle))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    @DisplayName("Should write every resource file as a named entry and count the views once")
+    void writeBundle_ShouldWriteAllFilesAndCountViewsOnce() throws IOException {
+        // Given.
+        Resource exam = resource(1, "Final Exam", "resources/1/a.pdf", "exam");
+        Resource notes = resource(2, "Notes.pdf", "resources/1/b.pdf", "notes");
+        Resource duplicate = resource(3, "Final Exam", "resources/1/c.pdf", "again");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When.
+        int written = resourceBundleService.writeBundle(List.of(exam, notes, duplicate), user, out);
+
+        // Then.
+        assertThat(written).isEqualTo(3);
+        assertThat(unzip(out.toByteArray())).containsExactly(
+            Map.entry("Final Exam.pdf", "exam"),
+            Map.entry("Notes.pdf", "notes"),
+            Map.entry("Final Exam (2).pdf", "again")
+        );
+        verify(resourceManager).countViews(List.of(exam, notes, duplicate), user);
+        verify(resourceManager, never()).countView(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should skip files missing from the storage")
+    void writeBundle_WithMissingFile_ShouldSkipIt() throws IOException {
+        // Given.
+        Resource exam = resource(1, "Final Exam", "resources/1/a.pdf", "exam");
+        Resource missing = resource(2, "Missing", "resources/1/b.pdf", null);
+        Resource notes = resource(3, "Notes", "resources/1/c.txt", "notes");
+        when(fileStorageService.getFile(missing.getResourceFile())).thenReturn(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When.
+        int written = resourceBundleService.writeBundle(List.of(exam, missing, notes), user, out);
+
+        // Then.
+        assertThat(written).isEqualTo(2);
+        assertThat(unzip(out.toByteArray())).containsOnlyKeys("Final Exam.pdf", "Notes.txt");
+        verify(resourceManager).countViews(List.of(exam, notes), user);
+    }
+
+    @Test
+    @DisplayName("Should open the next file while the current one is written")
+    void writeBundle_ShouldPrefetchNextFile() throws Exception {
+        // Given.
+        Resource first = resource(1, "First", "resources/1/a.pdf", null);
+        Resource second = resource(2, "Second", "resources/1/b.pdf", "second");
+        CountDownLatch secondOpened = new CountDownLatch(1);
+        when(fileStorageService.getFile(second.getResourceFile())).thenAnswer(invocation -> {
+            secondOpened.countDown();
+            return new ByteArrayInputStream("second".getBytes(StandardCharsets.UTF_8));
+        });
+        // The first file only finishes once the second one is being opened.
+        when(fileStorageService.getFile(first.getResourceFile())).thenAnswer(invocation ->
+            new FilterInputStream(new ByteArrayInputStream("first".getBytes(StandardCharsets.UTF_8))) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        if (!secondOpened.await(5, TimeUnit.SECONDS)) {
+                            throw new IOException("Next file not prefetched");
+                        }
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return super.read(b, off, len);
+                }
+            });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When.
+        int written = resourceBundleService.writeBundle(List.of(first, second), user, out);
+
+        // Then.
+        assertThat(written).isEqualTo(2);
+        assertThat(unzip(out.toByteArray())).containsExactly(
+            Map.entry("First.pdf", "first"),
+            Map.entry("Second.pdf", "second")
+        );
+    }
+
+    @Test
+    @DisplayName("Should close files opened ahead and count written ones when the client goes away")
+    void writeBundle_WhenClientGoesAway_ShouldReleaseFiles() {
+        // Given.
+        applicationConfig.getStorage().getBundle().setPrefetch(2);
+        AtomicInteger closed = new AtomicInteger();
+        Resource[] resources = new Resource[3];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = resource(i + 1, "File " + i, "resources/1/" + i + ".pdf", null);
+            when(fileStorageService.getFile(resources[i].getResourceFile())).thenAnswer(invocation ->
+                new FilterInputStream(new ByteArrayInputStream(new byte[1024])) {
+                    @Override
+                    public void close() throws IOException {
+                        closed.incrementAndGet();
+                        super.close();
+                    }
+                });
+        }
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then.
+        assertThatThrownBy(() -> resourceBundleService.writeBundle(List.of(resources), user, broken))
+            .isInstanceOf(IOException.class);
+        assertThat(closed.get()).isEqualTo(3);
+        verify(resourceManager, never()).countViews(anyList(), any());
+    }
+
+    @Test
+    @DisplayName("Should name entries safely and uniquely")
+    void getEntryName_ShouldSanitizeAndNumberNames() {
+        // Given.
+        Set<String> names = new HashSet<>();
+
+        // When & Then.
+        assertThat(ResourceBundleService.getEntryName(resource(1, "a/b:c", "resources/1/x.pdf", null), names))
+            .isEqualTo("a_b_c.pdf");
+        assertThat(ResourceBundleService.getEntryName(resource(2, "A_B_C", "resources/1/y.PDF", null), names))
+            .isEqualTo("A_B_C (2).PDF");
+        assertThat(ResourceBundleService.getEntryName(resource(3, "..", "resources/1/z", null), names))
+            .isEqualTo("resource-3..");
+        assertThat(ResourceBundleService.getEntryName(resource(4, "  ", "resources/1/w.txt", null), names))
+            .isEqualTo("resource-4.txt");
+    }
+}
@@ -0,0 +1,206 @@
+package org.opencourse.services.trash;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opencourse.configs.ApplicationConfig;
+import org.opencourse.repositories.ResourceRepo;
+import org.opencourse.services.storage.FileStorageService;
+import org.opencourse.services.storage.StoredObject;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CleanService}.
+ *
+ * @author !EEExp3rt
+ */
+@ExtendWith(MockitoExtension.class)
+class CleanServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T04:00:00Z");
+    private static final Instant OLD = NOW.minus(Duration.ofDays(2));
+    private static final Instant RECENT = NOW.minus(Duration.ofHours(1));
+
+    @Mock
+    private ResourceRepo resourceRepo;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    private ApplicationConfig applicationConfig;
+    private CleanService cleanService;
+
+    // Stored objects by path, raw objects, and file paths referenced by resources.
+    private TreeMap<String, StoredObject> objects;
+    private Map<String, byte[]> rawObjects;
+    private Set<String> referenced;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig = new ApplicationConfig();
+        ApplicationConfig.Storage.Reconcile reconcile = applicationConfig.getStorage().getReconcile();
+        reconcile.setEnabled(true);
+        reconcile.setPageSize(2);
+        reconcile.setGracePeriod(Duration.ofDays(1));
+        cleanService = new CleanService(resourceRepo, fileStorageService, applicationConfig);
+
+        objects = new TreeMap<>();
+        rawObjects = new HashMap<>();
+        referenced = new HashSet<>();
+        lenient().when(fileStorageService.listObjects(anyString(), any(), anyInt())).thenAnswer(invocation -> {
+            String prefix = invocation.getArgument(0);
+            String startAfter = invocation.getArgument(1);
+            int maxKeys = invocation.getArgument(2);
+            return (startAfter == null ? objects : objects.tailMap(startAfter, false)).values().stream()
+                .filter(object -> object.path().startsWith(prefix))
+                .limit(maxKeys)
+                .toList();
+        });
+        lenient().when(fileStorageService.deleteObjects(anyList())).thenAnswer(invocation -> {
+            List<String> paths = invocation.getArgument(0);
+            paths.forEach(objects::remove);
+            return paths.size();
+        });
+        lenient().when(fileStorageService.storeObject(anyString(), any(byte[].class), anyString())).thenAnswer(invocation -> {
+            rawObjects.put(invocation.getArgument(0), invocation.getArgument(1));
+            return true;
+        });
+        lenient().when(fileStorageService.getObject(anyString())).thenAnswer(invocation -> {
+            byte[] content = rawObjects.get(invocation.<String>getArgument(0));
+            return content == null ? null : new ByteArrayInputStream(content);
+        });
+        lenient().when(resourceRepo.findReferencedFilePaths(any())).thenAnswer(invocation -> {
+            Collection<String> paths = invocation.getArgument(0);
+            return paths.stream().filter(referenced::contains).collect(Collectors.toSet());
+        });
+    }
+
+    private void store(String path, Instant lastModified, boolean isReferenced) {
+        objects.put(path, new StoredObject(path, 1024, lastModified));
+        if (isReferenced) {
+            referenced.add(path);
+        }
+    }
+
+    private String cursor() {
+        byte[] content = rawObjects.get(CleanService.CURSOR_OBJECT);
+        return content == null || content.length == 0 ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should delete old unreferenced files and keep referenced or recent ones")
+    void cleanResourceFiles_ShouldDeleteOnlyOldOrphans() {
+        // Given.
+        store("resources/1/a.pdf", OLD, true);
+        store("resources/1/b.pdf", OLD, false);
+        store("resources/2/c.pdf", RECENT, false);
+        store("resources/2/d.pdf", OLD, false);
+        store("resources/3/e.pdf", OLD, true);
+
+        // When.
+        int deleted = cleanService.cleanResourceFiles(NOW);
+
+        // Then.
+        assertThat(deleted).isEqualTo(2);
+        assertThat(objects).containsOnlyKeys("resources/1/a.pdf", "resources/2/c.pdf", "resources/3/e.pdf");
+        // One lookup per page of two objects.
+        verify(resourceRepo, times(3)).findReferencedFilePaths(any());
+        verify(fileStorageService).deleteObjects(List.of("resources/1/b.pdf"));
+        verify(fileStorageService).deleteObjects(List.of("resources/2/d.pdf"));
+        assertThat(cursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should pause after the page limit and resume on the next run")
+    void cleanResourceFiles_WithPageLimit_ShouldResume() {
+        // Given.
+        applicationConfig.getStorage().getReconcile().setMaxPages(1);
+        store("resources/1/a.pdf", OLD, false);
+        store("resources/1/b.pdf", OLD, false);
+        store("resources/2/c.pdf", OLD, false);
+
+        // When.
+        int first = cleanService.cleanResourceFiles(NOW);
+        String paused = cursor();
+        int second = cleanService.cleanResourceFiles(NOW);
+        String resumed = cursor();
+        int third = cleanService.cleanResourceFiles(NOW);
+
+        // Then.
+        assertThat(first).isEqualTo(2);
+        assertThat(paused).isEqualTo("resources/1/b.pdf");
+        assertThat(second).isEqualTo(1);
+        assertThat(resumed).isEqualTo("resources/2/c.pdf");
+        assertThat(third).isZero();
+        assertThat(cursor()).isNull();
+        assertThat(objects).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the cursor when listing fails")
+    void cleanResourceFiles_WhenListingFails_ShouldKeepCursor() {
+        // Given.
+        rawObjects.put(CleanService.CURSOR_OBJECT, "resources/1/a.pdf".getBytes(StandardCharsets.UTF_8));
+        when(fileStorageService.listObjects(anyString(), eq("resources/1/a.pdf"), anyInt())).thenReturn(null);
+
+        // When.
+        int deleted = cleanService.cleanResourceFiles(NOW);
+
+        // Then.
+        assertThat(deleted).isZero();
+        assertThat(cursor()).isEqualTo("resources/1/a.pdf");
+        verify(fileStorageService, never()).deleteObjects(anyList());
+    }
+
+    @Test
+    @DisplayName("Should not advance the cursor past a page whose orphans could not be deleted")
+    void cleanResourceFiles_WhenDeleteFails_ShouldRetryPage() {
+        // Given.
+        store("resources/1/a.pdf", OLD, false);
+        when(fileStorageService.deleteObjects(anyList())).thenReturn(-1);
+
+        // When.
+        int deleted = cleanService.cleanResourceFiles(NOW);
+
+        // Then.
+        assertThat(deleted).isZero();
+        assertThat(cursor()).isNull();
+        assertThat(objects).containsOnlyKeys("resources/1/a.pdf");
+    }
+
+    @Test
+    @DisplayName("Should only run on schedule when enabled")
+    void scheduledCleanResourceFiles_WhenDisabled_ShouldDoNothing() {
+        // Given.
+        applicationConfig.getStorage().getReconcile().setEnabled(false);
+
+        // When.
+        cleanService.scheduledCleanResourceFiles();
+
+        // Then.
+        verifyNoInteractions(fileStorageService, resourceRepo);
+    }
+}